@@ -0,0 +1,89 @@
+package com.techlab.picadito.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Hilos de los trabajos de la cola persistente: un hilo por trabajo, virtual desde Java 21.
+     * No limita la cantidad: los cupos por nodo y por tipo los controla el procesador de trabajos.
+     */
+    @Bean(name = "trabajosExecutor")
+    public SimpleAsyncTaskExecutor trabajosExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("trabajo-");
+        executor.setVirtualThreads(Runtime.version().feature() >= 21);
+        executor.setTaskTerminationTimeout(30_000);
+        return executor;
+    }
+
+    /**
+     * Hilos que escriben los eventos en las conexiones en tiempo real (SSE). Quien publica solo
+     * encola; una conexión lenta ocupa uno de estos hilos y no el de la transacción que publicó.
+     */
+    @Bean(name = "tiempoRealExecutor")
+    public ThreadPoolTaskExecutor tiempoRealExecutor(
+            @Value("${picadito.tiempo-real.executor.pool-size:4}") int poolSize,
+            @Value("${picadito.tiempo-real.executor.queue-capacity:2000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("tiempo-real-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Hilos de la compactación diaria de alertas: cada usuario de un lote se compacta en su propia
+     * transacción, hasta pool-size a la vez. La cola admite un lote completo.
+     */
+    @Bean(name = "compactacionExecutor")
+    public ThreadPoolTaskExecutor compactacionExecutor(
+            @Value("${picadito.alertas.compactacion.paralelismo:4}") int poolSize,
+            @Value("${picadito.alertas.compactacion.usuarios-por-lote:100}") int usuariosPorLote) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(usuariosPorLote);
+        executor.setThreadNamePrefix("compactacion-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Hilos que envían los webhooks: su cantidad es el máximo de envíos simultáneos. Sin cola
+     * propia: si todos están ocupados el lote espera en la cola del destino a la próxima vuelta.
+     */
+    @Bean(name = "webhookExecutor")
+    public ThreadPoolTaskExecutor webhookExecutor(@Value("${picadito.webhooks.concurrencia:4}") int concurrencia) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrencia);
+        executor.setMaxPoolSize(concurrencia);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("webhook-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool fork-join para balancear equipos de muchos partidos a la vez (generación en lote).
+     * Con paralelismo 0 usa un hilo por procesador.
+     */
+    @Bean(name = "equiposExecutor", destroyMethod = "shutdown")
+    public ForkJoinPool equiposExecutor(@Value("${picadito.equipos.lote.paralelismo:0}") int paralelismo) {
+        return new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors());
+    }
+}
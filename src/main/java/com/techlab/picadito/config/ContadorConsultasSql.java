@@ -0,0 +1,81 @@
+package com.techlab.picadito.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo actual mientras hay una medición
+ * abierta (una por request HTTP, ver {@link FiltroConsultasSql}) y agrupa las repetidas por
+ * forma: la misma sentencia muchas veces en un request es casi siempre un N+1.
+ * No cambia el SQL; lo que corre en otros hilos (executors, tareas) no se cuenta.
+ */
+public class ContadorConsultasSql implements StatementInspector {
+
+    // "in (?, ?, ?)" y "in (?)" son la misma forma
+    private static final Pattern LISTA_PARAMETROS = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private static final ThreadLocal<Medicion> MEDICION = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Medicion medicion = MEDICION.get();
+        if (medicion != null) {
+            medicion.registrar(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Abre una medición en el hilo actual, descartando la anterior si quedó abierta
+     */
+    public static void iniciar() {
+        MEDICION.set(new Medicion());
+    }
+
+    /**
+     * Cierra la medición del hilo actual
+     * @return el resumen, o null si no había una medición abierta
+     */
+    public static Resumen finalizar() {
+        Medicion medicion = MEDICION.get();
+        MEDICION.remove();
+        return medicion != null ? medicion.resumir() : null;
+    }
+
+    static String forma(String sql) {
+        String forma = LISTA_PARAMETROS.matcher(sql).replaceAll("?");
+        return ESPACIOS.matcher(forma).replaceAll(" ").trim().toLowerCase();
+    }
+
+    /**
+     * Total de sentencias y la forma que más se repitió
+     */
+    public record Resumen(int total, int repeticionMaxima, String consultaMasRepetida) {
+    }
+
+    private static final class Medicion {
+        private final Map<String, Integer> porForma = new HashMap<>();
+        private int total;
+
+        void registrar(String sql) {
+            total++;
+            porForma.merge(forma(sql), 1, Integer::sum);
+        }
+
+        Resumen resumir() {
+            String masRepetida = null;
+            int maximo = 0;
+            for (Map.Entry<String, Integer> entrada : porForma.entrySet()) {
+                if (entrada.getValue() > maximo) {
+                    maximo = entrada.getValue();
+                    masRepetida = entrada.getKey();
+                }
+            }
+            return new Resumen(total, maximo, masRepetida);
+        }
+    }
+}
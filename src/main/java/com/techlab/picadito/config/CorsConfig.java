@@ -21,6 +21,7 @@ public class CorsConfig {
         config.setAllowedOrigins(List.of("http://localhost:5173", "http://localhost:3000", "http://127.0.0.1:5173"));
         config.setAllowedHeaders(Arrays.asList("Origin", "Content-Type", "Accept", "Authorization"));
         config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
+        config.setExposedHeaders(List.of(FiltroConsultasSql.HEADER_TOTAL, FiltroConsultasSql.HEADER_REPETICIONES));
         
         source.registerCorsConfiguration("/**", config);
         return new CorsFilter(source);
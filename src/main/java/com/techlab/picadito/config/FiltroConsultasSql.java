@@ -0,0 +1,87 @@
+package com.techlab.picadito.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Mide las sentencias SQL de cada request HTTP. Las informa en los headers {@code X-SQL-Count}
+ * (total) y {@code X-SQL-Repeticiones} (veces que se repitió la misma sentencia), y avisa en el log
+ * cuando una sentencia se repite tanto que parece un N+1. Para poder poner los headers después de
+ * que el controlador escribió la respuesta, el cuerpo se retiene hasta el final; los streams SSE
+ * no se miden.
+ */
+@Component
+public class FiltroConsultasSql extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FiltroConsultasSql.class);
+    public static final String HEADER_TOTAL = "X-SQL-Count";
+    public static final String HEADER_REPETICIONES = "X-SQL-Repeticiones";
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${picadito.sql.headers:true}")
+    private boolean headers = true;
+
+    @Value("${picadito.sql.umbral-repeticiones:5}")
+    private int umbralRepeticiones = 5;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String accept = request.getHeader("Accept");
+        return request.getRequestURI().endsWith("/stream")
+                || (accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper retenida = headers ? new ContentCachingResponseWrapper(response) : null;
+        ContadorConsultasSql.iniciar();
+        try {
+            chain.doFilter(request, retenida != null ? retenida : response);
+        } finally {
+            ContadorConsultasSql.Resumen resumen = ContadorConsultasSql.finalizar();
+            if (resumen != null) {
+                informar(request, resumen);
+                if (retenida != null) {
+                    retenida.setHeader(HEADER_TOTAL, String.valueOf(resumen.total()));
+                    retenida.setHeader(HEADER_REPETICIONES, String.valueOf(resumen.repeticionMaxima()));
+                }
+            }
+            if (retenida != null) {
+                retenida.copyBodyToResponse();
+            }
+        }
+    }
+
+    private void informar(HttpServletRequest request, ContadorConsultasSql.Resumen resumen) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (patron != null ? patron : request.getRequestURI());
+        // Sin patrón (404, recursos estáticos) la URI cruda no va a la métrica: cada una sería una serie
+        String etiqueta = request.getMethod() + " " + (patron != null ? patron : "UNKNOWN");
+        if (resumen.repeticionMaxima() >= umbralRepeticiones) {
+            logger.warn("Posible N+1 en {}: {} sentencias, la misma {} veces: {}", endpoint, resumen.total(),
+                    resumen.repeticionMaxima(), resumen.consultaMasRepetida());
+            meterRegistry.ifAvailable(registry -> registry.counter("picadito.sql.n-mas-uno",
+                    "endpoint", etiqueta).increment());
+        } else {
+            logger.debug("{}: {} sentencias SQL", endpoint, resumen.total());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.techlab.picadito.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+    /**
+     * Registra el contador de sentencias SQL por request
+     */
+    @Bean
+    public HibernatePropertiesCustomizer contadorConsultasSqlCustomizer() {
+        return propiedades -> propiedades.put(AvailableSettings.STATEMENT_INSPECTOR, new ContadorConsultasSql());
+    }
+}
@@ -1,79 +1,65 @@
 package com.techlab.picadito.config;
 
-import com.techlab.picadito.model.EstadoPartido;
-import com.techlab.picadito.model.Partido;
-import com.techlab.picadito.repository.PartidoRepository;
-import com.techlab.picadito.service.AlertaService;
+import com.techlab.picadito.model.TipoTrabajo;
+import com.techlab.picadito.service.BloqueoTareasService;
+import com.techlab.picadito.service.ColaTrabajosService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.time.Duration;
+import java.time.LocalDate;
 
+/**
+ * Tareas periódicas generales. Cada vuelta corre en un solo nodo (concesión en la base) y solo
+ * encola el trabajo del día en la cola persistente; lo ejecuta {@link com.techlab.picadito.service.ProcesadorTrabajosService},
+ * así que una tarea lenta no demora a las demás. Los recordatorios de partidos próximos los encola
+ * {@link com.techlab.picadito.service.RecordatorioPartidoService} para la hora exacta de cada partido.
+ */
 @Component
 public class ScheduledTasks {
 
     private static final Logger logger = LoggerFactory.getLogger(ScheduledTasks.class);
+    private static final Duration MAXIMO = Duration.ofMinutes(10);
+    // Cubre la diferencia de reloj entre nodos: ninguno repite la vuelta del mismo día
+    private static final Duration MINIMO = Duration.ofMinutes(5);
 
     @Autowired
-    private PartidoRepository partidoRepository;
+    private ColaTrabajosService colaTrabajosService;
 
     @Autowired
-    private AlertaService alertaService;
+    private BloqueoTareasService bloqueoTareasService;
 
     /**
-     * Ejecuta cada hora para verificar partidos próximos (24-48 horas antes)
-     * y generar alertas para los participantes
+     * Encola diariamente a las 2 AM la limpieza de alertas antiguas (más de 30 días, configurable)
      */
-    @Scheduled(fixedRate = 3600000) // Cada hora (3600000 ms)
-    public void verificarPartidosProximos() {
-        logger.info("Ejecutando verificación de partidos próximos");
-        
-        LocalDateTime ahora = LocalDateTime.now();
-        LocalDateTime en24Horas = ahora.plusHours(24);
-        LocalDateTime en48Horas = ahora.plusHours(48);
-        
-        // Buscar partidos que están entre 24 y 48 horas en el futuro
-        List<Partido> partidosProximos = partidoRepository.findAll().stream()
-                .filter(p -> p.getEstado() == EstadoPartido.DISPONIBLE || 
-                           p.getEstado() == EstadoPartido.COMPLETO)
-                .filter(p -> p.getFechaHora().isAfter(en24Horas) && 
-                           p.getFechaHora().isBefore(en48Horas))
-                .collect(Collectors.toList());
-        
-        for (Partido partido : partidosProximos) {
-            // Por ahora, crear alerta general sin usuario específico
-            // En producción, se debería crear una alerta por cada usuario participante
-            if (!partido.getParticipantes().isEmpty()) {
-                try {
-                    alertaService.crearAlertaPartidoProximo(partido, null);
-                } catch (Exception e) {
-                    logger.error("Error al crear alerta de partido próximo para partido {}: {}", 
-                            partido.getId(), e.getMessage());
-                }
-            }
-        }
-        
-        logger.info("Verificación de partidos próximos completada. Partidos encontrados: {}", 
-                partidosProximos.size());
+    @Scheduled(cron = "0 0 2 * * ?") // Cada día a las 2 AM
+    public void limpiarAlertasAntiguas() {
+        bloqueoTareasService.ejecutar("limpiar-alertas-antiguas", MAXIMO, MINIMO,
+                () -> encolarDelDia(TipoTrabajo.RETENCION_ALERTAS));
     }
 
     /**
-     * Ejecuta diariamente a las 2 AM para limpiar alertas antiguas (más de 30 días)
+     * Encola diariamente a las 3 AM la compactación en resúmenes diarios de las alertas leídas de baja prioridad
      */
-    @Scheduled(cron = "0 0 2 * * ?") // Cada día a las 2 AM
-    public void limpiarAlertasAntiguas() {
-        logger.info("Ejecutando limpieza de alertas antiguas");
+    @Scheduled(cron = "${picadito.alertas.compactacion.cron:0 0 3 * * ?}")
+    public void compactarAlertas() {
+        bloqueoTareasService.ejecutar("compactar-alertas", MAXIMO, MINIMO,
+                () -> encolarDelDia(TipoTrabajo.COMPACTACION_ALERTAS));
+    }
+
+    private void encolarDelDia(TipoTrabajo tipo) {
         try {
-            alertaService.eliminarAlertasAntiguas(30);
-            logger.info("Limpieza de alertas antiguas completada");
+            if (colaTrabajosService.encolar(tipo, null, null, tipo + ":" + LocalDate.now())) {
+                logger.info("Trabajo {} encolado", tipo);
+            }
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Trabajo {} ya encolado por otro nodo", tipo);
         } catch (Exception e) {
-            logger.error("Error al limpiar alertas antiguas: {}", e.getMessage());
+            logger.error("Error al encolar el trabajo {}: {}", tipo, e.getMessage());
         }
     }
 }
-
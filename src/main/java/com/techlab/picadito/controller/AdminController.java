@@ -1,11 +1,25 @@
 package com.techlab.picadito.controller;
 
 import com.techlab.picadito.dto.EstadisticasDTO;
+import com.techlab.picadito.dto.EstadoSuscriptorEventosDTO;
+import com.techlab.picadito.dto.GeneracionEquiposLoteDTO;
+import com.techlab.picadito.dto.MetricasCompactacionAlertasDTO;
+import com.techlab.picadito.dto.MetricasProcesadorReservasDTO;
+import com.techlab.picadito.dto.MetricasRetencionAlertasDTO;
+import com.techlab.picadito.dto.MetricasTrabajosDTO;
+import com.techlab.picadito.dto.MetricasWebhooksDTO;
 import com.techlab.picadito.dto.PartidoResponseDTO;
 import com.techlab.picadito.dto.ReporteDTO;
 import com.techlab.picadito.service.AdminService;
+import com.techlab.picadito.service.CompactacionAlertasService;
+import com.techlab.picadito.service.DespachadorEventosService;
+import com.techlab.picadito.service.EntregaWebhooksService;
+import com.techlab.picadito.service.EquipoService;
 import com.techlab.picadito.service.EstadisticasService;
+import com.techlab.picadito.service.ProcesadorReservasService;
+import com.techlab.picadito.service.ProcesadorTrabajosService;
 import com.techlab.picadito.service.ReporteService;
+import com.techlab.picadito.service.RetencionAlertasService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +37,13 @@ public class AdminController {
     private final AdminService adminService;
     private final EstadisticasService estadisticasService;
     private final ReporteService reporteService;
+    private final EquipoService equipoService;
+    private final ProcesadorReservasService procesadorReservasService;
+    private final RetencionAlertasService retencionAlertasService;
+    private final CompactacionAlertasService compactacionAlertasService;
+    private final DespachadorEventosService despachadorEventosService;
+    private final EntregaWebhooksService entregaWebhooksService;
+    private final ProcesadorTrabajosService procesadorTrabajosService;
     
     /**
      * Obtiene partidos con capacidad disponible baja (equivalente a stock bajo)
@@ -89,5 +110,107 @@ public class AdminController {
         ReporteDTO reporte = reporteService.generarReporteUsuarios(fechaInicio, fechaFin);
         return ResponseEntity.ok(reporte);
     }
-}
 
+    /**
+     * Genera los equipos de todos los partidos completos que empiezan en el período (máx. 7 días)
+     */
+    @PostMapping("/equipos/generar")
+    public ResponseEntity<GeneracionEquiposLoteDTO> generarEquiposEnLote(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaFin,
+            @RequestParam(defaultValue = "2") int equipos) {
+        GeneracionEquiposLoteDTO resumen = equipoService.generarEquiposEnLote(fechaInicio, fechaFin, equipos);
+        return ResponseEntity.ok(resumen);
+    }
+
+    /**
+     * Métricas del procesador de estados de reservas (lag, throughput y acumulados)
+     */
+    @GetMapping("/reservas/procesador/metricas")
+    public ResponseEntity<MetricasProcesadorReservasDTO> obtenerMetricasProcesadorReservas() {
+        return ResponseEntity.ok(procesadorReservasService.obtenerMetricas());
+    }
+
+    /**
+     * Ejecuta el procesador de estados de reservas sin esperar a la próxima ejecución programada
+     */
+    @PostMapping("/reservas/procesador/ejecutar")
+    public ResponseEntity<MetricasProcesadorReservasDTO> ejecutarProcesadorReservas() {
+        return ResponseEntity.ok(procesadorReservasService.procesar());
+    }
+
+    /**
+     * Métricas de la limpieza de alertas antiguas (avance de la ejecución en curso y acumulados)
+     */
+    @GetMapping("/alertas/retencion/metricas")
+    public ResponseEntity<MetricasRetencionAlertasDTO> obtenerMetricasRetencionAlertas() {
+        return ResponseEntity.ok(retencionAlertasService.obtenerMetricas());
+    }
+
+    /**
+     * Ejecuta la limpieza de alertas antiguas; con simulacion=true solo informa cuántas eliminaría
+     */
+    @PostMapping("/alertas/retencion/ejecutar")
+    public ResponseEntity<MetricasRetencionAlertasDTO> ejecutarRetencionAlertas(
+            @RequestParam(defaultValue = "false") boolean simulacion) {
+        return ResponseEntity.ok(retencionAlertasService.ejecutar(simulacion));
+    }
+
+    /**
+     * Métricas de la compactación de alertas en resúmenes diarios
+     */
+    @GetMapping("/alertas/compactacion/metricas")
+    public ResponseEntity<MetricasCompactacionAlertasDTO> obtenerMetricasCompactacionAlertas() {
+        return ResponseEntity.ok(compactacionAlertasService.obtenerMetricas());
+    }
+
+    /**
+     * Compacta ahora las alertas leídas de baja prioridad en resúmenes diarios
+     */
+    @PostMapping("/alertas/compactacion/ejecutar")
+    public ResponseEntity<MetricasCompactacionAlertasDTO> ejecutarCompactacionAlertas() {
+        return ResponseEntity.ok(compactacionAlertasService.ejecutar());
+    }
+
+    /**
+     * Posición de cada suscriptor en la bandeja de eventos de dominio (pendientes, reintentos, descartes)
+     */
+    @GetMapping("/eventos/suscriptores")
+    public ResponseEntity<List<EstadoSuscriptorEventosDTO>> obtenerEstadoEventos() {
+        return ResponseEntity.ok(despachadorEventosService.obtenerEstado());
+    }
+
+    /**
+     * Despacha ahora los eventos pendientes sin esperar al próximo ciclo
+     */
+    @PostMapping("/eventos/despachar")
+    public ResponseEntity<List<EstadoSuscriptorEventosDTO>> despacharEventos() {
+        despachadorEventosService.despachar();
+        return ResponseEntity.ok(despachadorEventosService.obtenerEstado());
+    }
+
+    /**
+     * Métricas de la entrega de webhooks (cola, reintentos, entregas fallidas, latencia)
+     */
+    @GetMapping("/webhooks/metricas")
+    public ResponseEntity<MetricasWebhooksDTO> obtenerMetricasWebhooks() {
+        return ResponseEntity.ok(entregaWebhooksService.obtenerMetricas());
+    }
+
+    /**
+     * Trabajos de la cola por tipo y estado, y los que ejecuta este nodo
+     */
+    @GetMapping("/trabajos/metricas")
+    public ResponseEntity<MetricasTrabajosDTO> obtenerMetricasTrabajos() {
+        return ResponseEntity.ok(procesadorTrabajosService.obtenerMetricas());
+    }
+
+    /**
+     * Reclama ahora los trabajos listos sin esperar al próximo ciclo
+     */
+    @PostMapping("/trabajos/reclamar")
+    public ResponseEntity<MetricasTrabajosDTO> reclamarTrabajos() {
+        procesadorTrabajosService.reclamar();
+        return ResponseEntity.ok(procesadorTrabajosService.obtenerMetricas());
+    }
+}
@@ -2,14 +2,18 @@ package com.techlab.picadito.controller;
 
 import com.techlab.picadito.dto.AlertaDTO;
 import com.techlab.picadito.dto.AlertaResponseDTO;
+import com.techlab.picadito.dto.PaginaAlertasDTO;
 import com.techlab.picadito.service.AlertaService;
+import com.techlab.picadito.service.NotificacionesTiempoRealService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -18,14 +22,30 @@ import java.util.List;
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8080", "http://localhost:5173"})
 public class AlertaController {
 
+    private static final String CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private AlertaService alertaService;
 
+    @Autowired
+    private NotificacionesTiempoRealService notificacionesTiempoReal;
+
+    /**
+     * Alertas personales y generales del usuario, de la más nueva a la más vieja. Si hay más,
+     * el cursor de la página siguiente viaja en el header X-Next-Cursor.
+     */
     @GetMapping("/usuario/{usuarioId}")
+    @CrossOrigin(exposedHeaders = CURSOR_HEADER)
     public ResponseEntity<List<AlertaResponseDTO>> obtenerPorUsuario(
-            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long usuarioId) {
-        List<AlertaResponseDTO> alertas = alertaService.obtenerPorUsuario(usuarioId);
-        return ResponseEntity.ok(alertas);
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long usuarioId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limite) {
+        PaginaAlertasDTO pagina = alertaService.obtenerPorUsuario(usuarioId, cursor, limite);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.getSiguienteCursor() != null) {
+            respuesta.header(CURSOR_HEADER, pagina.getSiguienteCursor());
+        }
+        return respuesta.body(pagina.getAlertas());
     }
 
     @GetMapping("/usuario/{usuarioId}/no-leidas")
@@ -35,6 +55,26 @@ public class AlertaController {
         return ResponseEntity.ok(alertas);
     }
 
+    /**
+     * Cantidad de alertas no leídas, para el indicador del cliente
+     */
+    @GetMapping("/usuario/{usuarioId}/no-leidas/count")
+    public ResponseEntity<Long> contarNoLeidas(
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long usuarioId) {
+        return ResponseEntity.ok(alertaService.contarNoLeidas(usuarioId));
+    }
+
+    /**
+     * Alertas nuevas del usuario en tiempo real (Server-Sent Events). Al reconectarse, el
+     * navegador manda Last-Event-ID y se reenvían los eventos perdidos.
+     */
+    @GetMapping(value = "/usuario/{usuarioId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribir(
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long usuarioId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String ultimoEventoId) {
+        return notificacionesTiempoReal.suscribirUsuario(usuarioId, ultimoEventoId);
+    }
+
     @PostMapping
     public ResponseEntity<AlertaResponseDTO> crear(@Valid @RequestBody AlertaDTO dto) {
         AlertaResponseDTO alerta = alertaService.crear(dto);
@@ -43,8 +83,9 @@ public class AlertaController {
 
     @PutMapping("/{id}/marcar-leida")
     public ResponseEntity<AlertaResponseDTO> marcarComoLeida(
-            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long id) {
-        AlertaResponseDTO alerta = alertaService.marcarComoLeida(id);
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long id,
+            @RequestParam(required = false) Long usuarioId) {
+        AlertaResponseDTO alerta = alertaService.marcarComoLeida(id, usuarioId);
         return ResponseEntity.ok(alerta);
     }
 
@@ -0,0 +1,45 @@
+package com.techlab.picadito.controller;
+
+import com.techlab.picadito.dto.ConsultaAnaliticaDTO;
+import com.techlab.picadito.dto.ResultadoAnaliticoDTO;
+import com.techlab.picadito.service.AnalyticsService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8080", "http://localhost:5173"})
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    /**
+     * Ejecuta una consulta de agrupación/filtro/agregación sobre el snapshot analítico
+     */
+    @PostMapping("/consulta")
+    public ResponseEntity<ResultadoAnaliticoDTO> consultar(@Valid @RequestBody ConsultaAnaliticaDTO consulta) {
+        return ResponseEntity.ok(analyticsService.consultar(consulta));
+    }
+
+    /**
+     * Fuerza un refresco incremental del snapshot y devuelve su estado
+     */
+    @PostMapping("/refrescar")
+    public ResponseEntity<Map<String, Object>> refrescar() {
+        analyticsService.refrescar();
+        return ResponseEntity.ok(analyticsService.obtenerEstado());
+    }
+
+    /**
+     * Obtiene la versión y el tamaño del snapshot vigente
+     */
+    @GetMapping("/estado")
+    public ResponseEntity<Map<String, Object>> obtenerEstado() {
+        return ResponseEntity.ok(analyticsService.obtenerEstado());
+    }
+}
@@ -2,6 +2,8 @@ package com.techlab.picadito.controller;
 
 import com.techlab.picadito.dto.CalificacionDTO;
 import com.techlab.picadito.dto.CalificacionResponseDTO;
+import com.techlab.picadito.dto.ResumenCalificacionesDTO;
+import com.techlab.picadito.model.AgregadoCalificacion.TipoAgregado;
 import com.techlab.picadito.service.CalificacionService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
@@ -57,6 +59,36 @@ public class CalificacionController {
         return ResponseEntity.ok(promedio);
     }
 
+    @GetMapping("/partido/{partidoId}/distribucion")
+    public ResponseEntity<ResumenCalificacionesDTO> obtenerResumenPorPartido(
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long partidoId) {
+        return ResponseEntity.ok(calificacionService.obtenerResumen(TipoAgregado.PARTIDO, partidoId.toString()));
+    }
+
+    @GetMapping("/creador/{creadorNombre}/distribucion")
+    public ResponseEntity<ResumenCalificacionesDTO> obtenerResumenPorCreador(
+            @PathVariable @NonNull String creadorNombre) {
+        return ResponseEntity.ok(calificacionService.obtenerResumen(TipoAgregado.CREADOR, creadorNombre));
+    }
+
+    @GetMapping("/sede/{sedeId}/distribucion")
+    public ResponseEntity<ResumenCalificacionesDTO> obtenerResumenPorSede(
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long sedeId) {
+        return ResponseEntity.ok(calificacionService.obtenerResumen(TipoAgregado.SEDE, sedeId.toString()));
+    }
+
+    @GetMapping("/ranking/sedes")
+    public ResponseEntity<List<ResumenCalificacionesDTO>> obtenerRankingSedes(
+            @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(calificacionService.obtenerRanking(TipoAgregado.SEDE, limite));
+    }
+
+    @GetMapping("/ranking/creadores")
+    public ResponseEntity<List<ResumenCalificacionesDTO>> obtenerRankingCreadores(
+            @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(calificacionService.obtenerRanking(TipoAgregado.CREADOR, limite));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CalificacionResponseDTO> obtenerPorId(
             @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long id) {
@@ -1,7 +1,11 @@
 package com.techlab.picadito.controller;
 
 import com.techlab.picadito.dto.EquipoResponseDTO;
+import com.techlab.picadito.dto.ResultadoPartidoDTO;
 import com.techlab.picadito.service.EquipoService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -20,8 +24,18 @@ public class EquipoController {
 
     @PostMapping("/partido/{partidoId}/generar")
     public ResponseEntity<List<EquipoResponseDTO>> generarEquiposAutomaticos(
-            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long partidoId) {
-        List<EquipoResponseDTO> equipos = equipoService.generarEquiposAutomaticos(partidoId);
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long partidoId,
+            @RequestParam(defaultValue = "2") @Min(value = 2, message = "Se necesitan al menos 2 equipos")
+            @Max(value = EquipoService.MAX_EQUIPOS, message = "Se pueden generar hasta " + EquipoService.MAX_EQUIPOS + " equipos") int equipos) {
+        List<EquipoResponseDTO> generados = equipoService.generarEquiposAutomaticos(partidoId, equipos);
+        return ResponseEntity.ok(generados);
+    }
+
+    @PostMapping("/partido/{partidoId}/resultado")
+    public ResponseEntity<List<EquipoResponseDTO>> registrarResultado(
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long partidoId,
+            @Valid @RequestBody ResultadoPartidoDTO resultado) {
+        List<EquipoResponseDTO> equipos = equipoService.registrarResultado(partidoId, resultado);
         return ResponseEntity.ok(equipos);
     }
 
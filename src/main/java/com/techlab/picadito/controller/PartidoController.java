@@ -3,12 +3,15 @@ package com.techlab.picadito.controller;
 import com.techlab.picadito.dto.BusquedaPartidoDTO;
 import com.techlab.picadito.dto.PartidoDTO;
 import com.techlab.picadito.dto.PartidoResponseDTO;
+import com.techlab.picadito.service.NotificacionesTiempoRealService;
 import com.techlab.picadito.service.PartidoService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -20,6 +23,9 @@ public class PartidoController {
     @Autowired
     private PartidoService partidoService;
 
+    @Autowired
+    private NotificacionesTiempoRealService notificacionesTiempoReal;
+
     @GetMapping
     public ResponseEntity<List<PartidoResponseDTO>> obtenerTodosLosPartidos() {
         List<PartidoResponseDTO> partidos = partidoService.obtenerTodosLosPartidos();
@@ -44,6 +50,22 @@ public class PartidoController {
         }
     }
     
+    /**
+     * Cupos del partido en tiempo real (Server-Sent Events), en lugar de consultar el partido
+     * periódicamente. Acepta Last-Event-ID para retomar tras una reconexión.
+     */
+    @GetMapping(value = "/{id}/cupos/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> suscribirCupos(
+            @PathVariable String id,
+            @RequestHeader(value = "Last-Event-ID", required = false) String ultimoEventoId) {
+        try {
+            Long idLong = Long.parseLong(id);
+            return ResponseEntity.ok(notificacionesTiempoReal.suscribirPartido(idLong, ultimoEventoId));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}/costo-por-jugador")
     public ResponseEntity<Double> obtenerCostoPorJugador(@PathVariable String id) {
         try {
@@ -77,6 +99,17 @@ public class PartidoController {
         }
     }
 
+    @PostMapping("/{id}/cancelar")
+    public ResponseEntity<PartidoResponseDTO> cancelarPartido(@PathVariable String id) {
+        try {
+            Long idLong = Long.parseLong(id);
+            PartidoResponseDTO partido = partidoService.cancelarPartido(idLong);
+            return ResponseEntity.ok(partido);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> eliminarPartido(@PathVariable String id) {
         try {
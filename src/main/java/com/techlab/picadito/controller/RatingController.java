@@ -0,0 +1,31 @@
+package com.techlab.picadito.controller;
+
+import com.techlab.picadito.dto.RatingJugadorDTO;
+import com.techlab.picadito.service.RatingService;
+import jakarta.validation.constraints.Positive;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/ratings")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8080", "http://localhost:5173"})
+public class RatingController {
+
+    @Autowired
+    private RatingService ratingService;
+
+    @GetMapping("/ranking")
+    public ResponseEntity<List<RatingJugadorDTO>> obtenerRanking(@RequestParam(defaultValue = "20") int limite) {
+        return ResponseEntity.ok(ratingService.obtenerRanking(limite));
+    }
+
+    @GetMapping("/usuario/{usuarioId}")
+    public ResponseEntity<RatingJugadorDTO> obtenerRatingUsuario(
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long usuarioId) {
+        return ResponseEntity.ok(ratingService.obtenerRatingUsuario(usuarioId));
+    }
+}
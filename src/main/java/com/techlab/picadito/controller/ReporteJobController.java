@@ -0,0 +1,58 @@
+package com.techlab.picadito.controller;
+
+import com.techlab.picadito.dto.ReporteDTO;
+import com.techlab.picadito.dto.ReporteJobDTO;
+import com.techlab.picadito.model.ReporteJob;
+import com.techlab.picadito.service.ReporteJobService;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/admin/reportes/jobs")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8080", "http://localhost:5173"})
+@RequiredArgsConstructor
+public class ReporteJobController {
+
+    private final ReporteJobService reporteJobService;
+
+    /**
+     * Encola la generación de un reporte y devuelve el job creado.
+     * Si el período ya está cerrado y existe un resultado almacenado, se devuelve ese job completado.
+     */
+    @PostMapping
+    public ResponseEntity<ReporteJobDTO> solicitar(
+            @RequestParam @NonNull ReporteJob.TipoReporte tipo,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaFin) {
+        ReporteJobDTO job = reporteJobService.solicitar(tipo, fechaInicio, fechaFin);
+        HttpStatus status = job.getEstado() == ReporteJob.EstadoJob.COMPLETADO ? HttpStatus.OK : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status).body(job);
+    }
+
+    /**
+     * Consulta el estado y progreso de un job
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ReporteJobDTO> obtenerJob(
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long id) {
+        return ResponseEntity.ok(reporteJobService.obtenerJob(id));
+    }
+
+    /**
+     * Obtiene el resultado de un job; responde 202 mientras el reporte se sigue calculando
+     */
+    @GetMapping("/{id}/resultado")
+    public ResponseEntity<ReporteDTO> obtenerResultado(
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long id) {
+        return reporteJobService.obtenerResultado(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.ACCEPTED).build());
+    }
+}
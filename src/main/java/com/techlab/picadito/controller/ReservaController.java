@@ -1,6 +1,7 @@
 package com.techlab.picadito.controller;
 
 import com.techlab.picadito.dto.ReservaDTO;
+import com.techlab.picadito.model.MovimientoGasto;
 import com.techlab.picadito.model.Reserva;
 import com.techlab.picadito.service.ReservaService;
 import lombok.RequiredArgsConstructor;
@@ -54,6 +55,16 @@ public class ReservaController {
         }
     }
     
+    @GetMapping("/usuario/{usuarioId}/movimientos")
+    public ResponseEntity<List<MovimientoGasto>> obtenerMovimientos(@PathVariable String usuarioId) {
+        try {
+            Long id = Long.parseLong(usuarioId);
+            return ResponseEntity.ok(reservaService.obtenerMovimientosPorUsuario(id));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @PostMapping("/desde-partidos-seleccionados/{usuarioId}")
     public ResponseEntity<ReservaDTO> crearDesdePartidosSeleccionados(@PathVariable String usuarioId) {
         try {
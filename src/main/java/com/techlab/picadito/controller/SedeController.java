@@ -1,16 +1,22 @@
 package com.techlab.picadito.controller;
 
+import com.techlab.picadito.dto.ConflictoSedeDTO;
+import com.techlab.picadito.dto.HorariosLibresDTO;
+import com.techlab.picadito.dto.OcupacionSedeDTO;
 import com.techlab.picadito.dto.SedeDTO;
 import com.techlab.picadito.dto.SedeResponseDTO;
+import com.techlab.picadito.service.AgendaSedeService;
 import com.techlab.picadito.service.SedeService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +28,9 @@ public class SedeController {
     @Autowired
     private SedeService sedeService;
 
+    @Autowired
+    private AgendaSedeService agendaSedeService;
+
     @GetMapping
     public ResponseEntity<List<SedeResponseDTO>> obtenerTodas() {
         List<SedeResponseDTO> sedes = sedeService.obtenerTodas();
@@ -61,5 +70,32 @@ public class SedeController {
         Map<String, Object> resultado = sedeService.migrarUbicacionesASedes();
         return ResponseEntity.ok(resultado);
     }
-}
 
+    /**
+     * Matriz de ocupación de la sede por día de la semana y hora
+     */
+    @GetMapping("/{id}/ocupacion")
+    public ResponseEntity<OcupacionSedeDTO> obtenerOcupacion(
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long id) {
+        return ResponseEntity.ok(agendaSedeService.obtenerOcupacion(id));
+    }
+
+    /**
+     * Horas libres y ocupadas de la sede en una fecha
+     */
+    @GetMapping("/{id}/horarios-libres")
+    public ResponseEntity<HorariosLibresDTO> obtenerHorariosLibres(
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        return ResponseEntity.ok(agendaSedeService.obtenerHorariosLibres(id, fecha));
+    }
+
+    /**
+     * Pares de partidos activos de la sede con horarios superpuestos
+     */
+    @GetMapping("/{id}/conflictos")
+    public ResponseEntity<List<ConflictoSedeDTO>> obtenerConflictos(
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long id) {
+        return ResponseEntity.ok(agendaSedeService.obtenerConflictos(id));
+    }
+}
@@ -0,0 +1,58 @@
+package com.techlab.picadito.controller;
+
+import com.techlab.picadito.dto.EntregaWebhookFallidaDTO;
+import com.techlab.picadito.dto.SuscripcionWebhookDTO;
+import com.techlab.picadito.dto.SuscripcionWebhookResponseDTO;
+import com.techlab.picadito.service.WebhookService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/webhooks")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:8080", "http://localhost:5173"})
+public class WebhookController {
+
+    @Autowired
+    private WebhookService webhookService;
+
+    @GetMapping
+    public ResponseEntity<List<SuscripcionWebhookResponseDTO>> obtenerTodas() {
+        return ResponseEntity.ok(webhookService.obtenerTodas());
+    }
+
+    @PostMapping
+    public ResponseEntity<SuscripcionWebhookResponseDTO> crear(@Valid @RequestBody SuscripcionWebhookDTO dto) {
+        SuscripcionWebhookResponseDTO suscripcion = webhookService.crear(dto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(suscripcion);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> eliminar(
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long id) {
+        webhookService.eliminar(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Entregas que agotaron los reintentos (las últimas 100), opcionalmente de un webhook
+     */
+    @GetMapping("/fallidas")
+    public ResponseEntity<List<EntregaWebhookFallidaDTO>> obtenerFallidas(
+            @RequestParam(required = false) Long suscripcionId) {
+        return ResponseEntity.ok(webhookService.obtenerFallidas(suscripcionId));
+    }
+
+    @PostMapping("/fallidas/{id}/reintentar")
+    public ResponseEntity<Void> reintentarFallida(
+            @PathVariable @Positive(message = "El ID debe ser un número positivo") @NonNull Long id) {
+        webhookService.reintentarFallida(id);
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.techlab.picadito.dto;
 
+import com.techlab.picadito.model.Alerta.Audiencia;
 import com.techlab.picadito.model.TipoAlerta;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -14,6 +15,10 @@ public class AlertaDTO {
 
     private Long usuarioId;
     private Long partidoId;
+    private Long categoriaId;
+
+    // Si no se indica, se deduce: usuario, partido, categoría o todos
+    private Audiencia audiencia;
 
     // Getters y Setters
     public TipoAlerta getTipo() {
@@ -47,5 +52,20 @@ public class AlertaDTO {
     public void setPartidoId(Long partidoId) {
         this.partidoId = partidoId;
     }
-}
 
+    public Long getCategoriaId() {
+        return categoriaId;
+    }
+
+    public void setCategoriaId(Long categoriaId) {
+        this.categoriaId = categoriaId;
+    }
+
+    public Audiencia getAudiencia() {
+        return audiencia;
+    }
+
+    public void setAudiencia(Audiencia audiencia) {
+        this.audiencia = audiencia;
+    }
+}
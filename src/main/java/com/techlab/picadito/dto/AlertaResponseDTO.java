@@ -1,7 +1,10 @@
 package com.techlab.picadito.dto;
 
+import com.techlab.picadito.model.Alerta.Audiencia;
 import com.techlab.picadito.model.TipoAlerta;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 public class AlertaResponseDTO {
 
@@ -12,7 +15,13 @@ public class AlertaResponseDTO {
     private Long usuarioId;
     private Long partidoId;
     private String partidoTitulo;
+    private Long categoriaId;
+    private Audiencia audiencia;
+    private Integer ocurrencias;
     private LocalDateTime fechaCreacion;
+    // Solo en los resúmenes diarios: alertas agrupadas por tipo y partidos a los que se referían
+    private Map<TipoAlerta, Integer> resumenPorTipo;
+    private List<Long> partidosResumen;
 
     // Getters y Setters
     public Long getId() {
@@ -71,6 +80,30 @@ public class AlertaResponseDTO {
         this.partidoTitulo = partidoTitulo;
     }
 
+    public Long getCategoriaId() {
+        return categoriaId;
+    }
+
+    public void setCategoriaId(Long categoriaId) {
+        this.categoriaId = categoriaId;
+    }
+
+    public Audiencia getAudiencia() {
+        return audiencia;
+    }
+
+    public void setAudiencia(Audiencia audiencia) {
+        this.audiencia = audiencia;
+    }
+
+    public Integer getOcurrencias() {
+        return ocurrencias;
+    }
+
+    public void setOcurrencias(Integer ocurrencias) {
+        this.ocurrencias = ocurrencias;
+    }
+
     public LocalDateTime getFechaCreacion() {
         return fechaCreacion;
     }
@@ -78,5 +111,20 @@ public class AlertaResponseDTO {
     public void setFechaCreacion(LocalDateTime fechaCreacion) {
         this.fechaCreacion = fechaCreacion;
     }
-}
 
+    public Map<TipoAlerta, Integer> getResumenPorTipo() {
+        return resumenPorTipo;
+    }
+
+    public void setResumenPorTipo(Map<TipoAlerta, Integer> resumenPorTipo) {
+        this.resumenPorTipo = resumenPorTipo;
+    }
+
+    public List<Long> getPartidosResumen() {
+        return partidosResumen;
+    }
+
+    public void setPartidosResumen(List<Long> partidosResumen) {
+        this.partidosResumen = partidosResumen;
+    }
+}
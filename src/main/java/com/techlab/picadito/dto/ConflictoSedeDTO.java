@@ -0,0 +1,30 @@
+package com.techlab.picadito.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Par de partidos activos de una misma sede con horarios superpuestos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConflictoSedeDTO {
+
+    private Long sedeId;
+
+    private Long partidoId;
+
+    private LocalDateTime inicio;
+
+    private LocalDateTime fin;
+
+    private Long otroPartidoId;
+
+    private LocalDateTime otroInicio;
+
+    private LocalDateTime otroFin;
+}
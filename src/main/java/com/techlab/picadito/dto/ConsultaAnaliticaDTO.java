@@ -0,0 +1,74 @@
+package com.techlab.picadito.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consulta ad-hoc sobre el snapshot analítico: agrupa por hasta tres dimensiones,
+ * filtra por valores de dimensión y rango de fechas, y calcula las métricas pedidas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsultaAnaliticaDTO {
+
+    @NotNull(message = "El hecho a consultar es requerido")
+    private Hecho hecho;
+
+    @Size(max = 3, message = "Se puede agrupar por hasta 3 dimensiones")
+    private List<Dimension> agruparPor = new ArrayList<>();
+
+    @NotEmpty(message = "Debe indicar al menos una métrica")
+    private List<Metrica> metricas = new ArrayList<>();
+
+    // Valores permitidos por dimensión (se combinan con AND entre dimensiones y OR dentro de cada una)
+    private Map<Dimension, List<String>> filtros = new HashMap<>();
+
+    // Rango sobre la fecha del partido (PARTIDOS) o la fecha de la reserva (RESERVAS)
+    private LocalDateTime fechaDesde;
+
+    private LocalDateTime fechaHasta;
+
+    @Min(value = 1, message = "El límite debe ser al menos 1")
+    @Max(value = 10000, message = "El límite no puede exceder 10000")
+    private Integer limite;
+
+    public enum Hecho {
+        PARTIDOS,   // Una fila por partido
+        RESERVAS    // Una fila por línea de reserva, con las dimensiones de su partido
+    }
+
+    public enum Dimension {
+        SEDE,
+        CATEGORIA,
+        CREADOR,
+        ESTADO_PARTIDO,
+        ESTADO_RESERVA,
+        DIA_SEMANA,
+        HORA,
+        MES,
+        USUARIO
+    }
+
+    public enum Metrica {
+        CONTEO,
+        INGRESOS,
+        CUPOS_VENDIDOS,
+        PARTICIPANTES,
+        CAPACIDAD,
+        TASA_OCUPACION,
+        CANCELACIONES
+    }
+}
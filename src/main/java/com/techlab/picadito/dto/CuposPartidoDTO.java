@@ -0,0 +1,25 @@
+package com.techlab.picadito.dto;
+
+import com.techlab.picadito.model.EstadoPartido;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ocupación actual de un partido, tal como se envía por el canal de cupos en tiempo real
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CuposPartidoDTO {
+
+    private Long partidoId;
+
+    private Integer cantidadParticipantes;
+
+    private Integer maxJugadores;
+
+    private Integer cuposDisponibles;
+
+    private EstadoPartido estado;
+}
@@ -0,0 +1,25 @@
+package com.techlab.picadito.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class EntregaWebhookFallidaDTO {
+
+    private Long id;
+
+    private Long suscripcionId;
+
+    private String url;
+
+    private Integer eventos;
+
+    private Integer intentos;
+
+    private String ultimoError;
+
+    private LocalDateTime fechaCreacion;
+}
@@ -8,6 +8,10 @@ public class EquipoResponseDTO {
     private String nombre;
     private Long partidoId;
     private Integer cantidadParticipantes;
+    private Double puntaje;
+    // Solo se informa al generar los equipos: 1 = puntajes idénticos
+    private Double indiceBalance;
+    private Integer goles;
     private List<ParticipanteResponseDTO> participantes;
 
     // Getters y Setters
@@ -43,6 +47,30 @@ public class EquipoResponseDTO {
         this.cantidadParticipantes = cantidadParticipantes;
     }
 
+    public Double getPuntaje() {
+        return puntaje;
+    }
+
+    public void setPuntaje(Double puntaje) {
+        this.puntaje = puntaje;
+    }
+
+    public Double getIndiceBalance() {
+        return indiceBalance;
+    }
+
+    public void setIndiceBalance(Double indiceBalance) {
+        this.indiceBalance = indiceBalance;
+    }
+
+    public Integer getGoles() {
+        return goles;
+    }
+
+    public void setGoles(Integer goles) {
+        this.goles = goles;
+    }
+
     public List<ParticipanteResponseDTO> getParticipantes() {
         return participantes;
     }
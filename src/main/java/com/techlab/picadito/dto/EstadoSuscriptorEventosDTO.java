@@ -0,0 +1,33 @@
+package com.techlab.picadito.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Posición de un suscriptor en la bandeja de eventos de dominio
+ */
+@Data
+@NoArgsConstructor
+public class EstadoSuscriptorEventosDTO {
+
+    private String suscriptor;
+
+    private Long ultimoEventoId;
+
+    // Eventos guardados por encima de su offset
+    private Long pendientes;
+
+    // Fallos seguidos sobre el siguiente lote; con fallos se reintenta de a un evento
+    private Integer intentos;
+
+    private String ultimoError;
+
+    private LocalDateTime fechaActualizacion;
+
+    // Desde el inicio de este proceso
+    private Long entregados;
+
+    private Long descartados;
+}
@@ -0,0 +1,40 @@
+package com.techlab.picadito.dto;
+
+import com.techlab.picadito.model.EstadoPartido;
+import com.techlab.picadito.model.TipoEventoDominio;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento enviado a los webhooks, con la ocupación del partido al momento del despacho. El id del
+ * evento es estable: un reintento repite el mismo id y el receptor puede descartar duplicados.
+ */
+@Data
+@NoArgsConstructor
+public class EventoWebhookDTO {
+
+    private Long eventoId;
+
+    private TipoEventoDominio tipo;
+
+    private LocalDateTime fecha;
+
+    private Long partidoId;
+
+    private String partidoTitulo;
+
+    private EstadoPartido estadoPartido;
+
+    private Long sedeId;
+
+    private Integer cantidadParticipantes;
+
+    private Integer maxJugadores;
+
+    private Integer cuposDisponibles;
+
+    // Reserva o participante que originó el evento
+    private Long referenciaId;
+}
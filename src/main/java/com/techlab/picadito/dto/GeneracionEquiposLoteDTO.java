@@ -0,0 +1,50 @@
+package com.techlab.picadito.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resumen de una generación de equipos en lote
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeneracionEquiposLoteDTO {
+
+    private LocalDateTime desde;
+
+    private LocalDateTime hasta;
+
+    private Integer cantidadEquiposPorPartido;
+
+    private Integer partidosProcesados;
+
+    private Integer equiposCreados;
+
+    private Integer equiposReemplazados;
+
+    private Integer jugadoresAsignados;
+
+    private Double indiceBalancePromedio;
+
+    private Double indiceBalanceMinimo;
+
+    private List<PartidoOmitido> partidosOmitidos = new ArrayList<>();
+
+    private Long tiempoMs;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PartidoOmitido {
+
+        private Long partidoId;
+
+        private String motivo;
+    }
+}
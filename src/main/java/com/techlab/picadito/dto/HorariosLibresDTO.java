@@ -0,0 +1,23 @@
+package com.techlab.picadito.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HorariosLibresDTO {
+
+    private Long sedeId;
+
+    private LocalDate fecha;
+
+    // Horas de inicio (0-23) sin partidos asignados
+    private List<Integer> horasLibres;
+
+    private List<Integer> horasOcupadas;
+}
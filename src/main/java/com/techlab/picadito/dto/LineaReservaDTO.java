@@ -21,6 +21,8 @@ public class LineaReservaDTO {
     @Min(value = 1, message = "La cantidad debe ser al menos 1")
     private Integer cantidad = 1;
     
+    private Double precioUnitario;
+    
     private Double subtotal;
 }
 
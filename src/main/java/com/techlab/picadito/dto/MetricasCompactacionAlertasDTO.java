@@ -0,0 +1,47 @@
+package com.techlab.picadito.dto;
+
+import com.techlab.picadito.model.TipoAlerta;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Métricas de la compactación de alertas en resúmenes diarios: configuración, última ejecución
+ * y acumulados desde el inicio
+ */
+@Data
+@NoArgsConstructor
+public class MetricasCompactacionAlertasDTO {
+
+    private boolean enEjecucion;
+
+    private Integer diasAntiguedad;
+
+    private Integer usuariosPorLote;
+
+    private List<TipoAlerta> tipos;
+
+    private LocalDateTime ultimaEjecucion;
+
+    private LocalDateTime fechaLimiteUltima;
+
+    private Long duracionUltimaMs;
+
+    private Integer usuariosUltima;
+
+    private Integer usuariosFallidosUltima;
+
+    // Alertas plegadas en resúmenes y borradas en la última ejecución
+    private Long alertasUltima;
+
+    // Resúmenes diarios creados o ampliados en la última ejecución
+    private Long resumenesUltima;
+
+    private Long ejecuciones;
+
+    private Long totalCompactadas;
+
+    private Long totalResumenes;
+}
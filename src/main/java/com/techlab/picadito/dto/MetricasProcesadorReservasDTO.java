@@ -0,0 +1,46 @@
+package com.techlab.picadito.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Métricas del procesador de estados de reservas: última ejecución y acumulados desde el inicio
+ */
+@Data
+@NoArgsConstructor
+public class MetricasProcesadorReservasDTO {
+
+    private boolean enEjecucion;
+
+    private Integer tamanioLote;
+
+    private LocalDateTime ultimaEjecucion;
+
+    private Long duracionUltimaMs;
+
+    private Integer lotesUltima;
+
+    private Integer lotesFallidosUltima;
+
+    private Integer evaluadasUltima;
+
+    private Integer actualizadasUltima;
+
+    // Reservas evaluadas por segundo en la última ejecución
+    private Double throughputPorSegundo;
+
+    // Mayor demora entre que una reserva debía cambiar de estado y el cambio efectivo
+    private Long lagMaximoSegundos;
+
+    private Long ejecuciones;
+
+    private Long totalEvaluadas;
+
+    private Long totalActualizadas;
+
+    private Long pasadasAEnProceso;
+
+    private Long pasadasAFinalizado;
+}
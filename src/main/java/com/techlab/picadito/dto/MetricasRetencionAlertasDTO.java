@@ -0,0 +1,45 @@
+package com.techlab.picadito.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Métricas de la limpieza de alertas antiguas: avance de la ejecución en curso, última ejecución
+ * y acumulados desde el inicio
+ */
+@Data
+@NoArgsConstructor
+public class MetricasRetencionAlertasDTO {
+
+    private boolean enEjecucion;
+
+    // Alertas recorridas hasta ahora por la ejecución en curso
+    private Long procesadasEnCurso;
+
+    private Integer diasRetencion;
+
+    private Integer tamanioLote;
+
+    private LocalDateTime ultimaEjecucion;
+
+    private Boolean simulacionUltima;
+
+    private LocalDateTime fechaLimiteUltima;
+
+    private Long duracionUltimaMs;
+
+    private Integer lotesUltima;
+
+    private Integer lotesFallidosUltima;
+
+    // Alertas eliminadas, o las que se eliminarían si la última fue una simulación
+    private Long alertasUltima;
+
+    private Double throughputPorSegundo;
+
+    private Long ejecuciones;
+
+    private Long totalEliminadas;
+}
@@ -0,0 +1,39 @@
+package com.techlab.picadito.dto;
+
+import com.techlab.picadito.model.TipoTrabajo;
+import com.techlab.picadito.model.Trabajo.EstadoTrabajo;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Estado de la cola de trabajos (todos los nodos) y de los workers de este nodo
+ */
+@Data
+@NoArgsConstructor
+public class MetricasTrabajosDTO {
+
+    private String nodo;
+
+    private Integer concurrencia;
+
+    private Integer enEjecucion;
+
+    private Map<TipoTrabajo, Integer> enEjecucionPorTipo;
+
+    // Trabajos en la tabla por tipo y estado, de todos los nodos
+    private Map<TipoTrabajo, Map<EstadoTrabajo, Long>> trabajosPorTipo;
+
+    // Acumulados de este nodo desde el inicio
+    private Long reclamados;
+
+    private Long completados;
+
+    private Long reintentados;
+
+    private Long fallidos;
+
+    // Trabajos retomados porque el nodo que los tenía dejó vencer el plazo
+    private Long retomados;
+}
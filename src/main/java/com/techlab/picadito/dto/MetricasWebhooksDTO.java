@@ -0,0 +1,38 @@
+package com.techlab.picadito.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Métricas de la entrega de webhooks: la cola y los destinos son los de la base (todos los
+ * nodos); los contadores, los de este proceso desde su inicio
+ */
+@Data
+@NoArgsConstructor
+public class MetricasWebhooksDTO {
+
+    // Eventos esperando envío o reintento, y el máximo que admite la cola de cada destino
+    private Integer enCola;
+
+    private Integer capacidadPorDestino;
+
+    private Integer destinos;
+
+    private Integer destinosEnReintento;
+
+    private Long encolados;
+
+    // Eventos enviados a la tabla de entregas fallidas porque la cola de su destino estaba llena
+    private Long descartados;
+
+    private Long entregados;
+
+    private Long lotesEnviados;
+
+    private Long lotesFallidos;
+
+    // Eventos enviados a la tabla de entregas fallidas después de agotar los reintentos
+    private Long enviadosAFallidas;
+
+    private Double latenciaPromedioMs;
+}
@@ -0,0 +1,25 @@
+package com.techlab.picadito.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcupacionSedeDTO {
+
+    private Long sedeId;
+
+    // Días en el orden de las filas de la matriz (MONDAY..SUNDAY)
+    private List<String> dias;
+
+    // matriz[dia][hora]: cantidad de partidos activos que ocupan esa franja de la semana
+    private int[][] matriz;
+
+    private Integer totalHorasOcupadas;
+
+    private Integer maximo;
+}
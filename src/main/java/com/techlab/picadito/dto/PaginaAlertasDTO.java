@@ -0,0 +1,37 @@
+package com.techlab.picadito.dto;
+
+import java.util.List;
+
+/**
+ * Página de alertas de un usuario y el cursor para pedir la siguiente (null si no hay más)
+ */
+public class PaginaAlertasDTO {
+
+    private List<AlertaResponseDTO> alertas;
+    private String siguienteCursor;
+
+    public PaginaAlertasDTO() {
+    }
+
+    public PaginaAlertasDTO(List<AlertaResponseDTO> alertas, String siguienteCursor) {
+        this.alertas = alertas;
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    // Getters y Setters
+    public List<AlertaResponseDTO> getAlertas() {
+        return alertas;
+    }
+
+    public void setAlertas(List<AlertaResponseDTO> alertas) {
+        this.alertas = alertas;
+    }
+
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    public void setSiguienteCursor(String siguienteCursor) {
+        this.siguienteCursor = siguienteCursor;
+    }
+}
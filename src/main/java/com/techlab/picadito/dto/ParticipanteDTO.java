@@ -18,6 +18,9 @@ public class ParticipanteDTO {
 
     private Nivel nivel;
 
+    // Opcional: vincula la inscripción a un usuario registrado para llevar su rating
+    private Long usuarioId;
+
     // Getters y Setters
     public String getNombre() {
         return nombre;
@@ -51,5 +54,13 @@ public class ParticipanteDTO {
     public void setNivel(Nivel nivel) {
         this.nivel = nivel;
     }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
 }
 
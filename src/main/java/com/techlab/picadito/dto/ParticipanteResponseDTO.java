@@ -12,6 +12,7 @@ public class ParticipanteResponseDTO {
     private Posicion posicion;
     private Nivel nivel;
     private LocalDateTime fechaInscripcion;
+    private Long usuarioId;
 
     // Getters y Setters
     public Long getId() {
@@ -61,5 +62,13 @@ public class ParticipanteResponseDTO {
     public void setFechaInscripcion(LocalDateTime fechaInscripcion) {
         this.fechaInscripcion = fechaInscripcion;
     }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
 }
 
@@ -17,6 +17,10 @@ public class PartidoDTO {
     @Future(message = "La fecha y hora deben ser en el futuro")
     private LocalDateTime fechaHora;
 
+    @Min(value = 15, message = "La duración debe ser de al menos 15 minutos")
+    @Max(value = 300, message = "La duración no puede exceder 300 minutos")
+    private Integer duracionMinutos;
+
     @Size(max = 300, message = "La ubicación no puede exceder 300 caracteres")
     private String ubicacion;
 
@@ -96,6 +100,14 @@ public class PartidoDTO {
         this.creadorNombre = creadorNombre;
     }
 
+    public Integer getDuracionMinutos() {
+        return duracionMinutos;
+    }
+
+    public void setDuracionMinutos(Integer duracionMinutos) {
+        this.duracionMinutos = duracionMinutos;
+    }
+
     public Double getPrecio() {
         return precio;
     }
@@ -10,6 +10,7 @@ public class PartidoResponseDTO {
     private String titulo;
     private String descripcion;
     private LocalDateTime fechaHora;
+    private Integer duracionMinutos;
     private String ubicacion;
     private Long sedeId;
     private SedeResponseDTO sede;
@@ -131,6 +132,14 @@ public class PartidoResponseDTO {
         this.participantes = participantes;
     }
 
+    public Integer getDuracionMinutos() {
+        return duracionMinutos;
+    }
+
+    public void setDuracionMinutos(Integer duracionMinutos) {
+        this.duracionMinutos = duracionMinutos;
+    }
+
     public Double getPrecio() {
         return precio;
     }
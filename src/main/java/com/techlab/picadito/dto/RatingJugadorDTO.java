@@ -0,0 +1,22 @@
+package com.techlab.picadito.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingJugadorDTO {
+
+    // Puesto en el ranking (1 = mejor rating)
+    private Integer posicion;
+
+    private Long usuarioId;
+
+    private String nombre;
+
+    private Double rating;
+
+    private Integer partidosJugados;
+}
@@ -0,0 +1,35 @@
+package com.techlab.picadito.dto;
+
+import com.techlab.picadito.model.ReporteJob;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReporteJobDTO {
+
+    private Long id;
+
+    private ReporteJob.TipoReporte tipo;
+
+    private LocalDateTime fechaInicio;
+
+    private LocalDateTime fechaFin;
+
+    private ReporteJob.EstadoJob estado;
+
+    private Integer progreso;
+
+    private String error;
+
+    // true si el job se sirvió desde almacenamiento sin volver a calcularse
+    private Boolean desdeCache;
+
+    private LocalDateTime fechaCreacion;
+
+    private LocalDateTime fechaFinalizacion;
+}
@@ -0,0 +1,43 @@
+package com.techlab.picadito.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoAnaliticoDTO {
+
+    private ConsultaAnaliticaDTO.Hecho hecho;
+
+    private List<ConsultaAnaliticaDTO.Dimension> agruparPor;
+
+    private List<ConsultaAnaliticaDTO.Metrica> metricas;
+
+    private List<Fila> filas = new ArrayList<>();
+
+    private Integer filasEscaneadas;
+
+    private Long versionSnapshot;
+
+    private LocalDateTime fechaSnapshot;
+
+    private Long tiempoMs;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Fila {
+
+        private Map<ConsultaAnaliticaDTO.Dimension, String> grupo = new LinkedHashMap<>();
+
+        private Map<ConsultaAnaliticaDTO.Metrica, Double> valores = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,20 @@
+package com.techlab.picadito.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Resultado de un partido: goles de cada equipo, por id de equipo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoPartidoDTO {
+
+    @NotEmpty(message = "Se deben informar los goles de cada equipo")
+    private Map<Long, Integer> goles;
+}
@@ -0,0 +1,36 @@
+package com.techlab.picadito.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Promedio y distribución de estrellas de un partido, creador o sede
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenCalificacionesDTO {
+
+    private String tipo;
+
+    private String clave;
+
+    // Nombre de la sede o del creador, si corresponde
+    private String nombre;
+
+    private Long cantidad;
+
+    private Double promedio;
+
+    // Promedio suavizado hacia la media global; ordena sin premiar a quien tiene pocas calificaciones
+    private Double promedioBayesiano;
+
+    // Cantidad de calificaciones por puntuación (1 a 5)
+    private Map<Integer, Long> distribucion;
+
+    // Puesto en el ranking, solo en las respuestas de ranking
+    private Integer posicion;
+}
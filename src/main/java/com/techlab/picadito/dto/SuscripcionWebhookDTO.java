@@ -0,0 +1,28 @@
+package com.techlab.picadito.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuscripcionWebhookDTO {
+
+    @NotBlank(message = "La URL es requerida")
+    @Size(max = 500, message = "La URL no puede exceder 500 caracteres")
+    @Pattern(regexp = "https?://.+", message = "La URL debe empezar con http:// o https://")
+    private String url;
+
+    // Si se indica, cada envío lleva la firma HMAC-SHA256 del cuerpo en X-Picadito-Firma
+    @Size(max = 100, message = "El secreto no puede exceder 100 caracteres")
+    private String secreto;
+
+    private Long sedeId;
+
+    @Size(max = 100, message = "El nombre del creador no puede exceder 100 caracteres")
+    private String creadorNombre;
+}
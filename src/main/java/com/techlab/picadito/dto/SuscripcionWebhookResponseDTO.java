@@ -0,0 +1,26 @@
+package com.techlab.picadito.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class SuscripcionWebhookResponseDTO {
+
+    private Long id;
+
+    private String url;
+
+    // El secreto no se devuelve
+    private boolean firmada;
+
+    private Long sedeId;
+
+    private String creadorNombre;
+
+    private Boolean activa;
+
+    private LocalDateTime fechaCreacion;
+}
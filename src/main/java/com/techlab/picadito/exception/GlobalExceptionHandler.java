@@ -1,8 +1,11 @@
 package com.techlab.picadito.exception;
 
 import com.techlab.picadito.dto.ErrorResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -22,6 +25,10 @@ public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    // Opcional: los tests de controladores levantan el handler sin registro de métricas
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponseDTO> handleResourceNotFoundException(
             ResourceNotFoundException ex, WebRequest request) {
@@ -39,6 +46,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponseDTO> handleBusinessException(
             BusinessException ex, WebRequest request) {
         logger.warn("Business exception: {}", ex.getMessage());
+        contarRechazo(ex);
         ErrorResponseDTO error = new ErrorResponseDTO(
                 HttpStatus.BAD_REQUEST.value(),
                 "Business Error",
@@ -52,6 +60,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponseDTO> handleValidationException(
             ValidationException ex, WebRequest request) {
         logger.warn("Validation exception: {}", ex.getMessage());
+        contarRechazo(ex);
         ErrorResponseDTO error = new ErrorResponseDTO(
                 HttpStatus.BAD_REQUEST.value(),
                 "Validation Error",
@@ -115,6 +124,9 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponseDTO> handleOptimisticLockException(
             ObjectOptimisticLockingFailureException ex, WebRequest request) {
         logger.warn("Optimistic lock exception: {}", ex.getMessage());
+        meterRegistry.ifAvailable(registry -> registry.counter("picadito.conflictos.bloqueo-optimista",
+                "entidad", ex.getPersistentClassName() != null ? simpleName(ex.getPersistentClassName()) : "desconocida")
+                .increment());
         ErrorResponseDTO error = new ErrorResponseDTO(
                 HttpStatus.CONFLICT.value(),
                 "Conflict",
@@ -168,5 +180,16 @@ public class GlobalExceptionHandler {
         );
         return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
     }
-}
 
+    /**
+     * Cuenta los rechazos por reglas de negocio o validación, por tipo de excepción
+     */
+    private void contarRechazo(RuntimeException ex) {
+        meterRegistry.ifAvailable(registry -> registry.counter("picadito.rechazos",
+                "tipo", ex.getClass().getSimpleName()).increment());
+    }
+
+    private static String simpleName(String nombreClase) {
+        return nombreClase.substring(nombreClase.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,88 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Acumulado de calificaciones (suma, cantidad e histograma de 1 a 5 estrellas) de un partido,
+ * un creador o una sede. Se actualiza en la misma transacción que crea o elimina la calificación.
+ */
+@Entity
+@Table(name = "agregados_calificacion", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_agregado_calificacion", columnNames = {"tipo", "clave"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgregadoCalificacion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoAgregado tipo;
+
+    // Id del partido o de la sede, o nombre del creador
+    @Column(nullable = false, length = 100)
+    private String clave;
+
+    @Column(nullable = false)
+    private Long suma = 0L;
+
+    @Column(nullable = false)
+    private Long cantidad = 0L;
+
+    @Column(name = "estrellas_1", nullable = false)
+    private Long estrellas1 = 0L;
+
+    @Column(name = "estrellas_2", nullable = false)
+    private Long estrellas2 = 0L;
+
+    @Column(name = "estrellas_3", nullable = false)
+    private Long estrellas3 = 0L;
+
+    @Column(name = "estrellas_4", nullable = false)
+    private Long estrellas4 = 0L;
+
+    @Column(name = "estrellas_5", nullable = false)
+    private Long estrellas5 = 0L;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
+    public AgregadoCalificacion(TipoAgregado tipo, String clave) {
+        this.tipo = tipo;
+        this.clave = clave;
+    }
+
+    public long[] getHistograma() {
+        return new long[]{estrellas1, estrellas2, estrellas3, estrellas4, estrellas5};
+    }
+
+    /**
+     * Suma {@code veces} calificaciones de {@code puntuacion} estrellas (negativo para restar)
+     */
+    public void acumular(int puntuacion, long veces) {
+        suma += puntuacion * veces;
+        cantidad += veces;
+        switch (puntuacion) {
+            case 1 -> estrellas1 += veces;
+            case 2 -> estrellas2 += veces;
+            case 3 -> estrellas3 += veces;
+            case 4 -> estrellas4 += veces;
+            default -> estrellas5 += veces;
+        }
+    }
+
+    public enum TipoAgregado {
+        PARTIDO,
+        CREADOR,
+        SEDE
+    }
+}
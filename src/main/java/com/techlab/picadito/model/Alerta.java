@@ -3,8 +3,16 @@ package com.techlab.picadito.model;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+/**
+ * Alerta para un usuario o general. Las generales se guardan una sola vez con su audiencia (los
+ * jugadores de un partido, de una categoría o todos) y cada usuario las ve al leer sus alertas.
+ */
 @Entity
-@Table(name = "alertas")
+@Table(name = "alertas", indexes = {
+    @Index(name = "idx_alertas_usuario_fecha", columnList = "usuario_id, fecha_creacion"),
+    @Index(name = "idx_alertas_audiencia_fecha", columnList = "audiencia, fecha_creacion"),
+    @Index(name = "idx_alertas_fecha", columnList = "fecha_creacion, id")
+})
 public class Alerta {
 
     @Id
@@ -29,12 +37,38 @@ public class Alerta {
     @JoinColumn(name = "partido_id", nullable = true)
     private Partido partido;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "categoria_id", nullable = true)
+    private Categoria categoria;
+
+    // Nullable solo para las filas anteriores a las audiencias; se completa al iniciar
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Audiencia audiencia;
+
+    // Clave (tipo, partido, usuario) de la alerta que todavía acumula repeticiones; se libera al cerrarse
+    @Column(name = "clave_deduplicacion", unique = true, length = 100)
+    private String claveDeduplicacion;
+
+    // Veces que se repitió el evento dentro de la ventana (null en filas anteriores: una)
+    private Integer ocurrencias = 1;
+
+    // En un resumen diario: cantidades por tipo y partidos de las alertas compactadas
+    @Column(name = "detalle_resumen", length = 1000)
+    private String detalleResumen;
+
     @Column(name = "fecha_creacion", nullable = false, updatable = false)
     private LocalDateTime fechaCreacion;
 
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
     @PrePersist
     protected void onCreate() {
-        fechaCreacion = LocalDateTime.now();
+        // Un resumen diario conserva la fecha de las alertas que agrupa
+        if (fechaCreacion == null) {
+            fechaCreacion = LocalDateTime.now();
+        }
     }
 
     // Getters y Setters
@@ -86,6 +120,58 @@ public class Alerta {
         this.partido = partido;
     }
 
+    public Categoria getCategoria() {
+        return categoria;
+    }
+
+    public void setCategoria(Categoria categoria) {
+        this.categoria = categoria;
+    }
+
+    public Audiencia getAudiencia() {
+        return audiencia;
+    }
+
+    public void setAudiencia(Audiencia audiencia) {
+        this.audiencia = audiencia;
+    }
+
+    public String getClaveDeduplicacion() {
+        return claveDeduplicacion;
+    }
+
+    public void setClaveDeduplicacion(String claveDeduplicacion) {
+        this.claveDeduplicacion = claveDeduplicacion;
+    }
+
+    public String getDetalleResumen() {
+        return detalleResumen;
+    }
+
+    public void setDetalleResumen(String detalleResumen) {
+        this.detalleResumen = detalleResumen;
+    }
+
+    public Integer getOcurrencias() {
+        return ocurrencias;
+    }
+
+    public void setOcurrencias(Integer ocurrencias) {
+        this.ocurrencias = ocurrencias;
+    }
+
+    public LocalDateTime getFechaActualizacion() {
+        return fechaActualizacion;
+    }
+
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
+        this.fechaActualizacion = fechaActualizacion;
+    }
+
+    public boolean esGeneral() {
+        return audiencia != null && audiencia != Audiencia.USUARIO;
+    }
+
     public LocalDateTime getFechaCreacion() {
         return fechaCreacion;
     }
@@ -93,5 +179,12 @@ public class Alerta {
     public void setFechaCreacion(LocalDateTime fechaCreacion) {
         this.fechaCreacion = fechaCreacion;
     }
+
+    public enum Audiencia {
+        USUARIO,    // Un usuario puntual
+        PARTIDO,    // Los usuarios inscriptos en el partido
+        CATEGORIA,  // Los usuarios que jugaron partidos de la categoría
+        TODOS
+    }
 }
 
@@ -0,0 +1,34 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Concesión (lease) de una tarea programada: el nodo que la tiene es el único que la ejecuta
+ * hasta {@code bloqueadoHasta}. Una fila por tarea, que se reutiliza en cada ejecución.
+ */
+@Entity
+@Table(name = "bloqueos_tareas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloqueoTarea {
+
+    @Id
+    @Column(length = 100)
+    private String nombre;
+
+    @Column(name = "bloqueado_hasta", nullable = false)
+    private LocalDateTime bloqueadoHasta;
+
+    // Inicio de la concesión vigente; distingue una adquisición de la siguiente del mismo nodo
+    @Column(name = "bloqueado_en", nullable = false)
+    private LocalDateTime bloqueadoEn;
+
+    @Column(nullable = false, length = 100)
+    private String nodo;
+}
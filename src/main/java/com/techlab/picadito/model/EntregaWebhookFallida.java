@@ -0,0 +1,45 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lote de eventos que no se pudo entregar a un webhook después de todos los reintentos
+ * (dead letter). Se guarda el cuerpo tal como se envió para poder reintentarlo a mano.
+ */
+@Entity
+@Table(name = "entregas_webhook_fallidas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntregaWebhookFallida {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "suscripcion_id", nullable = false)
+    private Long suscripcionId;
+
+    @Column(nullable = false, length = 500)
+    private String url;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private Integer eventos;
+
+    @Column(nullable = false)
+    private Integer intentos;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+}
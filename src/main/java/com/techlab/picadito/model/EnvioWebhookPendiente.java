@@ -0,0 +1,37 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento pendiente de envío a un webhook. Se guarda en la misma transacción que avanza el offset
+ * del despacho de eventos, así un reinicio no pierde lo encolado y un lote revertido no deja
+ * envíos duplicados. Se borra al entregarse o al pasar a las entregas fallidas.
+ */
+@Entity
+@Table(name = "envios_webhook_pendientes", indexes = {
+    @Index(name = "idx_envios_webhook_suscripcion", columnList = "suscripcion_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnvioWebhookPendiente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "suscripcion_id", nullable = false)
+    private Long suscripcionId;
+
+    // El evento tal como se envía (JSON)
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+}
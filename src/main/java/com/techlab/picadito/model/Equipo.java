@@ -19,6 +19,14 @@ public class Equipo {
     @JoinColumn(name = "partido_id", nullable = false)
     private Partido partido;
 
+    // Suma de los puntajes de sus jugadores al momento de armarlo
+    @Column
+    private Double puntaje;
+
+    // Goles convertidos, una vez registrado el resultado del partido
+    @Column
+    private Integer goles;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "equipo_participantes",
@@ -52,6 +60,22 @@ public class Equipo {
         this.partido = partido;
     }
 
+    public Double getPuntaje() {
+        return puntaje;
+    }
+
+    public void setPuntaje(Double puntaje) {
+        this.puntaje = puntaje;
+    }
+
+    public Integer getGoles() {
+        return goles;
+    }
+
+    public void setGoles(Integer goles) {
+        this.goles = goles;
+    }
+
     public List<Participante> getParticipantes() {
         return participantes;
     }
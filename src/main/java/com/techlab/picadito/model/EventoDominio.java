@@ -0,0 +1,59 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de dominio guardado en la bandeja de salida (outbox) dentro de la misma transacción que
+ * lo produjo. La posición del evento es su secuencia, que se asigna al confirmar la transacción
+ * (ver {@link com.techlab.picadito.service.EventosDominioService}): es consecutiva y sigue el
+ * orden de confirmación, y cada suscriptor recuerda hasta cuál procesó. Lleva solo ids y un
+ * detalle corto; los suscriptores leen el estado actual si lo necesitan.
+ */
+@Entity
+@Table(name = "eventos_dominio", indexes = {
+    @Index(name = "idx_eventos_dominio_fecha", columnList = "fecha_creacion"),
+    @Index(name = "idx_eventos_dominio_secuencia", columnList = "secuencia", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoDominio {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Nula hasta que la transacción que lo publicó confirma
+    private Long secuencia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private TipoEventoDominio tipo;
+
+    @Column(name = "partido_id")
+    private Long partidoId;
+
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    // Id de la entidad que originó el evento (reserva, participante), si no es el partido
+    @Column(name = "referencia_id")
+    private Long referenciaId;
+
+    // Dato legible para el suscriptor, p. ej. el título del partido al momento del evento
+    @Column(length = 255)
+    private String detalle;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    public EventoDominio(Long id, TipoEventoDominio tipo, Long partidoId, Long usuarioId, Long referenciaId,
+                         String detalle, LocalDateTime fechaCreacion) {
+        this(id, null, tipo, partidoId, usuarioId, referenciaId, detalle, fechaCreacion);
+    }
+}
@@ -0,0 +1,35 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Alerta general leída por un usuario por encima de su marca de lectura. Se borran al mover la
+ * marca, así que solo existen para las alertas leídas de a una desde el último "marcar todas".
+ */
+@Entity
+@Table(name = "lecturas_alerta", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_lectura_alerta", columnNames = {"usuario_id", "alerta_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LecturaAlerta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "alerta_id", nullable = false)
+    private Long alertaId;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,39 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de lectura de las alertas de un usuario: toda alerta con id hasta {@code leidasHastaId}
+ * cuenta como leída, y {@code noLeidas} lleva la cuenta de sus alertas personales pendientes.
+ * Marcar todas como leídas actualiza solo esta fila.
+ */
+@Entity
+@Table(name = "lecturas_alertas_usuario")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LecturaAlertasUsuario {
+
+    @Id
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(name = "leidas_hasta_id", nullable = false)
+    private Long leidasHastaId = 0L;
+
+    // Alertas personales no leídas; las generales se cuentan por encima de leidasHastaId
+    @Column(name = "no_leidas", nullable = false)
+    private Long noLeidas = 0L;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
+    public LecturaAlertasUsuario(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+}
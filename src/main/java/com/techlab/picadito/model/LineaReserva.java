@@ -6,7 +6,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "lineas_reserva")
+@Table(name = "lineas_reserva", indexes = {
+    @Index(name = "idx_lineas_reserva_partido", columnList = "partido_id, reserva_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,11 +22,25 @@ public class LineaReserva {
     @JoinColumn(name = "reserva_id", nullable = false)
     private Reserva reserva;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "partido_id", nullable = false)
     private Partido partido;
     
     @Column(nullable = false)
     private Integer cantidad = 1;
+    
+    // Precio del partido al confirmar la reserva; cambios posteriores de precio no la afectan
+    @Column(name = "precio_unitario")
+    private Double precioUnitario;
+    
+    /**
+     * Precio unitario × cantidad, 0.0 si la línea no tiene precio
+     */
+    public Double calcularSubtotal() {
+        if (precioUnitario == null || cantidad == null) {
+            return 0.0;
+        }
+        return precioUnitario * cantidad;
+    }
 }
 
@@ -0,0 +1,48 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento del libro de gastos de un usuario. Solo se agregan filas: una cancelación no borra
+ * el cargo de la confirmación, se registra un reintegro con monto negativo.
+ */
+@Entity
+@Table(name = "movimientos_gasto", indexes = {
+    @Index(name = "idx_movimientos_gasto_usuario", columnList = "usuario_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimientoGasto {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "reserva_id", nullable = false)
+    private Long reservaId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoMovimiento tipo;
+
+    // Positivo para cargos, negativo para reintegros
+    @Column(nullable = false)
+    private Double monto;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+
+    public enum TipoMovimiento {
+        CARGO,      // Reserva confirmada
+        REINTEGRO   // Reserva confirmada que luego se canceló
+    }
+}
@@ -0,0 +1,37 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Posición de un suscriptor en la bandeja de eventos: secuencia del último evento procesado, y
+ * los intentos fallidos seguidos sobre el siguiente. Solo avanza si sigue en el valor leído, así
+ * dos nodos no procesan el mismo tramo a la vez.
+ */
+@Entity
+@Table(name = "offsets_suscriptores")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OffsetSuscriptor {
+
+    @Id
+    @Column(length = 100)
+    private String suscriptor;
+
+    @Column(name = "ultimo_evento_id", nullable = false)
+    private Long ultimoEventoId = 0L;
+
+    @Column(nullable = false)
+    private Integer intentos = 0;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+}
@@ -36,6 +36,11 @@ public class Participante {
     @JoinColumn(name = "partido_id", nullable = false)
     private Partido partido;
 
+    // Usuario registrado detrás del participante, si lo hay; permite seguir su rating entre partidos
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = true)
+    private Usuario usuario;
+
     @PrePersist
     protected void onCreate() {
         fechaInscripcion = LocalDateTime.now();
@@ -97,5 +102,13 @@ public class Participante {
     public void setPartido(Partido partido) {
         this.partido = partido;
     }
+
+    public Usuario getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(Usuario usuario) {
+        this.usuario = usuario;
+    }
 }
 
@@ -9,9 +9,15 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "partidos")
+@Table(name = "partidos", indexes = {
+    @Index(name = "idx_partidos_sede_fecha", columnList = "sede_id, fecha_hora"),
+    @Index(name = "idx_partidos_fecha_hora", columnList = "fecha_hora")
+})
 public class Partido {
 
+    public static final int DURACION_POR_DEFECTO_MINUTOS = 60;
+    public static final int DURACION_MAXIMA_MINUTOS = 300;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -29,6 +35,11 @@ public class Partido {
     @Column(nullable = false)
     private LocalDateTime fechaHora;
 
+    @Min(value = 15, message = "La duración debe ser de al menos 15 minutos")
+    @Max(value = DURACION_MAXIMA_MINUTOS, message = "La duración no puede exceder 300 minutos")
+    @Column(nullable = true)
+    private Integer duracionMinutos = DURACION_POR_DEFECTO_MINUTOS;
+
     @Size(max = 300, message = "La ubicación no puede exceder 300 caracteres")
     @Column(nullable = true, length = 300)
     private String ubicacion;
@@ -66,9 +77,16 @@ public class Partido {
     @Column(nullable = false, updatable = false)
     private LocalDateTime fechaCreacion;
 
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
     @Column(nullable = true)
     private Double precio;
 
+    // Se marca al aplicar el resultado a los ratings, para no contarlo dos veces
+    @Column(name = "ratings_aplicados")
+    private Boolean ratingsAplicados = false;
+
     @Size(max = 500, message = "La URL de la imagen no puede exceder 500 caracteres")
     @Column(nullable = true, length = 500)
     private String imagenUrl;
@@ -82,6 +100,12 @@ public class Partido {
     @PrePersist
     protected void onCreate() {
         fechaCreacion = LocalDateTime.now();
+        fechaActualizacion = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        fechaActualizacion = LocalDateTime.now();
     }
 
     // Getters y Setters
@@ -117,6 +141,24 @@ public class Partido {
         this.fechaHora = fechaHora;
     }
 
+    public Integer getDuracionMinutos() {
+        return duracionMinutos;
+    }
+
+    public void setDuracionMinutos(Integer duracionMinutos) {
+        this.duracionMinutos = duracionMinutos;
+    }
+
+    /**
+     * Fin del turno en la sede; los partidos anteriores a la duración usan la duración por defecto
+     */
+    public LocalDateTime getFechaFin() {
+        if (fechaHora == null) {
+            return null;
+        }
+        return fechaHora.plusMinutes(duracionMinutos != null ? duracionMinutos : DURACION_POR_DEFECTO_MINUTOS);
+    }
+
     public String getUbicacion() {
         return ubicacion;
     }
@@ -157,6 +199,22 @@ public class Partido {
         this.fechaCreacion = fechaCreacion;
     }
 
+    public LocalDateTime getFechaActualizacion() {
+        return fechaActualizacion;
+    }
+
+    public void setFechaActualizacion(LocalDateTime fechaActualizacion) {
+        this.fechaActualizacion = fechaActualizacion;
+    }
+
+    public Boolean getRatingsAplicados() {
+        return ratingsAplicados;
+    }
+
+    public void setRatingsAplicados(Boolean ratingsAplicados) {
+        this.ratingsAplicados = ratingsAplicados;
+    }
+
     public List<Participante> getParticipantes() {
         return participantes;
     }
@@ -0,0 +1,33 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rating de un usuario. Es la fuente de verdad: RatingService suma cada resultado con un UPDATE
+ * atómico y mantiene una copia en memoria para leer rápido.
+ */
+@Entity
+@Table(name = "ratings_jugadores")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingJugador {
+
+    @Id
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(nullable = false)
+    private Double rating;
+
+    @Column(name = "partidos_jugados", nullable = false)
+    private Integer partidosJugados = 0;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+}
@@ -0,0 +1,45 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marca de recordatorio ya enviado. La restricción única sobre partido, tipo y horario del
+ * partido garantiza un solo envío aunque el recordatorio se dispare más de una vez; si el
+ * partido se reprograma, el nuevo horario vuelve a generar sus recordatorios.
+ */
+@Entity
+@Table(name = "recordatorios_enviados", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_recordatorio_enviado", columnNames = {"partido_id", "tipo", "fecha_partido"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordatorioEnviado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "partido_id", nullable = false)
+    private Long partidoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoRecordatorio tipo;
+
+    @Column(name = "fecha_partido", nullable = false)
+    private LocalDateTime fechaPartido;
+
+    @Column(name = "fecha_envio", nullable = false)
+    private LocalDateTime fechaEnvio;
+
+    public enum TipoRecordatorio {
+        DIA_ANTES,      // 24 horas antes del inicio
+        HORAS_ANTES     // Unas horas antes del inicio (configurable)
+    }
+}
@@ -0,0 +1,70 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reporte_jobs", indexes = {
+    @Index(name = "idx_reporte_jobs_clave", columnList = "tipo, fecha_inicio, fecha_fin, estado")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReporteJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoReporte tipo;
+
+    @Column(name = "fecha_inicio", nullable = false)
+    private LocalDateTime fechaInicio;
+
+    @Column(name = "fecha_fin", nullable = false)
+    private LocalDateTime fechaFin;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoJob estado = EstadoJob.PENDIENTE;
+
+    @Column(nullable = false)
+    private Integer progreso = 0;
+
+    // Resultado serializado en JSON (ReporteDTO) una vez completado
+    @Column(columnDefinition = "TEXT")
+    private String resultado;
+
+    @Column(length = 500)
+    private String error;
+
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_finalizacion")
+    private LocalDateTime fechaFinalizacion;
+
+    @PrePersist
+    protected void onCreate() {
+        fechaCreacion = LocalDateTime.now();
+    }
+
+    public enum TipoReporte {
+        VENTAS,
+        PARTIDOS,
+        USUARIOS
+    }
+
+    public enum EstadoJob {
+        PENDIENTE,      // En cola, esperando un worker libre
+        EN_PROCESO,     // Un worker lo está calculando
+        COMPLETADO,     // Resultado disponible
+        ERROR           // Falló el cálculo
+    }
+}
@@ -7,14 +7,23 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @Entity
-@Table(name = "reservas")
+@Table(name = "reservas", indexes = {
+    @Index(name = "idx_reservas_estado_fecha", columnList = "estado, fecha_creacion")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Reserva {
+
+    // Estados en los que la reserva está cobrada: cuentan como ingreso en estadísticas, analítica y gastos
+    public static final Set<EstadoReserva> ESTADOS_COBRADOS = Collections.unmodifiableSet(
+            EnumSet.of(EstadoReserva.CONFIRMADO, EstadoReserva.EN_PROCESO, EstadoReserva.FINALIZADO));
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,6 +40,10 @@ public class Reserva {
     @OneToMany(mappedBy = "reserva", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<LineaReserva> lineasReserva = new ArrayList<>();
     
+    // Suma de los subtotales de las líneas, fijada al confirmar
+    @Column
+    private Double total;
+    
     @Column(name = "fecha_creacion", nullable = false, updatable = false)
     private LocalDateTime fechaCreacion;
     
@@ -57,23 +70,32 @@ public class Reserva {
     }
 
     /**
-     * Calcula el total de la reserva sumando precio × cantidad de cada línea de reserva
-     * @return El total calculado, 0.0 si no hay líneas o precios
+     * Total de la reserva: el guardado al confirmarla o, si todavía no se fijó, la suma de los
+     * subtotales de sus líneas
+     * @return El total, 0.0 si no hay líneas o precios
      */
     public Double calcularTotal() {
+        return total != null ? total : sumarSubtotales();
+    }
+    
+    /**
+     * Copia el precio actual de cada partido en las líneas que todavía no lo tienen y guarda el total
+     */
+    public void fijarPrecios() {
+        for (LineaReserva linea : lineasReserva) {
+            if (linea.getPrecioUnitario() == null && linea.getPartido() != null) {
+                linea.setPrecioUnitario(linea.getPartido().getPrecio());
+            }
+        }
+        total = sumarSubtotales();
+    }
+    
+    private double sumarSubtotales() {
         if (lineasReserva == null || lineasReserva.isEmpty()) {
             return 0.0;
         }
-        
         return lineasReserva.stream()
-                .mapToDouble(linea -> {
-                    if (linea.getPartido() == null || linea.getPartido().getPrecio() == null) {
-                        return 0.0;
-                    }
-                    Double precio = linea.getPartido().getPrecio();
-                    Integer cantidad = linea.getCantidad() != null ? linea.getCantidad() : 0;
-                    return precio * cantidad;
-                })
+                .mapToDouble(LineaReserva::calcularSubtotal)
                 .sum();
     }
 }
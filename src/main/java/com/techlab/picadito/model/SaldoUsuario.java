@@ -0,0 +1,47 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Totales acumulados del libro de gastos de un usuario. Se actualizan en la misma transacción
+ * que cambia el estado de sus reservas.
+ */
+@Entity
+@Table(name = "saldos_usuario", indexes = {
+    @Index(name = "idx_saldos_usuario_reservas", columnList = "cantidad_reservas"),
+    @Index(name = "idx_saldos_usuario_gastado", columnList = "total_gastado")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoUsuario {
+
+    @Id
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(name = "total_gastado", nullable = false)
+    private Double totalGastado = 0.0;
+
+    // Reservas creadas, en cualquier estado
+    @Column(name = "cantidad_reservas", nullable = false)
+    private Long cantidadReservas = 0L;
+
+    @Column(name = "reservas_confirmadas", nullable = false)
+    private Long reservasConfirmadas = 0L;
+
+    @Column(name = "reservas_canceladas", nullable = false)
+    private Long reservasCanceladas = 0L;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
+    public SaldoUsuario(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+}
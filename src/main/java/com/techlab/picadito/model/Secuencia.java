@@ -0,0 +1,25 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contador con nombre en la base. Se incrementa con un UPDATE, que bloquea la fila hasta el fin
+ * de la transacción: quien lo incrementa después ve el valor ya confirmado.
+ */
+@Entity
+@Table(name = "secuencias")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Secuencia {
+
+    @Id
+    @Column(length = 100)
+    private String nombre;
+
+    @Column(nullable = false)
+    private Long valor;
+}
@@ -0,0 +1,62 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Endpoint de un club o creador que recibe por HTTP los cambios de los partidos de una sede o de
+ * un creador (inscripciones, reservas, cupos). Si tiene secreto, cada envío va firmado con él.
+ * También guarda el estado de su entrega, compartido entre nodos: los fallos seguidos, cuándo
+ * reintentar y hasta cuándo lo tiene tomado el nodo que está enviando.
+ */
+@Entity
+@Table(name = "suscripciones_webhook", indexes = {
+    @Index(name = "idx_webhook_sede", columnList = "sede_id"),
+    @Index(name = "idx_webhook_creador", columnList = "creador_nombre")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuscripcionWebhook {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 500)
+    private String url;
+
+    @Column(length = 100)
+    private String secreto;
+
+    @Column(name = "sede_id")
+    private Long sedeId;
+
+    @Column(name = "creador_nombre", length = 100)
+    private String creadorNombre;
+
+    @Column(nullable = false)
+    private Boolean activa = true;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "intentos_entrega")
+    private Integer intentosEntrega = 0;
+
+    @Column(name = "proximo_intento")
+    private LocalDateTime proximoIntento;
+
+    // Mientras no venza, un nodo tiene un envío en curso a este webhook
+    @Column(name = "enviando_hasta")
+    private LocalDateTime enviandoHasta;
+
+    public SuscripcionWebhook(Long id, String url, String secreto, Long sedeId, String creadorNombre,
+                              Boolean activa, LocalDateTime fechaCreacion) {
+        this(id, url, secreto, sedeId, creadorNombre, activa, fechaCreacion, 0, null, null);
+    }
+}
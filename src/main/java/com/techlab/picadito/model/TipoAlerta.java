@@ -5,7 +5,8 @@ public enum TipoAlerta {
     PARTIDO_PROXIMO("Partido próximo a jugarse"),
     PARTIDO_CANCELADO("Partido cancelado"),
     RESERVA_CONFIRMADA("Reserva confirmada"),
-    PARTIDO_COMPLETO("Partido completo");
+    PARTIDO_COMPLETO("Partido completo"),
+    RESUMEN_DIARIO("Resumen diario");
 
     private final String descripcion;
 
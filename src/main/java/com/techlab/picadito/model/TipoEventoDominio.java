@@ -0,0 +1,13 @@
+package com.techlab.picadito.model;
+
+public enum TipoEventoDominio {
+    PARTIDO_CREADO,
+    PARTIDO_ACTUALIZADO,
+    PARTIDO_CANCELADO,
+    PARTIDO_FINALIZADO,
+    PARTIDO_ELIMINADO,
+    PARTICIPANTE_INSCRITO,
+    PARTICIPANTE_DESINSCRITO,
+    RESERVA_CONFIRMADA,
+    ALERTA_CREADA
+}
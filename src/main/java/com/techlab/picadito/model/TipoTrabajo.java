@@ -0,0 +1,21 @@
+package com.techlab.picadito.model;
+
+/**
+ * Tipos de trabajo de la cola. La prioridad ordena los trabajos listos: mayor primero.
+ */
+public enum TipoTrabajo {
+    RECORDATORIO_PARTIDO(10),
+    REPORTE(5),
+    RETENCION_ALERTAS(0),
+    COMPACTACION_ALERTAS(0);
+
+    private final int prioridad;
+
+    TipoTrabajo(int prioridad) {
+        this.prioridad = prioridad;
+    }
+
+    public int getPrioridad() {
+        return prioridad;
+    }
+}
@@ -0,0 +1,76 @@
+package com.techlab.picadito.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trabajo en segundo plano de la cola persistente. Un nodo lo reclama con SELECT ... FOR UPDATE
+ * SKIP LOCKED y lo marca EN_PROCESO hasta {@code bloqueadoHasta}; si el nodo muere y el plazo
+ * vence, otro nodo lo vuelve a tomar.
+ */
+@Entity
+@Table(name = "trabajos", indexes = {
+    @Index(name = "idx_trabajos_reclamo", columnList = "estado, disponible_desde"),
+    @Index(name = "idx_trabajos_clave", columnList = "clave", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Trabajo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private TipoTrabajo tipo;
+
+    // Datos del trabajo en texto (un id, o varios separados por ';')
+    @Column(length = 500)
+    private String payload;
+
+    // Evita encolar dos veces el mismo trabajo (p. ej. un recordatorio, o la limpieza de un día)
+    @Column(length = 150)
+    private String clave;
+
+    @Column(nullable = false)
+    private Integer prioridad;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoTrabajo estado = EstadoTrabajo.PENDIENTE;
+
+    @Column(nullable = false)
+    private Integer intentos = 0;
+
+    @Column(name = "disponible_desde", nullable = false)
+    private LocalDateTime disponibleDesde;
+
+    // Plazo de visibilidad del reclamo; el nodo que lo ejecuta lo renueva mientras trabaja
+    @Column(name = "bloqueado_hasta")
+    private LocalDateTime bloqueadoHasta;
+
+    @Column(length = 100)
+    private String nodo;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_finalizacion")
+    private LocalDateTime fechaFinalizacion;
+
+    public enum EstadoTrabajo {
+        PENDIENTE,      // Esperando disponibleDesde o un worker libre
+        EN_PROCESO,     // Reclamado por un nodo hasta bloqueadoHasta
+        COMPLETADO,
+        FALLIDO         // Agotó los intentos
+    }
+}
@@ -0,0 +1,41 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.AgregadoCalificacion;
+import com.techlab.picadito.model.AgregadoCalificacion.TipoAgregado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AgregadoCalificacionRepository extends JpaRepository<AgregadoCalificacion, Long> {
+
+    Optional<AgregadoCalificacion> findByTipoAndClave(TipoAgregado tipo, String clave);
+
+    List<AgregadoCalificacion> findByTipoAndClaveIn(TipoAgregado tipo, Collection<String> claves);
+
+    List<AgregadoCalificacion> findByTipoAndCantidadGreaterThan(TipoAgregado tipo, Long cantidad);
+
+    /**
+     * Incremento atómico en la base, sin leer la fila: dos calificaciones simultáneas no se pisan.
+     * Devuelve 0 si todavía no existe el agregado.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AgregadoCalificacion a SET a.suma = a.suma + :suma, a.cantidad = a.cantidad + :cantidad, " +
+           "a.estrellas1 = a.estrellas1 + :e1, a.estrellas2 = a.estrellas2 + :e2, a.estrellas3 = a.estrellas3 + :e3, " +
+           "a.estrellas4 = a.estrellas4 + :e4, a.estrellas5 = a.estrellas5 + :e5, a.fechaActualizacion = :fecha " +
+           "WHERE a.tipo = :tipo AND a.clave = :clave")
+    int incrementar(@Param("tipo") TipoAgregado tipo, @Param("clave") String clave,
+                    @Param("suma") long suma, @Param("cantidad") long cantidad,
+                    @Param("e1") long e1, @Param("e2") long e2, @Param("e3") long e3,
+                    @Param("e4") long e4, @Param("e5") long e5, @Param("fecha") LocalDateTime fecha);
+
+    @Query("SELECT SUM(a.suma), SUM(a.cantidad) FROM AgregadoCalificacion a WHERE a.tipo = :tipo")
+    List<Object[]> sumarTotales(@Param("tipo") TipoAgregado tipo);
+}
@@ -1,7 +1,9 @@
 package com.techlab.picadito.repository;
 
 import com.techlab.picadito.model.Alerta;
+import com.techlab.picadito.model.Alerta.Audiencia;
 import com.techlab.picadito.model.TipoAlerta;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -9,25 +11,164 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AlertaRepository extends JpaRepository<Alerta, Long> {
-    
-    List<Alerta> findByUsuarioIdOrderByFechaCreacionDesc(Long usuarioId);
-    
-    List<Alerta> findByUsuarioIdAndLeidaFalseOrderByFechaCreacionDesc(Long usuarioId);
+
+    // Alertas generales visibles para :usuarioId: las de todos, las de los partidos en los que está
+    // inscripto y las de las categorías de esos partidos
+    String VISIBLE_COMO_GENERAL = "(a.audiencia = :todos " +
+           " OR (a.audiencia = :porPartido AND a.partido.id IN " +
+           "     (SELECT p.partido.id FROM Participante p WHERE p.usuario.id = :usuarioId)) " +
+           " OR (a.audiencia = :porCategoria AND a.categoria.id IN " +
+           "     (SELECT c.id FROM Participante p JOIN p.partido pa JOIN pa.categorias c WHERE p.usuario.id = :usuarioId))) ";
+
+    // Alerta general sin lectura individual del usuario
+    String SIN_LECTURA = "NOT EXISTS (SELECT l.id FROM LecturaAlerta l WHERE l.usuarioId = :usuarioId AND l.alertaId = a.id) ";
+
+    // Alerta personal ya leída (por su campo o por la marca del usuario, unida como l) de los
+    // tipos indicados y anterior a la fecha límite: se puede compactar en un resumen diario
+    String COMPACTABLE = "a.audiencia = :personal AND a.tipo IN :tipos AND a.fechaCreacion < :fechaLimite " +
+           "AND (a.leida = true OR (l.usuarioId IS NOT NULL AND a.id <= l.leidasHastaId)) ";
     
     List<Alerta> findByTipoAndLeidaFalse(TipoAlerta tipo);
     
-    @Modifying
-    @Query("UPDATE Alerta a SET a.leida = true WHERE a.usuario.id = :usuarioId")
-    void marcarTodasComoLeidas(@Param("usuarioId") Long usuarioId);
-    
     @Query("SELECT a FROM Alerta a WHERE a.partido.id = :partidoId AND a.tipo = :tipo")
     List<Alerta> findByPartidoIdAndTipo(@Param("partidoId") Long partidoId, @Param("tipo") TipoAlerta tipo);
     
-    @Query("SELECT a FROM Alerta a WHERE a.fechaCreacion < :fechaLimite")
-    List<Alerta> findAlertasAntiguas(@Param("fechaLimite") LocalDateTime fechaLimite);
-}
+    /**
+     * Id y fecha de creación de las alertas creadas antes de la fecha límite, posteriores al cursor
+     * (fecha de creación, id) y en ese orden, el de idx_alertas_fecha: cada página sigue el índice
+     * desde donde terminó la anterior, aunque no se borre nada (simulación)
+     */
+    @Query("SELECT a.id, a.fechaCreacion FROM Alerta a WHERE a.fechaCreacion < :fechaLimite " +
+           "AND (a.fechaCreacion > :desdeFecha OR (a.fechaCreacion = :desdeFecha AND a.id > :desdeId)) " +
+           "ORDER BY a.fechaCreacion, a.id")
+    List<Object[]> findIdsAntiguas(@Param("fechaLimite") LocalDateTime fechaLimite,
+                                   @Param("desdeFecha") LocalDateTime desdeFecha,
+                                   @Param("desdeId") Long desdeId,
+                                   Pageable pageable);
 
+    @Modifying
+    @Query("DELETE FROM Alerta a WHERE a.id IN :ids")
+    int eliminarPorIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Alertas personales del usuario anteriores al cursor (fecha de creación, id), de la más nueva a la más vieja
+     */
+    @Query("SELECT a FROM Alerta a LEFT JOIN FETCH a.partido WHERE a.usuario.id = :usuarioId " +
+           "AND (a.fechaCreacion < :fecha OR (a.fechaCreacion = :fecha AND a.id < :id)) " +
+           "ORDER BY a.fechaCreacion DESC, a.id DESC")
+    List<Alerta> findPersonalesAntesDe(@Param("usuarioId") Long usuarioId,
+                                       @Param("fecha") LocalDateTime fecha,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    /**
+     * Alertas generales visibles para el usuario anteriores al cursor
+     */
+    @Query("SELECT a FROM Alerta a LEFT JOIN FETCH a.partido WHERE " + VISIBLE_COMO_GENERAL +
+           "AND (a.fechaCreacion < :fecha OR (a.fechaCreacion = :fecha AND a.id < :id)) " +
+           "ORDER BY a.fechaCreacion DESC, a.id DESC")
+    List<Alerta> findGeneralesAntesDe(@Param("usuarioId") Long usuarioId,
+                                      @Param("todos") Audiencia todos,
+                                      @Param("porPartido") Audiencia porPartido,
+                                      @Param("porCategoria") Audiencia porCategoria,
+                                      @Param("fecha") LocalDateTime fecha,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Alerta a SET a.audiencia = :audiencia WHERE a.audiencia IS NULL AND a.usuario IS NOT NULL")
+    int completarAudienciaPersonal(@Param("audiencia") Audiencia audiencia);
+
+    @Modifying
+    @Query("UPDATE Alerta a SET a.audiencia = :audiencia WHERE a.audiencia IS NULL AND a.usuario IS NULL AND a.partido IS NOT NULL")
+    int completarAudienciaPartido(@Param("audiencia") Audiencia audiencia);
+
+    @Modifying
+    @Query("UPDATE Alerta a SET a.audiencia = :audiencia WHERE a.audiencia IS NULL AND a.usuario IS NULL AND a.partido IS NULL")
+    int completarAudienciaTodos(@Param("audiencia") Audiencia audiencia);
+
+    @Query("SELECT COALESCE(MAX(a.id), 0) FROM Alerta a")
+    Long findMaxId();
+
+    @Query("SELECT a FROM Alerta a LEFT JOIN FETCH a.partido WHERE a.usuario.id = :usuarioId " +
+           "AND a.leida = false AND a.id > :leidasHastaId ORDER BY a.fechaCreacion DESC, a.id DESC")
+    List<Alerta> findPersonalesNoLeidas(@Param("usuarioId") Long usuarioId, @Param("leidasHastaId") Long leidasHastaId);
+
+    @Query("SELECT a FROM Alerta a LEFT JOIN FETCH a.partido WHERE " + VISIBLE_COMO_GENERAL +
+           "AND a.id > :leidasHastaId AND " + SIN_LECTURA + "ORDER BY a.fechaCreacion DESC, a.id DESC")
+    List<Alerta> findGeneralesNoLeidas(@Param("usuarioId") Long usuarioId,
+                                       @Param("todos") Audiencia todos,
+                                       @Param("porPartido") Audiencia porPartido,
+                                       @Param("porCategoria") Audiencia porCategoria,
+                                       @Param("leidasHastaId") Long leidasHastaId);
+
+    @Query("SELECT COUNT(a) FROM Alerta a WHERE " + VISIBLE_COMO_GENERAL +
+           "AND a.id > :leidasHastaId AND " + SIN_LECTURA)
+    long countGeneralesNoLeidas(@Param("usuarioId") Long usuarioId,
+                                @Param("todos") Audiencia todos,
+                                @Param("porPartido") Audiencia porPartido,
+                                @Param("porCategoria") Audiencia porCategoria,
+                                @Param("leidasHastaId") Long leidasHastaId);
+
+    /**
+     * Alertas personales no leídas por usuario, como [usuarioId, cantidad]
+     */
+    @Query("SELECT a.usuario.id, COUNT(a) FROM Alerta a WHERE a.usuario IS NOT NULL AND a.leida = false " +
+           "GROUP BY a.usuario.id")
+    List<Object[]> contarPersonalesNoLeidasPorUsuario();
+
+    /**
+     * Alertas personales no leídas entre las indicadas, por usuario, como [usuarioId, cantidad]
+     */
+    @Query("SELECT a.usuario.id, COUNT(a) FROM Alerta a " +
+           "LEFT JOIN LecturaAlertasUsuario l ON l.usuarioId = a.usuario.id " +
+           "WHERE a.id IN :ids AND a.usuario IS NOT NULL AND a.leida = false " +
+           "AND (l.usuarioId IS NULL OR a.id > l.leidasHastaId) GROUP BY a.usuario.id")
+    List<Object[]> contarPersonalesNoLeidasEn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Ids de los usuarios con alertas compactables, a partir de {@code desdeUsuarioId}, ordenados
+     */
+    @Query("SELECT DISTINCT a.usuario.id FROM Alerta a " +
+           "LEFT JOIN LecturaAlertasUsuario l ON l.usuarioId = a.usuario.id " +
+           "WHERE " + COMPACTABLE + "AND a.usuario.id > :desdeUsuarioId ORDER BY a.usuario.id")
+    List<Long> findUsuarioIdsConCompactables(@Param("personal") Audiencia personal,
+                                             @Param("tipos") Collection<TipoAlerta> tipos,
+                                             @Param("fechaLimite") LocalDateTime fechaLimite,
+                                             @Param("desdeUsuarioId") Long desdeUsuarioId,
+                                             Pageable pageable);
+
+    /**
+     * Alertas compactables del usuario, de la más vieja a la más nueva
+     */
+    @Query("SELECT a FROM Alerta a LEFT JOIN LecturaAlertasUsuario l ON l.usuarioId = a.usuario.id " +
+           "WHERE a.usuario.id = :usuarioId AND " + COMPACTABLE + "ORDER BY a.fechaCreacion, a.id")
+    List<Alerta> findCompactables(@Param("usuarioId") Long usuarioId,
+                                  @Param("personal") Audiencia personal,
+                                  @Param("tipos") Collection<TipoAlerta> tipos,
+                                  @Param("fechaLimite") LocalDateTime fechaLimite,
+                                  Pageable pageable);
+
+    Optional<Alerta> findByClaveDeduplicacion(String claveDeduplicacion);
+
+    /**
+     * Suma una ocurrencia a la alerta que acumula la clave, si sigue abierta: sin leer y creada
+     * después de {@code desde}. Devuelve 0 si la alerta ya no acumula.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Alerta a SET a.mensaje = :mensaje, a.ocurrencias = COALESCE(a.ocurrencias, 1) + 1, " +
+           "a.fechaActualizacion = :fecha WHERE a.id = :id AND a.claveDeduplicacion = :clave " +
+           "AND a.leida = false AND a.fechaCreacion >= :desde")
+    int acumularOcurrencia(@Param("id") Long id, @Param("clave") String clave, @Param("mensaje") String mensaje,
+                           @Param("desde") LocalDateTime desde, @Param("fecha") LocalDateTime fecha);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Alerta a SET a.claveDeduplicacion = NULL WHERE a.id = :id")
+    int liberarClave(@Param("id") Long id);
+}
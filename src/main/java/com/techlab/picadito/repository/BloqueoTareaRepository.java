@@ -0,0 +1,51 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.BloqueoTarea;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface BloqueoTareaRepository extends JpaRepository<BloqueoTarea, String> {
+
+    /**
+     * Toma la concesión si está libre (vencida). Devuelve 0 si otro nodo la tiene.
+     */
+    @Modifying
+    @Query("UPDATE BloqueoTarea b SET b.nodo = :nodo, b.bloqueadoEn = :ahora, b.bloqueadoHasta = :hasta " +
+           "WHERE b.nombre = :nombre AND b.bloqueadoHasta <= :ahora")
+    int adquirir(@Param("nombre") String nombre, @Param("nodo") String nodo,
+                 @Param("ahora") LocalDateTime ahora, @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Crea la fila de la tarea ya concedida a este nodo; si otro nodo la creó antes falla por clave duplicada
+     */
+    @Modifying
+    @Query(value = "INSERT INTO bloqueos_tareas (nombre, bloqueado_hasta, bloqueado_en, nodo) " +
+                   "VALUES (:nombre, :hasta, :ahora, :nodo)", nativeQuery = true)
+    int crear(@Param("nombre") String nombre, @Param("nodo") String nodo,
+              @Param("ahora") LocalDateTime ahora, @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Extiende la concesión vigente de este nodo; devuelve 0 si ya venció o la tomó otro nodo
+     */
+    @Modifying
+    @Query("UPDATE BloqueoTarea b SET b.bloqueadoHasta = :hasta WHERE b.nombre = :nombre AND b.nodo = :nodo " +
+           "AND b.bloqueadoEn = :bloqueadoEn AND b.bloqueadoHasta > :ahora")
+    int renovar(@Param("nombre") String nombre, @Param("nodo") String nodo,
+                @Param("bloqueadoEn") LocalDateTime bloqueadoEn, @Param("ahora") LocalDateTime ahora,
+                @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Deja la concesión hasta {@code hasta} (ahora, o el mínimo si la tarea terminó antes)
+     */
+    @Modifying
+    @Query("UPDATE BloqueoTarea b SET b.bloqueadoHasta = :hasta WHERE b.nombre = :nombre AND b.nodo = :nodo " +
+           "AND b.bloqueadoEn = :bloqueadoEn")
+    int liberar(@Param("nombre") String nombre, @Param("nodo") String nodo,
+                @Param("bloqueadoEn") LocalDateTime bloqueadoEn, @Param("hasta") LocalDateTime hasta);
+}
@@ -18,13 +18,17 @@ public interface CalificacionRepository extends JpaRepository<Calificacion, Long
     
     boolean existsByUsuarioIdAndPartidoId(Long usuarioId, Long partidoId);
     
-    @Query("SELECT AVG(c.puntuacion) FROM Calificacion c WHERE c.partido.id = :partidoId")
-    Double calcularPromedioPorPartido(@Param("partidoId") Long partidoId);
-    
-    @Query("SELECT AVG(c.puntuacion) FROM Calificacion c WHERE c.partido.creadorNombre = :creadorNombre")
-    Double calcularPromedioPorCreador(@Param("creadorNombre") String creadorNombre);
-    
-    @Query("SELECT AVG(c.puntuacion) FROM Calificacion c WHERE c.partido.sede.id = :sedeId")
-    Double calcularPromedioPorSede(@Param("sedeId") Long sedeId);
+    // Conteos por puntuación para reconstruir los agregados de calificaciones
+    @Query("SELECT CAST(c.partido.id AS string), c.puntuacion, COUNT(c) FROM Calificacion c " +
+           "GROUP BY c.partido.id, c.puntuacion")
+    List<Object[]> contarPorPartidoYPuntuacion();
+
+    @Query("SELECT p.creadorNombre, c.puntuacion, COUNT(c) FROM Calificacion c JOIN c.partido p " +
+           "GROUP BY p.creadorNombre, c.puntuacion")
+    List<Object[]> contarPorCreadorYPuntuacion();
+
+    @Query("SELECT CAST(p.sede.id AS string), c.puntuacion, COUNT(c) FROM Calificacion c JOIN c.partido p " +
+           "WHERE p.sede IS NOT NULL GROUP BY p.sede.id, c.puntuacion")
+    List<Object[]> contarPorSedeYPuntuacion();
 }
 
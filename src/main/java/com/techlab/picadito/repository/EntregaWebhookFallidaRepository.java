@@ -0,0 +1,15 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.EntregaWebhookFallida;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EntregaWebhookFallidaRepository extends JpaRepository<EntregaWebhookFallida, Long> {
+
+    List<EntregaWebhookFallida> findTop100ByOrderByIdDesc();
+
+    List<EntregaWebhookFallida> findTop100BySuscripcionIdOrderByIdDesc(Long suscripcionId);
+}
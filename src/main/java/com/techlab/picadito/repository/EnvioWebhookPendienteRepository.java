@@ -0,0 +1,34 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.EnvioWebhookPendiente;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EnvioWebhookPendienteRepository extends JpaRepository<EnvioWebhookPendiente, Long> {
+
+    /**
+     * Próximos envíos de la suscripción, en orden
+     */
+    List<EnvioWebhookPendiente> findBySuscripcionIdOrderByIdAsc(Long suscripcionId, Pageable pageable);
+
+    long countBySuscripcionId(Long suscripcionId);
+
+    @Query("SELECT COUNT(DISTINCT e.suscripcionId) FROM EnvioWebhookPendiente e")
+    long countDestinos();
+
+    @Modifying
+    @Query("DELETE FROM EnvioWebhookPendiente e WHERE e.id IN :ids")
+    int eliminar(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM EnvioWebhookPendiente e WHERE e.suscripcionId = :suscripcionId")
+    int eliminarDeSuscripcion(@Param("suscripcionId") Long suscripcionId);
+}
@@ -0,0 +1,107 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.Equipo;
+import com.techlab.picadito.model.Participante;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escritura de equipos en lote por JDBC. Con ids IDENTITY Hibernate inserta fila por fila;
+ * acá los equipos se insertan en un único batch recuperando las claves generadas y luego se
+ * insertan en otro batch las filas de equipo_participantes.
+ */
+@Repository
+public class EquipoLoteRepository {
+
+    private static final String INSERT_EQUIPO =
+            "INSERT INTO equipos (nombre, partido_id, puntaje) VALUES (?, ?, ?)";
+    private static final String INSERT_PARTICIPANTE =
+            "INSERT INTO equipo_participantes (equipo_id, participante_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public EquipoLoteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Elimina los equipos (y sus participantes) de los partidos indicados
+     * @return cantidad de equipos eliminados
+     */
+    public int eliminarPorPartidos(Collection<Long> partidoIds) {
+        if (partidoIds.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource parametros = new MapSqlParameterSource("ids", partidoIds);
+        namedJdbcTemplate.update("DELETE FROM equipo_participantes WHERE equipo_id IN " +
+                "(SELECT id FROM equipos WHERE partido_id IN (:ids))", parametros);
+        return namedJdbcTemplate.update("DELETE FROM equipos WHERE partido_id IN (:ids)", parametros);
+    }
+
+    /**
+     * Inserta los equipos y sus participantes en dos batches, asignando a cada equipo su id generado
+     */
+    public void insertar(List<Equipo> equipos) {
+        if (equipos.isEmpty()) {
+            return;
+        }
+        KeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_EQUIPO, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Equipo equipo = equipos.get(i);
+                        ps.setString(1, equipo.getNombre());
+                        ps.setLong(2, equipo.getPartido().getId());
+                        if (equipo.getPuntaje() != null) {
+                            ps.setDouble(3, equipo.getPuntaje());
+                        } else {
+                            ps.setNull(3, Types.DOUBLE);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return equipos.size();
+                    }
+                }, claves);
+
+        List<Map<String, Object>> generadas = claves.getKeyList();
+        List<long[]> filas = new ArrayList<>();
+        for (int i = 0; i < equipos.size(); i++) {
+            Equipo equipo = equipos.get(i);
+            equipo.setId(((Number) generadas.get(i).values().iterator().next()).longValue());
+            for (Participante participante : equipo.getParticipantes()) {
+                filas.add(new long[]{equipo.getId(), participante.getId()});
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_PARTICIPANTE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, filas.get(i)[0]);
+                ps.setLong(2, filas.get(i)[1]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return filas.size();
+            }
+        });
+    }
+}
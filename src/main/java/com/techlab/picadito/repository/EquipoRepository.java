@@ -4,11 +4,14 @@ import com.techlab.picadito.model.Equipo;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface EquipoRepository extends JpaRepository<Equipo, Long> {
     
     List<Equipo> findByPartidoId(Long partidoId);
+
+    List<Equipo> findByPartidoIdInOrderByIdAsc(Collection<Long> partidoIds);
 }
 
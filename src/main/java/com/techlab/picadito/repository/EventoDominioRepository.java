@@ -0,0 +1,47 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.EventoDominio;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EventoDominioRepository extends JpaRepository<EventoDominio, Long> {
+
+    /**
+     * Eventos confirmados posteriores a la secuencia {@code desde}, en orden
+     */
+    @Query("SELECT e FROM EventoDominio e WHERE e.secuencia > :desde ORDER BY e.secuencia")
+    List<EventoDominio> findSiguientes(@Param("desde") Long desde, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM EventoDominio e")
+    Long findMaxId();
+
+    @Query("SELECT COALESCE(MAX(e.secuencia), 0) FROM EventoDominio e")
+    Long findMaxSecuencia();
+
+    @Modifying
+    @Query("UPDATE EventoDominio e SET e.secuencia = :secuencia WHERE e.id = :id")
+    int asignarSecuencia(@Param("id") Long id, @Param("secuencia") Long secuencia);
+
+    /**
+     * Eventos guardados antes de que existiera la secuencia: toman su id, que era su posición
+     */
+    @Modifying
+    @Query("UPDATE EventoDominio e SET e.secuencia = e.id WHERE e.secuencia IS NULL AND e.id <= :hastaId")
+    int completarSecuencias(@Param("hastaId") Long hastaId);
+
+    /**
+     * Borra los eventos ya procesados por todos los suscriptores (hasta la secuencia {@code hasta})
+     * y anteriores a la fecha límite
+     */
+    @Modifying
+    @Query("DELETE FROM EventoDominio e WHERE e.secuencia <= :hasta AND e.fechaCreacion < :fechaLimite")
+    int eliminarProcesados(@Param("hasta") Long hasta, @Param("fechaLimite") LocalDateTime fechaLimite);
+}
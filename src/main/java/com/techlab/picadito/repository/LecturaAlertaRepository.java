@@ -0,0 +1,32 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.LecturaAlerta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LecturaAlertaRepository extends JpaRepository<LecturaAlerta, Long> {
+
+    boolean existsByUsuarioIdAndAlertaId(Long usuarioId, Long alertaId);
+
+    @Query("SELECT l.alertaId FROM LecturaAlerta l WHERE l.usuarioId = :usuarioId AND l.alertaId IN :alertaIds")
+    List<Long> findAlertaIdsLeidas(@Param("usuarioId") Long usuarioId, @Param("alertaIds") Collection<Long> alertaIds);
+
+    @Modifying
+    @Query("DELETE FROM LecturaAlerta l WHERE l.usuarioId = :usuarioId AND l.alertaId <= :hastaId")
+    int eliminarHasta(@Param("usuarioId") Long usuarioId, @Param("hastaId") Long hastaId);
+
+    @Modifying
+    @Query("DELETE FROM LecturaAlerta l WHERE l.alertaId = :alertaId")
+    int eliminarPorAlerta(@Param("alertaId") Long alertaId);
+
+    @Modifying
+    @Query("DELETE FROM LecturaAlerta l WHERE l.alertaId IN :alertaIds")
+    int eliminarPorAlertas(@Param("alertaIds") Collection<Long> alertaIds);
+}
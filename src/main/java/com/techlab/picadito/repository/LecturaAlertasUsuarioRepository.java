@@ -0,0 +1,36 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.LecturaAlertasUsuario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface LecturaAlertasUsuarioRepository extends JpaRepository<LecturaAlertasUsuario, Long> {
+
+    /**
+     * Suma (o resta) al contador de alertas personales no leídas sin bajar de cero.
+     * Devuelve 0 si el usuario todavía no tiene estado de lectura.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LecturaAlertasUsuario l SET " +
+           "l.noLeidas = CASE WHEN l.noLeidas + :delta < 0 THEN 0 ELSE l.noLeidas + :delta END, " +
+           "l.fechaActualizacion = :fecha WHERE l.usuarioId = :usuarioId")
+    int sumarNoLeidas(@Param("usuarioId") Long usuarioId, @Param("delta") long delta,
+                      @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Mueve la marca de lectura (nunca hacia atrás) y deja el contador en cero.
+     * Devuelve 0 si el usuario todavía no tiene estado de lectura.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LecturaAlertasUsuario l SET " +
+           "l.leidasHastaId = CASE WHEN l.leidasHastaId < :hastaId THEN :hastaId ELSE l.leidasHastaId END, " +
+           "l.noLeidas = 0, l.fechaActualizacion = :fecha WHERE l.usuarioId = :usuarioId")
+    int marcarLeidasHasta(@Param("usuarioId") Long usuarioId, @Param("hastaId") Long hastaId,
+                          @Param("fecha") LocalDateTime fecha);
+}
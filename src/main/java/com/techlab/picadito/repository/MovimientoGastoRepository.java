@@ -0,0 +1,13 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.MovimientoGasto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MovimientoGastoRepository extends JpaRepository<MovimientoGasto, Long> {
+
+    List<MovimientoGasto> findByUsuarioIdOrderByIdDesc(Long usuarioId);
+}
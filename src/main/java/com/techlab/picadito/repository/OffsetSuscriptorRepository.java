@@ -0,0 +1,47 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.OffsetSuscriptor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface OffsetSuscriptorRepository extends JpaRepository<OffsetSuscriptor, String> {
+
+    /**
+     * Avanza el offset solo si sigue en {@code anterior} y reinicia los intentos.
+     * Devuelve 0 si otro proceso lo movió antes.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OffsetSuscriptor o SET o.ultimoEventoId = :nuevo, o.intentos = 0, o.ultimoError = NULL, " +
+           "o.fechaActualizacion = :fecha WHERE o.suscriptor = :suscriptor AND o.ultimoEventoId = :anterior")
+    int avanzar(@Param("suscriptor") String suscriptor, @Param("anterior") Long anterior,
+                @Param("nuevo") Long nuevo, @Param("fecha") LocalDateTime fecha);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OffsetSuscriptor o SET o.intentos = o.intentos + 1, o.ultimoError = :error, " +
+           "o.fechaActualizacion = :fecha WHERE o.suscriptor = :suscriptor AND o.ultimoEventoId = :anterior")
+    int registrarFallo(@Param("suscriptor") String suscriptor, @Param("anterior") Long anterior,
+                       @Param("error") String error, @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Crea el offset en cero; si ya existe falla por clave duplicada en lugar de pisarlo
+     */
+    @Modifying
+    @Query(value = "INSERT INTO offsets_suscriptores (suscriptor, ultimo_evento_id, intentos, fecha_actualizacion) " +
+                   "VALUES (:suscriptor, 0, 0, :fecha)", nativeQuery = true)
+    int crear(@Param("suscriptor") String suscriptor, @Param("fecha") LocalDateTime fecha);
+
+    long countBySuscriptorIn(Collection<String> suscriptores);
+
+    /**
+     * Menor offset entre los suscriptores indicados (los eventos hasta ahí ya no hacen falta)
+     */
+    @Query("SELECT MIN(o.ultimoEventoId) FROM OffsetSuscriptor o WHERE o.suscriptor IN :suscriptores")
+    Long findMinimo(@Param("suscriptores") Collection<String> suscriptores);
+}
@@ -3,8 +3,11 @@ package com.techlab.picadito.repository;
 import com.techlab.picadito.model.Participante;
 import com.techlab.picadito.model.Partido;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,5 +17,24 @@ public interface ParticipanteRepository extends JpaRepository<Participante, Long
     List<Participante> findByPartidoId(Long partidoId);
     Optional<Participante> findByPartidoAndNombre(Partido partido, String nombre);
     boolean existsByPartidoAndNombre(Partido partido, String nombre);
-}
+    boolean existsByPartidoAndUsuarioId(Partido partido, Long usuarioId);
+
+    @Query("SELECT pa.partido.id, COUNT(pa) FROM Participante pa GROUP BY pa.partido.id")
+    List<Object[]> contarPorPartido();
 
+    /**
+     * Usuarios de la lista que están inscriptos en el partido
+     */
+    @Query("SELECT DISTINCT pa.usuario.id FROM Participante pa WHERE pa.partido.id = :partidoId " +
+           "AND pa.usuario.id IN :usuarioIds")
+    List<Long> findUsuarioIdsInscriptos(@Param("partidoId") Long partidoId,
+                                        @Param("usuarioIds") Collection<Long> usuarioIds);
+
+    /**
+     * Usuarios de la lista que jugaron partidos de la categoría
+     */
+    @Query("SELECT DISTINCT pa.usuario.id FROM Participante pa JOIN pa.partido p JOIN p.categorias c " +
+           "WHERE c.id = :categoriaId AND pa.usuario.id IN :usuarioIds")
+    List<Long> findUsuarioIdsPorCategoria(@Param("categoriaId") Long categoriaId,
+                                          @Param("usuarioIds") Collection<Long> usuarioIds);
+}
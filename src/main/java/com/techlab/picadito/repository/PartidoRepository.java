@@ -5,9 +5,13 @@ import com.techlab.picadito.model.Partido;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,5 +28,43 @@ public interface PartidoRepository extends JpaRepository<Partido, Long>, JpaSpec
     @Override
     @NonNull
     Optional<Partido> findById(@NonNull Long id);
-}
 
+    // Proyecciones para el snapshot analítico: partidos nuevos o modificados desde la última marca
+    @Query("SELECT p.id, s.nombre, p.creadorNombre, p.estado, p.fechaHora, p.maxJugadores, p.precio " +
+           "FROM Partido p LEFT JOIN p.sede s " +
+           "WHERE p.id > :desdeId OR p.fechaActualizacion > :modificadoDesde")
+    List<Object[]> findFilasAnaliticas(@Param("desdeId") Long desdeId,
+                                       @Param("modificadoDesde") LocalDateTime modificadoDesde);
+
+    @Query("SELECT p.id, c.nombre FROM Partido p JOIN p.categorias c " +
+           "WHERE p.id > :desdeId OR p.fechaActualizacion > :modificadoDesde")
+    List<Object[]> findCategoriasAnaliticas(@Param("desdeId") Long desdeId,
+                                            @Param("modificadoDesde") LocalDateTime modificadoDesde);
+
+    // Franjas ocupadas por sede para reconstruir la agenda en memoria
+    @Query("SELECT p.id, p.sede.id, p.fechaHora, p.duracionMinutos FROM Partido p " +
+           "WHERE p.sede IS NOT NULL AND p.estado <> :excluido")
+    List<Object[]> findTurnosActivos(@Param("excluido") EstadoPartido excluido);
+
+    // Horarios de los partidos que todavía pueden cambiar de estado, para el ciclo de vida en memoria
+    @Query("SELECT p.id, p.fechaHora, p.duracionMinutos, p.fechaCreacion FROM Partido p WHERE p.estado IN :estados")
+    List<Object[]> findHorariosPorEstados(@Param("estados") Collection<EstadoPartido> estados);
+
+    @Query("SELECT DISTINCT p FROM Partido p LEFT JOIN FETCH p.participantes WHERE p.id IN :ids")
+    List<Partido> findConParticipantesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Partidos de una sede que empiezan en el rango (usa el índice sede_id, fecha_hora)
+    @Query("SELECT p FROM Partido p WHERE p.sede.id = :sedeId AND p.estado <> :excluido " +
+           "AND p.fechaHora >= :desde AND p.fechaHora < :hasta")
+    List<Partido> findEnSedeEntre(@Param("sedeId") Long sedeId,
+                                  @Param("excluido") EstadoPartido excluido,
+                                  @Param("desde") LocalDateTime desde,
+                                  @Param("hasta") LocalDateTime hasta);
+
+    // Partidos de una ventana con sus participantes en una sola consulta, para generar equipos en lote
+    @Query("SELECT DISTINCT p FROM Partido p LEFT JOIN FETCH p.participantes " +
+           "WHERE p.estado = :estado AND p.fechaHora >= :desde AND p.fechaHora < :hasta ORDER BY p.fechaHora")
+    List<Partido> findConParticipantesEntre(@Param("estado") EstadoPartido estado,
+                                            @Param("desde") LocalDateTime desde,
+                                            @Param("hasta") LocalDateTime hasta);
+}
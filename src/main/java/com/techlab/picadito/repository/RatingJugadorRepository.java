@@ -0,0 +1,44 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.RatingJugador;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RatingJugadorRepository extends JpaRepository<RatingJugador, Long> {
+
+    /**
+     * Rating actual de los usuarios ({@code [usuarioId, rating]}), sin cargar entidades
+     */
+    @Query("SELECT r.usuarioId, r.rating FROM RatingJugador r WHERE r.usuarioId IN :usuarioIds")
+    List<Object[]> findRatings(@Param("usuarioIds") Collection<Long> usuarioIds);
+
+    List<RatingJugador> findByFechaActualizacionAfter(LocalDateTime desde);
+
+    /**
+     * Suma el resultado al rating sobre el valor guardado, así dos nodos que registran resultados
+     * a la vez no se pisan. Los primeros {@code provisorios} partidos usan {@code kProvisorio}.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE RatingJugador r SET " +
+           "r.rating = r.rating + :sorpresa * (CASE WHEN r.partidosJugados < :provisorios THEN :kProvisorio ELSE :k END), " +
+           "r.partidosJugados = r.partidosJugados + 1, r.fechaActualizacion = :fecha WHERE r.usuarioId = :usuarioId")
+    int sumarResultado(@Param("usuarioId") Long usuarioId, @Param("sorpresa") double sorpresa,
+                       @Param("provisorios") int provisorios, @Param("kProvisorio") double kProvisorio,
+                       @Param("k") double k, @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Crea el rating inicial del usuario; si ya existe falla por clave duplicada en lugar de pisarlo
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ratings_jugadores (usuario_id, rating, partidos_jugados, fecha_actualizacion) " +
+                   "VALUES (:usuarioId, :rating, 0, :fecha)", nativeQuery = true)
+    int crear(@Param("usuarioId") Long usuarioId, @Param("rating") double rating, @Param("fecha") LocalDateTime fecha);
+}
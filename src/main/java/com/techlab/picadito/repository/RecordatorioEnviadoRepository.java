@@ -0,0 +1,14 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.RecordatorioEnviado;
+import com.techlab.picadito.model.RecordatorioEnviado.TipoRecordatorio;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RecordatorioEnviadoRepository extends JpaRepository<RecordatorioEnviado, Long> {
+
+    boolean existsByPartidoIdAndTipoAndFechaPartido(Long partidoId, TipoRecordatorio tipo, LocalDateTime fechaPartido);
+}
@@ -0,0 +1,17 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.ReporteJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface ReporteJobRepository extends JpaRepository<ReporteJob, Long> {
+
+    Optional<ReporteJob> findFirstByTipoAndFechaInicioAndFechaFinAndEstadoInOrderByIdDesc(
+            ReporteJob.TipoReporte tipo, LocalDateTime fechaInicio, LocalDateTime fechaFin,
+            Collection<ReporteJob.EstadoJob> estados);
+}
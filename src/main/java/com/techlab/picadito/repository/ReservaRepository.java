@@ -1,9 +1,15 @@
 package com.techlab.picadito.repository;
 
 import com.techlab.picadito.model.Reserva;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,5 +20,56 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
     List<Reserva> findByUsuarioIdAndEstado(Long usuarioId, Reserva.EstadoReserva estado);
     
     List<Reserva> findByEstado(Reserva.EstadoReserva estado);
-}
 
+    /**
+     * Ids de reservas en los estados dados con algún partido que empieza antes de {@code limite},
+     * paginados por id (keyset) para procesarlos en lotes
+     */
+    @Query("SELECT DISTINCT r.id FROM Reserva r JOIN r.lineasReserva l JOIN l.partido p " +
+           "WHERE r.estado IN :estados AND p.fechaHora <= :limite AND r.id > :desdeId ORDER BY r.id")
+    List<Long> findIdsConPartidoAntesDe(@Param("estados") Collection<Reserva.EstadoReserva> estados,
+                                        @Param("limite") LocalDateTime limite,
+                                        @Param("desdeId") Long desdeId,
+                                        Pageable pageable);
+
+    @Query("SELECT DISTINCT r FROM Reserva r LEFT JOIN FETCH r.lineasReserva l LEFT JOIN FETCH l.partido " +
+           "WHERE r.id IN :ids")
+    List<Reserva> findConLineasByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reservas en los estados dados que incluyen el partido, con sus líneas
+     */
+    @Query("SELECT DISTINCT r FROM Reserva r LEFT JOIN FETCH r.lineasReserva l LEFT JOIN FETCH l.partido " +
+           "WHERE r.estado IN :estados AND EXISTS " +
+           "(SELECT 1 FROM LineaReserva lp WHERE lp.reserva = r AND lp.partido.id = :partidoId)")
+    List<Reserva> findConPartido(@Param("partidoId") Long partidoId,
+                                 @Param("estados") Collection<Reserva.EstadoReserva> estados);
+
+    @Query("SELECT COALESCE(SUM(r.total), 0) FROM Reserva r WHERE r.estado IN :estados")
+    Double sumarTotalPorEstados(@Param("estados") Collection<Reserva.EstadoReserva> estados);
+
+    @Query("SELECT COALESCE(SUM(r.total), 0) FROM Reserva r " +
+           "WHERE r.estado IN :estados AND r.fechaCreacion > :desde AND r.fechaCreacion < :hasta")
+    Double sumarTotalPorEstadosEntre(@Param("estados") Collection<Reserva.EstadoReserva> estados,
+                                     @Param("desde") LocalDateTime desde,
+                                     @Param("hasta") LocalDateTime hasta);
+
+    // Completa el precio de las líneas creadas antes de que se guardara, con el precio actual del partido
+    @Modifying
+    @Query("UPDATE LineaReserva l SET l.precioUnitario = " +
+           "(SELECT p.precio FROM Partido p WHERE p = l.partido) WHERE l.precioUnitario IS NULL")
+    int completarPreciosUnitarios();
+
+    @Modifying
+    @Query("UPDATE Reserva r SET r.total = " +
+           "(SELECT COALESCE(SUM(l.precioUnitario * l.cantidad), 0) FROM LineaReserva l WHERE l.reserva = r) " +
+           "WHERE r.total IS NULL")
+    int completarTotales();
+
+    // Proyección de líneas para el snapshot analítico: reservas nuevas o modificadas desde la última marca
+    @Query("SELECT l.id, r.id, u.email, r.estado, r.fechaCreacion, l.partido.id, l.cantidad, l.precioUnitario " +
+           "FROM LineaReserva l JOIN l.reserva r JOIN r.usuario u " +
+           "WHERE r.id > :desdeId OR r.fechaActualizacion > :modificadoDesde")
+    List<Object[]> findLineasAnaliticas(@Param("desdeId") Long desdeId,
+                                        @Param("modificadoDesde") LocalDateTime modificadoDesde);
+}
@@ -0,0 +1,33 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.SaldoUsuario;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long> {
+
+    /**
+     * Incremento atómico de los totales del usuario. Devuelve 0 si todavía no tiene saldo.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE SaldoUsuario s SET s.totalGastado = s.totalGastado + :monto, " +
+           "s.cantidadReservas = s.cantidadReservas + :reservas, " +
+           "s.reservasConfirmadas = s.reservasConfirmadas + :confirmadas, " +
+           "s.reservasCanceladas = s.reservasCanceladas + :canceladas, s.fechaActualizacion = :fecha " +
+           "WHERE s.usuarioId = :usuarioId")
+    int incrementar(@Param("usuarioId") Long usuarioId, @Param("monto") double monto,
+                    @Param("reservas") long reservas, @Param("confirmadas") long confirmadas,
+                    @Param("canceladas") long canceladas, @Param("fecha") LocalDateTime fecha);
+
+    @Query("SELECT s FROM SaldoUsuario s WHERE s.cantidadReservas > 0 " +
+           "ORDER BY s.cantidadReservas DESC, s.totalGastado DESC, s.usuarioId")
+    List<SaldoUsuario> findMasActivos(Pageable pageable);
+}
@@ -0,0 +1,30 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.Secuencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SecuenciaRepository extends JpaRepository<Secuencia, String> {
+
+    /**
+     * Suma {@code cantidad} al contador y deja su fila bloqueada hasta el fin de la transacción.
+     * Devuelve 0 si el contador todavía no existe.
+     */
+    @Modifying
+    @Query("UPDATE Secuencia s SET s.valor = s.valor + :cantidad WHERE s.nombre = :nombre")
+    int incrementar(@Param("nombre") String nombre, @Param("cantidad") long cantidad);
+
+    @Query("SELECT s.valor FROM Secuencia s WHERE s.nombre = :nombre")
+    Long findValor(@Param("nombre") String nombre);
+
+    /**
+     * Crea el contador; si otro nodo lo creó antes falla por clave duplicada
+     */
+    @Modifying
+    @Query(value = "INSERT INTO secuencias (nombre, valor) VALUES (:nombre, :valor)", nativeQuery = true)
+    int crear(@Param("nombre") String nombre, @Param("valor") long valor);
+}
@@ -1,7 +1,11 @@
 package com.techlab.picadito.repository;
 
 import com.techlab.picadito.model.Sede;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,5 +16,9 @@ public interface SedeRepository extends JpaRepository<Sede, Long> {
     List<Sede> findByNombreContainingIgnoreCase(String nombre);
     List<Sede> findByDireccion(String direccion);
     Optional<Sede> findByNombreIgnoreCase(String nombre);
-}
 
+    // Bloquea la fila de la sede hasta el fin de la transacción para serializar la asignación de horarios entre nodos
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Sede s WHERE s.id = :id")
+    Optional<Sede> findByIdParaAsignarHorario(@Param("id") Long id);
+}
@@ -0,0 +1,56 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.SuscripcionWebhook;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SuscripcionWebhookRepository extends JpaRepository<SuscripcionWebhook, Long> {
+
+    /**
+     * Suscripciones activas a los partidos de la sede o del creador indicados
+     */
+    @Query("SELECT s FROM SuscripcionWebhook s WHERE s.activa = true " +
+           "AND ((:sedeId IS NOT NULL AND s.sedeId = :sedeId) " +
+           "OR (:creadorNombre IS NOT NULL AND s.creadorNombre = :creadorNombre))")
+    List<SuscripcionWebhook> findActivasPara(@Param("sedeId") Long sedeId,
+                                            @Param("creadorNombre") String creadorNombre);
+
+    /**
+     * Suscripciones con envíos pendientes, sin envío en curso y fuera de la espera entre reintentos
+     */
+    @Query("SELECT s FROM SuscripcionWebhook s " +
+           "WHERE (s.enviandoHasta IS NULL OR s.enviandoHasta < :ahora) " +
+           "AND (s.proximoIntento IS NULL OR s.proximoIntento <= :ahora) " +
+           "AND EXISTS (SELECT 1 FROM EnvioWebhookPendiente e WHERE e.suscripcionId = s.id)")
+    List<SuscripcionWebhook> findListasParaEnviar(@Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Toma la suscripción para enviarle un lote hasta {@code hasta}, si ningún nodo la tiene y no
+     * está esperando para reintentar. Devuelve 0 si otro nodo la tomó antes.
+     */
+    @Modifying
+    @Query("UPDATE SuscripcionWebhook s SET s.enviandoHasta = :hasta WHERE s.id = :id " +
+           "AND (s.enviandoHasta IS NULL OR s.enviandoHasta < :ahora) " +
+           "AND (s.proximoIntento IS NULL OR s.proximoIntento <= :ahora)")
+    int tomar(@Param("id") Long id, @Param("ahora") LocalDateTime ahora, @Param("hasta") LocalDateTime hasta);
+
+    /**
+     * Libera la suscripción tomada hasta {@code tomadaHasta} y deja el estado del último envío;
+     * si la toma venció y la tiene otro nodo, no hace nada
+     */
+    @Modifying
+    @Query("UPDATE SuscripcionWebhook s SET s.enviandoHasta = NULL, s.intentosEntrega = :intentos, " +
+           "s.proximoIntento = :proximoIntento WHERE s.id = :id AND s.enviandoHasta = :tomadaHasta")
+    int liberar(@Param("id") Long id, @Param("tomadaHasta") LocalDateTime tomadaHasta,
+                @Param("intentos") int intentos, @Param("proximoIntento") LocalDateTime proximoIntento);
+
+    @Query("SELECT COUNT(s) FROM SuscripcionWebhook s WHERE s.intentosEntrega > 0 AND s.proximoIntento > :ahora")
+    long countEnReintento(@Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,88 @@
+package com.techlab.picadito.repository;
+
+import com.techlab.picadito.model.TipoTrabajo;
+import com.techlab.picadito.model.Trabajo;
+import com.techlab.picadito.model.Trabajo.EstadoTrabajo;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TrabajoRepository extends JpaRepository<Trabajo, Long> {
+
+    /**
+     * Trabajos listos (pendientes y disponibles, o en proceso con el plazo vencido), por prioridad.
+     * Bloquea las filas y saltea las que otro nodo está reclamando (timeout -2 = SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT t FROM Trabajo t WHERE t.tipo IN :tipos AND " +
+           "((t.estado = :pendiente AND t.disponibleDesde <= :ahora) OR " +
+           "(t.estado = :enProceso AND t.bloqueadoHasta < :ahora)) " +
+           "ORDER BY t.prioridad DESC, t.disponibleDesde ASC, t.id ASC")
+    List<Trabajo> findReclamables(@Param("tipos") Collection<TipoTrabajo> tipos,
+                                  @Param("pendiente") EstadoTrabajo pendiente,
+                                  @Param("enProceso") EstadoTrabajo enProceso,
+                                  @Param("ahora") LocalDateTime ahora,
+                                  Pageable pageable);
+
+    /**
+     * Cierra el trabajo solo si este nodo todavía lo tiene reclamado
+     */
+    @Modifying
+    @Query("UPDATE Trabajo t SET t.estado = :estado, t.ultimoError = :error, t.bloqueadoHasta = NULL, " +
+           "t.fechaFinalizacion = :fecha WHERE t.id = :id AND t.nodo = :nodo AND t.estado = :enProceso")
+    int finalizar(@Param("id") Long id, @Param("nodo") String nodo, @Param("enProceso") EstadoTrabajo enProceso,
+                  @Param("estado") EstadoTrabajo estado, @Param("error") String error,
+                  @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Devuelve a pendiente un trabajo reclamado por este nodo, disponible desde {@code disponibleDesde}
+     */
+    @Modifying
+    @Query("UPDATE Trabajo t SET t.estado = :pendiente, t.disponibleDesde = :disponibleDesde, " +
+           "t.bloqueadoHasta = NULL, t.ultimoError = :error " +
+           "WHERE t.id = :id AND t.nodo = :nodo AND t.estado = :enProceso")
+    int reprogramar(@Param("id") Long id, @Param("nodo") String nodo, @Param("enProceso") EstadoTrabajo enProceso,
+                    @Param("pendiente") EstadoTrabajo pendiente, @Param("disponibleDesde") LocalDateTime disponibleDesde,
+                    @Param("error") String error);
+
+    /**
+     * Extiende el plazo de visibilidad de los trabajos que este nodo sigue ejecutando
+     */
+    @Modifying
+    @Query("UPDATE Trabajo t SET t.bloqueadoHasta = :hasta " +
+           "WHERE t.id IN :ids AND t.nodo = :nodo AND t.estado = :enProceso")
+    int renovar(@Param("ids") Collection<Long> ids, @Param("nodo") String nodo,
+                @Param("enProceso") EstadoTrabajo enProceso, @Param("hasta") LocalDateTime hasta);
+
+    boolean existsByClave(String clave);
+
+    long countByTipoAndEstadoIn(TipoTrabajo tipo, Collection<EstadoTrabajo> estados);
+
+    @Modifying
+    @Query("DELETE FROM Trabajo t WHERE t.estado = :pendiente AND t.clave LIKE :prefijo")
+    int eliminarPendientesPorClave(@Param("pendiente") EstadoTrabajo pendiente, @Param("prefijo") String prefijo);
+
+    @Modifying
+    @Query("DELETE FROM Trabajo t WHERE t.estado IN :estados AND t.fechaFinalizacion < :fechaLimite")
+    int eliminarFinalizados(@Param("estados") Collection<EstadoTrabajo> estados,
+                            @Param("fechaLimite") LocalDateTime fechaLimite);
+
+    /**
+     * Cantidad de trabajos por tipo y estado: filas [tipo, estado, cantidad]
+     */
+    @Query("SELECT t.tipo, t.estado, COUNT(t) FROM Trabajo t GROUP BY t.tipo, t.estado")
+    List<Object[]> contarPorTipoYEstado();
+}
@@ -0,0 +1,256 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.ConflictoSedeDTO;
+import com.techlab.picadito.dto.HorariosLibresDTO;
+import com.techlab.picadito.dto.OcupacionSedeDTO;
+import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.model.EstadoPartido;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.SedeRepository;
+import com.techlab.picadito.util.Transacciones;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agenda en memoria de cada sede: una matriz de ocupación de 168 franjas (hora de la semana),
+ * por cada día con partidos un bitset de 24 horas ocupadas, y un índice ordenado de los turnos
+ * reservados para detectar superposiciones en O(log n). Se mantiene al crear, mover, cancelar
+ * o eliminar partidos y se reconstruye desde la base al iniciar la aplicación.
+ */
+@Service
+public class AgendaSedeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendaSedeService.class);
+
+    private static final int HORAS_DIA = 24;
+    private static final int HORAS_SEMANA = 7 * HORAS_DIA;
+
+    @Autowired
+    private PartidoRepository partidoRepository;
+
+    @Autowired
+    private SedeRepository sedeRepository;
+
+    private final Map<Long, AgendaSede> agendas = new ConcurrentHashMap<>();
+
+    // Última franja registrada de cada partido, para poder moverlo o liberarlo
+    private final Map<Long, Turno> turnos = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        agendas.clear();
+        turnos.clear();
+        List<Object[]> activos = partidoRepository.findTurnosActivos(EstadoPartido.CANCELADO);
+        for (Object[] fila : activos) {
+            LocalDateTime inicio = (LocalDateTime) fila[2];
+            int duracion = fila[3] != null ? (Integer) fila[3] : Partido.DURACION_POR_DEFECTO_MINUTOS;
+            aplicar(new Turno((Long) fila[0], (Long) fila[1], inicio, inicio.plusMinutes(duracion)));
+        }
+        logger.info("Agenda de sedes reconstruida con {} partidos", activos.size());
+    }
+
+    /**
+     * Registra la franja actual del partido, liberando la anterior si se movió de horario o de sede.
+     * Dentro de una transacción el cambio se aplica recién al confirmarse.
+     */
+    public void registrar(Partido partido) {
+        Long partidoId = partido.getId();
+        Turno nuevo = partido.getSede() != null && partido.getEstado() != EstadoPartido.CANCELADO
+                ? new Turno(partidoId, partido.getSede().getId(), partido.getFechaHora(), partido.getFechaFin())
+                : null;
+        Transacciones.alConfirmar(() -> {
+            quitar(partidoId);
+            if (nuevo != null) {
+                aplicar(nuevo);
+            }
+        });
+    }
+
+    /**
+     * Libera la franja de un partido cancelado o eliminado
+     */
+    public void liberar(Long partidoId) {
+        Transacciones.alConfirmar(() -> quitar(partidoId));
+    }
+
+    /**
+     * Busca un turno de la sede que se superponga con [inicio, fin), ignorando el del propio partido.
+     * Los turnos registrados no se superponen entre sí, así que ordenados por inicio también quedan
+     * ordenados por fin y basta con mirar el último que empieza antes de {@code fin}.
+     */
+    public Optional<Long> buscarConflicto(Long sedeId, Long partidoId, LocalDateTime inicio, LocalDateTime fin) {
+        AgendaSede agenda = agendas.get(sedeId);
+        if (agenda == null) {
+            return Optional.empty();
+        }
+        synchronized (agenda) {
+            Iterator<Turno> anteriores = agenda.turnos.headSet(Turno.limite(fin), false).descendingIterator();
+            while (anteriores.hasNext()) {
+                Turno turno = anteriores.next();
+                if (turno.partidoId.equals(partidoId)) {
+                    continue;
+                }
+                return turno.fin.isAfter(inicio) ? Optional.of(turno.partidoId) : Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Lista los pares de partidos superpuestos de la sede (por ejemplo, datos previos a la validación)
+     */
+    public List<ConflictoSedeDTO> obtenerConflictos(@NonNull Long sedeId) {
+        validarSede(sedeId);
+        List<ConflictoSedeDTO> conflictos = new ArrayList<>();
+        AgendaSede agenda = agendas.get(sedeId);
+        if (agenda == null) {
+            return conflictos;
+        }
+        synchronized (agenda) {
+            List<Turno> ordenados = new ArrayList<>(agenda.turnos);
+            for (int i = 0; i < ordenados.size(); i++) {
+                Turno turno = ordenados.get(i);
+                for (int j = i + 1; j < ordenados.size() && ordenados.get(j).inicio.isBefore(turno.fin); j++) {
+                    Turno otro = ordenados.get(j);
+                    conflictos.add(new ConflictoSedeDTO(sedeId, turno.partidoId, turno.inicio, turno.fin,
+                            otro.partidoId, otro.inicio, otro.fin));
+                }
+            }
+        }
+        return conflictos;
+    }
+
+    public OcupacionSedeDTO obtenerOcupacion(@NonNull Long sedeId) {
+        validarSede(sedeId);
+        int[][] matriz = new int[7][HORAS_DIA];
+        AgendaSede agenda = agendas.get(sedeId);
+        if (agenda != null) {
+            synchronized (agenda) {
+                for (int franja = 0; franja < HORAS_SEMANA; franja++) {
+                    matriz[franja / HORAS_DIA][franja % HORAS_DIA] = agenda.ocupacionSemanal[franja];
+                }
+            }
+        }
+
+        int total = 0;
+        int maximo = 0;
+        for (int[] dia : matriz) {
+            for (int valor : dia) {
+                total += valor;
+                maximo = Math.max(maximo, valor);
+            }
+        }
+        List<String> dias = Arrays.stream(DayOfWeek.values()).map(DayOfWeek::name).toList();
+        return new OcupacionSedeDTO(sedeId, dias, matriz, total, maximo);
+    }
+
+    public HorariosLibresDTO obtenerHorariosLibres(@NonNull Long sedeId, LocalDate fecha) {
+        validarSede(sedeId);
+        BitSet ocupadas = new BitSet(HORAS_DIA);
+        AgendaSede agenda = agendas.get(sedeId);
+        if (agenda != null) {
+            synchronized (agenda) {
+                AgendaDia dia = agenda.dias.get(fecha);
+                if (dia != null) {
+                    ocupadas.or(dia.ocupadas);
+                }
+            }
+        }
+        BitSet libres = (BitSet) ocupadas.clone();
+        libres.flip(0, HORAS_DIA);
+        return new HorariosLibresDTO(sedeId, fecha, aLista(libres), aLista(ocupadas));
+    }
+
+    private void validarSede(Long sedeId) {
+        if (!sedeRepository.existsById(sedeId)) {
+            throw new ResourceNotFoundException("Sede no encontrada con id: " + sedeId);
+        }
+    }
+
+    private void quitar(Long partidoId) {
+        Turno anterior = turnos.remove(partidoId);
+        if (anterior != null) {
+            actualizar(anterior, -1);
+        }
+    }
+
+    private void aplicar(Turno turno) {
+        turnos.put(turno.partidoId, turno);
+        actualizar(turno, 1);
+    }
+
+    private void actualizar(Turno turno, int delta) {
+        AgendaSede agenda = agendas.computeIfAbsent(turno.sedeId, id -> new AgendaSede());
+        synchronized (agenda) {
+            if (delta > 0) {
+                agenda.turnos.add(turno);
+            } else {
+                agenda.turnos.remove(turno);
+            }
+            for (LocalDateTime hora = turno.inicio.truncatedTo(ChronoUnit.HOURS); hora.isBefore(turno.fin); hora = hora.plusHours(1)) {
+                int franja = (hora.getDayOfWeek().getValue() - 1) * HORAS_DIA + hora.getHour();
+                agenda.ocupacionSemanal[franja] += delta;
+
+                AgendaDia dia = agenda.dias.computeIfAbsent(hora.toLocalDate(), f -> new AgendaDia());
+                int conteo = dia.conteo[hora.getHour()] += delta;
+                dia.ocupadas.set(hora.getHour(), conteo > 0);
+                if (dia.ocupadas.isEmpty()) {
+                    agenda.dias.remove(hora.toLocalDate());
+                }
+            }
+        }
+    }
+
+    private static List<Integer> aLista(BitSet bits) {
+        return bits.stream().boxed().toList();
+    }
+
+    private static final class Turno implements Comparable<Turno> {
+        final Long partidoId;
+        final Long sedeId;
+        final LocalDateTime inicio;
+        final LocalDateTime fin;
+
+        Turno(Long partidoId, Long sedeId, LocalDateTime inicio, LocalDateTime fin) {
+            this.partidoId = partidoId;
+            this.sedeId = sedeId;
+            this.inicio = inicio;
+            this.fin = fin;
+        }
+
+        // Turno ficticio que ordena antes que cualquier turno real que empiece en ese instante
+        static Turno limite(LocalDateTime inicio) {
+            return new Turno(Long.MIN_VALUE, null, inicio, inicio);
+        }
+
+        @Override
+        public int compareTo(Turno otro) {
+            int porInicio = inicio.compareTo(otro.inicio);
+            return porInicio != 0 ? porInicio : Long.compare(partidoId, otro.partidoId);
+        }
+    }
+
+    private static final class AgendaSede {
+        final TreeSet<Turno> turnos = new TreeSet<>();
+        final int[] ocupacionSemanal = new int[HORAS_SEMANA];
+        final Map<LocalDate, AgendaDia> dias = new HashMap<>();
+    }
+
+    private static final class AgendaDia {
+        final int[] conteo = new int[HORAS_DIA];
+        final BitSet ocupadas = new BitSet(HORAS_DIA);
+    }
+}
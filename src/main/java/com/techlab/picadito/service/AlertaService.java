@@ -2,22 +2,38 @@ package com.techlab.picadito.service;
 
 import com.techlab.picadito.dto.AlertaDTO;
 import com.techlab.picadito.dto.AlertaResponseDTO;
+import com.techlab.picadito.dto.PaginaAlertasDTO;
 import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.exception.ValidationException;
 import com.techlab.picadito.model.Alerta;
+import com.techlab.picadito.model.Alerta.Audiencia;
 import com.techlab.picadito.model.Partido;
 import com.techlab.picadito.model.TipoAlerta;
+import com.techlab.picadito.model.TipoEventoDominio;
 import com.techlab.picadito.model.Usuario;
 import com.techlab.picadito.repository.AlertaRepository;
+import com.techlab.picadito.util.ResumenAlertas;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,6 +42,10 @@ public class AlertaService {
 
     private static final Logger logger = LoggerFactory.getLogger(AlertaService.class);
     private static final int UMBRAL_CUPOS_BAJOS = 5;
+    private static final int MAX_PAGINA = 100;
+
+    // Cursor de la primera página: cualquier alerta es anterior
+    private static final LocalDateTime SIN_CURSOR = LocalDateTime.of(9999, 12, 31, 0, 0);
 
     @Autowired
     private AlertaRepository alertaRepository;
@@ -37,20 +57,95 @@ public class AlertaService {
     @Lazy
     private PartidoService partidoService;
 
-    public List<AlertaResponseDTO> obtenerPorUsuario(@NonNull Long usuarioId) {
-        logger.debug("Obteniendo alertas del usuario {}", usuarioId);
-        return alertaRepository.findByUsuarioIdOrderByFechaCreacionDesc(usuarioId).stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private LecturaAlertasService lecturaAlertasService;
+
+    @Autowired
+    private CoalescedorAlertas coalescedorAlertas;
+
+    @Autowired
+    private EventosDominioService eventosDominioService;
+
+    /**
+     * Asigna audiencia a las alertas creadas antes de que existiera el campo
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarAudiencias() {
+        int completadas = alertaRepository.completarAudienciaPersonal(Audiencia.USUARIO)
+                + alertaRepository.completarAudienciaPartido(Audiencia.PARTIDO)
+                + alertaRepository.completarAudienciaTodos(Audiencia.TODOS);
+        if (completadas > 0) {
+            logger.info("Audiencia asignada a {} alertas existentes", completadas);
+        }
+    }
+
+    /**
+     * Alertas del usuario, personales y generales mezcladas por fecha de creación (más nuevas primero),
+     * paginadas por cursor. Cada flujo se lee por índice hasta el tamaño de la página.
+     */
+    @Transactional(readOnly = true)
+    public PaginaAlertasDTO obtenerPorUsuario(@NonNull Long usuarioId, String cursor, int limite) {
+        if (limite < 1 || limite > MAX_PAGINA) {
+            throw new ValidationException("El límite debe estar entre 1 y " + MAX_PAGINA);
+        }
+        logger.debug("Obteniendo alertas del usuario {} desde {}", usuarioId, cursor);
+        LocalDateTime fecha = SIN_CURSOR;
+        Long id = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            Alerta desde = decodificarCursor(cursor);
+            fecha = desde.getFechaCreacion();
+            id = desde.getId();
+        }
+
+        // Se pide uno más para saber si hay página siguiente
+        Pageable pagina = PageRequest.of(0, limite + 1);
+        List<Alerta> personales = alertaRepository.findPersonalesAntesDe(usuarioId, fecha, id, pagina);
+        List<Alerta> generales = alertaRepository.findGeneralesAntesDe(usuarioId,
+                Audiencia.TODOS, Audiencia.PARTIDO, Audiencia.CATEGORIA, fecha, id, pagina);
+
+        List<Alerta> mezcla = mezclar(personales, generales, limite + 1);
+        String siguienteCursor = null;
+        if (mezcla.size() > limite) {
+            mezcla.remove(limite);
+            siguienteCursor = codificarCursor(mezcla.get(limite - 1));
+        }
+        Set<Long> leidas = lecturaAlertasService.obtenerLeidas(usuarioId, mezcla);
+        List<AlertaResponseDTO> alertas = new ArrayList<>(mezcla.size());
+        for (Alerta alerta : mezcla) {
+            AlertaResponseDTO dto = convertirADTO(alerta);
+            dto.setLeida(leidas.contains(alerta.getId()));
+            alertas.add(dto);
+        }
+        return new PaginaAlertasDTO(alertas, siguienteCursor);
     }
 
+    /**
+     * Alertas no leídas del usuario: solo se buscan por encima de su marca de lectura
+     */
+    @Transactional(readOnly = true)
     public List<AlertaResponseDTO> obtenerNoLeidasPorUsuario(@NonNull Long usuarioId) {
         logger.debug("Obteniendo alertas no leídas del usuario {}", usuarioId);
-        return alertaRepository.findByUsuarioIdAndLeidaFalseOrderByFechaCreacionDesc(usuarioId).stream()
-                .map(this::convertirADTO)
+        long leidasHasta = lecturaAlertasService.obtenerLeidasHasta(usuarioId);
+        List<Alerta> personales = alertaRepository.findPersonalesNoLeidas(usuarioId, leidasHasta);
+        List<Alerta> generales = alertaRepository.findGeneralesNoLeidas(usuarioId,
+                Audiencia.TODOS, Audiencia.PARTIDO, Audiencia.CATEGORIA, leidasHasta);
+        return mezclar(personales, generales, personales.size() + generales.size()).stream()
+                .map(alerta -> {
+                    AlertaResponseDTO dto = convertirADTO(alerta);
+                    dto.setLeida(false);
+                    return dto;
+                })
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public long contarNoLeidas(@NonNull Long usuarioId) {
+        return lecturaAlertasService.contarNoLeidas(usuarioId);
+    }
+
     public AlertaResponseDTO crear(AlertaDTO alertaDTO) {
         logger.info("Creando nueva alerta de tipo: {}", alertaDTO.getTipo());
         
@@ -58,6 +153,7 @@ public class AlertaService {
         alerta.setTipo(alertaDTO.getTipo());
         alerta.setMensaje(alertaDTO.getMensaje());
         alerta.setLeida(false);
+        alerta.setAudiencia(resolverAudiencia(alertaDTO));
 
         if (alertaDTO.getUsuarioId() != null) {
             Usuario usuario = usuarioService.obtenerUsuarioEntity(alertaDTO.getUsuarioId());
@@ -70,21 +166,32 @@ public class AlertaService {
             alerta.setPartido(partido);
         }
 
+        if (alertaDTO.getCategoriaId() != null) {
+            alerta.setCategoria(categoriaService.obtenerCategoriaEntity(alertaDTO.getCategoriaId()));
+        }
+
         alerta = alertaRepository.save(alerta);
+        lecturaAlertasService.registrarNueva(alerta);
         logger.info("Alerta creada exitosamente con id: {}", alerta.getId());
+        publicarCreada(alerta);
         return convertirADTO(alerta);
     }
 
+    /**
+     * Avisa a los jugadores del partido que quedan pocos cupos. Las repeticiones dentro de la
+     * ventana de agrupación actualizan la misma alerta con los cupos actuales; solo la alerta
+     * nueva se publica para el tiempo real (los cupos ya viajan por el canal del partido).
+     */
     public void crearAlertaCuposBajos(Partido partido) {
         int cuposDisponibles = partido.getMaxJugadores() - partido.getCantidadParticipantes();
         if (cuposDisponibles <= UMBRAL_CUPOS_BAJOS && cuposDisponibles > 0) {
-            AlertaDTO alertaDTO = new AlertaDTO();
-            alertaDTO.setTipo(TipoAlerta.CUPOS_BAJOS);
-            alertaDTO.setMensaje(String.format("El partido '%s' tiene solo %d cupos disponibles", 
-                    partido.getTitulo(), cuposDisponibles));
-            Long partidoId = Objects.requireNonNull(partido.getId(), "El partido debe tener un ID");
-            alertaDTO.setPartidoId(partidoId);
-            crear(alertaDTO);
+            Objects.requireNonNull(partido.getId(), "El partido debe tener un ID");
+            Alerta nueva = coalescedorAlertas.registrar(TipoAlerta.CUPOS_BAJOS, partido, null,
+                    String.format("El partido '%s' tiene solo %d cupos disponibles",
+                            partido.getTitulo(), cuposDisponibles));
+            if (nueva != null) {
+                publicarCreada(nueva);
+            }
         }
     }
 
@@ -106,41 +213,125 @@ public class AlertaService {
         crear(alertaDTO);
     }
 
-    public AlertaResponseDTO marcarComoLeida(@NonNull Long id) {
+    /**
+     * Marca la alerta como leída. Las generales se marcan para un usuario, que es obligatorio.
+     */
+    public AlertaResponseDTO marcarComoLeida(@NonNull Long id, Long usuarioId) {
         logger.info("Marcando alerta {} como leída", id);
         Alerta alerta = alertaRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Alerta no encontrada con id: " + id));
-        alerta.setLeida(true);
-        alerta = alertaRepository.save(alerta);
-        return convertirADTO(alerta);
+        lecturaAlertasService.marcarLeida(alerta, usuarioId);
+        if (!alerta.esGeneral()) {
+            alerta = alertaRepository.save(alerta);
+        }
+        AlertaResponseDTO dto = convertirADTO(alerta);
+        dto.setLeida(true);
+        return dto;
     }
 
     public void marcarTodasComoLeidas(@NonNull Long usuarioId) {
         logger.info("Marcando todas las alertas del usuario {} como leídas", usuarioId);
-        alertaRepository.marcarTodasComoLeidas(usuarioId);
+        lecturaAlertasService.marcarTodas(usuarioId);
     }
 
     public void eliminar(@NonNull Long id) {
         logger.info("Eliminando alerta con id: {}", id);
-        if (!alertaRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Alerta no encontrada con id: " + id);
-        }
-        alertaRepository.deleteById(id);
+        Alerta alerta = alertaRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Alerta no encontrada con id: " + id));
+        lecturaAlertasService.alEliminar(alerta);
+        alertaRepository.delete(alerta);
         logger.info("Alerta eliminada exitosamente");
     }
 
-    public void eliminarAlertasAntiguas(int diasAntiguedad) {
-        logger.info("Eliminando alertas más antiguas de {} días", diasAntiguedad);
-        java.time.LocalDateTime fechaLimite = java.time.LocalDateTime.now().minusDays(diasAntiguedad);
-        List<Alerta> alertasAntiguas = alertaRepository.findAlertasAntiguas(fechaLimite);
-        if (alertasAntiguas != null && !alertasAntiguas.isEmpty()) {
-            alertaRepository.deleteAll(alertasAntiguas);
-            logger.info("Se eliminaron {} alertas antiguas", alertasAntiguas.size());
-        } else {
-            logger.info("No se encontraron alertas antiguas para eliminar");
+    private static Audiencia resolverAudiencia(AlertaDTO alertaDTO) {
+        Audiencia audiencia = alertaDTO.getAudiencia();
+        if (audiencia == null) {
+            if (alertaDTO.getUsuarioId() != null) {
+                return Audiencia.USUARIO;
+            }
+            if (alertaDTO.getPartidoId() != null) {
+                return Audiencia.PARTIDO;
+            }
+            return alertaDTO.getCategoriaId() != null ? Audiencia.CATEGORIA : Audiencia.TODOS;
+        }
+        if (audiencia == Audiencia.USUARIO && alertaDTO.getUsuarioId() == null) {
+            throw new ValidationException("Una alerta para un usuario requiere usuarioId");
+        }
+        if (audiencia == Audiencia.PARTIDO && alertaDTO.getPartidoId() == null) {
+            throw new ValidationException("Una alerta para los jugadores de un partido requiere partidoId");
+        }
+        if (audiencia == Audiencia.CATEGORIA && alertaDTO.getCategoriaId() == null) {
+            throw new ValidationException("Una alerta para una categoría requiere categoriaId");
+        }
+        if (audiencia != Audiencia.USUARIO && alertaDTO.getUsuarioId() != null) {
+            throw new ValidationException("Una alerta general no puede tener usuarioId");
+        }
+        return audiencia;
+    }
+
+    /**
+     * Mezcla dos listas ya ordenadas de la más nueva a la más vieja, hasta {@code maximo} alertas
+     */
+    private static List<Alerta> mezclar(List<Alerta> personales, List<Alerta> generales, int maximo) {
+        List<Alerta> mezcla = new ArrayList<>(Math.min(maximo, personales.size() + generales.size()));
+        int i = 0;
+        int j = 0;
+        while (mezcla.size() < maximo && (i < personales.size() || j < generales.size())) {
+            if (j >= generales.size() || (i < personales.size() && esPosterior(personales.get(i), generales.get(j)))) {
+                mezcla.add(personales.get(i++));
+            } else {
+                mezcla.add(generales.get(j++));
+            }
+        }
+        return mezcla;
+    }
+
+    // Orden de lectura: fecha de creación descendente y, a igual fecha, id descendente
+    private static boolean esPosterior(Alerta a, Alerta b) {
+        int comparacion = a.getFechaCreacion().compareTo(b.getFechaCreacion());
+        return comparacion > 0 || (comparacion == 0 && a.getId() > b.getId());
+    }
+
+    private static String codificarCursor(Alerta alerta) {
+        String valor = alerta.getFechaCreacion() + "|" + alerta.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Alerta decodificarCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.indexOf('|');
+            Alerta desde = new Alerta();
+            desde.setFechaCreacion(LocalDateTime.parse(valor.substring(0, separador)));
+            desde.setId(Long.parseLong(valor.substring(separador + 1)));
+            return desde;
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new ValidationException("Cursor de alertas inválido");
         }
     }
 
+    /**
+     * Alertas por id, en el orden pedido; las que ya no existen se omiten
+     */
+    @Transactional(readOnly = true)
+    public List<AlertaResponseDTO> obtenerPorIds(List<Long> ids) {
+        Map<Long, Alerta> porId = alertaRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Alerta::getId, alerta -> alerta));
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .map(this::convertirADTO)
+                .collect(Collectors.toList());
+    }
+
+    // Cada nodo la envía a sus conexiones en tiempo real al leer el evento (ver TiempoRealEventosSuscriptor)
+    private void publicarCreada(Alerta alerta) {
+        eventosDominioService.publicar(TipoEventoDominio.ALERTA_CREADA,
+                alerta.getPartido() != null ? alerta.getPartido().getId() : null,
+                alerta.getUsuario() != null ? alerta.getUsuario().getId() : null,
+                alerta.getId(), null);
+    }
+
     private AlertaResponseDTO convertirADTO(Alerta alerta) {
         AlertaResponseDTO dto = new AlertaResponseDTO();
         dto.setId(alerta.getId());
@@ -148,6 +339,8 @@ public class AlertaService {
         dto.setMensaje(alerta.getMensaje());
         dto.setLeida(alerta.getLeida());
         dto.setFechaCreacion(alerta.getFechaCreacion());
+        dto.setAudiencia(alerta.getAudiencia());
+        dto.setOcurrencias(alerta.getOcurrencias() != null ? alerta.getOcurrencias() : 1);
         
         if (alerta.getUsuario() != null) {
             dto.setUsuarioId(alerta.getUsuario().getId());
@@ -157,6 +350,15 @@ public class AlertaService {
             dto.setPartidoId(alerta.getPartido().getId());
             dto.setPartidoTitulo(alerta.getPartido().getTitulo());
         }
+
+        if (alerta.getCategoria() != null) {
+            dto.setCategoriaId(alerta.getCategoria().getId());
+        }
+
+        if (alerta.getTipo() == TipoAlerta.RESUMEN_DIARIO) {
+            dto.setResumenPorTipo(ResumenAlertas.leerConteos(alerta.getDetalleResumen()));
+            dto.setPartidosResumen(ResumenAlertas.leerPartidos(alerta.getDetalleResumen()));
+        }
         
         return dto;
     }
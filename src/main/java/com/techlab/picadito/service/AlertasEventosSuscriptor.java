@@ -0,0 +1,56 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.model.EventoDominio;
+import com.techlab.picadito.model.TipoEventoDominio;
+import com.techlab.picadito.repository.PartidoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Genera las alertas que antes se creaban dentro de la transacción de la reserva o del partido:
+ * confirmación de reserva y cupos bajos. Las alertas se guardan en la misma transacción que
+ * avanza el offset, así un reintento no las duplica.
+ */
+@Service
+public class AlertasEventosSuscriptor implements SuscriptorEventos {
+
+    private static final Set<TipoEventoDominio> TIPOS = EnumSet.of(TipoEventoDominio.RESERVA_CONFIRMADA,
+            TipoEventoDominio.PARTIDO_CREADO, TipoEventoDominio.PARTIDO_ACTUALIZADO);
+
+    @Autowired
+    private AlertaService alertaService;
+
+    @Autowired
+    private PartidoRepository partidoRepository;
+
+    @Override
+    public String getNombre() {
+        return "alertas";
+    }
+
+    @Override
+    public Set<TipoEventoDominio> getTipos() {
+        return TIPOS;
+    }
+
+    @Override
+    public void procesar(List<EventoDominio> eventos) {
+        // Varios cambios del mismo partido en el lote se evalúan una sola vez, con su estado actual
+        Set<Long> partidosModificados = new LinkedHashSet<>();
+        for (EventoDominio evento : eventos) {
+            if (evento.getTipo() == TipoEventoDominio.RESERVA_CONFIRMADA) {
+                alertaService.crearAlertaReservaConfirmada(evento.getUsuarioId(), evento.getDetalle());
+            } else if (evento.getPartidoId() != null) {
+                partidosModificados.add(evento.getPartidoId());
+            }
+        }
+        for (Long partidoId : partidosModificados) {
+            partidoRepository.findById(partidoId).ifPresent(alertaService::crearAlertaCuposBajos);
+        }
+    }
+}
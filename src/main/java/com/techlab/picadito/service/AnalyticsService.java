@@ -0,0 +1,566 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.ConsultaAnaliticaDTO;
+import com.techlab.picadito.dto.ConsultaAnaliticaDTO.Dimension;
+import com.techlab.picadito.dto.ConsultaAnaliticaDTO.Hecho;
+import com.techlab.picadito.dto.ConsultaAnaliticaDTO.Metrica;
+import com.techlab.picadito.dto.ResultadoAnaliticoDTO;
+import com.techlab.picadito.exception.ValidationException;
+import com.techlab.picadito.model.EstadoPartido;
+import com.techlab.picadito.model.Reserva;
+import com.techlab.picadito.repository.ParticipanteRepository;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.ReservaRepository;
+import com.techlab.picadito.util.DiccionarioStrings;
+import com.techlab.picadito.util.SnapshotAnalitico;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Motor analítico en memoria. Mantiene un {@link SnapshotAnalitico} columnar de partidos,
+ * participantes y líneas de reserva, refrescado de forma incremental, y resuelve consultas
+ * ad-hoc de agrupación/filtro/agregación con escaneos paralelos por bloques.
+ */
+@Service
+public class AnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsService.class);
+
+    private static final int TAMANIO_BLOQUE = 16_384;
+    private static final int LIMITE_POR_DEFECTO = 1000;
+    private static final LocalDateTime INICIO = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // Margen para no perder filas cuyas transacciones confirman después de tomada la marca
+    private static final long MARGEN_SEGUNDOS = 30;
+
+    // Cada dimensión de agrupación ocupa 21 bits de la clave; el valor 0 se reserva para "sin valor"
+    private static final int BITS_POR_DIMENSION = 21;
+    private static final long MASCARA_DIMENSION = (1L << BITS_POR_DIMENSION) - 1;
+
+    private static final int ACC_CONTEO = 0;
+    private static final int ACC_INGRESOS = 1;
+    private static final int ACC_CUPOS = 2;
+    private static final int ACC_PARTICIPANTES = 3;
+    private static final int ACC_CAPACIDAD = 4;
+    private static final int ACC_CANCELACIONES = 5;
+    private static final int ACUMULADORES = 6;
+
+    private static final byte PARTIDO_CANCELADO = (byte) EstadoPartido.CANCELADO.ordinal();
+    private static final byte RESERVA_CANCELADA = (byte) Reserva.EstadoReserva.CANCELADO.ordinal();
+    // Por código de estado de reserva: si cuenta como ingreso (ver Reserva.ESTADOS_COBRADOS)
+    private static final boolean[] RESERVA_COBRADA = new boolean[Reserva.EstadoReserva.values().length];
+
+    static {
+        Reserva.ESTADOS_COBRADOS.forEach(estado -> RESERVA_COBRADA[estado.ordinal()] = true);
+    }
+
+    private static final Set<Dimension> DIMENSIONES_DE_RESERVA = EnumSet.of(Dimension.ESTADO_RESERVA, Dimension.USUARIO);
+    private static final Set<Metrica> METRICAS_PARTIDOS = EnumSet.of(
+            Metrica.CONTEO, Metrica.PARTICIPANTES, Metrica.CAPACIDAD, Metrica.TASA_OCUPACION, Metrica.CANCELACIONES);
+    private static final Set<Metrica> METRICAS_RESERVAS = EnumSet.of(
+            Metrica.CONTEO, Metrica.INGRESOS, Metrica.CUPOS_VENDIDOS, Metrica.CANCELACIONES);
+
+    @Autowired
+    private PartidoRepository partidoRepository;
+
+    @Autowired
+    private ParticipanteRepository participanteRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    private volatile SnapshotAnalitico snapshot;
+
+    // Marcas del último refresco; solo se modifican dentro de los métodos sincronizados
+    private long version;
+    private long ultimoPartidoId;
+    private long ultimaReservaId;
+    private LocalDateTime ultimaMarca = INICIO;
+
+    /**
+     * Reconstruye el snapshot completo. Además de la carga inicial, la reconstrucción periódica
+     * descarta las filas borradas, que los refrescos incrementales no detectan.
+     */
+    @Scheduled(cron = "${picadito.analytics.reconstruccion-cron:0 30 3 * * *}")
+    @Transactional(readOnly = true)
+    public synchronized void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        LocalDateTime marca = LocalDateTime.now();
+        ultimoPartidoId = 0;
+        ultimaReservaId = 0;
+
+        SnapshotAnalitico.Builder builder = SnapshotAnalitico.builder();
+        aplicarCambios(builder, INICIO);
+        publicar(builder, marca);
+
+        logger.info("Snapshot analítico reconstruido: {} partidos, {} líneas en {} ms",
+                snapshot.cantidadPartidos, snapshot.cantidadLineas, System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Aplica al snapshot los partidos y reservas creados o modificados desde el último refresco
+     */
+    @Scheduled(fixedDelayString = "${picadito.analytics.refresco-ms:60000}",
+               initialDelayString = "${picadito.analytics.refresco-ms:60000}")
+    @Transactional(readOnly = true)
+    public synchronized void refrescar() {
+        if (snapshot == null) {
+            reconstruir();
+            return;
+        }
+        LocalDateTime marca = LocalDateTime.now();
+        SnapshotAnalitico.Builder builder = snapshot.toBuilder();
+        aplicarCambios(builder, ultimaMarca.minusSeconds(MARGEN_SEGUNDOS));
+        publicar(builder, marca);
+        logger.debug("Snapshot analítico refrescado a la versión {}", version);
+    }
+
+    public Map<String, Object> obtenerEstado() {
+        SnapshotAnalitico actual = snapshot;
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("construido", actual != null);
+        if (actual != null) {
+            estado.put("version", actual.version);
+            estado.put("fechaConstruccion", actual.fechaConstruccion);
+            estado.put("partidos", actual.cantidadPartidos);
+            estado.put("lineasReserva", actual.cantidadLineas);
+            estado.put("sedes", actual.sedes.tamanio());
+            estado.put("categorias", actual.categorias.tamanio());
+            estado.put("creadores", actual.creadores.tamanio());
+            estado.put("usuarios", actual.usuarios.tamanio());
+        }
+        return estado;
+    }
+
+    public ResultadoAnaliticoDTO consultar(ConsultaAnaliticaDTO consulta) {
+        long inicio = System.nanoTime();
+        List<Dimension> dimensiones = consulta.getAgruparPor() != null ? consulta.getAgruparPor() : List.of();
+        Map<Dimension, List<String>> filtros = consulta.getFiltros() != null ? consulta.getFiltros() : Map.of();
+        validar(consulta, dimensiones, filtros);
+
+        Plan plan = new Plan(obtenerSnapshot(), consulta.getHecho() == Hecho.RESERVAS, dimensiones);
+        plan.fechaDesde = consulta.getFechaDesde() != null ? SnapshotAnalitico.aEpoch(consulta.getFechaDesde()) : Long.MIN_VALUE;
+        plan.fechaHasta = consulta.getFechaHasta() != null ? SnapshotAnalitico.aEpoch(consulta.getFechaHasta()) : Long.MAX_VALUE;
+        filtros.forEach((dimension, valores) -> plan.permitidos.put(dimension, construirFiltro(plan.snapshot, dimension, valores)));
+        for (Dimension dimension : plan.permitidos.keySet()) {
+            plan.prepararColumna(dimension);
+        }
+        for (Dimension dimension : dimensiones) {
+            plan.prepararColumna(dimension);
+        }
+
+        int filas = plan.reservas ? plan.snapshot.cantidadLineas : plan.snapshot.cantidadPartidos;
+        int bloques = (filas + TAMANIO_BLOQUE - 1) / TAMANIO_BLOQUE;
+        Map<Long, double[]> grupos = IntStream.range(0, bloques)
+                .parallel()
+                .mapToObj(b -> escanearBloque(plan, b * TAMANIO_BLOQUE, Math.min(filas, (b + 1) * TAMANIO_BLOQUE)))
+                .reduce(AnalyticsService::combinar)
+                .orElseGet(HashMap::new);
+
+        ResultadoAnaliticoDTO resultado = new ResultadoAnaliticoDTO();
+        resultado.setHecho(consulta.getHecho());
+        resultado.setAgruparPor(dimensiones);
+        resultado.setMetricas(consulta.getMetricas());
+        resultado.setFilas(construirFilas(plan, grupos, consulta.getMetricas(),
+                consulta.getLimite() != null ? consulta.getLimite() : LIMITE_POR_DEFECTO));
+        resultado.setFilasEscaneadas(filas);
+        resultado.setVersionSnapshot(plan.snapshot.version);
+        resultado.setFechaSnapshot(plan.snapshot.fechaConstruccion);
+        resultado.setTiempoMs((System.nanoTime() - inicio) / 1_000_000);
+        return resultado;
+    }
+
+    private SnapshotAnalitico obtenerSnapshot() {
+        SnapshotAnalitico actual = snapshot;
+        if (actual == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reconstruir();
+                }
+                actual = snapshot;
+            }
+        }
+        return actual;
+    }
+
+    private void publicar(SnapshotAnalitico.Builder builder, LocalDateTime marca) {
+        snapshot = builder.build(++version);
+        ultimaMarca = marca;
+    }
+
+    private void aplicarCambios(SnapshotAnalitico.Builder builder, LocalDateTime modificadoDesde) {
+        long desdePartidoId = ultimoPartidoId;
+        Map<Long, List<String>> categoriasPorPartido = new HashMap<>();
+        for (Object[] fila : partidoRepository.findFilasAnaliticas(desdePartidoId, modificadoDesde)) {
+            long id = ((Number) fila[0]).longValue();
+            builder.partido(id, (String) fila[1], (String) fila[2], (byte) ((EstadoPartido) fila[3]).ordinal(),
+                    (LocalDateTime) fila[4], ((Number) fila[5]).intValue(), (Double) fila[6]);
+            categoriasPorPartido.put(id, new ArrayList<>());
+            ultimoPartidoId = Math.max(ultimoPartidoId, id);
+        }
+        for (Object[] fila : partidoRepository.findCategoriasAnaliticas(desdePartidoId, modificadoDesde)) {
+            List<String> nombres = categoriasPorPartido.get(((Number) fila[0]).longValue());
+            if (nombres != null) {
+                nombres.add((String) fila[1]);
+            }
+        }
+        categoriasPorPartido.forEach((id, nombres) -> builder.categoriasDePartido(id, nombres.toArray(new String[0])));
+
+        // El conteo agrupado es barato y cubre también las bajas de participantes
+        builder.reiniciarParticipantes();
+        for (Object[] fila : participanteRepository.contarPorPartido()) {
+            builder.participantesDePartido(((Number) fila[0]).longValue(), ((Number) fila[1]).intValue());
+        }
+
+        long desdeReservaId = ultimaReservaId;
+        long maximaReservaId = desdeReservaId;
+        long primeraOmitida = Long.MAX_VALUE;
+        for (Object[] fila : reservaRepository.findLineasAnaliticas(desdeReservaId, modificadoDesde)) {
+            long reservaId = ((Number) fila[1]).longValue();
+            long partidoId = ((Number) fila[5]).longValue();
+            if (!builder.contienePartido(partidoId)) {
+                // Partido creado después de leer los partidos: la reserva se vuelve a leer en el próximo refresco
+                if (reservaId > desdeReservaId) {
+                    primeraOmitida = Math.min(primeraOmitida, reservaId);
+                }
+                continue;
+            }
+            builder.linea(((Number) fila[0]).longValue(), reservaId, (String) fila[2],
+                    (byte) ((Reserva.EstadoReserva) fila[3]).ordinal(), (LocalDateTime) fila[4],
+                    partidoId, ((Number) fila[6]).intValue(), fila[7] != null ? ((Number) fila[7]).doubleValue() : null);
+            maximaReservaId = Math.max(maximaReservaId, reservaId);
+        }
+        ultimaReservaId = primeraOmitida != Long.MAX_VALUE ? Math.min(maximaReservaId, primeraOmitida - 1) : maximaReservaId;
+    }
+
+    private void validar(ConsultaAnaliticaDTO consulta, List<Dimension> dimensiones, Map<Dimension, List<String>> filtros) {
+        if (consulta.getHecho() == null) {
+            throw new ValidationException("El hecho a consultar es requerido");
+        }
+        if (consulta.getMetricas() == null || consulta.getMetricas().isEmpty()) {
+            throw new ValidationException("Debe indicar al menos una métrica");
+        }
+        if (dimensiones.size() > 3) {
+            throw new ValidationException("Se puede agrupar por hasta 3 dimensiones");
+        }
+        if (new HashSet<>(dimensiones).size() != dimensiones.size()) {
+            throw new ValidationException("No se puede agrupar dos veces por la misma dimensión");
+        }
+        if (consulta.getFechaDesde() != null && consulta.getFechaHasta() != null
+                && consulta.getFechaDesde().isAfter(consulta.getFechaHasta())) {
+            throw new ValidationException("La fecha desde debe ser anterior a la fecha hasta");
+        }
+
+        boolean reservas = consulta.getHecho() == Hecho.RESERVAS;
+        Set<Metrica> soportadas = reservas ? METRICAS_RESERVAS : METRICAS_PARTIDOS;
+        for (Metrica metrica : consulta.getMetricas()) {
+            if (!soportadas.contains(metrica)) {
+                throw new ValidationException("La métrica " + metrica + " no está disponible para " + consulta.getHecho());
+            }
+        }
+        if (!reservas) {
+            Set<Dimension> usadas = EnumSet.noneOf(Dimension.class);
+            usadas.addAll(dimensiones);
+            usadas.addAll(filtros.keySet());
+            for (Dimension dimension : usadas) {
+                if (DIMENSIONES_DE_RESERVA.contains(dimension)) {
+                    throw new ValidationException("La dimensión " + dimension + " solo está disponible para RESERVAS");
+                }
+            }
+        }
+    }
+
+    private boolean[] construirFiltro(SnapshotAnalitico s, Dimension dimension, List<String> valores) {
+        boolean[] permitidos = new boolean[dominio(s, dimension)];
+        if (valores == null) {
+            return permitidos;
+        }
+        for (String valor : valores) {
+            int codigo = codificar(s, dimension, valor);
+            if (codigo >= 0 && codigo < permitidos.length) {
+                permitidos[codigo] = true;
+            }
+        }
+        return permitidos;
+    }
+
+    private Map<Long, double[]> escanearBloque(Plan plan, int desde, int hasta) {
+        SnapshotAnalitico s = plan.snapshot;
+        int n = hasta - desde;
+
+        // Filtros columna por columna sobre un vector de selección del bloque
+        boolean[] seleccion = new boolean[n];
+        long[] fechas = plan.reservas ? s.lineaFecha : s.partidoFecha;
+        for (int i = 0; i < n; i++) {
+            long fecha = fechas[desde + i];
+            seleccion[i] = fecha >= plan.fechaDesde && fecha <= plan.fechaHasta;
+        }
+        for (Map.Entry<Dimension, boolean[]> filtro : plan.permitidos.entrySet()) {
+            boolean[] permitidos = filtro.getValue();
+            if (filtro.getKey() == Dimension.CATEGORIA) {
+                for (int i = 0; i < n; i++) {
+                    if (seleccion[i]) {
+                        seleccion[i] = contieneAlguna(s.partidoCategorias[plan.filaPartido(desde + i)], permitidos);
+                    }
+                }
+                continue;
+            }
+            int[] codigos = plan.codigos(filtro.getKey(), desde, hasta);
+            for (int i = 0; i < n; i++) {
+                seleccion[i] &= permitidos[codigos[i]];
+            }
+        }
+
+        int[][] claves = new int[plan.dimensiones.size()][];
+        int posicionCategoria = plan.dimensiones.indexOf(Dimension.CATEGORIA);
+        for (int d = 0; d < claves.length; d++) {
+            if (d != posicionCategoria) {
+                claves[d] = plan.codigos(plan.dimensiones.get(d), desde, hasta);
+            }
+        }
+
+        Map<Long, double[]> grupos = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            if (!seleccion[i]) {
+                continue;
+            }
+            int fila = desde + i;
+            int partido = plan.filaPartido(fila);
+            long clave = 0;
+            for (int d = 0; d < claves.length; d++) {
+                if (d != posicionCategoria) {
+                    clave |= ((long) claves[d][i] + 1) << (BITS_POR_DIMENSION * d);
+                }
+            }
+            if (posicionCategoria < 0) {
+                acumular(grupos, clave, plan, fila, partido);
+                continue;
+            }
+            // Un partido con varias categorías aporta a cada una de ellas
+            int[] categorias = s.partidoCategorias[partido];
+            if (categorias.length == 0) {
+                acumular(grupos, clave, plan, fila, partido);
+            }
+            for (int categoria : categorias) {
+                acumular(grupos, clave | ((long) categoria + 1) << (BITS_POR_DIMENSION * posicionCategoria),
+                        plan, fila, partido);
+            }
+        }
+        return grupos;
+    }
+
+    private static void acumular(Map<Long, double[]> grupos, long clave, Plan plan, int fila, int partido) {
+        SnapshotAnalitico s = plan.snapshot;
+        double[] acc = grupos.computeIfAbsent(clave, k -> new double[ACUMULADORES]);
+        acc[ACC_CONTEO]++;
+        if (plan.reservas) {
+            byte estado = s.lineaEstado[fila];
+            if (RESERVA_COBRADA[estado]) {
+                int cantidad = s.lineaCantidad[fila];
+                acc[ACC_CUPOS] += cantidad;
+                // El precio cobrado en la reserva; el del partido solo para líneas anteriores a guardarlo
+                double precio = !Double.isNaN(s.lineaPrecio[fila]) ? s.lineaPrecio[fila] : s.partidoPrecio[partido];
+                if (!Double.isNaN(precio)) {
+                    acc[ACC_INGRESOS] += precio * cantidad;
+                }
+            } else if (estado == RESERVA_CANCELADA) {
+                acc[ACC_CANCELACIONES]++;
+            }
+        } else {
+            acc[ACC_PARTICIPANTES] += s.partidoParticipantes[partido];
+            acc[ACC_CAPACIDAD] += s.partidoMaxJugadores[partido];
+            if (s.partidoEstado[partido] == PARTIDO_CANCELADO) {
+                acc[ACC_CANCELACIONES]++;
+            }
+        }
+    }
+
+    private static Map<Long, double[]> combinar(Map<Long, double[]> a, Map<Long, double[]> b) {
+        b.forEach((clave, valores) -> a.merge(clave, valores, (x, y) -> {
+            for (int i = 0; i < ACUMULADORES; i++) {
+                x[i] += y[i];
+            }
+            return x;
+        }));
+        return a;
+    }
+
+    private static boolean contieneAlguna(int[] categorias, boolean[] permitidas) {
+        for (int categoria : categorias) {
+            if (permitidas[categoria]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<ResultadoAnaliticoDTO.Fila> construirFilas(Plan plan, Map<Long, double[]> grupos,
+                                                            List<Metrica> metricas, int limite) {
+        List<ResultadoAnaliticoDTO.Fila> filas = new ArrayList<>(grupos.size());
+        for (Map.Entry<Long, double[]> grupo : grupos.entrySet()) {
+            ResultadoAnaliticoDTO.Fila fila = new ResultadoAnaliticoDTO.Fila();
+            for (int d = 0; d < plan.dimensiones.size(); d++) {
+                int codigo = (int) ((grupo.getKey() >>> (BITS_POR_DIMENSION * d)) & MASCARA_DIMENSION) - 1;
+                Dimension dimension = plan.dimensiones.get(d);
+                fila.getGrupo().put(dimension, decodificar(plan.snapshot, dimension, codigo));
+            }
+            double[] acc = grupo.getValue();
+            for (Metrica metrica : metricas) {
+                fila.getValores().put(metrica, valor(metrica, acc));
+            }
+            filas.add(fila);
+        }
+        Metrica orden = metricas.get(0);
+        filas.sort(Comparator.comparingDouble((ResultadoAnaliticoDTO.Fila f) -> f.getValores().get(orden)).reversed());
+        return filas.size() > limite ? new ArrayList<>(filas.subList(0, limite)) : filas;
+    }
+
+    private static double valor(Metrica metrica, double[] acc) {
+        return switch (metrica) {
+            case CONTEO -> acc[ACC_CONTEO];
+            case INGRESOS -> acc[ACC_INGRESOS];
+            case CUPOS_VENDIDOS -> acc[ACC_CUPOS];
+            case PARTICIPANTES -> acc[ACC_PARTICIPANTES];
+            case CAPACIDAD -> acc[ACC_CAPACIDAD];
+            case TASA_OCUPACION -> acc[ACC_CAPACIDAD] > 0 ? acc[ACC_PARTICIPANTES] / acc[ACC_CAPACIDAD] : 0.0;
+            case CANCELACIONES -> acc[ACC_CANCELACIONES];
+        };
+    }
+
+    private static int dominio(SnapshotAnalitico s, Dimension dimension) {
+        return switch (dimension) {
+            case SEDE -> s.sedes.tamanio();
+            case CATEGORIA -> s.categorias.tamanio();
+            case CREADOR -> s.creadores.tamanio();
+            case USUARIO -> s.usuarios.tamanio();
+            case MES -> s.meses.tamanio();
+            case ESTADO_PARTIDO -> EstadoPartido.values().length;
+            case ESTADO_RESERVA -> Reserva.EstadoReserva.values().length;
+            case DIA_SEMANA -> 8;
+            case HORA -> 24;
+        };
+    }
+
+    private static int codificar(SnapshotAnalitico s, Dimension dimension, String valor) {
+        try {
+            return switch (dimension) {
+                case SEDE -> s.sedes.buscar(valor);
+                case CATEGORIA -> s.categorias.buscar(valor);
+                case CREADOR -> s.creadores.buscar(valor);
+                case USUARIO -> s.usuarios.buscar(valor);
+                case MES -> s.meses.buscar(valor);
+                case ESTADO_PARTIDO -> EstadoPartido.valueOf(valor.trim().toUpperCase()).ordinal();
+                case ESTADO_RESERVA -> Reserva.EstadoReserva.valueOf(valor.trim().toUpperCase()).ordinal();
+                case DIA_SEMANA -> valor.trim().chars().allMatch(Character::isDigit)
+                        ? DayOfWeek.of(Integer.parseInt(valor.trim())).getValue()
+                        : DayOfWeek.valueOf(valor.trim().toUpperCase()).getValue();
+                case HORA -> {
+                    int hora = Integer.parseInt(valor.trim());
+                    if (hora < 0 || hora > 23) {
+                        throw new IllegalArgumentException();
+                    }
+                    yield hora;
+                }
+            };
+        } catch (RuntimeException e) {
+            throw new ValidationException("Valor inválido '" + valor + "' para la dimensión " + dimension);
+        }
+    }
+
+    private static String decodificar(SnapshotAnalitico s, Dimension dimension, int codigo) {
+        if (codigo < 0) {
+            return DiccionarioStrings.SIN_VALOR;
+        }
+        return switch (dimension) {
+            case SEDE -> s.sedes.decodificar(codigo);
+            case CATEGORIA -> s.categorias.decodificar(codigo);
+            case CREADOR -> s.creadores.decodificar(codigo);
+            case USUARIO -> s.usuarios.decodificar(codigo);
+            case MES -> s.meses.decodificar(codigo);
+            case ESTADO_PARTIDO -> EstadoPartido.values()[codigo].name();
+            case ESTADO_RESERVA -> Reserva.EstadoReserva.values()[codigo].name();
+            case DIA_SEMANA -> codigo > 0 ? DayOfWeek.of(codigo).name() : DiccionarioStrings.SIN_VALOR;
+            case HORA -> String.valueOf(codigo);
+        };
+    }
+
+    /**
+     * Estado de una consulta: snapshot fijo, filtros ya codificados y columnas de partido
+     * convertidas a int para poder leerlas por bloque sin ramas por fila.
+     */
+    private static final class Plan {
+
+        final SnapshotAnalitico snapshot;
+        final boolean reservas;
+        final List<Dimension> dimensiones;
+        final Map<Dimension, boolean[]> permitidos = new EnumMap<>(Dimension.class);
+        final Map<Dimension, int[]> columnasPartido = new EnumMap<>(Dimension.class);
+        long fechaDesde;
+        long fechaHasta;
+
+        Plan(SnapshotAnalitico snapshot, boolean reservas, List<Dimension> dimensiones) {
+            this.snapshot = snapshot;
+            this.reservas = reservas;
+            this.dimensiones = dimensiones;
+        }
+
+        int filaPartido(int fila) {
+            return reservas ? snapshot.lineaPartido[fila] : fila;
+        }
+
+        void prepararColumna(Dimension dimension) {
+            if (columnasPartido.containsKey(dimension)) {
+                return;
+            }
+            int n = snapshot.cantidadPartidos;
+            int[] columna = switch (dimension) {
+                case SEDE -> snapshot.partidoSede;
+                case CREADOR -> snapshot.partidoCreador;
+                case MES -> snapshot.partidoMes;
+                case ESTADO_PARTIDO -> aEnteros(snapshot.partidoEstado, n);
+                case DIA_SEMANA -> aEnteros(snapshot.partidoDiaSemana, n);
+                case HORA -> aEnteros(snapshot.partidoHora, n);
+                default -> null;
+            };
+            if (columna != null) {
+                columnasPartido.put(dimension, columna);
+            }
+        }
+
+        int[] codigos(Dimension dimension, int desde, int hasta) {
+            int n = hasta - desde;
+            int[] codigos = new int[n];
+            if (dimension == Dimension.USUARIO) {
+                System.arraycopy(snapshot.lineaUsuario, desde, codigos, 0, n);
+            } else if (dimension == Dimension.ESTADO_RESERVA) {
+                for (int i = 0; i < n; i++) {
+                    codigos[i] = snapshot.lineaEstado[desde + i];
+                }
+            } else if (reservas) {
+                int[] columna = columnasPartido.get(dimension);
+                for (int i = 0; i < n; i++) {
+                    codigos[i] = columna[snapshot.lineaPartido[desde + i]];
+                }
+            } else {
+                System.arraycopy(columnasPartido.get(dimension), desde, codigos, 0, n);
+            }
+            return codigos;
+        }
+
+        private static int[] aEnteros(byte[] valores, int n) {
+            int[] enteros = new int[n];
+            for (int i = 0; i < n; i++) {
+                enteros[i] = valores[i];
+            }
+            return enteros;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.repository.BloqueoTareaRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concesiones (leases) en la base para que una tarea programada corra en un solo nodo por vez.
+ * El nodo que toma la concesión la tiene como mucho {@code maximo} desde la última renovación
+ * (se renueva cada tercio mientras la tarea corre; si el nodo se cae, vence y otro la toma) y al
+ * menos {@code minimo} desde que empezó, así un nodo con el reloj un poco atrasado no repite la
+ * misma vuelta. Los relojes de los nodos deben estar sincronizados.
+ */
+@Service
+public class BloqueoTareasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BloqueoTareasService.class);
+
+    @Autowired
+    private BloqueoTareaRepository bloqueoTareaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Identifica a este proceso en las concesiones ("pid@host" salvo que se configure)
+    @Value("${picadito.nodo.id:#{T(java.lang.management.ManagementFactory).getRuntimeMXBean().getName()}}")
+    private String nodo = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final ScheduledExecutorService renovador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "bloqueos-renovacion");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    /**
+     * Ejecuta la tarea si este nodo consigue la concesión
+     * @return false si otro nodo la tiene (la tarea no se ejecutó)
+     */
+    public boolean ejecutar(String nombre, Duration maximo, Duration minimo, Runnable tarea) {
+        // Milisegundos: la columna puede guardar menos precisión que LocalDateTime y bloqueadoEn se compara por igualdad
+        LocalDateTime inicio = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        if (!adquirir(nombre, inicio, inicio.plus(maximo))) {
+            logger.debug("Tarea {} omitida: la concesión la tiene otro nodo", nombre);
+            return false;
+        }
+
+        long periodo = Math.max(maximo.toMillis() / 3, 1);
+        ScheduledFuture<?> renovacion = renovador.scheduleAtFixedRate(
+                () -> renovar(nombre, inicio, maximo), periodo, periodo, TimeUnit.MILLISECONDS);
+        try {
+            tarea.run();
+        } finally {
+            renovacion.cancel(false);
+            liberar(nombre, inicio, inicio.plus(minimo));
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void detener() {
+        renovador.shutdownNow();
+    }
+
+    private boolean adquirir(String nombre, LocalDateTime ahora, LocalDateTime hasta) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Integer tomadas = tx.execute(estado -> bloqueoTareaRepository.adquirir(nombre, nodo, ahora, hasta));
+        if (tomadas != null && tomadas > 0) {
+            return true;
+        }
+        // Primera ejecución de la tarea: crea la fila. Si dos nodos la crean a la vez, gana uno solo
+        try {
+            Boolean creada = tx.execute(estado -> !bloqueoTareaRepository.existsById(nombre)
+                    && bloqueoTareaRepository.crear(nombre, nodo, ahora, hasta) > 0);
+            return Boolean.TRUE.equals(creada);
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void renovar(String nombre, LocalDateTime inicio, Duration maximo) {
+        try {
+            LocalDateTime ahora = LocalDateTime.now();
+            Integer renovadas = new TransactionTemplate(transactionManager).execute(estado ->
+                    bloqueoTareaRepository.renovar(nombre, nodo, inicio, ahora, ahora.plus(maximo)));
+            if (renovadas == null || renovadas == 0) {
+                logger.warn("Concesión de la tarea {} vencida antes de renovarla; otro nodo puede ejecutarla", nombre);
+            }
+        } catch (Exception e) {
+            logger.error("Error al renovar la concesión de la tarea {}: {}", nombre, e.getMessage());
+        }
+    }
+
+    private void liberar(String nombre, LocalDateTime inicio, LocalDateTime minimoHasta) {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime hasta = minimoHasta.isAfter(ahora) ? minimoHasta : ahora;
+        try {
+            new TransactionTemplate(transactionManager).execute(estado ->
+                    bloqueoTareaRepository.liberar(nombre, nodo, inicio, hasta));
+        } catch (Exception e) {
+            // La concesión vence sola al cumplirse el máximo
+            logger.error("Error al liberar la concesión de la tarea {}: {}", nombre, e.getMessage());
+        }
+    }
+}
@@ -2,22 +2,33 @@ package com.techlab.picadito.service;
 
 import com.techlab.picadito.dto.CalificacionDTO;
 import com.techlab.picadito.dto.CalificacionResponseDTO;
+import com.techlab.picadito.dto.ResumenCalificacionesDTO;
 import com.techlab.picadito.exception.BusinessException;
 import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.exception.ValidationException;
+import com.techlab.picadito.model.AgregadoCalificacion;
+import com.techlab.picadito.model.AgregadoCalificacion.TipoAgregado;
 import com.techlab.picadito.model.Calificacion;
 import com.techlab.picadito.model.EstadoPartido;
 import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.Sede;
 import com.techlab.picadito.model.Usuario;
+import com.techlab.picadito.repository.AgregadoCalificacionRepository;
 import com.techlab.picadito.repository.CalificacionRepository;
+import com.techlab.picadito.repository.SedeRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Objects;
+import java.time.LocalDateTime;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +36,7 @@ import java.util.stream.Collectors;
 public class CalificacionService {
 
     private static final Logger logger = LoggerFactory.getLogger(CalificacionService.class);
+    private static final int MAX_RANKING = 100;
 
     @Autowired
     private CalificacionRepository calificacionRepository;
@@ -35,6 +47,15 @@ public class CalificacionService {
     @Autowired
     private PartidoService partidoService;
 
+    @Autowired
+    private AgregadoCalificacionRepository agregadoCalificacionRepository;
+
+    @Autowired
+    private SedeRepository sedeRepository;
+
+    @Value("${picadito.calificaciones.ranking.peso-previo:5}")
+    private double pesoPrevio = 5;
+
     public CalificacionResponseDTO crear(@NonNull Long usuarioId, CalificacionDTO calificacionDTO) {
         logger.info("Creando calificación del usuario {} para el partido {}", usuarioId, calificacionDTO.getPartidoId());
         
@@ -59,6 +80,7 @@ public class CalificacionService {
         calificacion.setPartido(partido);
         
         calificacion = calificacionRepository.save(calificacion);
+        actualizarAgregados(partido, calificacion.getPuntuacion(), 1);
         logger.info("Calificación creada exitosamente con id: {}", calificacion.getId());
         return convertirADTO(calificacion);
     }
@@ -71,21 +93,114 @@ public class CalificacionService {
     }
 
     public Double obtenerPromedioPorPartido(@NonNull Long partidoId) {
-        logger.debug("Calculando promedio de calificaciones del partido {}", partidoId);
-        Double promedio = calificacionRepository.calcularPromedioPorPartido(partidoId);
-        return promedio != null ? promedio : 0.0;
+        logger.debug("Obteniendo promedio de calificaciones del partido {}", partidoId);
+        return obtenerPromedio(TipoAgregado.PARTIDO, partidoId.toString());
+    }
+
+    /**
+     * Promedios de varios partidos en una sola consulta (para listados)
+     * @return promedio por id de partido; los partidos sin calificaciones no aparecen
+     */
+    public Map<Long, Double> obtenerPromediosPorPartidos(@NonNull Collection<Long> partidoIds) {
+        if (partidoIds.isEmpty()) {
+            return Map.of();
+        }
+        List<String> claves = partidoIds.stream().map(String::valueOf).collect(Collectors.toList());
+        Map<Long, Double> promedios = new HashMap<>();
+        for (AgregadoCalificacion agregado : agregadoCalificacionRepository.findByTipoAndClaveIn(TipoAgregado.PARTIDO, claves)) {
+            if (agregado.getCantidad() > 0) {
+                promedios.put(Long.valueOf(agregado.getClave()), (double) agregado.getSuma() / agregado.getCantidad());
+            }
+        }
+        return promedios;
     }
 
     public Double obtenerPromedioPorCreador(@NonNull String creadorNombre) {
-        logger.debug("Calculando promedio de calificaciones del creador {}", creadorNombre);
-        Double promedio = calificacionRepository.calcularPromedioPorCreador(creadorNombre);
-        return promedio != null ? promedio : 0.0;
+        logger.debug("Obteniendo promedio de calificaciones del creador {}", creadorNombre);
+        return obtenerPromedio(TipoAgregado.CREADOR, creadorNombre);
     }
 
     public Double obtenerPromedioPorSede(@NonNull Long sedeId) {
-        logger.debug("Calculando promedio de calificaciones de la sede {}", sedeId);
-        Double promedio = calificacionRepository.calcularPromedioPorSede(sedeId);
-        return promedio != null ? promedio : 0.0;
+        logger.debug("Obteniendo promedio de calificaciones de la sede {}", sedeId);
+        return obtenerPromedio(TipoAgregado.SEDE, sedeId.toString());
+    }
+
+    /**
+     * Promedio, promedio bayesiano y distribución de estrellas de un partido, creador o sede
+     */
+    public ResumenCalificacionesDTO obtenerResumen(@NonNull TipoAgregado tipo, @NonNull String clave) {
+        AgregadoCalificacion agregado = agregadoCalificacionRepository.findByTipoAndClave(tipo, clave)
+                .orElseGet(() -> new AgregadoCalificacion(tipo, clave));
+        String nombre = tipo == TipoAgregado.CREADOR ? clave : null;
+        if (tipo == TipoAgregado.SEDE) {
+            nombre = sedeRepository.findById(Long.valueOf(clave)).map(Sede::getNombre).orElse(null);
+        }
+        return convertirResumen(agregado, nombre, mediaGlobal(), null);
+    }
+
+    /**
+     * Ranking de sedes o creadores por promedio bayesiano: cada promedio se corrige hacia la media
+     * global con el peso de {@code picadito.calificaciones.ranking.peso-previo} calificaciones, así
+     * una sede con una sola calificación de 5 no supera a otra con cientos de 4,8.
+     */
+    public List<ResumenCalificacionesDTO> obtenerRanking(@NonNull TipoAgregado tipo, int limite) {
+        if (tipo == TipoAgregado.PARTIDO) {
+            throw new ValidationException("El ranking solo está disponible para sedes y creadores");
+        }
+        if (limite < 1 || limite > MAX_RANKING) {
+            throw new ValidationException("El límite debe estar entre 1 y " + MAX_RANKING);
+        }
+        double media = mediaGlobal();
+        List<AgregadoCalificacion> mejores = agregadoCalificacionRepository.findByTipoAndCantidadGreaterThan(tipo, 0L).stream()
+                .sorted(Comparator.comparingDouble((AgregadoCalificacion a) -> promedioBayesiano(a, media)).reversed()
+                        .thenComparing(AgregadoCalificacion::getCantidad, Comparator.reverseOrder()))
+                .limit(limite)
+                .collect(Collectors.toList());
+
+        Map<String, String> nombres = new HashMap<>();
+        if (tipo == TipoAgregado.SEDE) {
+            List<Long> sedeIds = mejores.stream().map(a -> Long.valueOf(a.getClave())).collect(Collectors.toList());
+            sedeRepository.findAllById(sedeIds).forEach(s -> nombres.put(s.getId().toString(), s.getNombre()));
+        } else {
+            mejores.forEach(a -> nombres.put(a.getClave(), a.getClave()));
+        }
+
+        List<ResumenCalificacionesDTO> ranking = new ArrayList<>();
+        for (AgregadoCalificacion agregado : mejores) {
+            ranking.add(convertirResumen(agregado, nombres.get(agregado.getClave()), media, ranking.size() + 1));
+        }
+        return ranking;
+    }
+
+    /**
+     * Recalcula todos los agregados desde las calificaciones (para datos previos a los agregados
+     * o si quedaron desalineados)
+     */
+    public int reconstruirAgregados() {
+        logger.info("Reconstruyendo agregados de calificaciones");
+        agregadoCalificacionRepository.deleteAllInBatch();
+        Map<String, AgregadoCalificacion> agregados = new LinkedHashMap<>();
+        acumularConteos(agregados, TipoAgregado.PARTIDO, calificacionRepository.contarPorPartidoYPuntuacion());
+        acumularConteos(agregados, TipoAgregado.CREADOR, calificacionRepository.contarPorCreadorYPuntuacion());
+        acumularConteos(agregados, TipoAgregado.SEDE, calificacionRepository.contarPorSedeYPuntuacion());
+        LocalDateTime ahora = LocalDateTime.now();
+        agregados.values().forEach(a -> a.setFechaActualizacion(ahora));
+        agregadoCalificacionRepository.saveAll(agregados.values());
+        logger.info("Agregados de calificaciones reconstruidos: {}", agregados.size());
+        return agregados.size();
+    }
+
+    /**
+     * Al iniciar, reconstruye los agregados si no cubren todas las calificaciones existentes
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verificarAgregados() {
+        long calificaciones = calificacionRepository.count();
+        long[] totales = totales(TipoAgregado.PARTIDO);
+        if (totales[1] != calificaciones) {
+            logger.warn("Los agregados cubren {} de {} calificaciones", totales[1], calificaciones);
+            reconstruirAgregados();
+        }
     }
 
     public CalificacionResponseDTO obtenerPorId(@NonNull Long id) {
@@ -97,13 +212,94 @@ public class CalificacionService {
 
     public void eliminar(@NonNull Long id) {
         logger.info("Eliminando calificación con id: {}", id);
-        if (!calificacionRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Calificación no encontrada con id: " + id);
-        }
-        calificacionRepository.deleteById(id);
+        Calificacion calificacion = calificacionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Calificación no encontrada con id: " + id));
+        calificacionRepository.delete(calificacion);
+        actualizarAgregados(calificacion.getPartido(), calificacion.getPuntuacion(), -1);
         logger.info("Calificación eliminada exitosamente");
     }
 
+    /**
+     * Suma (o resta) la calificación en los agregados del partido, su creador y su sede.
+     * Solo se califican partidos finalizados, que ya no pueden cambiar de creador ni de sede.
+     */
+    private void actualizarAgregados(Partido partido, int puntuacion, int veces) {
+        incrementar(TipoAgregado.PARTIDO, partido.getId().toString(), puntuacion, veces);
+        if (partido.getCreadorNombre() != null) {
+            incrementar(TipoAgregado.CREADOR, partido.getCreadorNombre(), puntuacion, veces);
+        }
+        if (partido.getSede() != null) {
+            incrementar(TipoAgregado.SEDE, partido.getSede().getId().toString(), puntuacion, veces);
+        }
+    }
+
+    private void incrementar(TipoAgregado tipo, String clave, int puntuacion, int veces) {
+        long[] estrellas = new long[5];
+        estrellas[puntuacion - 1] = veces;
+        int actualizados = agregadoCalificacionRepository.incrementar(tipo, clave, (long) puntuacion * veces, veces,
+                estrellas[0], estrellas[1], estrellas[2], estrellas[3], estrellas[4], LocalDateTime.now());
+        if (actualizados == 0 && veces > 0) {
+            AgregadoCalificacion agregado = new AgregadoCalificacion(tipo, clave);
+            agregado.acumular(puntuacion, veces);
+            agregado.setFechaActualizacion(LocalDateTime.now());
+            try {
+                agregadoCalificacionRepository.saveAndFlush(agregado);
+            } catch (DataIntegrityViolationException e) {
+                // Otra transacción creó el mismo agregado en paralelo
+                throw new BusinessException("No se pudo registrar la calificación por un cambio simultáneo. Intente nuevamente.");
+            }
+        }
+    }
+
+    private Double obtenerPromedio(TipoAgregado tipo, String clave) {
+        return agregadoCalificacionRepository.findByTipoAndClave(tipo, clave)
+                .filter(a -> a.getCantidad() > 0)
+                .map(a -> (double) a.getSuma() / a.getCantidad())
+                .orElse(0.0);
+    }
+
+    private double mediaGlobal() {
+        long[] totales = totales(TipoAgregado.PARTIDO);
+        return totales[1] > 0 ? (double) totales[0] / totales[1] : 0.0;
+    }
+
+    private long[] totales(TipoAgregado tipo) {
+        List<Object[]> filas = agregadoCalificacionRepository.sumarTotales(tipo);
+        Object[] fila = filas.isEmpty() ? null : filas.get(0);
+        if (fila == null || fila[0] == null) {
+            return new long[]{0, 0};
+        }
+        return new long[]{((Number) fila[0]).longValue(), ((Number) fila[1]).longValue()};
+    }
+
+    private double promedioBayesiano(AgregadoCalificacion agregado, double media) {
+        return (pesoPrevio * media + agregado.getSuma()) / (pesoPrevio + agregado.getCantidad());
+    }
+
+    private static void acumularConteos(Map<String, AgregadoCalificacion> agregados, TipoAgregado tipo, List<Object[]> filas) {
+        for (Object[] fila : filas) {
+            String clave = (String) fila[0];
+            agregados.computeIfAbsent(tipo + ":" + clave, k -> new AgregadoCalificacion(tipo, clave))
+                    .acumular(((Number) fila[1]).intValue(), ((Number) fila[2]).longValue());
+        }
+    }
+
+    private ResumenCalificacionesDTO convertirResumen(AgregadoCalificacion agregado, String nombre, double media, Integer posicion) {
+        Map<Integer, Long> distribucion = new LinkedHashMap<>();
+        long[] histograma = agregado.getHistograma();
+        for (int i = 0; i < histograma.length; i++) {
+            distribucion.put(i + 1, histograma[i]);
+        }
+        Double promedio = agregado.getCantidad() > 0 ? redondear((double) agregado.getSuma() / agregado.getCantidad()) : 0.0;
+        Double bayesiano = agregado.getCantidad() > 0 || media > 0 ? redondear(promedioBayesiano(agregado, media)) : 0.0;
+        return new ResumenCalificacionesDTO(agregado.getTipo().name(), agregado.getClave(), nombre,
+                agregado.getCantidad(), promedio, bayesiano, distribucion, posicion);
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 100) / 100.0;
+    }
+
     private CalificacionResponseDTO convertirADTO(Calificacion calificacion) {
         CalificacionResponseDTO dto = new CalificacionResponseDTO();
         dto.setId(calificacion.getId());
@@ -0,0 +1,371 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.model.EstadoPartido;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.util.Transacciones;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ciclo de vida automático de los partidos. Cada partido activo tiene dos vencimientos en una
+ * cola con demora: el cierre de inscripción (unas horas antes del inicio), donde se cancela si
+ * no llegó al mínimo de jugadores, y el fin del turno, donde pasa a FINALIZADO. Un partido creado
+ * o reprogramado cuando su cierre ya pasó no tiene cierre: solo el fin del turno. Un hilo espera
+ * el próximo vencimiento y aplica las transiciones en lotes chicos, revalidando el estado contra
+ * la base, con los mismos efectos que la cancelación y finalización manuales. Cada nodo tiene su
+ * cola, pero los lotes se aplican bajo una concesión compartida (ver {@link BloqueoTareasService}):
+ * si otro nodo está aplicando los suyos, el lote vuelve a la cola y se reintenta en un rato. Si un
+ * lote falla, sus vencimientos vuelven a la cola con espera creciente. La cola se arma de nuevo
+ * desde la base al iniciar.
+ */
+@Service
+public class CicloVidaPartidoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CicloVidaPartidoService.class);
+
+    private static final String TAREA = "ciclo-vida-partidos";
+    private static final Duration MAXIMO_CONCESION = Duration.ofMinutes(5);
+    private static final long ESPERA_MAXIMA_MS = 300_000;
+    private static final long SIN_CIERRE = Long.MIN_VALUE;
+
+    private static final List<EstadoPartido> ESTADOS_ACTIVOS = List.of(EstadoPartido.DISPONIBLE, EstadoPartido.COMPLETO);
+
+    @Autowired
+    private PartidoRepository partidoRepository;
+
+    @Autowired
+    @Lazy
+    private PartidoService partidoService;
+
+    @Autowired
+    private BloqueoTareasService bloqueoTareasService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${picadito.partidos.ciclo-vida.cierre-horas-antes:2}")
+    private int cierreHorasAntes = 2;
+
+    @Value("${picadito.partidos.ciclo-vida.minimo-jugadores:10}")
+    private int minimoJugadores = 10;
+
+    @Value("${picadito.partidos.ciclo-vida.tamanio-lote:50}")
+    private int tamanioLote = 50;
+
+    @Value("${picadito.partidos.ciclo-vida.espera-reintento-ms:5000}")
+    private long esperaReintentoMs = 5_000;
+
+    private final DelayQueue<Vencimiento> cola = new DelayQueue<>();
+
+    // Vencimientos vigentes por partido; los que quedan en la cola y ya no coinciden se descartan
+    private final Map<Long, Programacion> programados = new ConcurrentHashMap<>();
+
+    private final AtomicLong finalizados = new AtomicLong();
+    private final AtomicLong cancelados = new AtomicLong();
+
+    private volatile Thread trabajador;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        reconstruir();
+        Thread hilo = new Thread(this::esperarVencimientos, "ciclo-vida-partidos");
+        hilo.setDaemon(true);
+        trabajador = hilo;
+        hilo.start();
+    }
+
+    @PreDestroy
+    public void detener() {
+        Thread hilo = trabajador;
+        trabajador = null;
+        if (hilo != null) {
+            hilo.interrupt();
+        }
+    }
+
+    public void reconstruir() {
+        cola.clear();
+        programados.clear();
+        for (Object[] fila : partidoRepository.findHorariosPorEstados(ESTADOS_ACTIVOS)) {
+            LocalDateTime fechaHora = (LocalDateTime) fila[1];
+            Integer duracion = (Integer) fila[2];
+            LocalDateTime fechaCreacion = (LocalDateTime) fila[3];
+            // Un cierre que venció con la aplicación detenida se aplica, salvo que el partido se haya creado después
+            boolean conCierre = fechaCreacion == null || fechaCreacion.isBefore(fechaHora.minusHours(cierreHorasAntes));
+            aplicar((Long) fila[0], fechaHora, fechaFin(fechaHora, duracion), conCierre);
+        }
+        logger.info("Ciclo de vida de partidos: {} partidos programados", programados.size());
+    }
+
+    /**
+     * Programa (o reprograma) los vencimientos del partido cuando se confirma la transacción. Si
+     * el cierre de inscripción ya pasó (partido creado o movido a menos de {@code cierre-horas-antes}
+     * del inicio) no se programa, así no se cancela apenas creado.
+     */
+    public void programar(Partido partido) {
+        Long partidoId = partido.getId();
+        boolean activo = ESTADOS_ACTIVOS.contains(partido.getEstado()) && partido.getFechaHora() != null;
+        LocalDateTime inicio = partido.getFechaHora();
+        LocalDateTime fin = partido.getFechaFin();
+        Transacciones.alConfirmar(() -> {
+            if (activo) {
+                aplicar(partidoId, inicio, fin, false);
+            } else {
+                programados.remove(partidoId);
+            }
+        });
+    }
+
+    /**
+     * Quita los vencimientos de un partido cancelado, finalizado o eliminado
+     */
+    public void quitar(Long partidoId) {
+        Transacciones.alConfirmar(() -> programados.remove(partidoId));
+    }
+
+    public int cantidadProgramados() {
+        return programados.size();
+    }
+
+    public long getFinalizados() {
+        return finalizados.get();
+    }
+
+    public long getCancelados() {
+        return cancelados.get();
+    }
+
+    /**
+     * Aplica todos los vencimientos ya cumplidos, en lotes de a {@code tamanio-lote}
+     * @return cantidad de partidos que cambiaron de estado
+     */
+    public int procesarVencidos() {
+        int cambios = 0;
+        List<Vencimiento> lote = new ArrayList<>();
+        Vencimiento vencido;
+        while ((vencido = cola.poll()) != null) {
+            lote.add(vencido);
+            if (lote.size() >= tamanioLote) {
+                cambios += procesarOReintentar(lote);
+                lote = new ArrayList<>();
+            }
+        }
+        if (!lote.isEmpty()) {
+            cambios += procesarOReintentar(lote);
+        }
+        return cambios;
+    }
+
+    private void esperarVencimientos() {
+        while (trabajador == Thread.currentThread()) {
+            try {
+                Vencimiento primero = cola.take();
+                List<Vencimiento> lote = new ArrayList<>();
+                lote.add(primero);
+                cola.drainTo(lote, tamanioLote - 1);
+                procesarOReintentar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Error en el ciclo de vida de partidos: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Procesa el lote con la concesión tomada, así un solo nodo por vez cambia estados. Si la tiene
+     * otro nodo, o si el lote falla, sus vencimientos vuelven a la cola en lugar de perderse hasta
+     * el próximo reinicio; solo los fallos cuentan para la espera creciente.
+     */
+    private int procesarOReintentar(List<Vencimiento> vencimientos) {
+        AtomicInteger cambios = new AtomicInteger();
+        try {
+            if (!bloqueoTareasService.ejecutar(TAREA, MAXIMO_CONCESION, Duration.ZERO,
+                    () -> cambios.set(procesarLote(vencimientos)))) {
+                logger.debug("Vencimientos pospuestos: otro nodo está aplicando los suyos");
+                reencolar(vencimientos, false);
+            }
+        } catch (RuntimeException e) {
+            reencolar(vencimientos, true);
+            logger.error("Error en el ciclo de vida de partidos, {} vencimientos se reintentan: {}",
+                    vencimientos.size(), e.getMessage(), e);
+        }
+        return cambios.get();
+    }
+
+    private void reencolar(List<Vencimiento> vencimientos, boolean fallo) {
+        long ahora = System.currentTimeMillis();
+        for (Vencimiento vencimiento : vencimientos) {
+            int intentos = fallo ? vencimiento.intentos + 1 : vencimiento.intentos;
+            long espera = Math.min(esperaReintentoMs << Math.min(Math.max(intentos - 1, 0), 20), ESPERA_MAXIMA_MS);
+            cola.add(new Vencimiento(vencimiento.partidoId, vencimiento.tipo, vencimiento.instante,
+                    ahora + espera, intentos));
+        }
+    }
+
+    private int procesarLote(List<Vencimiento> vencimientos) {
+        Map<Long, Vencimiento> vigentes = new LinkedHashMap<>();
+        for (Vencimiento vencimiento : vencimientos) {
+            if (esVigente(vencimiento)) {
+                // Si vencieron los dos, el fin del turno manda sobre el cierre de inscripción
+                vigentes.merge(vencimiento.partidoId, vencimiento,
+                        (a, b) -> a.tipo == TipoVencimiento.FIN ? a : b);
+            }
+        }
+        if (vigentes.isEmpty()) {
+            return 0;
+        }
+
+        // Partidos que ya no necesitan vencimientos: se quitan recién si el lote se confirma
+        Set<Long> terminados = new HashSet<>();
+        Integer cambios = new TransactionTemplate(transactionManager).execute(estado -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            int modificados = 0;
+            for (Partido partido : partidoRepository.findConParticipantesByIdIn(vigentes.keySet())) {
+                if (!ESTADOS_ACTIVOS.contains(partido.getEstado()) || partido.getFechaHora() == null) {
+                    terminados.add(partido.getId());
+                } else if (aplicarTransicion(partido, vigentes.get(partido.getId()).tipo, ahora)) {
+                    modificados++;
+                    terminados.add(partido.getId());
+                }
+            }
+            return modificados;
+        });
+        terminados.forEach(programados::remove);
+        return cambios != null ? cambios : 0;
+    }
+
+    /**
+     * Revalida contra el estado actual del partido y aplica la transición que corresponda
+     */
+    private boolean aplicarTransicion(Partido partido, TipoVencimiento tipo, LocalDateTime ahora) {
+        if (tipo == TipoVencimiento.CIERRE
+                && !partido.getFechaHora().minusHours(cierreHorasAntes).isAfter(ahora)
+                && partido.getCantidadParticipantes() < Math.min(minimoJugadores, partido.getMaxJugadores())) {
+            int minimo = Math.min(minimoJugadores, partido.getMaxJugadores());
+            partidoService.aplicarCancelacion(partido);
+            cancelados.incrementAndGet();
+            logger.info("Partido {} cancelado: {} de {} jugadores al cierre de inscripción",
+                    partido.getId(), partido.getCantidadParticipantes(), minimo);
+            return true;
+        }
+        if (tipo == TipoVencimiento.FIN && !partido.getFechaFin().isAfter(ahora)) {
+            partidoService.finalizarPartido(partido);
+            finalizados.incrementAndGet();
+            logger.info("Partido {} finalizado automáticamente", partido.getId());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param cierreVencido si un cierre que ya pasó se aplica igual (al reconstruir) o se omite
+     */
+    private void aplicar(Long partidoId, LocalDateTime inicio, LocalDateTime fin, boolean cierreVencido) {
+        long cierre = aMillis(inicio.minusHours(cierreHorasAntes));
+        Programacion anterior = programados.get(partidoId);
+        // Un cierre ya vencido solo sigue si es el mismo que estaba programado (p. ej. en reintento)
+        if (!cierreVencido && cierre <= System.currentTimeMillis() && (anterior == null || anterior.cierre != cierre)) {
+            cierre = SIN_CIERRE;
+        }
+        Programacion programacion = new Programacion(cierre, aMillis(fin));
+        programados.put(partidoId, programacion);
+        if (programacion.igualA(anterior)) {
+            return;
+        }
+        if (cierre != SIN_CIERRE) {
+            cola.add(new Vencimiento(partidoId, TipoVencimiento.CIERRE, cierre));
+        }
+        cola.add(new Vencimiento(partidoId, TipoVencimiento.FIN, programacion.fin));
+    }
+
+    private boolean esVigente(Vencimiento vencimiento) {
+        Programacion programacion = programados.get(vencimiento.partidoId);
+        if (programacion == null) {
+            return false;
+        }
+        long esperado = vencimiento.tipo == TipoVencimiento.CIERRE ? programacion.cierre : programacion.fin;
+        return esperado == vencimiento.instante;
+    }
+
+    private static LocalDateTime fechaFin(LocalDateTime fechaHora, Integer duracion) {
+        return fechaHora.plusMinutes(duracion != null ? duracion : Partido.DURACION_POR_DEFECTO_MINUTOS);
+    }
+
+    private static long aMillis(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private enum TipoVencimiento {
+        CIERRE,
+        FIN
+    }
+
+    private static final class Programacion {
+        final long cierre;
+        final long fin;
+
+        Programacion(long cierre, long fin) {
+            this.cierre = cierre;
+            this.fin = fin;
+        }
+
+        boolean igualA(Programacion otra) {
+            return otra != null && cierre == otra.cierre && fin == otra.fin;
+        }
+    }
+
+    private static final class Vencimiento implements Delayed {
+        final Long partidoId;
+        final TipoVencimiento tipo;
+        // Instante programado, con el que se valida que siga vigente
+        final long instante;
+        // Cuándo sale de la cola: el instante programado, o más tarde si se está reintentando
+        final long disponible;
+        final int intentos;
+
+        Vencimiento(Long partidoId, TipoVencimiento tipo, long instante) {
+            this(partidoId, tipo, instante, instante, 0);
+        }
+
+        Vencimiento(Long partidoId, TipoVencimiento tipo, long instante, long disponible, int intentos) {
+            this.partidoId = partidoId;
+            this.tipo = tipo;
+            this.instante = instante;
+            this.disponible = disponible;
+            this.intentos = intentos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(disponible - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed otro) {
+            return Long.compare(disponible, ((Vencimiento) otro).disponible);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.exception.BusinessException;
+import com.techlab.picadito.model.Alerta;
+import com.techlab.picadito.model.Alerta.Audiencia;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.TipoAlerta;
+import com.techlab.picadito.model.Usuario;
+import com.techlab.picadito.repository.AlertaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Agrupa alertas repetidas del mismo tipo, partido y usuario: mientras la alerta abierta no se
+ * lea y no pase la ventana desde su creación, cada repetición actualiza el mensaje y suma una
+ * ocurrencia en lugar de insertar otra fila. La clave vive en la base con restricción única; un
+ * mapa acotado recuerda el id de la alerta abierta para actualizarla sin consultarla.
+ */
+@Service
+@Transactional
+public class CoalescedorAlertas {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoalescedorAlertas.class);
+    private static final int MAX_CLAVES = 10_000;
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private LecturaAlertasService lecturaAlertasService;
+
+    @Value("${picadito.alertas.coalescencia.ventana-minutos:30}")
+    private int ventanaMinutos = 30;
+
+    // Clave -> id de la alerta abierta; si el dato quedó viejo, la actualización no afecta filas
+    private final Map<String, Long> abiertas = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > MAX_CLAVES;
+                }
+            });
+
+    /**
+     * Registra una ocurrencia del evento para el partido (y el usuario, si es personal)
+     * @return la alerta nueva, o null si se agrupó en la abierta
+     */
+    public Alerta registrar(TipoAlerta tipo, Partido partido, Usuario usuario, String mensaje) {
+        String clave = tipo + ":" + partido.getId() + ":" + (usuario != null ? usuario.getId() : "*");
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime desde = ahora.minusMinutes(ventanaMinutos);
+
+        Long abierta = abiertas.get(clave);
+        if (abierta != null && alertaRepository.acumularOcurrencia(abierta, clave, mensaje, desde, ahora) > 0) {
+            logger.debug("Alerta {} agrupada en {}", clave, abierta);
+            return null;
+        }
+
+        Optional<Alerta> existente = alertaRepository.findByClaveDeduplicacion(clave);
+        if (existente.isPresent()) {
+            Long id = existente.get().getId();
+            if (alertaRepository.acumularOcurrencia(id, clave, mensaje, desde, ahora) > 0) {
+                abiertas.put(clave, id);
+                return null;
+            }
+            // Ya leída o fuera de la ventana: se cierra y la ocurrencia abre una alerta nueva
+            alertaRepository.liberarClave(id);
+        }
+
+        Alerta alerta = new Alerta();
+        alerta.setTipo(tipo);
+        alerta.setMensaje(mensaje);
+        alerta.setLeida(false);
+        alerta.setPartido(partido);
+        alerta.setUsuario(usuario);
+        alerta.setAudiencia(usuario != null ? Audiencia.USUARIO : Audiencia.PARTIDO);
+        alerta.setClaveDeduplicacion(clave);
+        alerta.setOcurrencias(1);
+        try {
+            alerta = alertaRepository.saveAndFlush(alerta);
+        } catch (DataIntegrityViolationException e) {
+            // Otra transacción abrió la misma clave en paralelo
+            throw new BusinessException("No se pudo registrar la alerta por un cambio simultáneo. Intente nuevamente.");
+        }
+        lecturaAlertasService.registrarNueva(alerta);
+        abiertas.put(clave, alerta.getId());
+        logger.info("Alerta {} creada con id {}", clave, alerta.getId());
+        return alerta;
+    }
+}
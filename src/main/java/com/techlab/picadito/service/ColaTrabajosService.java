@@ -0,0 +1,62 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.model.TipoTrabajo;
+import com.techlab.picadito.model.Trabajo;
+import com.techlab.picadito.model.Trabajo.EstadoTrabajo;
+import com.techlab.picadito.repository.TrabajoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+
+/**
+ * Encola trabajos en la cola persistente. Dentro de una transacción el trabajo se guarda junto con
+ * el cambio que lo originó; los ejecuta {@link ProcesadorTrabajosService} en cualquier nodo.
+ */
+@Service
+public class ColaTrabajosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColaTrabajosService.class);
+
+    @Autowired
+    private TrabajoRepository trabajoRepository;
+
+    /**
+     * Encola un trabajo disponible desde {@code disponibleDesde} (ahora si es null). Con clave, no
+     * encola si ya existe un trabajo con esa clave; entre dos nodos a la vez, el índice único
+     * rechaza el segundo.
+     * @return false si ya estaba encolado
+     */
+    @Transactional
+    public boolean encolar(TipoTrabajo tipo, String payload, LocalDateTime disponibleDesde, String clave) {
+        if (clave != null && trabajoRepository.existsByClave(clave)) {
+            return false;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        Trabajo trabajo = new Trabajo(null, tipo, payload, clave, tipo.getPrioridad(), EstadoTrabajo.PENDIENTE, 0,
+                disponibleDesde != null ? disponibleDesde : ahora, null, null, null, ahora, null);
+        trabajoRepository.save(trabajo);
+        logger.debug("Trabajo {} encolado ({}), disponible desde {}", tipo, clave, trabajo.getDisponibleDesde());
+        return true;
+    }
+
+    /**
+     * Quita los trabajos pendientes cuya clave empieza con {@code prefijo}
+     */
+    @Transactional
+    public int cancelarPendientes(String prefijo) {
+        return trabajoRepository.eliminarPendientesPorClave(EstadoTrabajo.PENDIENTE, prefijo + "%");
+    }
+
+    /**
+     * Trabajos de un tipo todavía sin terminar (pendientes o en proceso)
+     */
+    @Transactional(readOnly = true)
+    public long contarSinTerminar(TipoTrabajo tipo) {
+        return trabajoRepository.countByTipoAndEstadoIn(tipo, EnumSet.of(EstadoTrabajo.PENDIENTE, EstadoTrabajo.EN_PROCESO));
+    }
+}
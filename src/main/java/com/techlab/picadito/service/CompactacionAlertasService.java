@@ -0,0 +1,285 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.MetricasCompactacionAlertasDTO;
+import com.techlab.picadito.model.Alerta;
+import com.techlab.picadito.model.Alerta.Audiencia;
+import com.techlab.picadito.model.TipoAlerta;
+import com.techlab.picadito.model.TipoTrabajo;
+import com.techlab.picadito.model.Trabajo;
+import com.techlab.picadito.repository.AlertaRepository;
+import com.techlab.picadito.util.ResumenAlertas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compacta el historial de alertas de baja prioridad: las alertas personales ya leídas de esos
+ * tipos, más antiguas que los días configurados, se reemplazan por un resumen diario por usuario
+ * con la cantidad por tipo y los partidos mencionados. Los usuarios se recorren por lotes y los
+ * de cada lote se compactan en paralelo, cada uno en su propia transacción corta.
+ */
+@Service
+public class CompactacionAlertasService implements ManejadorTrabajo {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactacionAlertasService.class);
+
+    // Solo tipos con alertas personales: los recordatorios de partido (PARTIDO_PROXIMO) son una
+    // alerta por partido que ven todos sus jugadores, no hay nada que plegar por usuario
+    static final List<TipoAlerta> TIPOS_COMPACTABLES = List.of(TipoAlerta.RESERVA_CONFIRMADA);
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private LecturaAlertasService lecturaAlertasService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("compactacionExecutor")
+    private Executor executor;
+
+    @Value("${picadito.alertas.compactacion.dias:7}")
+    private int diasAntiguedad = 7;
+
+    @Value("${picadito.alertas.compactacion.usuarios-por-lote:100}")
+    private int usuariosPorLote = 100;
+
+    // Alertas de un usuario por transacción; si tiene más, se siguen compactando en otra
+    @Value("${picadito.alertas.compactacion.alertas-por-transaccion:500}")
+    private int alertasPorTransaccion = 500;
+
+    private final ReentrantLock enEjecucion = new ReentrantLock();
+
+    private final AtomicLong ejecuciones = new AtomicLong();
+    private final AtomicLong totalCompactadas = new AtomicLong();
+    private final AtomicLong totalResumenes = new AtomicLong();
+
+    private volatile Ejecucion ultima;
+
+    /**
+     * Compacta las alertas de todos los usuarios; si ya hay una ejecución en curso no hace nada
+     */
+    public MetricasCompactacionAlertasDTO ejecutar() {
+        if (!enEjecucion.tryLock()) {
+            logger.debug("La compactación de alertas ya está en ejecución");
+            return obtenerMetricas();
+        }
+        try {
+            compactar();
+        } finally {
+            enEjecucion.unlock();
+        }
+        return obtenerMetricas();
+    }
+
+    @Override
+    public TipoTrabajo getTipo() {
+        return TipoTrabajo.COMPACTACION_ALERTAS;
+    }
+
+    // Una ejecución a la vez: cada una ya recorre todas las alertas
+    @Override
+    public int getConcurrencia() {
+        return 1;
+    }
+
+    @Override
+    public void procesar(Trabajo trabajo) {
+        ejecutar();
+    }
+
+    public MetricasCompactacionAlertasDTO obtenerMetricas() {
+        MetricasCompactacionAlertasDTO metricas = new MetricasCompactacionAlertasDTO();
+        metricas.setEnEjecucion(enEjecucion.isLocked());
+        metricas.setDiasAntiguedad(diasAntiguedad);
+        metricas.setUsuariosPorLote(usuariosPorLote);
+        metricas.setTipos(TIPOS_COMPACTABLES);
+        metricas.setEjecuciones(ejecuciones.get());
+        metricas.setTotalCompactadas(totalCompactadas.get());
+        metricas.setTotalResumenes(totalResumenes.get());
+        Ejecucion ejecucion = ultima;
+        if (ejecucion != null) {
+            metricas.setUltimaEjecucion(ejecucion.inicio);
+            metricas.setFechaLimiteUltima(ejecucion.fechaLimite);
+            metricas.setDuracionUltimaMs(ejecucion.duracionMs);
+            metricas.setUsuariosUltima(ejecucion.usuarios);
+            metricas.setUsuariosFallidosUltima(ejecucion.usuariosFallidos);
+            metricas.setAlertasUltima(ejecucion.alertas);
+            metricas.setResumenesUltima(ejecucion.resumenes);
+        }
+        return metricas;
+    }
+
+    private void compactar() {
+        LocalDateTime inicio = LocalDateTime.now();
+        long inicioNanos = System.nanoTime();
+        LocalDateTime fechaLimite = inicio.toLocalDate().minusDays(diasAntiguedad).atStartOfDay();
+
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        TransactionTemplate escritura = new TransactionTemplate(transactionManager);
+
+        Resultado total = new Resultado();
+        int usuarios = 0;
+        int usuariosFallidos = 0;
+        long desdeUsuarioId = 0L;
+        while (true) {
+            long cursor = desdeUsuarioId;
+            List<Long> usuarioIds = lectura.execute(estado -> alertaRepository.findUsuarioIdsConCompactables(
+                    Audiencia.USUARIO, TIPOS_COMPACTABLES, fechaLimite, cursor, PageRequest.of(0, usuariosPorLote)));
+            if (usuarioIds == null || usuarioIds.isEmpty()) {
+                break;
+            }
+            List<CompletableFuture<Resultado>> tareas = new ArrayList<>();
+            for (Long usuarioId : usuarioIds) {
+                tareas.add(CompletableFuture.supplyAsync(
+                        () -> compactarUsuario(escritura, usuarioId, fechaLimite), executor));
+            }
+            for (int i = 0; i < tareas.size(); i++) {
+                usuarios++;
+                try {
+                    total.sumar(tareas.get(i).join());
+                } catch (CompletionException e) {
+                    usuariosFallidos++;
+                    logger.error("Error al compactar las alertas del usuario {}: {}",
+                            usuarioIds.get(i), e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                }
+            }
+            desdeUsuarioId = usuarioIds.get(usuarioIds.size() - 1);
+            if (usuarioIds.size() < usuariosPorLote) {
+                break;
+            }
+        }
+
+        long duracionMs = (System.nanoTime() - inicioNanos) / 1_000_000;
+        ultima = new Ejecucion(inicio, fechaLimite, duracionMs, usuarios, usuariosFallidos, total.alertas, total.resumenes);
+        ejecuciones.incrementAndGet();
+        totalCompactadas.addAndGet(total.alertas);
+        totalResumenes.addAndGet(total.resumenes);
+        logger.info("Compactación de alertas anteriores a {}: {} alertas en {} resúmenes, {} usuarios ({} con error), {} ms",
+                fechaLimite, total.alertas, total.resumenes, usuarios, usuariosFallidos, duracionMs);
+    }
+
+    private Resultado compactarUsuario(TransactionTemplate escritura, Long usuarioId, LocalDateTime fechaLimite) {
+        Resultado resultado = new Resultado();
+        while (true) {
+            Resultado parcial = escritura.execute(estado -> compactarTanda(usuarioId, fechaLimite));
+            if (parcial == null) {
+                break;
+            }
+            resultado.sumar(parcial);
+            if (parcial.alertas < alertasPorTransaccion) {
+                break;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Pliega una tanda de alertas del usuario en los resúmenes de sus días y las borra
+     */
+    private Resultado compactarTanda(Long usuarioId, LocalDateTime fechaLimite) {
+        List<Alerta> alertas = alertaRepository.findCompactables(usuarioId, Audiencia.USUARIO,
+                TIPOS_COMPACTABLES, fechaLimite, PageRequest.of(0, alertasPorTransaccion));
+        Resultado resultado = new Resultado();
+        if (alertas.isEmpty()) {
+            return resultado;
+        }
+        Map<LocalDate, List<Alerta>> porDia = new TreeMap<>();
+        for (Alerta alerta : alertas) {
+            porDia.computeIfAbsent(alerta.getFechaCreacion().toLocalDate(), dia -> new ArrayList<>()).add(alerta);
+        }
+        for (Map.Entry<LocalDate, List<Alerta>> entrada : porDia.entrySet()) {
+            plegar(usuarioId, entrada.getKey(), entrada.getValue());
+            resultado.resumenes++;
+        }
+        List<Long> ids = alertas.stream().map(Alerta::getId).toList();
+        // Ya leídas: no mueven el contador de no leídas, pero se mantiene el mismo camino que la limpieza
+        lecturaAlertasService.alEliminarLote(ids);
+        alertaRepository.eliminarPorIds(ids);
+        resultado.alertas = alertas.size();
+        return resultado;
+    }
+
+    private void plegar(Long usuarioId, LocalDate dia, List<Alerta> alertas) {
+        String clave = TipoAlerta.RESUMEN_DIARIO + ":" + usuarioId + ":" + dia;
+        Alerta resumen = alertaRepository.findByClaveDeduplicacion(clave).orElse(null);
+        if (resumen == null) {
+            resumen = new Alerta();
+            resumen.setTipo(TipoAlerta.RESUMEN_DIARIO);
+            resumen.setUsuario(alertas.get(0).getUsuario());
+            resumen.setAudiencia(Audiencia.USUARIO);
+            resumen.setLeida(true);
+            resumen.setClaveDeduplicacion(clave);
+            // Ocupa en el historial el lugar de la alerta más nueva que agrupa
+            resumen.setFechaCreacion(alertas.get(alertas.size() - 1).getFechaCreacion());
+        }
+        Map<TipoAlerta, Integer> conteos = new EnumMap<>(ResumenAlertas.leerConteos(resumen.getDetalleResumen()));
+        Set<Long> partidos = new LinkedHashSet<>(ResumenAlertas.leerPartidos(resumen.getDetalleResumen()));
+        for (Alerta alerta : alertas) {
+            conteos.merge(alerta.getTipo(), alerta.getOcurrencias() != null ? alerta.getOcurrencias() : 1, Integer::sum);
+            if (alerta.getPartido() != null) {
+                partidos.add(alerta.getPartido().getId());
+            }
+        }
+        resumen.setDetalleResumen(ResumenAlertas.formatear(conteos, partidos));
+        resumen.setMensaje(ResumenAlertas.mensaje(dia, conteos));
+        resumen.setOcurrencias(conteos.values().stream().mapToInt(Integer::intValue).sum());
+        resumen.setFechaActualizacion(LocalDateTime.now());
+        alertaRepository.save(resumen);
+    }
+
+    private static final class Resultado {
+        long alertas;
+        int resumenes;
+
+        void sumar(Resultado otro) {
+            alertas += otro.alertas;
+            resumenes += otro.resumenes;
+        }
+    }
+
+    private static final class Ejecucion {
+        final LocalDateTime inicio;
+        final LocalDateTime fechaLimite;
+        final long duracionMs;
+        final int usuarios;
+        final int usuariosFallidos;
+        final long alertas;
+        final long resumenes;
+
+        Ejecucion(LocalDateTime inicio, LocalDateTime fechaLimite, long duracionMs, int usuarios,
+                  int usuariosFallidos, long alertas, long resumenes) {
+            this.inicio = inicio;
+            this.fechaLimite = fechaLimite;
+            this.duracionMs = duracionMs;
+            this.usuarios = usuarios;
+            this.usuariosFallidos = usuariosFallidos;
+            this.alertas = alertas;
+            this.resumenes = resumenes;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.EstadoSuscriptorEventosDTO;
+import com.techlab.picadito.model.EventoDominio;
+import com.techlab.picadito.model.OffsetSuscriptor;
+import com.techlab.picadito.repository.EventoDominioRepository;
+import com.techlab.picadito.repository.OffsetSuscriptorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Entrega los eventos de la bandeja de salida a cada suscriptor por lotes, en orden y al menos
+ * una vez. Cada suscriptor tiene su offset: un lote se procesa y el offset avanza en la misma
+ * transacción, y si falla el suscriptor se reintenta con espera creciente, de a un evento, hasta
+ * descartar el que sigue fallando. Un suscriptor con problemas no frena a los demás. Los
+ * suscriptores locales ({@link SuscriptorEventos#isLocal()}) llevan su offset en memoria.
+ * El orden es la secuencia que cada evento recibe al confirmarse su transacción: no tiene huecos,
+ * así que un evento revertido no demora a los siguientes.
+ */
+@Service
+public class DespachadorEventosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DespachadorEventosService.class);
+    private static final long ESPERA_MAXIMA_MS = 300_000;
+
+    @Autowired
+    private EventoDominioRepository eventoDominioRepository;
+
+    @Autowired
+    private OffsetSuscriptorRepository offsetSuscriptorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private List<SuscriptorEventos> suscriptores = List.of();
+
+    @Value("${picadito.eventos.despacho.tamanio-lote:200}")
+    private int tamanioLote = 200;
+
+    @Value("${picadito.eventos.despacho.max-intentos:10}")
+    private int maxIntentos = 10;
+
+    @Value("${picadito.eventos.despacho.espera-reintento-ms:1000}")
+    private long esperaReintentoMs = 1_000;
+
+    @Value("${picadito.eventos.retencion-horas:24}")
+    private int retencionHoras = 24;
+
+    private final ReentrantLock enEjecucion = new ReentrantLock();
+
+    private final Map<String, OffsetSuscriptor> offsetsLocales = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> entregados = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> descartados = new ConcurrentHashMap<>();
+
+    /**
+     * Entrega los eventos pendientes a todos los suscriptores; si ya hay un despacho en curso no hace nada
+     */
+    @Scheduled(fixedDelayString = "${picadito.eventos.despacho.intervalo-ms:500}")
+    public void despachar() {
+        if (!enEjecucion.tryLock()) {
+            return;
+        }
+        try {
+            for (SuscriptorEventos suscriptor : suscriptores) {
+                try {
+                    despacharA(suscriptor);
+                } catch (RuntimeException e) {
+                    logger.error("Error al despachar eventos a {}: {}", suscriptor.getNombre(), e.getMessage());
+                }
+            }
+        } finally {
+            enEjecucion.unlock();
+        }
+    }
+
+    public List<EstadoSuscriptorEventosDTO> obtenerEstado() {
+        long maxSecuencia = eventoDominioRepository.findMaxSecuencia();
+        List<EstadoSuscriptorEventosDTO> estados = new ArrayList<>();
+        for (SuscriptorEventos suscriptor : suscriptores) {
+            String nombre = suscriptor.getNombre();
+            OffsetSuscriptor offset = (suscriptor.isLocal()
+                    ? Optional.ofNullable(offsetsLocales.get(nombre))
+                    : offsetSuscriptorRepository.findById(nombre))
+                    .orElseGet(() -> new OffsetSuscriptor(nombre, suscriptor.isLocal() ? maxSecuencia : 0L, 0, null, null));
+            EstadoSuscriptorEventosDTO estado = new EstadoSuscriptorEventosDTO();
+            estado.setSuscriptor(nombre);
+            estado.setUltimoEventoId(offset.getUltimoEventoId());
+            estado.setPendientes(Math.max(0, maxSecuencia - offset.getUltimoEventoId()));
+            estado.setIntentos(offset.getIntentos());
+            estado.setUltimoError(offset.getUltimoError());
+            estado.setFechaActualizacion(offset.getFechaActualizacion());
+            estado.setEntregados(contador(entregados, nombre).get());
+            estado.setDescartados(contador(descartados, nombre).get());
+            estados.add(estado);
+        }
+        return estados;
+    }
+
+    /**
+     * Borra los eventos que ya procesaron todos los suscriptores y superan la retención
+     */
+    @Scheduled(fixedDelayString = "${picadito.eventos.purga-ms:3600000}")
+    public void purgar() {
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+        List<String> nombres = suscriptores.stream()
+                .filter(suscriptor -> !suscriptor.isLocal())
+                .map(SuscriptorEventos::getNombre)
+                .toList();
+        if (nombres.isEmpty()) {
+            return;
+        }
+        TransactionTemplate escritura = new TransactionTemplate(transactionManager);
+        Integer eliminados = escritura.execute(estado -> {
+            // Un suscriptor sin offset todavía no empezó: no se borra nada que pueda necesitar
+            if (offsetSuscriptorRepository.countBySuscriptorIn(nombres) < nombres.size()) {
+                return 0;
+            }
+            Long minimo = offsetSuscriptorRepository.findMinimo(nombres);
+            return eventoDominioRepository.eliminarProcesados(minimo,
+                    LocalDateTime.now().minusHours(retencionHoras));
+        });
+        if (eliminados != null && eliminados > 0) {
+            logger.info("Eventos de dominio purgados: {}", eliminados);
+        }
+    }
+
+    private void despacharA(SuscriptorEventos suscriptor) {
+        String nombre = suscriptor.getNombre();
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        TransactionTemplate escritura = new TransactionTemplate(transactionManager);
+
+        while (true) {
+            OffsetSuscriptor offset = obtenerOffset(lectura, escritura, suscriptor);
+            if (offset.getIntentos() > 0 && !pasoLaEspera(offset)) {
+                return;
+            }
+            long desde = offset.getUltimoEventoId();
+            // Después de un fallo se reintenta de a un evento para aislar el que falla
+            int lote = offset.getIntentos() > 0 ? 1 : tamanioLote;
+            List<EventoDominio> eventos = lectura.execute(estado ->
+                    eventoDominioRepository.findSiguientes(desde, PageRequest.of(0, lote)));
+            if (eventos == null || eventos.isEmpty()) {
+                return;
+            }
+            long hasta = eventos.get(eventos.size() - 1).getSecuencia();
+            List<EventoDominio> suyos = eventos.stream()
+                    .filter(evento -> suscriptor.getTipos().contains(evento.getTipo()))
+                    .toList();
+            try {
+                Boolean avanzo = escritura.execute(estado -> {
+                    if (!suyos.isEmpty()) {
+                        suscriptor.procesar(suyos);
+                    }
+                    if (avanzar(suscriptor, desde, hasta) == 0) {
+                        // Otro proceso entregó este tramo
+                        estado.setRollbackOnly();
+                        return false;
+                    }
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(avanzo)) {
+                    return;
+                }
+                contador(entregados, nombre).addAndGet(suyos.size());
+            } catch (RuntimeException e) {
+                if (eventos.size() == 1 && offset.getIntentos() + 1 >= maxIntentos) {
+                    escritura.execute(estado -> avanzar(suscriptor, desde, hasta));
+                    contador(descartados, nombre).incrementAndGet();
+                    logger.error("Evento {} descartado para {} después de {} intentos: {}",
+                            hasta, nombre, maxIntentos, e.getMessage());
+                    continue;
+                }
+                String error = e.getMessage() != null && e.getMessage().length() > 500
+                        ? e.getMessage().substring(0, 500) : e.getMessage();
+                escritura.execute(estado -> registrarFallo(suscriptor, desde, error));
+                logger.warn("Fallo al entregar los eventos {}-{} a {} (intento {}): {}",
+                        eventos.get(0).getSecuencia(), hasta, nombre, offset.getIntentos() + 1, e.getMessage());
+                return;
+            }
+            if (eventos.size() < lote) {
+                return;
+            }
+        }
+    }
+
+    private boolean pasoLaEspera(OffsetSuscriptor offset) {
+        if (offset.getFechaActualizacion() == null) {
+            return true;
+        }
+        long espera = Math.min(esperaReintentoMs << Math.min(offset.getIntentos() - 1, 20), ESPERA_MAXIMA_MS);
+        return !LocalDateTime.now().isBefore(offset.getFechaActualizacion().plusNanos(espera * 1_000_000));
+    }
+
+    private OffsetSuscriptor obtenerOffset(TransactionTemplate lectura, TransactionTemplate escritura,
+                                           SuscriptorEventos suscriptor) {
+        String nombre = suscriptor.getNombre();
+        if (suscriptor.isLocal()) {
+            // Lo anterior al arranque ya no le sirve a este nodo
+            OffsetSuscriptor local = offsetsLocales.computeIfAbsent(nombre, clave -> new OffsetSuscriptor(clave,
+                    lectura.execute(estado -> eventoDominioRepository.findMaxSecuencia()), 0, null, LocalDateTime.now()));
+            return new OffsetSuscriptor(nombre, local.getUltimoEventoId(), local.getIntentos(),
+                    local.getUltimoError(), local.getFechaActualizacion());
+        }
+        OffsetSuscriptor offset = lectura.execute(estado -> offsetSuscriptorRepository.findById(nombre).orElse(null));
+        if (offset != null) {
+            return offset;
+        }
+        try {
+            escritura.execute(estado -> offsetSuscriptorRepository.crear(nombre, LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("El offset de {} lo creó otro proceso", nombre);
+        }
+        return lectura.execute(estado -> offsetSuscriptorRepository.findById(nombre).orElseThrow());
+    }
+
+    private int avanzar(SuscriptorEventos suscriptor, long desde, long hasta) {
+        if (!suscriptor.isLocal()) {
+            return offsetSuscriptorRepository.avanzar(suscriptor.getNombre(), desde, hasta, LocalDateTime.now());
+        }
+        OffsetSuscriptor local = offsetsLocales.get(suscriptor.getNombre());
+        local.setUltimoEventoId(hasta);
+        local.setIntentos(0);
+        local.setUltimoError(null);
+        local.setFechaActualizacion(LocalDateTime.now());
+        return 1;
+    }
+
+    private int registrarFallo(SuscriptorEventos suscriptor, long desde, String error) {
+        if (!suscriptor.isLocal()) {
+            return offsetSuscriptorRepository.registrarFallo(suscriptor.getNombre(), desde, error, LocalDateTime.now());
+        }
+        OffsetSuscriptor local = offsetsLocales.get(suscriptor.getNombre());
+        local.setIntentos(local.getIntentos() + 1);
+        local.setUltimoError(error);
+        local.setFechaActualizacion(LocalDateTime.now());
+        return 1;
+    }
+
+    private static AtomicLong contador(Map<String, AtomicLong> contadores, String nombre) {
+        return contadores.computeIfAbsent(nombre, clave -> new AtomicLong());
+    }
+}
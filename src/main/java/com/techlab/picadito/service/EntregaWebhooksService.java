@@ -0,0 +1,314 @@
+package com.techlab.picadito.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techlab.picadito.dto.EventoWebhookDTO;
+import com.techlab.picadito.dto.MetricasWebhooksDTO;
+import com.techlab.picadito.exception.BusinessException;
+import com.techlab.picadito.model.EntregaWebhookFallida;
+import com.techlab.picadito.model.EnvioWebhookPendiente;
+import com.techlab.picadito.model.SuscripcionWebhook;
+import com.techlab.picadito.repository.EntregaWebhookFallidaRepository;
+import com.techlab.picadito.repository.EnvioWebhookPendienteRepository;
+import com.techlab.picadito.repository.SuscripcionWebhookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.techlab.picadito.util.Transacciones.alConfirmar;
+
+/**
+ * Entrega de webhooks: los eventos pendientes se guardan en la base en la transacción de quien
+ * los encola (la del despacho de eventos, que avanza su offset en la misma), así no se pierden al
+ * reiniciar ni se duplican si el lote se revierte. Se envían por lotes (un POST con varios
+ * eventos) con como mucho un envío en vuelo por destino entre todos los nodos; el total de envíos
+ * simultáneos de cada nodo lo limita el executor. Un destino que falla espera cada vez más antes
+ * de reintentar, y al agotar los intentos el lote pasa a la tabla de entregas fallidas. Quien
+ * encola nunca espera a la red.
+ */
+@Service
+public class EntregaWebhooksService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntregaWebhooksService.class);
+    static final String HEADER_FIRMA = "X-Picadito-Firma";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EnvioWebhookPendienteRepository envioWebhookPendienteRepository;
+
+    @Autowired
+    private SuscripcionWebhookRepository suscripcionWebhookRepository;
+
+    @Autowired
+    private EntregaWebhookFallidaRepository entregaWebhookFallidaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("webhookExecutor")
+    private Executor executor;
+
+    @Value("${picadito.webhooks.capacidad-por-destino:1000}")
+    private int capacidadPorDestino = 1_000;
+
+    @Value("${picadito.webhooks.tamanio-lote:50}")
+    private int tamanioLote = 50;
+
+    @Value("${picadito.webhooks.max-intentos:8}")
+    private int maxIntentos = 8;
+
+    @Value("${picadito.webhooks.espera-base-ms:1000}")
+    private long esperaBaseMs = 1_000;
+
+    @Value("${picadito.webhooks.espera-maxima-ms:600000}")
+    private long esperaMaximaMs = 600_000;
+
+    @Value("${picadito.webhooks.timeout-ms:5000}")
+    private long timeoutMs = 5_000;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    private final AtomicLong encolados = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicLong entregados = new AtomicLong();
+    private final AtomicLong lotesEnviados = new AtomicLong();
+    private final AtomicLong lotesFallidos = new AtomicLong();
+    private final AtomicLong enviadosAFallidas = new AtomicLong();
+    private final AtomicLong latenciaTotalMs = new AtomicLong();
+
+    /**
+     * Guarda los eventos como envíos pendientes de sus suscripciones, en la transacción en curso.
+     * Si un destino supera su tope, lo más viejo de su cola pasa a las entregas fallidas.
+     */
+    @Transactional
+    public void encolar(List<SuscripcionWebhook> suscripciones, List<EventoWebhookDTO> eventos) {
+        if (suscripciones.isEmpty() || eventos.isEmpty()) {
+            return;
+        }
+        List<String> payloads = new ArrayList<>(eventos.size());
+        for (EventoWebhookDTO evento : eventos) {
+            try {
+                payloads.add(objectMapper.writeValueAsString(evento));
+            } catch (JsonProcessingException e) {
+                throw new BusinessException("No se pudo serializar el evento " + evento.getEventoId() + " del webhook");
+            }
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        List<EnvioWebhookPendiente> envios = new ArrayList<>(suscripciones.size() * payloads.size());
+        for (SuscripcionWebhook suscripcion : suscripciones) {
+            int exceso = (int) Math.min(envioWebhookPendienteRepository.countBySuscripcionId(suscripcion.getId())
+                    + payloads.size() - capacidadPorDestino, Integer.MAX_VALUE);
+            List<String> nuevos = exceso > 0 ? descartarExceso(suscripcion, payloads, exceso, ahora) : payloads;
+            for (String payload : nuevos) {
+                envios.add(new EnvioWebhookPendiente(null, suscripcion.getId(), payload, ahora));
+            }
+        }
+        envioWebhookPendienteRepository.saveAll(envios);
+        alConfirmar(() -> encolados.addAndGet(envios.size()));
+    }
+
+    /**
+     * Pasa a las entregas fallidas los eventos más viejos del destino (primero los ya encolados,
+     * después los nuevos si no alcanza) y devuelve los nuevos que quedan por encolar
+     */
+    private List<String> descartarExceso(SuscripcionWebhook suscripcion, List<String> payloads, int exceso,
+                                         LocalDateTime ahora) {
+        List<EnvioWebhookPendiente> viejos = envioWebhookPendienteRepository
+                .findBySuscripcionIdOrderByIdAsc(suscripcion.getId(), PageRequest.of(0, exceso));
+        int nuevosDescartados = Math.min(exceso - viejos.size(), payloads.size());
+        List<String> descartadosDelDestino = new ArrayList<>(viejos.size() + nuevosDescartados);
+        viejos.forEach(envio -> descartadosDelDestino.add(envio.getPayload()));
+        descartadosDelDestino.addAll(payloads.subList(0, nuevosDescartados));
+        entregaWebhookFallidaRepository.save(new EntregaWebhookFallida(null, suscripcion.getId(),
+                suscripcion.getUrl(), "[" + String.join(",", descartadosDelDestino) + "]",
+                descartadosDelDestino.size(), 0, "Cola del destino llena", ahora));
+        if (!viejos.isEmpty()) {
+            envioWebhookPendienteRepository.eliminar(viejos.stream().map(EnvioWebhookPendiente::getId).toList());
+        }
+        int cantidad = descartadosDelDestino.size();
+        alConfirmar(() -> {
+            descartados.addAndGet(cantidad);
+            logger.warn("Webhook {}: cola llena, {} eventos pasan a entregas fallidas", suscripcion.getId(), cantidad);
+        });
+        return payloads.subList(nuevosDescartados, payloads.size());
+    }
+
+    /**
+     * Descarta lo pendiente de una suscripción dada de baja
+     */
+    @Transactional
+    public void descartar(Long suscripcionId) {
+        envioWebhookPendienteRepository.eliminarDeSuscripcion(suscripcionId);
+    }
+
+    /**
+     * Toma cada destino listo (con pendientes, sin envío en vuelo en ningún nodo y fuera de espera)
+     * y envía su próximo lote en el executor
+     */
+    @Scheduled(fixedDelayString = "${picadito.webhooks.intervalo-ms:200}")
+    public void enviarPendientes() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        // Milisegundos: la toma se libera comparando enviandoHasta por igualdad
+        LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        // Cubre el envío completo (conexión + timeout de la respuesta); si el nodo se cae, vence y otro la toma
+        LocalDateTime hasta = ahora.plus(Duration.ofMillis(2 * timeoutMs + 10_000));
+        List<SuscripcionWebhook> listas = tx.execute(estado -> suscripcionWebhookRepository.findListasParaEnviar(ahora));
+        for (SuscripcionWebhook suscripcion : listas != null ? listas : List.<SuscripcionWebhook>of()) {
+            Integer tomadas = tx.execute(estado -> suscripcionWebhookRepository.tomar(suscripcion.getId(), ahora, hasta));
+            if (tomadas == null || tomadas == 0) {
+                // Otro nodo lo está enviando
+                continue;
+            }
+            List<EnvioWebhookPendiente> lote = tx.execute(estado -> envioWebhookPendienteRepository
+                    .findBySuscripcionIdOrderByIdAsc(suscripcion.getId(), PageRequest.of(0, tamanioLote)));
+            int intentos = suscripcion.getIntentosEntrega() != null ? suscripcion.getIntentosEntrega() : 0;
+            if (lote == null || lote.isEmpty()) {
+                liberar(suscripcion, hasta, intentos, suscripcion.getProximoIntento());
+                continue;
+            }
+            try {
+                executor.execute(() -> enviar(suscripcion, hasta, intentos, lote));
+            } catch (RejectedExecutionException e) {
+                // Todos los hilos ocupados: el lote queda pendiente para la próxima vuelta
+                liberar(suscripcion, hasta, intentos, suscripcion.getProximoIntento());
+            }
+        }
+    }
+
+    /**
+     * Métricas de la cola (compartida por todos los nodos) y contadores de este proceso
+     */
+    public MetricasWebhooksDTO obtenerMetricas() {
+        MetricasWebhooksDTO metricas = new MetricasWebhooksDTO();
+        metricas.setEnCola((int) envioWebhookPendienteRepository.count());
+        metricas.setCapacidadPorDestino(capacidadPorDestino);
+        metricas.setDestinos((int) envioWebhookPendienteRepository.countDestinos());
+        metricas.setDestinosEnReintento((int) suscripcionWebhookRepository.countEnReintento(LocalDateTime.now()));
+        metricas.setEncolados(encolados.get());
+        metricas.setDescartados(descartados.get());
+        metricas.setEntregados(entregados.get());
+        metricas.setLotesEnviados(lotesEnviados.get());
+        metricas.setLotesFallidos(lotesFallidos.get());
+        metricas.setEnviadosAFallidas(enviadosAFallidas.get());
+        long intentos = lotesEnviados.get() + lotesFallidos.get();
+        metricas.setLatenciaPromedioMs(intentos > 0
+                ? Math.round(latenciaTotalMs.get() * 10.0 / intentos) / 10.0 : 0.0);
+        return metricas;
+    }
+
+    private void enviar(SuscripcionWebhook suscripcion, LocalDateTime tomadaHasta, int intentosPrevios,
+                        List<EnvioWebhookPendiente> lote) {
+        // El cuerpo es el arreglo de los eventos tal como se guardaron
+        String cuerpo = "[" + String.join(",", lote.stream().map(EnvioWebhookPendiente::getPayload).toList()) + "]";
+        String error = null;
+        long inicio = System.nanoTime();
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(suscripcion.getUrl()))
+                    .timeout(Duration.ofMillis(timeoutMs))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(cuerpo));
+            String secreto = suscripcion.getSecreto();
+            if (secreto != null && !secreto.isEmpty()) {
+                request.header(HEADER_FIRMA, "sha256=" + firmar(secreto, cuerpo));
+            }
+            HttpResponse<Void> respuesta = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            if (respuesta.statusCode() / 100 != 2) {
+                error = "HTTP " + respuesta.statusCode();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrumpido";
+        } catch (IOException | RuntimeException | GeneralSecurityException e) {
+            error = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+        } finally {
+            latenciaTotalMs.addAndGet((System.nanoTime() - inicio) / 1_000_000);
+        }
+
+        List<Long> ids = lote.stream().map(EnvioWebhookPendiente::getId).toList();
+        try {
+            if (error == null) {
+                lotesEnviados.incrementAndGet();
+                entregados.addAndGet(lote.size());
+                new TransactionTemplate(transactionManager).executeWithoutResult(estado -> {
+                    envioWebhookPendienteRepository.eliminar(ids);
+                    suscripcionWebhookRepository.liberar(suscripcion.getId(), tomadaHasta, 0, null);
+                });
+                return;
+            }
+            lotesFallidos.incrementAndGet();
+            int intentos = intentosPrevios + 1;
+            if (intentos >= maxIntentos) {
+                String ultimoError = error;
+                new TransactionTemplate(transactionManager).executeWithoutResult(estado -> {
+                    entregaWebhookFallidaRepository.save(new EntregaWebhookFallida(null, suscripcion.getId(),
+                            suscripcion.getUrl(), cuerpo, lote.size(), intentos,
+                            ultimoError.length() > 500 ? ultimoError.substring(0, 500) : ultimoError, LocalDateTime.now()));
+                    envioWebhookPendienteRepository.eliminar(ids);
+                    suscripcionWebhookRepository.liberar(suscripcion.getId(), tomadaHasta, 0, null);
+                });
+                enviadosAFallidas.addAndGet(lote.size());
+                logger.error("Webhook {}: {} eventos pasan a entregas fallidas después de {} intentos ({})",
+                        suscripcion.getId(), lote.size(), intentos, error);
+                return;
+            }
+            long espera = Math.min(esperaBaseMs << Math.min(intentos - 1, 20), esperaMaximaMs);
+            // Jitter para que los destinos caídos a la vez no reintenten todos juntos
+            espera += ThreadLocalRandom.current().nextLong(espera / 4 + 1);
+            logger.warn("Webhook {} falló ({}), intento {}; reintento en {} ms", suscripcion.getId(), error, intentos, espera);
+            liberar(suscripcion, tomadaHasta, intentos,
+                    LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS).plus(Duration.ofMillis(espera)));
+        } catch (RuntimeException e) {
+            // La toma vence sola y el lote se vuelve a enviar
+            logger.error("No se pudo registrar el envío del webhook {}: {}", suscripcion.getId(), e.getMessage());
+        }
+    }
+
+    private void liberar(SuscripcionWebhook suscripcion, LocalDateTime tomadaHasta, int intentos,
+                         LocalDateTime proximoIntento) {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(estado ->
+                    suscripcionWebhookRepository.liberar(suscripcion.getId(), tomadaHasta, intentos, proximoIntento));
+        } catch (RuntimeException e) {
+            logger.error("No se pudo liberar el webhook {}: {}", suscripcion.getId(), e.getMessage());
+        }
+    }
+
+    private static String firmar(String secreto, String cuerpo) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secreto.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(cuerpo.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -1,22 +1,36 @@
 package com.techlab.picadito.service;
 
 import com.techlab.picadito.dto.EquipoResponseDTO;
+import com.techlab.picadito.dto.GeneracionEquiposLoteDTO;
 import com.techlab.picadito.dto.ParticipanteResponseDTO;
+import com.techlab.picadito.dto.ResultadoPartidoDTO;
 import com.techlab.picadito.exception.BusinessException;
 import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.exception.ValidationException;
 import com.techlab.picadito.model.Equipo;
+import com.techlab.picadito.model.EstadoPartido;
 import com.techlab.picadito.model.Participante;
 import com.techlab.picadito.model.Partido;
-import com.techlab.picadito.model.Posicion;
+import com.techlab.picadito.repository.EquipoLoteRepository;
 import com.techlab.picadito.repository.EquipoRepository;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.util.BalanceadorEquipos;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -25,6 +39,9 @@ import java.util.stream.Collectors;
 public class EquipoService {
 
     private static final Logger logger = LoggerFactory.getLogger(EquipoService.class);
+    private static final long VENTANA_MAXIMA_DIAS = 7;
+    // Los equipos se nombran con una letra, de "Equipo A" a "Equipo Z"
+    public static final int MAX_EQUIPOS = 26;
 
     @Autowired
     private EquipoRepository equipoRepository;
@@ -32,13 +49,37 @@ public class EquipoService {
     @Autowired
     private PartidoService partidoService;
 
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private PartidoRepository partidoRepository;
+
+    @Autowired
+    private EquipoLoteRepository equipoLoteRepository;
+
+    @Autowired
+    @Qualifier("equiposExecutor")
+    private ForkJoinPool equiposExecutor;
+
+    private final BalanceadorEquipos balanceador = new BalanceadorEquipos();
+
+    @Timed(value = "picadito.equipos.generacion", description = "Generación automática de equipos de un partido")
     public List<EquipoResponseDTO> generarEquiposAutomaticos(@NonNull Long partidoId) {
-        logger.info("Generando equipos automáticos para el partido {}", partidoId);
-        
+        return generarEquiposAutomaticos(partidoId, 2);
+    }
+
+    @Timed(value = "picadito.equipos.generacion", description = "Generación automática de equipos de un partido")
+    public List<EquipoResponseDTO> generarEquiposAutomaticos(@NonNull Long partidoId, int cantidadEquipos) {
+        logger.info("Generando {} equipos automáticos para el partido {}", cantidadEquipos, partidoId);
+
+        validarCantidadEquipos(cantidadEquipos);
+
         Partido partido = partidoService.obtenerPartidoEntity(partidoId);
         
-        if (partido.getParticipantes().size() < 2) {
-            throw new BusinessException("Se necesitan al menos 2 participantes para formar equipos");
+        int minimoParticipantes = Math.max(2, cantidadEquipos);
+        if (partido.getParticipantes().size() < minimoParticipantes) {
+            throw new BusinessException("Se necesitan al menos " + minimoParticipantes + " participantes para formar equipos");
         }
 
         // Eliminar equipos existentes si los hay
@@ -48,20 +89,141 @@ public class EquipoService {
         }
 
         List<Participante> participantes = new ArrayList<>(partido.getParticipantes());
+        BalanceadorEquipos.Resultado resultado = balanceador.balancear(aJugadores(participantes), cantidadEquipos);
+
+        List<EquipoResponseDTO> equipos = new ArrayList<>();
+        for (Equipo equipo : armarEquipos(partido, participantes, resultado, cantidadEquipos)) {
+            equipo = Objects.requireNonNull(equipoRepository.save(equipo), "Error al guardar equipo");
+
+            EquipoResponseDTO dto = convertirADTO(equipo);
+            dto.setIndiceBalance(resultado.getIndiceBalance());
+            equipos.add(dto);
+        }
+
+        logger.info("Equipos generados exitosamente para el partido {}. Diferencia de puntaje: {}, índice de balance: {}",
+                partidoId, String.format("%.2f", resultado.getDiferencia()), String.format("%.3f", resultado.getIndiceBalance()));
         
-        // Dividir en 2 equipos balanceados
-        List<List<Participante>> equiposBalanceados = balancearEquipos(participantes);
-        
-        Equipo equipo1 = Objects.requireNonNull(crearEquipo(partido, "Equipo A", equiposBalanceados.get(0)), "Error al crear equipo1");
-        Equipo equipo2 = Objects.requireNonNull(crearEquipo(partido, "Equipo B", equiposBalanceados.get(1)), "Error al crear equipo2");
-        
-        equipo1 = Objects.requireNonNull(equipoRepository.save(equipo1), "Error al guardar equipo1");
-        equipo2 = Objects.requireNonNull(equipoRepository.save(equipo2), "Error al guardar equipo2");
-        
-        logger.info("Equipos generados exitosamente. Equipo 1: {} participantes, Equipo 2: {} participantes",
-                equipo1.getCantidadParticipantes(), equipo2.getCantidadParticipantes());
-        
-        return Arrays.asList(convertirADTO(equipo1), convertirADTO(equipo2));
+        return equipos;
+    }
+
+    private static void validarCantidadEquipos(int cantidadEquipos) {
+        if (cantidadEquipos < 2) {
+            throw new ValidationException("La cantidad de equipos debe ser al menos 2");
+        }
+        if (cantidadEquipos > MAX_EQUIPOS) {
+            throw new ValidationException("La cantidad de equipos no puede superar " + MAX_EQUIPOS);
+        }
+    }
+
+    /**
+     * Genera los equipos de todos los partidos completos que empiezan en [desde, hasta).
+     * Carga los partidos con sus participantes en una consulta, balancea en paralelo en el pool
+     * fork-join y reemplaza los equipos anteriores con inserciones JDBC en lote.
+     */
+    public GeneracionEquiposLoteDTO generarEquiposEnLote(LocalDateTime desde, LocalDateTime hasta, int cantidadEquipos) {
+        if (desde == null || hasta == null || !desde.isBefore(hasta)) {
+            throw new ValidationException("La fecha desde debe ser anterior a la fecha hasta");
+        }
+        if (Duration.between(desde, hasta).toDays() > VENTANA_MAXIMA_DIAS) {
+            throw new ValidationException("La ventana no puede superar " + VENTANA_MAXIMA_DIAS + " días");
+        }
+        validarCantidadEquipos(cantidadEquipos);
+        logger.info("Generando equipos en lote para partidos completos entre {} y {}", desde, hasta);
+        long inicio = System.nanoTime();
+
+        GeneracionEquiposLoteDTO resumen = new GeneracionEquiposLoteDTO();
+        resumen.setDesde(desde);
+        resumen.setHasta(hasta);
+        resumen.setCantidadEquiposPorPartido(cantidadEquipos);
+
+        List<Partido> partidos = new ArrayList<>();
+        List<List<Participante>> participantesPorPartido = new ArrayList<>();
+        List<Callable<BalanceadorEquipos.Resultado>> tareas = new ArrayList<>();
+        for (Partido partido : partidoRepository.findConParticipantesEntre(EstadoPartido.COMPLETO, desde, hasta)) {
+            List<Participante> participantes = new ArrayList<>(partido.getParticipantes());
+            if (participantes.size() < cantidadEquipos) {
+                resumen.getPartidosOmitidos().add(new GeneracionEquiposLoteDTO.PartidoOmitido(partido.getId(),
+                        "Tiene " + participantes.size() + " participantes para " + cantidadEquipos + " equipos"));
+                continue;
+            }
+            // Los puntajes se calculan en este hilo; las tareas solo resuelven la partición
+            List<BalanceadorEquipos.Jugador> jugadores = aJugadores(participantes);
+            partidos.add(partido);
+            participantesPorPartido.add(participantes);
+            tareas.add(() -> balanceador.balancear(jugadores, cantidadEquipos));
+        }
+
+        List<Equipo> equipos = new ArrayList<>();
+        double sumaIndices = 0;
+        double minimoIndice = 1.0;
+        List<Future<BalanceadorEquipos.Resultado>> resultados = equiposExecutor.invokeAll(tareas);
+        for (int i = 0; i < partidos.size(); i++) {
+            BalanceadorEquipos.Resultado resultado = obtenerResultado(resultados.get(i), partidos.get(i).getId());
+            equipos.addAll(armarEquipos(partidos.get(i), participantesPorPartido.get(i), resultado, cantidadEquipos));
+            sumaIndices += resultado.getIndiceBalance();
+            minimoIndice = Math.min(minimoIndice, resultado.getIndiceBalance());
+        }
+
+        List<Long> partidoIds = partidos.stream().map(Partido::getId).collect(Collectors.toList());
+        resumen.setEquiposReemplazados(equipoLoteRepository.eliminarPorPartidos(partidoIds));
+        equipoLoteRepository.insertar(equipos);
+
+        resumen.setPartidosProcesados(partidos.size());
+        resumen.setEquiposCreados(equipos.size());
+        resumen.setJugadoresAsignados(participantesPorPartido.stream().mapToInt(List::size).sum());
+        resumen.setIndiceBalancePromedio(partidos.isEmpty() ? null : sumaIndices / partidos.size());
+        resumen.setIndiceBalanceMinimo(partidos.isEmpty() ? null : minimoIndice);
+        resumen.setTiempoMs((System.nanoTime() - inicio) / 1_000_000);
+
+        logger.info("Generación en lote: {} partidos, {} equipos, {} omitidos en {} ms", partidos.size(),
+                equipos.size(), resumen.getPartidosOmitidos().size(), resumen.getTiempoMs());
+        return resumen;
+    }
+
+    /**
+     * Registra los goles de cada equipo, da el partido por finalizado y actualiza los ratings
+     * de sus jugadores. Un resultado solo puede registrarse una vez por partido.
+     */
+    public List<EquipoResponseDTO> registrarResultado(@NonNull Long partidoId, ResultadoPartidoDTO resultado) {
+        logger.info("Registrando resultado del partido {}", partidoId);
+        Partido partido = partidoService.obtenerPartidoEntity(partidoId);
+
+        if (partido.getEstado() == EstadoPartido.CANCELADO) {
+            throw new BusinessException("No se puede registrar el resultado de un partido cancelado");
+        }
+        if (Boolean.TRUE.equals(partido.getRatingsAplicados())) {
+            throw new BusinessException("El resultado del partido ya fue registrado");
+        }
+        if (partido.getFechaHora() != null && partido.getFechaHora().isAfter(LocalDateTime.now())) {
+            throw new BusinessException("No se puede registrar el resultado de un partido que todavía no comenzó");
+        }
+
+        List<Equipo> equipos = equipoRepository.findByPartidoId(partidoId);
+        if (equipos.size() < 2) {
+            throw new BusinessException("El partido no tiene equipos generados");
+        }
+        Map<Long, Integer> goles = resultado.getGoles();
+        Set<Long> idsEquipos = equipos.stream().map(Equipo::getId).collect(Collectors.toSet());
+        if (!idsEquipos.equals(goles.keySet())) {
+            throw new ValidationException("Se deben informar los goles de todos los equipos del partido: " + idsEquipos);
+        }
+        if (goles.values().stream().anyMatch(g -> g == null || g < 0)) {
+            throw new ValidationException("Los goles no pueden ser nulos ni negativos");
+        }
+
+        for (Equipo equipo : equipos) {
+            equipo.setGoles(goles.get(equipo.getId()));
+        }
+        equipos = equipoRepository.saveAll(equipos);
+
+        ratingService.aplicarResultado(equipos);
+        partido.setRatingsAplicados(true);
+        partidoService.finalizarPartido(partido);
+
+        logger.info("Resultado del partido {} registrado", partidoId);
+        return equipos.stream()
+                .map(this::convertirADTO)
+                .collect(Collectors.toList());
     }
 
     public List<EquipoResponseDTO> obtenerEquiposPorPartido(@NonNull Long partidoId) {
@@ -71,6 +233,19 @@ public class EquipoService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Equipos de varios partidos en una sola consulta (para listados)
+     * @return equipos por id de partido; los partidos sin equipos no aparecen
+     */
+    public Map<Long, List<EquipoResponseDTO>> obtenerEquiposPorPartidos(@NonNull Collection<Long> partidoIds) {
+        if (partidoIds.isEmpty()) {
+            return Map.of();
+        }
+        return equipoRepository.findByPartidoIdInOrderByIdAsc(partidoIds).stream()
+                .map(this::convertirADTO)
+                .collect(Collectors.groupingBy(EquipoResponseDTO::getPartidoId));
+    }
+
     public EquipoResponseDTO obtenerPorId(@NonNull Long id) {
         logger.debug("Buscando equipo con id: {}", id);
         Equipo equipo = equipoRepository.findById(id)
@@ -89,60 +264,46 @@ public class EquipoService {
         }
     }
 
-    private List<List<Participante>> balancearEquipos(List<Participante> participantes) {
-        // Agrupar por posición
-        Map<Posicion, List<Participante>> porPosicion = participantes.stream()
-                .filter(p -> p.getPosicion() != null)
-                .collect(Collectors.groupingBy(Participante::getPosicion));
-        
-        List<Participante> sinPosicion = participantes.stream()
-                .filter(p -> p.getPosicion() == null)
+    private List<BalanceadorEquipos.Jugador> aJugadores(List<Participante> participantes) {
+        return participantes.stream()
+                .map(p -> new BalanceadorEquipos.Jugador(p.getPosicion(), BalanceadorEquipos.puntuar(p.getNivel(), obtenerRating(p))))
                 .collect(Collectors.toList());
-        
-        List<Participante> equipo1 = new ArrayList<>();
-        List<Participante> equipo2 = new ArrayList<>();
-        
-        // Distribuir por posición
-        for (Map.Entry<Posicion, List<Participante>> entry : porPosicion.entrySet()) {
-            List<Participante> posicionList = new ArrayList<>(entry.getValue());
-            // Ordenar por nivel (experto primero)
-            posicionList.sort((a, b) -> {
-                if (a.getNivel() == null && b.getNivel() == null) return 0;
-                if (a.getNivel() == null) return 1;
-                if (b.getNivel() == null) return -1;
-                return b.getNivel().compareTo(a.getNivel());
-            });
-            
-            // Distribuir alternadamente
-            for (int i = 0; i < posicionList.size(); i++) {
-                if (i % 2 == 0) {
-                    equipo1.add(posicionList.get(i));
-                } else {
-                    equipo2.add(posicionList.get(i));
-                }
-            }
+    }
+
+    private List<Equipo> armarEquipos(Partido partido, List<Participante> participantes,
+                                      BalanceadorEquipos.Resultado resultado, int cantidadEquipos) {
+        List<List<Participante>> integrantes = new ArrayList<>();
+        for (int i = 0; i < cantidadEquipos; i++) {
+            integrantes.add(new ArrayList<>());
         }
-        
-        // Distribuir participantes sin posición
-        Collections.shuffle(sinPosicion);
-        for (int i = 0; i < sinPosicion.size(); i++) {
-            if (i % 2 == 0) {
-                equipo1.add(sinPosicion.get(i));
-            } else {
-                equipo2.add(sinPosicion.get(i));
-            }
+        int[] asignacion = resultado.getAsignacion();
+        for (int i = 0; i < participantes.size(); i++) {
+            integrantes.get(asignacion[i]).add(participantes.get(i));
         }
-        
-        // Balancear por cantidad si hay diferencia
-        while (Math.abs(equipo1.size() - equipo2.size()) > 1) {
-            if (equipo1.size() > equipo2.size()) {
-                equipo2.add(equipo1.remove(equipo1.size() - 1));
-            } else {
-                equipo1.add(equipo2.remove(equipo2.size() - 1));
-            }
+
+        List<Equipo> equipos = new ArrayList<>();
+        for (int i = 0; i < cantidadEquipos; i++) {
+            Equipo equipo = crearEquipo(partido, "Equipo " + (char) ('A' + i), integrantes.get(i));
+            equipo.setPuntaje(resultado.getPuntajes()[i]);
+            equipos.add(equipo);
         }
-        
-        return Arrays.asList(equipo1, equipo2);
+        return equipos;
+    }
+
+    private BalanceadorEquipos.Resultado obtenerResultado(Future<BalanceadorEquipos.Resultado> futuro, Long partidoId) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("La generación de equipos en lote fue interrumpida");
+        } catch (ExecutionException e) {
+            logger.error("Error al balancear los equipos del partido {}: {}", partidoId, e.getCause().getMessage());
+            throw new BusinessException("No se pudieron balancear los equipos del partido " + partidoId);
+        }
+    }
+
+    private Double obtenerRating(Participante participante) {
+        return participante.getUsuario() != null ? ratingService.obtenerRating(participante.getUsuario().getId()) : null;
     }
 
     private Equipo crearEquipo(Partido partido, String nombre, List<Participante> participantes) {
@@ -159,6 +320,8 @@ public class EquipoService {
         dto.setNombre(equipo.getNombre());
         dto.setPartidoId(equipo.getPartido().getId());
         dto.setCantidadParticipantes(equipo.getCantidadParticipantes());
+        dto.setPuntaje(equipo.getPuntaje());
+        dto.setGoles(equipo.getGoles());
         
         List<ParticipanteResponseDTO> participantesDTO = equipo.getParticipantes().stream()
                 .map(this::convertirParticipanteADTO)
@@ -176,6 +339,7 @@ public class EquipoService {
         dto.setPosicion(participante.getPosicion());
         dto.setNivel(participante.getNivel());
         dto.setFechaInscripcion(participante.getFechaInscripcion());
+        dto.setUsuarioId(participante.getUsuario() != null ? participante.getUsuario().getId() : null);
         return dto;
     }
 }
@@ -31,6 +31,9 @@ public class EstadisticasService {
     @Autowired
     private SedeRepository sedeRepository;
 
+    @Autowired
+    private LibroGastosService libroGastosService;
+
     public EstadisticasDTO obtenerEstadisticasGenerales() {
         logger.info("Generando estadísticas generales");
         
@@ -40,13 +43,8 @@ public class EstadisticasService {
         estadisticas.setTotalReservas(reservaRepository.count());
         estadisticas.setTotalUsuarios(usuarioRepository.count());
         
-        // Calcular ingresos totales
-        Double ingresosTotales = reservaRepository.findAll().stream()
-                .filter(r -> r.getEstado() == Reserva.EstadoReserva.CONFIRMADO || 
-                           r.getEstado() == Reserva.EstadoReserva.FINALIZADO)
-                .mapToDouble(Reserva::calcularTotal)
-                .sum();
-        estadisticas.setIngresosTotales(ingresosTotales);
+        // Suma en la base de los totales guardados al confirmar cada reserva
+        estadisticas.setIngresosTotales(reservaRepository.sumarTotalPorEstados(Reserva.ESTADOS_COBRADOS));
         
         // Partidos más populares
         estadisticas.setPartidosPopulares(obtenerPartidosPopulares());
@@ -79,12 +77,8 @@ public class EstadisticasService {
         
         estadisticas.setTotalReservas((long) reservasPeriodo.size());
         
-        Double ingresosPeriodo = reservasPeriodo.stream()
-                .filter(r -> r.getEstado() == Reserva.EstadoReserva.CONFIRMADO || 
-                           r.getEstado() == Reserva.EstadoReserva.FINALIZADO)
-                .mapToDouble(Reserva::calcularTotal)
-                .sum();
-        estadisticas.setIngresosPorPeriodo(ingresosPeriodo);
+        estadisticas.setIngresosPorPeriodo(
+                reservaRepository.sumarTotalPorEstadosEntre(Reserva.ESTADOS_COBRADOS, fechaInicio, fechaFin));
         
         // Filtrar partidos por período
         List<Partido> partidosPeriodo = partidoRepository.findAll().stream()
@@ -116,32 +110,22 @@ public class EstadisticasService {
     }
 
     private List<EstadisticasDTO.UsuarioActivoDTO> obtenerUsuariosActivos() {
-        Map<Long, Long> reservasPorUsuario = reservaRepository.findAll().stream()
-                .collect(Collectors.groupingBy(
-                        r -> r.getUsuario().getId(),
-                        Collectors.counting()
-                ));
-        
-        Map<Long, Double> gastosPorUsuario = reservaRepository.findAll().stream()
-                .filter(r -> r.getEstado() == Reserva.EstadoReserva.CONFIRMADO || 
-                           r.getEstado() == Reserva.EstadoReserva.FINALIZADO)
-                .collect(Collectors.groupingBy(
-                        r -> r.getUsuario().getId(),
-                        Collectors.summingDouble(Reserva::calcularTotal)
-                ));
-        
-        return usuarioRepository.findAll().stream()
-                .map(u -> {
+        // Los saldos del libro de gastos ya traen cantidad de reservas y total gastado por usuario
+        List<SaldoUsuario> saldos = libroGastosService.obtenerMasActivos(10);
+        Map<Long, String> nombres = usuarioRepository.findAllById(
+                        saldos.stream().map(SaldoUsuario::getUsuarioId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Usuario::getId, Usuario::getNombre));
+        
+        return saldos.stream()
+                .map(s -> {
                     EstadisticasDTO.UsuarioActivoDTO dto = new EstadisticasDTO.UsuarioActivoDTO();
-                    dto.setUsuarioId(u.getId());
-                    dto.setNombre(u.getNombre());
-                    dto.setCantidadReservas(reservasPorUsuario.getOrDefault(u.getId(), 0L));
-                    dto.setTotalGastado(gastosPorUsuario.getOrDefault(u.getId(), 0.0));
+                    dto.setUsuarioId(s.getUsuarioId());
+                    dto.setNombre(nombres.get(s.getUsuarioId()));
+                    dto.setCantidadReservas(s.getCantidadReservas());
+                    dto.setTotalGastado(s.getTotalGastado());
                     return dto;
                 })
-                .filter(u -> u.getCantidadReservas() > 0)
-                .sorted((a, b) -> b.getCantidadReservas().compareTo(a.getCantidadReservas()))
-                .limit(10)
                 .collect(Collectors.toList());
     }
 
@@ -0,0 +1,132 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.model.EventoDominio;
+import com.techlab.picadito.model.TipoEventoDominio;
+import com.techlab.picadito.repository.EventoDominioRepository;
+import com.techlab.picadito.repository.SecuenciaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publica eventos de dominio en la bandeja de salida. Exige una transacción en curso: el evento
+ * se guarda o se descarta junto con el cambio que lo produjo, y los efectos secundarios corren
+ * después, fuera de esa transacción (ver {@link DespachadorEventosService}).
+ * Justo antes de confirmar, la transacción toma los siguientes valores de un contador en la base
+ * y se los asigna a sus eventos como secuencia. El contador queda bloqueado hasta la confirmación,
+ * así las secuencias se confirman en orden y sin huecos: una transacción que se revierte devuelve
+ * también sus valores, y el despachador nunca espera un evento que no va a llegar.
+ */
+@Service
+public class EventosDominioService {
+
+    static final String SECUENCIA = "eventos_dominio";
+
+    private static final Logger logger = LoggerFactory.getLogger(EventosDominioService.class);
+    private static final int MAX_DETALLE = 255;
+
+    @Autowired
+    private EventoDominioRepository eventoDominioRepository;
+
+    @Autowired
+    private SecuenciaRepository secuenciaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publicar(TipoEventoDominio tipo, Long partidoId, Long usuarioId, Long referenciaId, String detalle) {
+        if (detalle != null && detalle.length() > MAX_DETALLE) {
+            detalle = detalle.substring(0, MAX_DETALLE);
+        }
+        EventoDominio evento = eventoDominioRepository.save(new EventoDominio(null, tipo, partidoId, usuarioId,
+                referenciaId, detalle, LocalDateTime.now()));
+        asignacionDeLaTransaccion().ids.add(evento.getId());
+        logger.debug("Evento {} registrado para el partido {}", tipo, partidoId);
+    }
+
+    // Una asignación por transacción; una transacción anidada (REQUIRES_NEW) tiene la suya
+    private AsignacionSecuencias asignacionDeLaTransaccion() {
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sincronizacion instanceof AsignacionSecuencias asignacion) {
+                return asignacion;
+            }
+        }
+        AsignacionSecuencias asignacion = new AsignacionSecuencias();
+        TransactionSynchronizationManager.registerSynchronization(asignacion);
+        return asignacion;
+    }
+
+    private void asignarSecuencias(List<Long> ids) {
+        // Todo lo pendiente se escribe antes de bloquear el contador: con el contador tomado la
+        // transacción ya no espera otros bloqueos, así no hay interbloqueos con otra que lo espera
+        eventoDominioRepository.flush();
+        long ultima = reservar(ids.size());
+        long secuencia = ultima - ids.size();
+        for (Long id : ids) {
+            eventoDominioRepository.asignarSecuencia(id, ++secuencia);
+        }
+    }
+
+    private long reservar(int cantidad) {
+        if (secuenciaRepository.incrementar(SECUENCIA, cantidad) == 0) {
+            crearSecuencia();
+            if (secuenciaRepository.incrementar(SECUENCIA, cantidad) == 0) {
+                throw new IllegalStateException("No existe la secuencia de eventos de dominio");
+            }
+        }
+        return secuenciaRepository.findValor(SECUENCIA);
+    }
+
+    /**
+     * Primera publicación: crea el contador a continuación de los eventos guardados antes de que
+     * existiera, que toman su id como secuencia. Si dos nodos lo crean a la vez, gana uno solo.
+     */
+    private void crearSecuencia() {
+        TransactionTemplate nueva = new TransactionTemplate(transactionManager);
+        nueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            nueva.executeWithoutResult(estado -> {
+                if (secuenciaRepository.existsById(SECUENCIA)) {
+                    return;
+                }
+                long maxId = eventoDominioRepository.findMaxId();
+                int completados = eventoDominioRepository.completarSecuencias(maxId);
+                long inicio = Math.max(maxId, eventoDominioRepository.findMaxSecuencia());
+                secuenciaRepository.crear(SECUENCIA, inicio);
+                logger.info("Secuencia de eventos de dominio creada en {} ({} eventos existentes)", inicio, completados);
+            });
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("La secuencia de eventos de dominio la creó otro nodo");
+        }
+    }
+
+    private final class AsignacionSecuencias implements TransactionSynchronization {
+        private final List<Long> ids = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            asignarSecuencias(ids);
+        }
+
+        // Después de las demás: el contador se bloquea lo más cerca posible de la confirmación
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.exception.BusinessException;
+import com.techlab.picadito.exception.ValidationException;
+import com.techlab.picadito.model.Alerta;
+import com.techlab.picadito.model.Alerta.Audiencia;
+import com.techlab.picadito.model.LecturaAlerta;
+import com.techlab.picadito.model.LecturaAlertasUsuario;
+import com.techlab.picadito.repository.AlertaRepository;
+import com.techlab.picadito.repository.LecturaAlertaRepository;
+import com.techlab.picadito.repository.LecturaAlertasUsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Estado de lectura de las alertas por usuario. Una marca de lectura (id de alerta) cubre todo lo
+ * anterior; por encima de ella, las alertas personales usan su propio campo {@code leida} y las
+ * generales una fila de lectura por usuario. El contador de no leídas de las alertas personales se
+ * mantiene al crear, leer y borrar; las generales se cuentan solo por encima de la marca.
+ */
+@Service
+@Transactional
+public class LecturaAlertasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LecturaAlertasService.class);
+
+    @Autowired
+    private LecturaAlertasUsuarioRepository lecturaAlertasUsuarioRepository;
+
+    @Autowired
+    private LecturaAlertaRepository lecturaAlertaRepository;
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    /**
+     * Al iniciar sin estados de lectura, arma los contadores desde las alertas personales no leídas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        if (lecturaAlertasUsuarioRepository.count() > 0) {
+            return;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        List<LecturaAlertasUsuario> estados = new ArrayList<>();
+        for (Object[] fila : alertaRepository.contarPersonalesNoLeidasPorUsuario()) {
+            estados.add(new LecturaAlertasUsuario((Long) fila[0], 0L, (Long) fila[1], ahora));
+        }
+        if (!estados.isEmpty()) {
+            lecturaAlertasUsuarioRepository.saveAll(estados);
+            logger.info("Contadores de alertas no leídas inicializados para {} usuarios", estados.size());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long obtenerLeidasHasta(@NonNull Long usuarioId) {
+        return lecturaAlertasUsuarioRepository.findById(usuarioId)
+                .map(LecturaAlertasUsuario::getLeidasHastaId)
+                .orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public long contarNoLeidas(@NonNull Long usuarioId) {
+        Optional<LecturaAlertasUsuario> estado = lecturaAlertasUsuarioRepository.findById(usuarioId);
+        long personales = estado.map(LecturaAlertasUsuario::getNoLeidas).orElse(0L);
+        long leidasHasta = estado.map(LecturaAlertasUsuario::getLeidasHastaId).orElse(0L);
+        return personales + alertaRepository.countGeneralesNoLeidas(usuarioId,
+                Audiencia.TODOS, Audiencia.PARTIDO, Audiencia.CATEGORIA, leidasHasta);
+    }
+
+    /**
+     * Ids de las alertas (de una página ya leída) que el usuario tiene como leídas
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> obtenerLeidas(@NonNull Long usuarioId, List<Alerta> alertas) {
+        long leidasHasta = obtenerLeidasHasta(usuarioId);
+        List<Long> generalesPendientes = new ArrayList<>();
+        for (Alerta alerta : alertas) {
+            if (alerta.esGeneral() && alerta.getId() > leidasHasta) {
+                generalesPendientes.add(alerta.getId());
+            }
+        }
+        Set<Long> leidas = new HashSet<>(generalesPendientes.isEmpty()
+                ? List.of()
+                : lecturaAlertaRepository.findAlertaIdsLeidas(usuarioId, generalesPendientes));
+        for (Alerta alerta : alertas) {
+            if (alerta.getId() <= leidasHasta || (!alerta.esGeneral() && Boolean.TRUE.equals(alerta.getLeida()))) {
+                leidas.add(alerta.getId());
+            }
+        }
+        return leidas;
+    }
+
+    /**
+     * Cuenta como no leída una alerta personal recién creada
+     */
+    public void registrarNueva(Alerta alerta) {
+        if (!alerta.esGeneral() && alerta.getUsuario() != null) {
+            sumarNoLeidas(alerta.getUsuario().getId(), 1);
+        }
+    }
+
+    /**
+     * Marca la alerta como leída: en la propia fila si es personal, o con una lectura del usuario
+     * si es general. Si ya estaba leída no hace nada.
+     */
+    public void marcarLeida(Alerta alerta, Long usuarioId) {
+        if (!alerta.esGeneral()) {
+            if (Boolean.TRUE.equals(alerta.getLeida())) {
+                return;
+            }
+            alerta.setLeida(true);
+            Long propietarioId = alerta.getUsuario().getId();
+            if (alerta.getId() > obtenerLeidasHasta(propietarioId)) {
+                sumarNoLeidas(propietarioId, -1);
+            }
+            return;
+        }
+        if (usuarioId == null) {
+            throw new ValidationException("Para marcar como leída una alerta general se requiere usuarioId");
+        }
+        if (alerta.getId() <= obtenerLeidasHasta(usuarioId)
+                || lecturaAlertaRepository.existsByUsuarioIdAndAlertaId(usuarioId, alerta.getId())) {
+            return;
+        }
+        try {
+            lecturaAlertaRepository.saveAndFlush(new LecturaAlerta(null, usuarioId, alerta.getId(), LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            throw new BusinessException("No se pudo marcar la alerta por un cambio simultáneo. Intente nuevamente.");
+        }
+    }
+
+    /**
+     * Da por leídas todas las alertas existentes moviendo la marca del usuario: una sola fila,
+     * más el borrado de sus lecturas individuales que quedan cubiertas
+     */
+    public void marcarTodas(@NonNull Long usuarioId) {
+        Long hastaId = alertaRepository.findMaxId();
+        LocalDateTime ahora = LocalDateTime.now();
+        if (lecturaAlertasUsuarioRepository.marcarLeidasHasta(usuarioId, hastaId, ahora) == 0) {
+            try {
+                lecturaAlertasUsuarioRepository.saveAndFlush(new LecturaAlertasUsuario(usuarioId, hastaId, 0L, ahora));
+            } catch (DataIntegrityViolationException e) {
+                throw new BusinessException("No se pudieron marcar las alertas por un cambio simultáneo. Intente nuevamente.");
+            }
+        }
+        lecturaAlertaRepository.eliminarHasta(usuarioId, hastaId);
+    }
+
+    /**
+     * Ajusta contadores y lecturas antes de borrar una alerta
+     */
+    public void alEliminar(Alerta alerta) {
+        if (alerta.esGeneral()) {
+            lecturaAlertaRepository.eliminarPorAlerta(alerta.getId());
+        } else if (alerta.getUsuario() != null && !Boolean.TRUE.equals(alerta.getLeida())) {
+            Long propietarioId = alerta.getUsuario().getId();
+            if (alerta.getId() > obtenerLeidasHasta(propietarioId)) {
+                sumarNoLeidas(propietarioId, -1);
+            }
+        }
+    }
+
+    /**
+     * Ajusta contadores y lecturas antes de borrar un lote de alertas
+     */
+    public void alEliminarLote(Collection<Long> alertaIds) {
+        for (Object[] fila : alertaRepository.contarPersonalesNoLeidasEn(alertaIds)) {
+            sumarNoLeidas((Long) fila[0], -(Long) fila[1]);
+        }
+        lecturaAlertaRepository.eliminarPorAlertas(alertaIds);
+    }
+
+    private void sumarNoLeidas(Long usuarioId, long delta) {
+        LocalDateTime ahora = LocalDateTime.now();
+        if (lecturaAlertasUsuarioRepository.sumarNoLeidas(usuarioId, delta, ahora) > 0 || delta < 0) {
+            return;
+        }
+        try {
+            lecturaAlertasUsuarioRepository.saveAndFlush(new LecturaAlertasUsuario(usuarioId, 0L, delta, ahora));
+        } catch (DataIntegrityViolationException e) {
+            // Otra transacción creó el estado del mismo usuario en paralelo
+            throw new BusinessException("No se pudo registrar la alerta por un cambio simultáneo. Intente nuevamente.");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.exception.BusinessException;
+import com.techlab.picadito.model.MovimientoGasto;
+import com.techlab.picadito.model.MovimientoGasto.TipoMovimiento;
+import com.techlab.picadito.model.Reserva;
+import com.techlab.picadito.model.Reserva.EstadoReserva;
+import com.techlab.picadito.model.SaldoUsuario;
+import com.techlab.picadito.repository.MovimientoGastoRepository;
+import com.techlab.picadito.repository.ReservaRepository;
+import com.techlab.picadito.repository.SaldoUsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Libro de gastos de los usuarios: cada confirmación o cancelación de una reserva agrega un
+ * movimiento y actualiza el saldo del usuario en la misma transacción, así el total gastado y
+ * los rankings de usuarios se leen de una fila en lugar de recorrer todas las reservas.
+ */
+@Service
+@Transactional
+public class LibroGastosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LibroGastosService.class);
+
+    @Autowired
+    private MovimientoGastoRepository movimientoGastoRepository;
+
+    @Autowired
+    private SaldoUsuarioRepository saldoUsuarioRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    /**
+     * Registra el paso de la reserva desde {@code estadoAnterior} (null si se acaba de crear) a su
+     * estado actual: cobra al confirmarse y reintegra al cancelarse una reserva ya cobrada
+     */
+    public void registrarCambioEstado(@NonNull Reserva reserva, EstadoReserva estadoAnterior) {
+        EstadoReserva estadoNuevo = reserva.getEstado();
+        boolean estabaCobrada = estadoAnterior != null && Reserva.ESTADOS_COBRADOS.contains(estadoAnterior);
+        boolean quedaCobrada = Reserva.ESTADOS_COBRADOS.contains(estadoNuevo);
+        boolean cancelada = estadoNuevo == EstadoReserva.CANCELADO && estadoAnterior != EstadoReserva.CANCELADO;
+
+        double monto = 0.0;
+        if (!estabaCobrada && quedaCobrada) {
+            monto = reserva.calcularTotal();
+            agregarMovimiento(reserva, TipoMovimiento.CARGO, monto);
+        } else if (estabaCobrada && !quedaCobrada) {
+            monto = -reserva.calcularTotal();
+            agregarMovimiento(reserva, TipoMovimiento.REINTEGRO, monto);
+        }
+
+        long nuevas = estadoAnterior == null ? 1 : 0;
+        long confirmadas = !estabaCobrada && quedaCobrada ? 1 : 0;
+        long canceladas = cancelada ? 1 : 0;
+        if (nuevas == 0 && confirmadas == 0 && canceladas == 0 && monto == 0.0) {
+            return;
+        }
+        actualizarSaldo(reserva.getUsuario().getId(), monto, nuevas, confirmadas, canceladas);
+    }
+
+    @Transactional(readOnly = true)
+    public Double obtenerTotalGastado(@NonNull Long usuarioId) {
+        return saldoUsuarioRepository.findById(usuarioId)
+                .map(SaldoUsuario::getTotalGastado)
+                .orElse(0.0);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MovimientoGasto> obtenerMovimientos(@NonNull Long usuarioId) {
+        return movimientoGastoRepository.findByUsuarioIdOrderByIdDesc(usuarioId);
+    }
+
+    /**
+     * Usuarios con más reservas, de mayor a menor
+     */
+    @Transactional(readOnly = true)
+    public List<SaldoUsuario> obtenerMasActivos(int limite) {
+        return saldoUsuarioRepository.findMasActivos(PageRequest.of(0, limite));
+    }
+
+    /**
+     * Al iniciar, fija precio y total de las reservas creadas antes de que se guardaran y, si hay
+     * reservas previas al libro de gastos, lo arma a partir de su estado actual. Los precios van
+     * primero: el libro cobra el total guardado de cada reserva.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        completarPreciosFaltantes();
+        if (saldoUsuarioRepository.count() > 0 || reservaRepository.count() == 0) {
+            return;
+        }
+        logger.info("Inicializando el libro de gastos desde las reservas existentes");
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<Long, SaldoUsuario> saldos = new HashMap<>();
+        List<MovimientoGasto> movimientos = new ArrayList<>();
+        for (Reserva reserva : reservaRepository.findAll()) {
+            Long usuarioId = reserva.getUsuario().getId();
+            SaldoUsuario saldo = saldos.computeIfAbsent(usuarioId, SaldoUsuario::new);
+            saldo.setCantidadReservas(saldo.getCantidadReservas() + 1);
+            saldo.setFechaActualizacion(ahora);
+            if (Reserva.ESTADOS_COBRADOS.contains(reserva.getEstado())) {
+                double monto = reserva.calcularTotal();
+                movimientos.add(new MovimientoGasto(null, usuarioId, reserva.getId(), TipoMovimiento.CARGO, monto, ahora));
+                saldo.setTotalGastado(saldo.getTotalGastado() + monto);
+                saldo.setReservasConfirmadas(saldo.getReservasConfirmadas() + 1);
+            } else if (reserva.getEstado() == EstadoReserva.CANCELADO) {
+                saldo.setReservasCanceladas(saldo.getReservasCanceladas() + 1);
+            }
+        }
+        movimientoGastoRepository.saveAll(movimientos);
+        saldoUsuarioRepository.saveAll(saldos.values());
+        logger.info("Libro de gastos inicializado: {} usuarios, {} movimientos", saldos.size(), movimientos.size());
+    }
+
+    private void completarPreciosFaltantes() {
+        int lineas = reservaRepository.completarPreciosUnitarios();
+        int reservas = reservaRepository.completarTotales();
+        if (lineas > 0 || reservas > 0) {
+            logger.info("Precios completados: {} líneas, {} reservas", lineas, reservas);
+        }
+    }
+
+    private void agregarMovimiento(Reserva reserva, TipoMovimiento tipo, double monto) {
+        movimientoGastoRepository.save(new MovimientoGasto(null, reserva.getUsuario().getId(), reserva.getId(),
+                tipo, monto, LocalDateTime.now()));
+        logger.debug("Movimiento {} de {} para la reserva {}", tipo, monto, reserva.getId());
+    }
+
+    private void actualizarSaldo(Long usuarioId, double monto, long reservas, long confirmadas, long canceladas) {
+        LocalDateTime ahora = LocalDateTime.now();
+        int actualizados = saldoUsuarioRepository.incrementar(usuarioId, monto, reservas, confirmadas, canceladas, ahora);
+        if (actualizados == 0) {
+            SaldoUsuario saldo = new SaldoUsuario(usuarioId);
+            saldo.setTotalGastado(monto);
+            saldo.setCantidadReservas(reservas);
+            saldo.setReservasConfirmadas(confirmadas);
+            saldo.setReservasCanceladas(canceladas);
+            saldo.setFechaActualizacion(ahora);
+            try {
+                saldoUsuarioRepository.saveAndFlush(saldo);
+            } catch (DataIntegrityViolationException e) {
+                // Otra transacción creó el saldo del mismo usuario en paralelo
+                throw new BusinessException("No se pudo registrar el movimiento por un cambio simultáneo. Intente nuevamente.");
+            }
+        }
+    }
+}
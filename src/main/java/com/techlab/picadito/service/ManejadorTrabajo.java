@@ -0,0 +1,21 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.model.TipoTrabajo;
+import com.techlab.picadito.model.Trabajo;
+
+/**
+ * Ejecuta los trabajos de un tipo de la cola persistente. Un trabajo puede ejecutarse más de una
+ * vez (reintentos, o si el nodo que lo tenía se cae), así que procesar debe ser idempotente.
+ * Si lanza una excepción, el trabajo se reintenta con espera creciente.
+ */
+public interface ManejadorTrabajo {
+
+    TipoTrabajo getTipo();
+
+    /**
+     * Máximo de trabajos de este tipo ejecutándose a la vez en cada nodo
+     */
+    int getConcurrencia();
+
+    void procesar(Trabajo trabajo);
+}
@@ -0,0 +1,489 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.AlertaResponseDTO;
+import com.techlab.picadito.dto.CuposPartidoDTO;
+import com.techlab.picadito.exception.BusinessException;
+import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.model.Alerta.Audiencia;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.repository.ParticipanteRepository;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.UsuarioRepository;
+import com.techlab.picadito.util.Transacciones;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Notificaciones en tiempo real por Server-Sent Events: un canal por usuario con sus alertas
+ * nuevas y uno por partido con la ocupación de cupos. Los eventos se publican al confirmarse la
+ * transacción y solo se encolan en cada suscripción; un executor propio los escribe en la
+ * conexión. Cada canal guarda los últimos eventos para que un cliente que se reconecta con
+ * {@code Last-Event-ID} retome donde quedó; si ese id ya no está, recibe el estado actual.
+ * Si la cola de una suscripción se llena, se cierra la conexión y el cliente retoma al
+ * reconectarse. En el canal de cupos solo importa el último valor, así que ahí se descartan
+ * los pendientes en lugar de cerrar.
+ * Las conexiones son de este proceso: lo que se publica llega desde la bandeja de salida, que
+ * cada nodo lee por su cuenta (ver {@link TiempoRealEventosSuscriptor}), así un cambio hecho en
+ * cualquier nodo llega a los clientes conectados a todos.
+ */
+@Service
+public class NotificacionesTiempoRealService {
+
+    public static final String EVENTO_ALERTA = "alerta";
+    public static final String EVENTO_NO_LEIDAS = "no-leidas";
+    public static final String EVENTO_CUPOS = "cupos";
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificacionesTiempoRealService.class);
+
+    private static final int MAX_CANALES = 10_000;
+    private static final int MAX_IDS_POR_CONSULTA = 500;
+
+    private static final Evento LATIDO = new Evento(null, 0, null, null);
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PartidoRepository partidoRepository;
+
+    @Autowired
+    private ParticipanteRepository participanteRepository;
+
+    @Autowired
+    private LecturaAlertasService lecturaAlertasService;
+
+    @Autowired
+    @Qualifier("tiempoRealExecutor")
+    private Executor executor;
+
+    @Value("${picadito.tiempo-real.timeout-ms:1800000}")
+    private long timeoutMs = 1_800_000;
+
+    @Value("${picadito.tiempo-real.replay-eventos:50}")
+    private int replayEventos = 50;
+
+    @Value("${picadito.tiempo-real.cola-por-suscripcion:100}")
+    private int colaPorSuscripcion = 100;
+
+    @Value("${picadito.tiempo-real.max-suscripciones:1000}")
+    private int maxSuscripciones = 1000;
+
+    @Value("${picadito.tiempo-real.max-por-usuario:5}")
+    private int maxPorUsuario = 5;
+
+    @Value("${picadito.tiempo-real.retencion-canal-minutos:5}")
+    private int retencionCanalMinutos = 5;
+
+    // Los ids de evento llevan el arranque del proceso: un id de otra ejecución no se puede retomar
+    private final String instancia = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong secuencia = new AtomicLong();
+    private final AtomicInteger suscripciones = new AtomicInteger();
+
+    private final Map<Long, Canal> usuarios = new ConcurrentHashMap<>();
+    private final Map<Long, Canal> partidos = new ConcurrentHashMap<>();
+
+    /**
+     * Abre el canal de alertas del usuario. Sin un {@code Last-Event-ID} que se pueda retomar,
+     * el primer evento es la cantidad de alertas no leídas.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter suscribirUsuario(@NonNull Long usuarioId, String ultimoEventoId) {
+        if (!usuarioRepository.existsById(usuarioId)) {
+            throw new ResourceNotFoundException("Usuario no encontrado con id: " + usuarioId);
+        }
+        Canal canal = obtenerCanal(usuarios, usuarioId);
+        if (canal.cantidadSuscripciones() >= maxPorUsuario) {
+            throw new BusinessException("El usuario ya tiene " + maxPorUsuario + " conexiones en tiempo real abiertas");
+        }
+        Suscripcion suscripcion = abrir(canal, false);
+        if (!canal.suscribir(suscripcion, secuenciaDe(ultimoEventoId))) {
+            suscripcion.encolar(nuevoEvento(EVENTO_NO_LEIDAS, lecturaAlertasService.contarNoLeidas(usuarioId)));
+        }
+        despachar(suscripcion);
+        logger.debug("Usuario {} suscripto a alertas en tiempo real", usuarioId);
+        return suscripcion.emisor;
+    }
+
+    /**
+     * Abre el canal de cupos del partido. Sin un {@code Last-Event-ID} que se pueda retomar,
+     * el primer evento es la ocupación actual.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter suscribirPartido(@NonNull Long partidoId, String ultimoEventoId) {
+        Partido partido = partidoRepository.findById(partidoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Partido no encontrado con id: " + partidoId));
+        CuposPartidoDTO actual = convertirACupos(partido);
+        Canal canal = obtenerCanal(partidos, partidoId);
+        Suscripcion suscripcion = abrir(canal, true);
+        if (!canal.suscribir(suscripcion, secuenciaDe(ultimoEventoId))) {
+            suscripcion.encolar(nuevoEvento(EVENTO_CUPOS, actual));
+        }
+        despachar(suscripcion);
+        logger.debug("Suscripción a cupos del partido {}", partidoId);
+        return suscripcion.emisor;
+    }
+
+    /**
+     * Envía una alerta nueva a los usuarios conectados de su audiencia, cuando se confirma la transacción
+     */
+    public void publicarAlerta(AlertaResponseDTO alerta) {
+        Transacciones.alConfirmar(() -> {
+            Audiencia audiencia = alerta.getAudiencia();
+            if (audiencia == Audiencia.USUARIO || (audiencia == null && alerta.getUsuarioId() != null)) {
+                publicar(usuarios.get(alerta.getUsuarioId()), nuevoEvento(EVENTO_ALERTA, alerta));
+            } else if (audiencia == Audiencia.TODOS) {
+                Evento evento = nuevoEvento(EVENTO_ALERTA, alerta);
+                usuarios.values().forEach(canal -> publicar(canal, evento));
+            } else if (!usuarios.isEmpty()) {
+                // La audiencia se resuelve solo entre los usuarios con canal, fuera del hilo que confirmó
+                try {
+                    executor.execute(() -> publicarAAudiencia(alerta));
+                } catch (RejectedExecutionException e) {
+                    logger.warn("Executor de tiempo real lleno, no se envía la alerta {}", alerta.getId());
+                }
+            }
+        });
+    }
+
+    /**
+     * Envía la ocupación del partido a su canal, si alguien lo escucha, cuando se confirma la transacción
+     */
+    public void publicarCupos(Partido partido) {
+        Long partidoId = partido.getId();
+        if (partidoId == null || !partidos.containsKey(partidoId)) {
+            return;
+        }
+        CuposPartidoDTO cupos = convertirACupos(partido);
+        Transacciones.alConfirmar(() -> publicar(partidos.get(partidoId), nuevoEvento(EVENTO_CUPOS, cupos)));
+    }
+
+    /**
+     * Cierra las conexiones del canal de un partido eliminado
+     */
+    public void cerrarPartido(Long partidoId) {
+        Transacciones.alConfirmar(() -> {
+            Canal canal = partidos.remove(partidoId);
+            if (canal != null) {
+                canal.suscripciones().forEach(suscripcion -> cerrar(suscripcion, true));
+            }
+        });
+    }
+
+    /**
+     * Si alguien escucha los cupos del partido en este nodo
+     */
+    public boolean tieneCanalPartido(Long partidoId) {
+        return partidos.containsKey(partidoId);
+    }
+
+    public int cantidadSuscripciones() {
+        return suscripciones.get();
+    }
+
+    /**
+     * Latido periódico: mantiene abiertas las conexiones a través de proxies, detecta las caídas
+     * al fallar la escritura y descarta los canales que quedaron sin suscriptores
+     */
+    @Scheduled(fixedDelayString = "${picadito.tiempo-real.heartbeat-ms:15000}")
+    public void latir() {
+        for (Map<Long, Canal> canales : List.of(usuarios, partidos)) {
+            for (Canal canal : canales.values()) {
+                for (Suscripcion suscripcion : canal.suscripciones()) {
+                    // Con la cola llena ya hay envíos en curso, el latido no hace falta
+                    suscripcion.pendientes.offer(LATIDO);
+                    despachar(suscripcion);
+                }
+            }
+        }
+        purgarCanales(System.currentTimeMillis() - retencionCanalMinutos * 60_000L);
+    }
+
+    @PreDestroy
+    public void cerrarTodas() {
+        for (Map<Long, Canal> canales : List.of(usuarios, partidos)) {
+            canales.values().forEach(canal -> canal.suscripciones().forEach(suscripcion -> cerrar(suscripcion, true)));
+            canales.clear();
+        }
+    }
+
+    SseEmitter crearEmisor() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void publicarAAudiencia(AlertaResponseDTO alerta) {
+        List<Long> conectados = new ArrayList<>(usuarios.keySet());
+        List<Long> destinatarios = new ArrayList<>();
+        for (int i = 0; i < conectados.size(); i += MAX_IDS_POR_CONSULTA) {
+            List<Long> tramo = conectados.subList(i, Math.min(i + MAX_IDS_POR_CONSULTA, conectados.size()));
+            destinatarios.addAll(alerta.getAudiencia() == Audiencia.CATEGORIA
+                    ? participanteRepository.findUsuarioIdsPorCategoria(alerta.getCategoriaId(), tramo)
+                    : participanteRepository.findUsuarioIdsInscriptos(alerta.getPartidoId(), tramo));
+        }
+        if (destinatarios.isEmpty()) {
+            return;
+        }
+        Evento evento = nuevoEvento(EVENTO_ALERTA, alerta);
+        for (Long usuarioId : destinatarios) {
+            publicar(usuarios.get(usuarioId), evento);
+        }
+    }
+
+    private void publicar(Canal canal, Evento evento) {
+        if (canal == null) {
+            return;
+        }
+        List<Suscripcion> llenas = canal.agregar(evento);
+        for (Suscripcion suscripcion : canal.suscripciones()) {
+            if (llenas.contains(suscripcion)) {
+                logger.info("Suscripción en tiempo real cerrada por no consumir los eventos a tiempo");
+                cerrar(suscripcion, true);
+            } else {
+                despachar(suscripcion);
+            }
+        }
+    }
+
+    private Canal obtenerCanal(Map<Long, Canal> canales, Long id) {
+        if (canales.size() >= MAX_CANALES) {
+            purgarCanales(System.currentTimeMillis());
+        }
+        long ahora = System.currentTimeMillis();
+        return canales.compute(id, (clave, canal) -> {
+            Canal vigente = canal != null ? canal : new Canal(replayEventos, secuencia.get());
+            vigente.ultimoUso = ahora;
+            return vigente;
+        });
+    }
+
+    private void purgarCanales(long limite) {
+        for (Map<Long, Canal> canales : List.of(usuarios, partidos)) {
+            for (Long id : new ArrayList<>(canales.keySet())) {
+                canales.computeIfPresent(id, (clave, canal) -> canal.inactivoDesde(limite) ? null : canal);
+            }
+        }
+    }
+
+    private Suscripcion abrir(Canal canal, boolean soloUltimo) {
+        if (suscripciones.incrementAndGet() > maxSuscripciones) {
+            suscripciones.decrementAndGet();
+            throw new BusinessException("Hay demasiadas conexiones en tiempo real abiertas. Intente nuevamente en unos minutos.");
+        }
+        Suscripcion suscripcion = new Suscripcion(crearEmisor(), canal, colaPorSuscripcion, soloUltimo);
+        suscripcion.emisor.onCompletion(() -> cerrar(suscripcion, false));
+        suscripcion.emisor.onTimeout(() -> cerrar(suscripcion, true));
+        suscripcion.emisor.onError(e -> cerrar(suscripcion, false));
+        return suscripcion;
+    }
+
+    private void cerrar(Suscripcion suscripcion, boolean completar) {
+        if (!suscripcion.cerrada.compareAndSet(false, true)) {
+            return;
+        }
+        suscripcion.canal.quitar(suscripcion);
+        suscripciones.decrementAndGet();
+        if (completar) {
+            try {
+                suscripcion.emisor.complete();
+            } catch (RuntimeException e) {
+                logger.debug("La conexión ya estaba cerrada: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void despachar(Suscripcion suscripcion) {
+        if (suscripcion.cerrada.get() || !suscripcion.enviando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> vaciar(suscripcion));
+        } catch (RejectedExecutionException e) {
+            // Queda pendiente hasta el próximo evento o latido
+            suscripcion.enviando.set(false);
+            logger.warn("Executor de tiempo real lleno, se demora el envío de eventos");
+        }
+    }
+
+    private void vaciar(Suscripcion suscripcion) {
+        do {
+            Evento evento;
+            while (!suscripcion.cerrada.get() && (evento = suscripcion.pendientes.poll()) != null) {
+                try {
+                    enviar(suscripcion.emisor, evento);
+                } catch (IOException | IllegalStateException e) {
+                    logger.debug("No se pudo escribir en la conexión en tiempo real: {}", e.getMessage());
+                    cerrar(suscripcion, true);
+                    return;
+                }
+            }
+            suscripcion.enviando.set(false);
+            // Un evento encolado justo después de vaciar la cola lo envía este mismo hilo
+        } while (!suscripcion.cerrada.get() && !suscripcion.pendientes.isEmpty()
+                && suscripcion.enviando.compareAndSet(false, true));
+    }
+
+    private static void enviar(SseEmitter emisor, Evento evento) throws IOException {
+        if (evento == LATIDO) {
+            emisor.send(SseEmitter.event().comment("latido"));
+        } else {
+            emisor.send(SseEmitter.event().id(evento.id).name(evento.nombre).data(evento.datos, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private Evento nuevoEvento(String nombre, Object datos) {
+        long numero = secuencia.incrementAndGet();
+        return new Evento(instancia + "-" + numero, numero, nombre, datos);
+    }
+
+    // -1 si el id no es de esta ejecución o no se puede leer: el cliente recibe el estado actual
+    private long secuenciaDe(String ultimoEventoId) {
+        if (ultimoEventoId == null || !ultimoEventoId.startsWith(instancia + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(ultimoEventoId.substring(instancia.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static CuposPartidoDTO convertirACupos(Partido partido) {
+        int participantes = partido.getCantidadParticipantes();
+        return new CuposPartidoDTO(partido.getId(), participantes, partido.getMaxJugadores(),
+                Math.max(0, partido.getMaxJugadores() - participantes), partido.getEstado());
+    }
+
+    private static final class Evento {
+        final String id;
+        final long secuencia;
+        final String nombre;
+        final Object datos;
+
+        Evento(String id, long secuencia, String nombre, Object datos) {
+            this.id = id;
+            this.secuencia = secuencia;
+            this.nombre = nombre;
+            this.datos = datos;
+        }
+    }
+
+    /**
+     * Suscriptores de un usuario o partido y sus últimos eventos. Publicar y suscribirse se
+     * sincronizan para que un cliente que retoma no pierda ni repita eventos.
+     */
+    private static final class Canal {
+        private final Deque<Evento> historial = new ArrayDeque<>();
+        private final Set<Suscripcion> suscriptores = ConcurrentHashMap.newKeySet();
+        private final int capacidad;
+        // Solo se puede retomar desde un id posterior a la creación del canal y al último descartado
+        private final long creadoEn;
+        private long descartadoHasta;
+        volatile long ultimoUso;
+
+        Canal(int capacidad, long creadoEn) {
+            this.capacidad = capacidad;
+            this.creadoEn = creadoEn;
+        }
+
+        /**
+         * Guarda el evento y lo encola en cada suscripción
+         * @return las suscripciones que no tenían lugar en su cola
+         */
+        synchronized List<Suscripcion> agregar(Evento evento) {
+            historial.addLast(evento);
+            if (historial.size() > capacidad) {
+                descartadoHasta = historial.removeFirst().secuencia;
+            }
+            ultimoUso = System.currentTimeMillis();
+            List<Suscripcion> llenas = new ArrayList<>();
+            for (Suscripcion suscripcion : suscriptores) {
+                if (!suscripcion.encolar(evento)) {
+                    llenas.add(suscripcion);
+                }
+            }
+            return llenas;
+        }
+
+        /**
+         * Registra la suscripción y, si puede retomar desde {@code desde}, le encola lo que se perdió
+         * @return false si no se pudo retomar
+         */
+        synchronized boolean suscribir(Suscripcion suscripcion, long desde) {
+            suscriptores.add(suscripcion);
+            ultimoUso = System.currentTimeMillis();
+            if (desde < 0 || desde < creadoEn || desde < descartadoHasta) {
+                return false;
+            }
+            for (Evento evento : historial) {
+                if (evento.secuencia > desde) {
+                    suscripcion.encolar(evento);
+                }
+            }
+            return true;
+        }
+
+        void quitar(Suscripcion suscripcion) {
+            suscriptores.remove(suscripcion);
+            ultimoUso = System.currentTimeMillis();
+        }
+
+        List<Suscripcion> suscripciones() {
+            return new ArrayList<>(suscriptores);
+        }
+
+        int cantidadSuscripciones() {
+            return suscriptores.size();
+        }
+
+        boolean inactivoDesde(long limite) {
+            return suscriptores.isEmpty() && ultimoUso < limite;
+        }
+    }
+
+    private static final class Suscripcion {
+        final SseEmitter emisor;
+        final Canal canal;
+        final ArrayBlockingQueue<Evento> pendientes;
+        // Canal de estado (cupos): con la cola llena se reemplazan los pendientes por el último
+        final boolean soloUltimo;
+        final AtomicBoolean enviando = new AtomicBoolean();
+        final AtomicBoolean cerrada = new AtomicBoolean();
+
+        Suscripcion(SseEmitter emisor, Canal canal, int capacidad, boolean soloUltimo) {
+            this.emisor = emisor;
+            this.canal = canal;
+            this.pendientes = new ArrayBlockingQueue<>(capacidad);
+            this.soloUltimo = soloUltimo;
+        }
+
+        synchronized boolean encolar(Evento evento) {
+            if (pendientes.offer(evento)) {
+                return true;
+            }
+            if (soloUltimo) {
+                pendientes.clear();
+                return pendientes.offer(evento);
+            }
+            return false;
+        }
+    }
+}
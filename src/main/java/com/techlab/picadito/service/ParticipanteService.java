@@ -7,8 +7,11 @@ import com.techlab.picadito.exception.ResourceNotFoundException;
 import com.techlab.picadito.model.EstadoPartido;
 import com.techlab.picadito.model.Partido;
 import com.techlab.picadito.model.Participante;
+import com.techlab.picadito.model.TipoEventoDominio;
 import com.techlab.picadito.repository.ParticipanteRepository;
 import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,12 +39,21 @@ public class ParticipanteService {
     @Autowired
     private PartidoService partidoService;
 
+    @Autowired
+    private EventosDominioService eventosDominioService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Timed(value = "picadito.participantes.inscripcion", description = "Inscripción de un participante a un partido")
     public ParticipanteResponseDTO inscribirseAPartido(@NonNull Long partidoId, ParticipanteDTO participanteDTO) {
         logger.info("Inscribiendo participante {} al partido {}", participanteDTO.getNombre(), partidoId);
         
         Partido partido = obtenerYValidarPartido(partidoId, participanteDTO);
         Participante participante = crearYGuardarParticipante(participanteDTO, partido);
         actualizarEstadoPartido(partidoId, partido);
+        eventosDominioService.publicar(TipoEventoDominio.PARTICIPANTE_INSCRITO, partidoId,
+                participanteDTO.getUsuarioId(), participante.getId(), participante.getNombre());
 
         logger.info("Participante inscrito exitosamente con id: {}", participante.getId());
         return convertirADTO(participante);
@@ -54,6 +66,7 @@ public class ParticipanteService {
         validarPartidoDisponible(partido);
         validarPartidoNoCompleto(partido);
         validarNombreNoDuplicado(partido, participanteDTO.getNombre());
+        validarUsuarioNoInscripto(partido, participanteDTO.getUsuarioId());
         
         return partido;
     }
@@ -76,6 +89,12 @@ public class ParticipanteService {
         }
     }
     
+    private void validarUsuarioNoInscripto(Partido partido, Long usuarioId) {
+        if (usuarioId != null && participanteRepository.existsByPartidoAndUsuarioId(partido, usuarioId)) {
+            throw new BusinessException("El usuario ya está inscripto en este partido");
+        }
+    }
+    
     private Participante crearYGuardarParticipante(ParticipanteDTO participanteDTO, Partido partido) {
         Participante participante = new Participante();
         participante.setNombre(participanteDTO.getNombre());
@@ -83,6 +102,11 @@ public class ParticipanteService {
         participante.setPosicion(participanteDTO.getPosicion());
         participante.setNivel(participanteDTO.getNivel());
         participante.setPartido(partido);
+        if (participanteDTO.getUsuarioId() != null) {
+            Long usuarioId = participanteDTO.getUsuarioId();
+            participante.setUsuario(usuarioRepository.findById(usuarioId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con id: " + usuarioId)));
+        }
         return participanteRepository.save(participante);
     }
     
@@ -119,6 +143,9 @@ public class ParticipanteService {
 
         // Actualizar estado del partido si ya no está completo
         partidoService.actualizarEstadoSegunParticipantes(partido);
+        eventosDominioService.publicar(TipoEventoDominio.PARTICIPANTE_DESINSCRITO, partidoId,
+                participante.getUsuario() != null ? participante.getUsuario().getId() : null,
+                participanteId, participante.getNombre());
         logger.info("Participante desinscrito exitosamente");
     }
 
@@ -146,6 +173,7 @@ public class ParticipanteService {
         dto.setPosicion(participante.getPosicion());
         dto.setNivel(participante.getNivel());
         dto.setFechaInscripcion(participante.getFechaInscripcion());
+        dto.setUsuarioId(participante.getUsuario() != null ? participante.getUsuario().getId() : null);
         return dto;
     }
 }
@@ -15,8 +15,10 @@ import com.techlab.picadito.model.EstadoPartido;
 import com.techlab.picadito.model.Partido;
 import com.techlab.picadito.model.Participante;
 import com.techlab.picadito.model.Sede;
+import com.techlab.picadito.model.TipoEventoDominio;
 import com.techlab.picadito.repository.PartidoRepository;
 import com.techlab.picadito.repository.SedeRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.criteria.*;
 import jakarta.persistence.criteria.Join;
 import org.slf4j.Logger;
@@ -33,6 +35,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -53,8 +56,7 @@ public class PartidoService {
     private CategoriaService categoriaService;
 
     @Autowired
-    @Lazy
-    private AlertaService alertaService;
+    private EventosDominioService eventosDominioService;
 
     @Autowired
     @Lazy
@@ -64,10 +66,21 @@ public class PartidoService {
     @Lazy
     private EquipoService equipoService;
 
+    @Autowired
+    @Lazy
+    private ReservaService reservaService;
+
+    @Autowired
+    private AgendaSedeService agendaSedeService;
+
+    @Autowired
+    private CicloVidaPartidoService cicloVidaPartidoService;
+
+    @Autowired
+    private RecordatorioPartidoService recordatorioPartidoService;
+
     public List<PartidoResponseDTO> obtenerTodosLosPartidos() {
-        return partidoRepository.findAll().stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return convertirListaADTO(partidoRepository.findAll());
     }
 
     public List<PartidoResponseDTO> obtenerPartidosDisponibles() {
@@ -75,9 +88,7 @@ public class PartidoService {
             logger.debug("Obteniendo partidos disponibles");
             List<Partido> partidos = partidoRepository.findByEstadoOrderByFechaHoraAsc(EstadoPartido.DISPONIBLE);
             logger.debug("Se encontraron {} partidos disponibles", partidos.size());
-            return partidos.stream()
-                    .map(this::convertirADTO)
-                    .collect(Collectors.toList());
+            return convertirListaADTO(partidos);
         } catch (Exception e) {
             logger.error("Error al obtener partidos disponibles", e);
             throw e;
@@ -102,12 +113,16 @@ public class PartidoService {
             Partido partido = crearEntidadPartido(partidoDTO);
             asignarSedeSiExiste(partido, partidoDTO.getSedeId());
             asignarCategorias(partido, partidoDTO);
+            validarDisponibilidadSede(partido);
             
             logger.debug("Partido antes de guardar - categorias size: {}", 
                     partido.getCategorias() != null ? partido.getCategorias().size() : 0);
 
             partido = partidoRepository.save(partido);
             logger.debug("Partido guardado con id: {}", partido.getId());
+            agendaSedeService.registrar(partido);
+            cicloVidaPartidoService.programar(partido);
+            recordatorioPartidoService.programar(partido);
             
             // Recargar el partido para asegurar que las relaciones estén cargadas
             partido = partidoRepository.findById(partido.getId())
@@ -115,13 +130,9 @@ public class PartidoService {
             logger.debug("Partido recargado - categorias size: {}", 
                     partido.getCategorias() != null ? partido.getCategorias().size() : 0);
             
-            // Generar alerta si hay cupos bajos
-            try {
-                alertaService.crearAlertaCuposBajos(partido);
-            } catch (Exception e) {
-                logger.warn("No se pudo crear alerta de cupos bajos para partido {}: {}", 
-                        partido.getId(), e.getMessage());
-            }
+            // La alerta de cupos bajos se genera a partir del evento, fuera de esta transacción
+            eventosDominioService.publicar(TipoEventoDominio.PARTIDO_CREADO, partido.getId(), null, null,
+                    partido.getTitulo());
             
             logger.info("Partido creado exitosamente con id: {}", partido.getId());
             return convertirADTO(partido);
@@ -136,6 +147,8 @@ public class PartidoService {
         partido.setTitulo(partidoDTO.getTitulo());
         partido.setDescripcion(partidoDTO.getDescripcion());
         partido.setFechaHora(partidoDTO.getFechaHora());
+        partido.setDuracionMinutos(partidoDTO.getDuracionMinutos() != null
+                ? partidoDTO.getDuracionMinutos() : Partido.DURACION_POR_DEFECTO_MINUTOS);
         partido.setUbicacion(partidoDTO.getUbicacion());
         partido.setMaxJugadores(normalizarMaxJugadores(partidoDTO.getMaxJugadores()));
         partido.setCreadorNombre(partidoDTO.getCreadorNombre());
@@ -223,12 +236,16 @@ public class PartidoService {
 
         validarActualizacionPartido(partido, partidoDTO);
         aplicarActualizaciones(partido, partidoDTO);
+        validarDisponibilidadSede(partido);
 
         partido = partidoRepository.save(partido);
+        agendaSedeService.registrar(partido);
         actualizarEstadoSegunParticipantes(partido);
+        cicloVidaPartidoService.programar(partido);
+        recordatorioPartidoService.programar(partido);
         
-        // Generar alerta si hay cupos bajos después de actualizar
-        alertaService.crearAlertaCuposBajos(partido);
+        eventosDominioService.publicar(TipoEventoDominio.PARTIDO_ACTUALIZADO, partido.getId(), null, null,
+                partido.getTitulo());
         
         logger.info("Partido actualizado exitosamente");
         return convertirADTO(partido);
@@ -261,6 +278,9 @@ public class PartidoService {
         if (partidoDTO.getFechaHora() != null) {
             partido.setFechaHora(partidoDTO.getFechaHora());
         }
+        if (partidoDTO.getDuracionMinutos() != null) {
+            partido.setDuracionMinutos(partidoDTO.getDuracionMinutos());
+        }
         if (partidoDTO.getUbicacion() != null) {
             partido.setUbicacion(partidoDTO.getUbicacion());
         }
@@ -279,6 +299,34 @@ public class PartidoService {
         }
     }
     
+    /**
+     * Verifica que la sede no tenga otro partido activo superpuesto con el horario del partido.
+     * Primero consulta el índice en memoria y luego confirma contra la base con la fila de la
+     * sede bloqueada, para que dos nodos no puedan asignar el mismo horario a la vez.
+     */
+    private void validarDisponibilidadSede(Partido partido) {
+        if (partido.getSede() == null || partido.getFechaHora() == null) {
+            return;
+        }
+        Long sedeId = partido.getSede().getId();
+        LocalDateTime inicio = partido.getFechaHora();
+        LocalDateTime fin = partido.getFechaFin();
+
+        agendaSedeService.buscarConflicto(sedeId, partido.getId(), inicio, fin).ifPresent(otroId -> {
+            throw new BusinessException("La sede ya tiene un partido (id " + otroId + ") en ese horario");
+        });
+
+        sedeRepository.findByIdParaAsignarHorario(sedeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Sede no encontrada con id: " + sedeId));
+        List<Partido> candidatos = partidoRepository.findEnSedeEntre(sedeId, EstadoPartido.CANCELADO,
+                inicio.minusMinutes(Partido.DURACION_MAXIMA_MINUTOS), fin);
+        for (Partido otro : candidatos) {
+            if (!Objects.equals(otro.getId(), partido.getId()) && otro.getFechaFin().isAfter(inicio)) {
+                throw new BusinessException("La sede ya tiene un partido (id " + otro.getId() + ") en ese horario");
+            }
+        }
+    }
+
     private void actualizarSede(Partido partido, Long sedeId) {
         if (sedeId != null) {
             Sede sede = sedeRepository.findById(sedeId)
@@ -314,6 +362,10 @@ public class PartidoService {
         
         try {
             partidoRepository.deleteById(id);
+            agendaSedeService.liberar(id);
+            cicloVidaPartidoService.quitar(id);
+            recordatorioPartidoService.quitar(id);
+            eventosDominioService.publicar(TipoEventoDominio.PARTIDO_ELIMINADO, id, null, null, null);
             logger.info("Partido eliminado exitosamente");
         } catch (DataIntegrityViolationException e) {
             logger.warn("No se puede eliminar el partido {} debido a restricciones de integridad referencial: {}", 
@@ -325,6 +377,56 @@ public class PartidoService {
         }
     }
 
+    /**
+     * Cancela el partido (ver {@link #aplicarCancelacion(Partido)})
+     */
+    public PartidoResponseDTO cancelarPartido(@NonNull Long id) {
+        logger.info("Cancelando partido con id: {}", id);
+        Partido partido = partidoRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Partido no encontrado con id: " + id));
+
+        if (partido.getEstado() == EstadoPartido.FINALIZADO || partido.getEstado() == EstadoPartido.CANCELADO) {
+            throw new BusinessException("No se puede cancelar un partido que está " + partido.getEstado().name().toLowerCase());
+        }
+
+        partido = aplicarCancelacion(partido);
+        logger.info("Partido {} cancelado", id);
+        return convertirADTO(partido);
+    }
+
+    /**
+     * Pasa el partido a CANCELADO con todos sus efectos: libera la franja de la sede, quita sus
+     * vencimientos y recordatorios, cancela (y reintegra) sus reservas y publica el cambio.
+     * La usan tanto la cancelación manual como la automática del ciclo de vida.
+     */
+    public Partido aplicarCancelacion(Partido partido) {
+        Long id = partido.getId();
+        partido.setEstado(EstadoPartido.CANCELADO);
+        partido = partidoRepository.save(partido);
+        agendaSedeService.liberar(id);
+        cicloVidaPartidoService.quitar(id);
+        recordatorioPartidoService.quitar(id);
+        reservaService.cancelarPorPartido(id);
+        eventosDominioService.publicar(TipoEventoDominio.PARTIDO_CANCELADO, id, null, null, partido.getTitulo());
+        return partido;
+    }
+
+    /**
+     * Da por jugado el partido (por ejemplo, al registrar su resultado)
+     */
+    public Partido finalizarPartido(Partido partido) {
+        if (partido.getEstado() == EstadoPartido.CANCELADO) {
+            throw new BusinessException("No se puede finalizar un partido cancelado");
+        }
+        partido.setEstado(EstadoPartido.FINALIZADO);
+        cicloVidaPartidoService.quitar(partido.getId());
+        recordatorioPartidoService.quitar(partido.getId());
+        eventosDominioService.publicar(TipoEventoDominio.PARTIDO_FINALIZADO, partido.getId(), null, null,
+                partido.getTitulo());
+        logger.info("Partido {} finalizado", partido.getId());
+        return partidoRepository.save(partido);
+    }
+
     public void actualizarEstadoSegunParticipantes(Partido partido) {
         boolean necesitaGuardar = false;
         if (partido.estaCompleto() && partido.getEstado() == EstadoPartido.DISPONIBLE) {
@@ -365,6 +467,7 @@ public class PartidoService {
         return partido.getPrecio() / partido.getMaxJugadores();
     }
 
+    @Timed(value = "picadito.partidos.busqueda", description = "Búsqueda de partidos por criterios")
     public List<PartidoResponseDTO> buscarPartidos(BusquedaPartidoDTO busqueda) {
         logger.info("Buscando partidos con criterios: {}", busqueda);
         
@@ -372,9 +475,7 @@ public class PartidoService {
         List<Partido> partidos = partidoRepository.findAll(spec);
         
         logger.info("Se encontraron {} partidos", partidos.size());
-        return partidos.stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return convertirListaADTO(partidos);
     }
 
     private Specification<Partido> crearSpecification(BusquedaPartidoDTO busqueda) {
@@ -487,14 +588,40 @@ public class PartidoService {
         }
     }
 
+    /**
+     * Convierte una lista leyendo los promedios de calificación de todos los partidos en una sola
+     * consulta, en lugar de una por partido
+     */
+    private List<PartidoResponseDTO> convertirListaADTO(List<Partido> partidos) {
+        List<Long> ids = partidos.stream().map(Partido::getId).collect(Collectors.toList());
+        Map<Long, Double> promedios = obtenerPromedios(ids);
+        Map<Long, List<EquipoResponseDTO>> equipos = obtenerEquipos(ids);
+        return partidos.stream()
+                .map(partido -> convertirADTO(partido, promedios, equipos))
+                .collect(Collectors.toList());
+    }
+
     private PartidoResponseDTO convertirADTO(Partido partido) {
+        return convertirADTO(partido, null, null);
+    }
+
+    private PartidoResponseDTO convertirADTO(Partido partido, Map<Long, Double> promedios,
+                                             Map<Long, List<EquipoResponseDTO>> equipos) {
         try {
             PartidoResponseDTO dto = mapearCamposBasicos(partido);
             asignarSedeADTO(dto, partido);
             asignarCategoriasADTO(dto, partido);
             asignarParticipantesADTO(dto, partido);
-            asignarPromedioCalificacion(dto, partido);
-            asignarEquiposADTO(dto, partido);
+            if (promedios != null) {
+                dto.setPromedioCalificacion(promedios.get(partido.getId()));
+            } else {
+                asignarPromedioCalificacion(dto, partido);
+            }
+            if (equipos != null) {
+                dto.setEquipos(new ArrayList<>(equipos.getOrDefault(partido.getId(), List.of())));
+            } else {
+                asignarEquiposADTO(dto, partido);
+            }
             return dto;
         } catch (Exception e) {
             logger.error("Error al convertir partido {} a DTO", partido.getId(), e);
@@ -508,6 +635,7 @@ public class PartidoService {
         dto.setTitulo(partido.getTitulo());
         dto.setDescripcion(partido.getDescripcion());
         dto.setFechaHora(partido.getFechaHora());
+        dto.setDuracionMinutos(partido.getDuracionMinutos());
         dto.setUbicacion(partido.getUbicacion());
         dto.setMaxJugadores(partido.getMaxJugadores());
         dto.setEstado(partido.getEstado());
@@ -566,6 +694,15 @@ public class PartidoService {
         return categoriaDTO;
     }
 
+    private Map<Long, Double> obtenerPromedios(List<Long> ids) {
+        try {
+            return calificacionService.obtenerPromediosPorPartidos(ids);
+        } catch (Exception e) {
+            logger.debug("No se pudieron obtener los promedios de calificaciones: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
     private void asignarPromedioCalificacion(PartidoResponseDTO dto, Partido partido) {
         try {
             Long partidoId = Objects.requireNonNull(partido.getId(), "El partido debe tener un ID");
@@ -578,6 +715,15 @@ public class PartidoService {
         }
     }
 
+    private Map<Long, List<EquipoResponseDTO>> obtenerEquipos(List<Long> ids) {
+        try {
+            return equipoService.obtenerEquiposPorPartidos(ids);
+        } catch (Exception e) {
+            logger.debug("No se pudieron obtener los equipos de los partidos: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
     private void asignarEquiposADTO(PartidoResponseDTO dto, Partido partido) {
         try {
             Long partidoId = Objects.requireNonNull(partido.getId(), "El partido debe tener un ID");
@@ -622,6 +768,7 @@ public class PartidoService {
         dto.setPosicion(participante.getPosicion());
         dto.setNivel(participante.getNivel());
         dto.setFechaInscripcion(participante.getFechaInscripcion());
+        dto.setUsuarioId(participante.getUsuario() != null ? participante.getUsuario().getId() : null);
         return dto;
     }
 }
@@ -0,0 +1,241 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.MetricasProcesadorReservasDTO;
+import com.techlab.picadito.model.LineaReserva;
+import com.techlab.picadito.model.Reserva;
+import com.techlab.picadito.model.Reserva.EstadoReserva;
+import com.techlab.picadito.repository.ReservaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pasa las reservas a EN_PROCESO o FINALIZADO según sus partidos, sin recorrer toda la tabla:
+ * solo considera reservas activas con algún partido que empieza dentro de las próximas 24 horas
+ * o que ya empezó. Las recorre por id en lotes acotados, cada uno en su propia transacción, así
+ * un lote con error no deshace el resto.
+ */
+@Service
+public class ProcesadorReservasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcesadorReservasService.class);
+
+    private static final List<EstadoReserva> ESTADOS_ACTIVOS =
+            List.of(EstadoReserva.PENDIENTE, EstadoReserva.CONFIRMADO, EstadoReserva.EN_PROCESO);
+    private static final long HORAS_ANTICIPACION = 24;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BloqueoTareasService bloqueoTareasService;
+
+    @Value("${picadito.reservas.procesador.intervalo-ms:60000}")
+    private long intervaloMs = 60_000;
+
+    @Value("${picadito.reservas.procesador.tamanio-lote:200}")
+    private int tamanioLote = 200;
+
+    private final ReentrantLock enEjecucion = new ReentrantLock();
+
+    private final AtomicLong ejecuciones = new AtomicLong();
+    private final AtomicLong totalEvaluadas = new AtomicLong();
+    private final AtomicLong totalActualizadas = new AtomicLong();
+    private final AtomicLong pasadasAEnProceso = new AtomicLong();
+    private final AtomicLong pasadasAFinalizado = new AtomicLong();
+
+    private volatile Ejecucion ultima;
+
+    @Scheduled(fixedDelayString = "${picadito.reservas.procesador.intervalo-ms:60000}",
+               initialDelayString = "${picadito.reservas.procesador.intervalo-ms:60000}")
+    public void ejecutarProgramado() {
+        // Una sola vuelta por intervalo entre todos los nodos
+        bloqueoTareasService.ejecutar("procesar-reservas", Duration.ofMinutes(10),
+                Duration.ofMillis(intervaloMs / 2), this::procesar);
+    }
+
+    /**
+     * Procesa las reservas candidatas; si ya hay una ejecución en curso no hace nada
+     */
+    public MetricasProcesadorReservasDTO procesar() {
+        if (!enEjecucion.tryLock()) {
+            logger.debug("El procesador de reservas ya está en ejecución");
+            return obtenerMetricas();
+        }
+        try {
+            ejecutar();
+        } finally {
+            enEjecucion.unlock();
+        }
+        return obtenerMetricas();
+    }
+
+    public MetricasProcesadorReservasDTO obtenerMetricas() {
+        MetricasProcesadorReservasDTO metricas = new MetricasProcesadorReservasDTO();
+        metricas.setEnEjecucion(enEjecucion.isLocked());
+        metricas.setTamanioLote(tamanioLote);
+        metricas.setEjecuciones(ejecuciones.get());
+        metricas.setTotalEvaluadas(totalEvaluadas.get());
+        metricas.setTotalActualizadas(totalActualizadas.get());
+        metricas.setPasadasAEnProceso(pasadasAEnProceso.get());
+        metricas.setPasadasAFinalizado(pasadasAFinalizado.get());
+        Ejecucion ejecucion = ultima;
+        if (ejecucion != null) {
+            metricas.setUltimaEjecucion(ejecucion.inicio);
+            metricas.setDuracionUltimaMs(ejecucion.duracionMs);
+            metricas.setLotesUltima(ejecucion.lotes);
+            metricas.setLotesFallidosUltima(ejecucion.lotesFallidos);
+            metricas.setEvaluadasUltima(ejecucion.evaluadas);
+            metricas.setActualizadasUltima(ejecucion.actualizadas);
+            metricas.setLagMaximoSegundos(ejecucion.lagMaximoSegundos);
+            double segundos = Math.max(ejecucion.duracionMs, 1) / 1000.0;
+            metricas.setThroughputPorSegundo(Math.round(ejecucion.evaluadas / segundos * 10) / 10.0);
+        }
+        return metricas;
+    }
+
+    private void ejecutar() {
+        LocalDateTime inicio = LocalDateTime.now();
+        long inicioNanos = System.nanoTime();
+        LocalDateTime limite = inicio.plusHours(HORAS_ANTICIPACION);
+
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        TransactionTemplate escritura = new TransactionTemplate(transactionManager);
+
+        Lote total = new Lote();
+        int lotes = 0;
+        int lotesFallidos = 0;
+        long desdeId = 0L;
+        while (true) {
+            long cursor = desdeId;
+            List<Long> ids = lectura.execute(estado -> reservaRepository.findIdsConPartidoAntesDe(
+                    ESTADOS_ACTIVOS, limite, cursor, PageRequest.of(0, tamanioLote)));
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            lotes++;
+            try {
+                Lote lote = escritura.execute(estado -> procesarLote(ids, inicio));
+                if (lote != null) {
+                    total.sumar(lote);
+                }
+            } catch (RuntimeException e) {
+                lotesFallidos++;
+                logger.error("Error al procesar el lote de reservas {}-{}: {}",
+                        ids.get(0), ids.get(ids.size() - 1), e.getMessage());
+            }
+            desdeId = ids.get(ids.size() - 1);
+            if (ids.size() < tamanioLote) {
+                break;
+            }
+        }
+
+        long duracionMs = (System.nanoTime() - inicioNanos) / 1_000_000;
+        ultima = new Ejecucion(inicio, duracionMs, lotes, lotesFallidos, total.evaluadas, total.actualizadas, total.lagMaximoSegundos);
+        ejecuciones.incrementAndGet();
+        totalEvaluadas.addAndGet(total.evaluadas);
+        totalActualizadas.addAndGet(total.actualizadas);
+        pasadasAEnProceso.addAndGet(total.enProceso);
+        pasadasAFinalizado.addAndGet(total.finalizadas);
+        if (total.actualizadas > 0 || lotesFallidos > 0) {
+            logger.info("Procesador de reservas: {} evaluadas, {} actualizadas en {} lotes ({} con error), {} ms",
+                    total.evaluadas, total.actualizadas, lotes, lotesFallidos, duracionMs);
+        }
+    }
+
+    private Lote procesarLote(List<Long> ids, LocalDateTime ahora) {
+        Lote lote = new Lote();
+        for (Reserva reserva : reservaRepository.findConLineasByIdIn(ids)) {
+            lote.evaluadas++;
+            if (!reservaService.actualizarEstadoAutomatico(reserva)) {
+                continue;
+            }
+            lote.actualizadas++;
+            if (reserva.getEstado() == EstadoReserva.FINALIZADO) {
+                lote.finalizadas++;
+            } else {
+                lote.enProceso++;
+            }
+            LocalDateTime debia = momentoDelCambio(reserva, ahora);
+            if (debia != null) {
+                lote.lagMaximoSegundos = Math.max(lote.lagMaximoSegundos,
+                        Math.max(0, Duration.between(debia, ahora).getSeconds()));
+            }
+        }
+        return lote;
+    }
+
+    /**
+     * Cuándo empezó a corresponder el nuevo estado: 24 horas antes del próximo partido para
+     * EN_PROCESO, el inicio del último partido para FINALIZADO
+     */
+    private static LocalDateTime momentoDelCambio(Reserva reserva, LocalDateTime ahora) {
+        LocalDateTime momento = null;
+        for (LineaReserva linea : reserva.getLineasReserva()) {
+            LocalDateTime fechaHora = linea.getPartido().getFechaHora();
+            if (reserva.getEstado() == EstadoReserva.FINALIZADO) {
+                momento = momento == null || fechaHora.isAfter(momento) ? fechaHora : momento;
+            } else if (fechaHora.isAfter(ahora)) {
+                LocalDateTime desde = fechaHora.minusHours(HORAS_ANTICIPACION);
+                momento = momento == null || desde.isBefore(momento) ? desde : momento;
+            }
+        }
+        return momento;
+    }
+
+    private static final class Lote {
+        int evaluadas;
+        int actualizadas;
+        int enProceso;
+        int finalizadas;
+        long lagMaximoSegundos;
+
+        void sumar(Lote otro) {
+            evaluadas += otro.evaluadas;
+            actualizadas += otro.actualizadas;
+            enProceso += otro.enProceso;
+            finalizadas += otro.finalizadas;
+            lagMaximoSegundos = Math.max(lagMaximoSegundos, otro.lagMaximoSegundos);
+        }
+    }
+
+    private static final class Ejecucion {
+        final LocalDateTime inicio;
+        final long duracionMs;
+        final int lotes;
+        final int lotesFallidos;
+        final int evaluadas;
+        final int actualizadas;
+        final long lagMaximoSegundos;
+
+        Ejecucion(LocalDateTime inicio, long duracionMs, int lotes, int lotesFallidos,
+                  int evaluadas, int actualizadas, long lagMaximoSegundos) {
+            this.inicio = inicio;
+            this.duracionMs = duracionMs;
+            this.lotes = lotes;
+            this.lotesFallidos = lotesFallidos;
+            this.evaluadas = evaluadas;
+            this.actualizadas = actualizadas;
+            this.lagMaximoSegundos = lagMaximoSegundos;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.MetricasTrabajosDTO;
+import com.techlab.picadito.model.TipoTrabajo;
+import com.techlab.picadito.model.Trabajo;
+import com.techlab.picadito.model.Trabajo.EstadoTrabajo;
+import com.techlab.picadito.repository.TrabajoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * Worker de la cola de trabajos. Reclama trabajos listos por prioridad con SKIP LOCKED (varios
+ * nodos pueden reclamar a la vez sin tomar el mismo), hasta la concurrencia total del nodo y la de
+ * cada tipo (un tipo sin cupo no frena a los demás), y los ejecuta en el executor de trabajos. Mientras un trabajo corre, el nodo renueva
+ * su plazo de visibilidad; si el nodo se cae, el plazo vence y otro nodo lo retoma. Los fallos se
+ * reintentan con espera creciente hasta el máximo de intentos.
+ */
+@Service
+public class ProcesadorTrabajosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcesadorTrabajosService.class);
+    private static final int MAX_ERROR = 500;
+
+    @Autowired
+    private TrabajoRepository trabajoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("trabajosExecutor")
+    private Executor executor;
+
+    @Autowired(required = false)
+    private List<ManejadorTrabajo> manejadores = List.of();
+
+    @Value("${picadito.trabajos.concurrencia:16}")
+    private int concurrencia = 16;
+
+    @Value("${picadito.trabajos.visibilidad-ms:300000}")
+    private long visibilidadMs = 300_000;
+
+    @Value("${picadito.trabajos.max-intentos:5}")
+    private int maxIntentos = 5;
+
+    @Value("${picadito.trabajos.espera-base-ms:10000}")
+    private long esperaBaseMs = 10_000;
+
+    @Value("${picadito.trabajos.espera-maxima-ms:3600000}")
+    private long esperaMaximaMs = 3_600_000;
+
+    @Value("${picadito.trabajos.retencion-dias:7}")
+    private int retencionDias = 7;
+
+    // Identifica a este proceso en los reclamos ("pid@host" salvo que se configure)
+    @Value("${picadito.nodo.id:#{T(java.lang.management.ManagementFactory).getRuntimeMXBean().getName()}}")
+    private String nodo = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final ReentrantLock reclamando = new ReentrantLock();
+
+    // Solo reclamar() suma (bajo el lock); los workers restan al terminar
+    private final Map<Long, Trabajo> enEjecucion = new ConcurrentHashMap<>();
+    private final Map<TipoTrabajo, AtomicInteger> enEjecucionPorTipo = new ConcurrentHashMap<>();
+
+    private final AtomicLong reclamados = new AtomicLong();
+    private final AtomicLong completados = new AtomicLong();
+    private final AtomicLong reintentados = new AtomicLong();
+    private final AtomicLong fallidos = new AtomicLong();
+    private final AtomicLong retomados = new AtomicLong();
+
+    /**
+     * Reclama y lanza los trabajos listos que entran en los cupos libres
+     * @return cantidad de trabajos lanzados
+     */
+    @Scheduled(fixedDelayString = "${picadito.trabajos.intervalo-ms:1000}")
+    public int reclamar() {
+        if (!reclamando.tryLock()) {
+            return 0;
+        }
+        try {
+            int libres = concurrencia - enEjecucion.size();
+            Map<TipoTrabajo, Integer> cupos = new EnumMap<>(TipoTrabajo.class);
+            for (ManejadorTrabajo manejador : manejadores) {
+                int cupo = manejador.getConcurrencia() - contador(manejador.getTipo()).get();
+                if (cupo > 0) {
+                    cupos.put(manejador.getTipo(), cupo);
+                }
+            }
+            if (libres <= 0 || cupos.isEmpty()) {
+                return 0;
+            }
+            LocalDateTime ahora = LocalDateTime.now();
+            List<Trabajo> tomados = new TransactionTemplate(transactionManager)
+                    .execute(estado -> tomar(cupos, libres, ahora));
+            if (tomados == null) {
+                return 0;
+            }
+            int lanzados = 0;
+            for (Trabajo trabajo : tomados) {
+                if (lanzar(trabajo)) {
+                    lanzados++;
+                }
+            }
+            return lanzados;
+        } finally {
+            reclamando.unlock();
+        }
+    }
+
+    /**
+     * Extiende el plazo de visibilidad de los trabajos que este nodo sigue ejecutando
+     */
+    @Scheduled(fixedDelayString = "${picadito.trabajos.renovacion-ms:60000}")
+    public void renovar() {
+        List<Long> ids = new ArrayList<>(enEjecucion.keySet());
+        if (ids.isEmpty()) {
+            return;
+        }
+        LocalDateTime hasta = LocalDateTime.now().plus(visibilidadMs, ChronoUnit.MILLIS);
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado ->
+                trabajoRepository.renovar(ids, nodo, EstadoTrabajo.EN_PROCESO, hasta));
+    }
+
+    /**
+     * Borra los trabajos terminados (completados o fallidos) que superan la retención
+     */
+    @Scheduled(fixedDelayString = "${picadito.trabajos.purga-ms:3600000}")
+    public void purgar() {
+        LocalDateTime fechaLimite = LocalDateTime.now().minusDays(retencionDias);
+        Integer eliminados = new TransactionTemplate(transactionManager).execute(estado ->
+                trabajoRepository.eliminarFinalizados(EnumSet.of(EstadoTrabajo.COMPLETADO, EstadoTrabajo.FALLIDO),
+                        fechaLimite));
+        if (eliminados != null && eliminados > 0) {
+            logger.info("Trabajos terminados purgados: {}", eliminados);
+        }
+    }
+
+    public MetricasTrabajosDTO obtenerMetricas() {
+        MetricasTrabajosDTO metricas = new MetricasTrabajosDTO();
+        metricas.setNodo(nodo);
+        metricas.setConcurrencia(concurrencia);
+        metricas.setEnEjecucion(enEjecucion.size());
+        Map<TipoTrabajo, Integer> porTipo = new EnumMap<>(TipoTrabajo.class);
+        enEjecucionPorTipo.forEach((tipo, cantidad) -> porTipo.put(tipo, cantidad.get()));
+        metricas.setEnEjecucionPorTipo(porTipo);
+        Map<TipoTrabajo, Map<EstadoTrabajo, Long>> trabajos = new EnumMap<>(TipoTrabajo.class);
+        for (Object[] fila : trabajoRepository.contarPorTipoYEstado()) {
+            trabajos.computeIfAbsent((TipoTrabajo) fila[0], tipo -> new EnumMap<>(EstadoTrabajo.class))
+                    .put((EstadoTrabajo) fila[1], ((Number) fila[2]).longValue());
+        }
+        metricas.setTrabajosPorTipo(trabajos);
+        metricas.setReclamados(reclamados.get());
+        metricas.setCompletados(completados.get());
+        metricas.setReintentados(reintentados.get());
+        metricas.setFallidos(fallidos.get());
+        metricas.setRetomados(retomados.get());
+        return metricas;
+    }
+
+    /**
+     * Toma los trabajos listos por prioridad. Cuando un tipo agota su cupo se lo saca de la consulta
+     * y se sigue buscando, así los trabajos de un tipo saturado no ocupan la ventana de los demás.
+     */
+    private List<Trabajo> tomar(Map<TipoTrabajo, Integer> cupos, int libres, LocalDateTime ahora) {
+        List<Trabajo> tomados = new ArrayList<>();
+        while (tomados.size() < libres && !cupos.isEmpty()) {
+            int pedidos = libres - tomados.size();
+            List<Trabajo> listos = trabajoRepository.findReclamables(EnumSet.copyOf(cupos.keySet()),
+                    EstadoTrabajo.PENDIENTE, EstadoTrabajo.EN_PROCESO, ahora, PageRequest.of(0, pedidos));
+            for (Trabajo trabajo : listos) {
+                if (trabajo.getEstado() == EstadoTrabajo.EN_PROCESO) {
+                    retomados.incrementAndGet();
+                    logger.warn("Trabajo {} ({}) vencido en el nodo {}: se retoma", trabajo.getId(), trabajo.getTipo(),
+                            trabajo.getNodo());
+                    if (trabajo.getIntentos() >= maxIntentos) {
+                        trabajo.setEstado(EstadoTrabajo.FALLIDO);
+                        trabajo.setUltimoError("Plazo de ejecución vencido en el último intento");
+                        trabajo.setBloqueadoHasta(null);
+                        trabajo.setFechaFinalizacion(ahora);
+                        fallidos.incrementAndGet();
+                        continue;
+                    }
+                }
+                // Los trabajos de un tipo sin cupo quedan para otra vuelta (el bloqueo se libera al confirmar)
+                Integer cupo = cupos.get(trabajo.getTipo());
+                if (cupo == null) {
+                    continue;
+                }
+                if (cupo == 1) {
+                    cupos.remove(trabajo.getTipo());
+                } else {
+                    cupos.put(trabajo.getTipo(), cupo - 1);
+                }
+                trabajo.setEstado(EstadoTrabajo.EN_PROCESO);
+                trabajo.setIntentos(trabajo.getIntentos() + 1);
+                trabajo.setNodo(nodo);
+                trabajo.setBloqueadoHasta(ahora.plus(visibilidadMs, ChronoUnit.MILLIS));
+                tomados.add(trabajo);
+            }
+            // Página incompleta: no hay más listos de los tipos con cupo
+            if (listos.size() < pedidos) {
+                break;
+            }
+        }
+        return tomados;
+    }
+
+    private boolean lanzar(Trabajo trabajo) {
+        reclamados.incrementAndGet();
+        enEjecucion.put(trabajo.getId(), trabajo);
+        contador(trabajo.getTipo()).incrementAndGet();
+        try {
+            executor.execute(() -> ejecutar(trabajo));
+            return true;
+        } catch (RejectedExecutionException e) {
+            liberar(trabajo);
+            registrar(() -> trabajoRepository.reprogramar(trabajo.getId(), nodo, EstadoTrabajo.EN_PROCESO,
+                    EstadoTrabajo.PENDIENTE, LocalDateTime.now(), "Executor de trabajos no disponible"));
+            return false;
+        }
+    }
+
+    private void ejecutar(Trabajo trabajo) {
+        String error = null;
+        try {
+            ManejadorTrabajo manejador = manejadores.stream()
+                    .filter(m -> m.getTipo() == trabajo.getTipo())
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Sin manejador para " + trabajo.getTipo()));
+            manejador.procesar(trabajo);
+        } catch (RuntimeException e) {
+            error = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+            if (error.length() > MAX_ERROR) {
+                error = error.substring(0, MAX_ERROR);
+            }
+        }
+        try {
+            finalizar(trabajo, error);
+        } catch (RuntimeException e) {
+            // Si no se pudo registrar el resultado, el trabajo se retoma al vencer el plazo
+            logger.error("No se pudo registrar el resultado del trabajo {}: {}", trabajo.getId(), e.getMessage());
+        } finally {
+            liberar(trabajo);
+        }
+    }
+
+    private void finalizar(Trabajo trabajo, String error) {
+        Long id = trabajo.getId();
+        LocalDateTime ahora = LocalDateTime.now();
+        if (error == null) {
+            completados.incrementAndGet();
+            registrar(() -> trabajoRepository.finalizar(id, nodo, EstadoTrabajo.EN_PROCESO,
+                    EstadoTrabajo.COMPLETADO, null, ahora));
+            return;
+        }
+        String mensaje = error;
+        int intentos = trabajo.getIntentos();
+        if (intentos >= maxIntentos) {
+            fallidos.incrementAndGet();
+            logger.error("Trabajo {} ({}) falló después de {} intentos: {}", id, trabajo.getTipo(), intentos, mensaje);
+            registrar(() -> trabajoRepository.finalizar(id, nodo, EstadoTrabajo.EN_PROCESO,
+                    EstadoTrabajo.FALLIDO, mensaje, ahora));
+            return;
+        }
+        long espera = Math.min(esperaBaseMs << Math.min(intentos - 1, 20), esperaMaximaMs);
+        reintentados.incrementAndGet();
+        logger.warn("Trabajo {} ({}) falló, intento {}; reintento en {} ms: {}", id, trabajo.getTipo(), intentos,
+                espera, mensaje);
+        registrar(() -> trabajoRepository.reprogramar(id, nodo, EstadoTrabajo.EN_PROCESO, EstadoTrabajo.PENDIENTE,
+                ahora.plus(espera, ChronoUnit.MILLIS), mensaje));
+    }
+
+    private void registrar(IntSupplier actualizacion) {
+        Integer filas = new TransactionTemplate(transactionManager).execute(estado -> actualizacion.getAsInt());
+        if (filas != null && filas == 0) {
+            logger.warn("El reclamo de un trabajo venció antes de registrar su resultado; lo retoma otro intento");
+        }
+    }
+
+    private void liberar(Trabajo trabajo) {
+        enEjecucion.remove(trabajo.getId());
+        contador(trabajo.getTipo()).decrementAndGet();
+    }
+
+    private AtomicInteger contador(TipoTrabajo tipo) {
+        return enEjecucionPorTipo.computeIfAbsent(tipo, t -> new AtomicInteger());
+    }
+}
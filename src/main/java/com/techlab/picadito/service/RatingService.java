@@ -0,0 +1,269 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.RatingJugadorDTO;
+import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.exception.ValidationException;
+import com.techlab.picadito.model.Equipo;
+import com.techlab.picadito.model.Nivel;
+import com.techlab.picadito.model.Participante;
+import com.techlab.picadito.model.RatingJugador;
+import com.techlab.picadito.model.Usuario;
+import com.techlab.picadito.repository.RatingJugadorRepository;
+import com.techlab.picadito.repository.UsuarioRepository;
+import com.techlab.picadito.util.Transacciones;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Rating tipo Elo de los usuarios que juegan partidos.
+ * <p>
+ * La base es la fuente de verdad: cada resultado se suma al rating guardado de cada usuario con
+ * un UPDATE atómico, dentro de la transacción del resultado, así varios nodos no se pisan. Para
+ * leer en O(1) al armar equipos hay una copia en memoria que se carga al iniciar, se actualiza al
+ * confirmar cada resultado y se refresca periódicamente con lo que escribieron otros nodos.
+ * Al registrar un resultado, cada equipo se compara contra los demás usando el promedio de rating
+ * de sus integrantes; los jugadores con pocos partidos usan un factor K mayor para converger
+ * rápido a su nivel real.
+ */
+@Service
+public class RatingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingService.class);
+
+    public static final double RATING_BASE = 1500.0;
+    private static final double PUNTOS_POR_NIVEL = 250.0;
+    private static final int PARTIDOS_PROVISORIOS = 10;
+    private static final int MAX_RANKING = 100;
+
+    @Autowired
+    private RatingJugadorRepository ratingJugadorRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${picadito.ratings.factor-k:32}")
+    private double factorK = 32;
+
+    private final Map<Long, Entrada> tabla = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime ultimoRefresco = LocalDateTime.now();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        ultimoRefresco = LocalDateTime.now();
+        tabla.clear();
+        ratingJugadorRepository.findAll().forEach(this::copiar);
+        logger.info("Ratings cargados: {} jugadores", tabla.size());
+    }
+
+    /**
+     * Trae a la copia en memoria los ratings que cambiaron desde el último refresco, incluidos los
+     * resultados registrados por otros nodos
+     */
+    @Scheduled(fixedDelayString = "${picadito.ratings.refresco-ms:10000}")
+    public void refrescar() {
+        LocalDateTime desde = ultimoRefresco;
+        ultimoRefresco = LocalDateTime.now();
+        // Con margen: una transacción puede confirmar un rato después de fijar su fecha
+        List<RatingJugador> cambiados = ratingJugadorRepository.findByFechaActualizacionAfter(desde.minusMinutes(1));
+        cambiados.forEach(this::copiar);
+        if (!cambiados.isEmpty()) {
+            logger.debug("Ratings refrescados: {}", cambiados.size());
+        }
+    }
+
+    /**
+     * Rating actual del usuario, o null si todavía no jugó partidos con resultado
+     */
+    public Double obtenerRating(Long usuarioId) {
+        Entrada entrada = usuarioId != null ? tabla.get(usuarioId) : null;
+        return entrada != null ? entrada.rating : null;
+    }
+
+    /**
+     * Rating con el que arranca un jugador según el nivel que declaró: 1500 para el punto medio
+     * entre intermedio y avanzado, 250 puntos por nivel.
+     */
+    public static double ratingInicial(Nivel nivel) {
+        double porNivel = nivel != null ? nivel.ordinal() + 1 : 2.0;
+        return RATING_BASE + (porNivel - 2.5) * PUNTOS_POR_NIVEL;
+    }
+
+    /**
+     * Actualiza los ratings de los usuarios que jugaron el partido según los goles de cada equipo.
+     * Los participantes sin usuario cuentan para la fuerza de su equipo pero no reciben rating.
+     * Se escribe en la transacción en curso; la copia en memoria se actualiza al confirmarse.
+     */
+    public void aplicarResultado(List<Equipo> equipos) {
+        Set<Long> usuarioIds = new HashSet<>();
+        for (Equipo equipo : equipos) {
+            for (Participante participante : equipo.getParticipantes()) {
+                if (participante.getUsuario() != null) {
+                    usuarioIds.add(participante.getUsuario().getId());
+                }
+            }
+        }
+        // Se parte del valor guardado, no de la copia en memoria, que puede estar atrasada
+        Map<Long, Double> guardados = new HashMap<>();
+        if (!usuarioIds.isEmpty()) {
+            for (Object[] fila : ratingJugadorRepository.findRatings(usuarioIds)) {
+                guardados.put((Long) fila[0], (Double) fila[1]);
+            }
+        }
+
+        int cantidad = equipos.size();
+        double[] fuerza = new double[cantidad];
+        Map<Long, Integer> equipoDeUsuario = new HashMap<>();
+        Map<Long, Double> ratingDeUsuario = new HashMap<>();
+
+        for (int i = 0; i < cantidad; i++) {
+            List<Participante> participantes = equipos.get(i).getParticipantes();
+            double suma = 0;
+            for (Participante participante : participantes) {
+                Long usuarioId = participante.getUsuario() != null ? participante.getUsuario().getId() : null;
+                Double actual = usuarioId != null ? guardados.get(usuarioId) : null;
+                double rating = actual != null ? actual : ratingInicial(participante.getNivel());
+                suma += rating;
+                if (usuarioId != null && equipoDeUsuario.putIfAbsent(usuarioId, i) == null) {
+                    ratingDeUsuario.put(usuarioId, rating);
+                }
+            }
+            fuerza[i] = participantes.isEmpty() ? RATING_BASE : suma / participantes.size();
+        }
+
+        // Resultado menos esperado de cada equipo contra cada rival, promediado sobre los rivales
+        double[] sorpresa = new double[cantidad];
+        for (int a = 0; a < cantidad; a++) {
+            for (int b = 0; b < cantidad; b++) {
+                if (a != b) {
+                    double esperado = 1.0 / (1.0 + Math.pow(10, (fuerza[b] - fuerza[a]) / 400.0));
+                    int comparacion = Integer.compare(goles(equipos.get(a)), goles(equipos.get(b)));
+                    double obtenido = comparacion > 0 ? 1.0 : comparacion == 0 ? 0.5 : 0.0;
+                    sorpresa[a] += obtenido - esperado;
+                }
+            }
+            sorpresa[a] /= cantidad - 1;
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        equipoDeUsuario.forEach((usuarioId, equipo) -> {
+            if (!guardados.containsKey(usuarioId)) {
+                crearRating(usuarioId, ratingDeUsuario.get(usuarioId), ahora);
+            }
+            ratingJugadorRepository.sumarResultado(usuarioId, sorpresa[equipo], PARTIDOS_PROVISORIOS,
+                    2 * factorK, factorK, ahora);
+        });
+
+        Set<Long> actualizados = equipoDeUsuario.keySet();
+        Transacciones.alConfirmar(() -> recargar(actualizados));
+        logger.info("Resultado aplicado a los ratings de {} jugadores", actualizados.size());
+    }
+
+    public List<RatingJugadorDTO> obtenerRanking(int limite) {
+        if (limite < 1 || limite > MAX_RANKING) {
+            throw new ValidationException("El límite debe estar entre 1 y " + MAX_RANKING);
+        }
+        List<Map.Entry<Long, Entrada>> mejores = tabla.entrySet().stream()
+                .sorted(Comparator.comparingDouble((Map.Entry<Long, Entrada> e) -> e.getValue().rating).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limite)
+                .toList();
+
+        Map<Long, Usuario> usuarios = usuarioRepository.findAllById(mejores.stream().map(Map.Entry::getKey).toList())
+                .stream()
+                .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+
+        List<RatingJugadorDTO> ranking = new ArrayList<>(mejores.size());
+        for (Map.Entry<Long, Entrada> entrada : mejores) {
+            Usuario usuario = usuarios.get(entrada.getKey());
+            ranking.add(convertirADTO(ranking.size() + 1, entrada.getKey(),
+                    usuario != null ? usuario.getNombre() : null, entrada.getValue()));
+        }
+        return ranking;
+    }
+
+    public RatingJugadorDTO obtenerRatingUsuario(@NonNull Long usuarioId) {
+        Usuario usuario = usuarioRepository.findById(usuarioId)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con id: " + usuarioId));
+        Entrada entrada = tabla.get(usuarioId);
+        if (entrada == null) {
+            throw new ResourceNotFoundException("El usuario " + usuarioId + " todavía no tiene rating");
+        }
+        int posicion = 1;
+        for (Entrada otra : tabla.values()) {
+            if (otra.rating > entrada.rating) {
+                posicion++;
+            }
+        }
+        return convertirADTO(posicion, usuarioId, usuario.getNombre(), entrada);
+    }
+
+    /**
+     * Crea la fila del primer rating del usuario en una transacción aparte, así si otro nodo la
+     * crea a la vez gana uno solo y ambos suman su resultado sobre la misma fila
+     */
+    private void crearRating(Long usuarioId, double rating, LocalDateTime fecha) {
+        TransactionTemplate nueva = new TransactionTemplate(transactionManager);
+        nueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            nueva.execute(estado -> ratingJugadorRepository.crear(usuarioId, rating, fecha));
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("El rating del usuario {} lo creó otro proceso", usuarioId);
+        }
+    }
+
+    private void recargar(Collection<Long> usuarioIds) {
+        try {
+            ratingJugadorRepository.findAllById(usuarioIds).forEach(this::copiar);
+        } catch (RuntimeException e) {
+            // El refresco periódico los trae más tarde
+            logger.warn("No se pudieron recargar los ratings: {}", e.getMessage());
+        }
+    }
+
+    private void copiar(RatingJugador rating) {
+        // Una fila sin partidos es un rating creado para un resultado que no se confirmó
+        if (rating.getPartidosJugados() != null && rating.getPartidosJugados() > 0) {
+            tabla.put(rating.getUsuarioId(), new Entrada(rating.getRating(), rating.getPartidosJugados()));
+        }
+    }
+
+    private static int goles(Equipo equipo) {
+        return equipo.getGoles() != null ? equipo.getGoles() : 0;
+    }
+
+    private static RatingJugadorDTO convertirADTO(int posicion, Long usuarioId, String nombre, Entrada entrada) {
+        return new RatingJugadorDTO(posicion, usuarioId, nombre,
+                Math.round(entrada.rating * 10) / 10.0, entrada.partidos);
+    }
+
+    private static final class Entrada {
+        final double rating;
+        final int partidos;
+
+        Entrada(double rating, int partidos) {
+            this.rating = rating;
+            this.partidos = partidos;
+        }
+    }
+}
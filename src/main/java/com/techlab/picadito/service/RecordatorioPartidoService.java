@@ -0,0 +1,171 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.model.EstadoPartido;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.RecordatorioEnviado;
+import com.techlab.picadito.model.RecordatorioEnviado.TipoRecordatorio;
+import com.techlab.picadito.model.TipoTrabajo;
+import com.techlab.picadito.model.Trabajo;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.RecordatorioEnviadoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Recordatorios de partidos próximos: 24 horas antes del inicio y unas horas antes (configurable).
+ * Al crear o modificar el partido se encola, en la misma transacción, un trabajo por recordatorio
+ * disponible desde la hora de envío; lo ejecuta cualquier nodo. Los trabajos armados para un
+ * horario anterior se descartan al ejecutarse, y cada envío deja una marca única que evita repetirlo.
+ */
+@Service
+public class RecordatorioPartidoService implements ManejadorTrabajo {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordatorioPartidoService.class);
+
+    private static final List<EstadoPartido> ESTADOS_ACTIVOS = List.of(EstadoPartido.DISPONIBLE, EstadoPartido.COMPLETO);
+    private static final int HORAS_DIA_ANTES = 24;
+
+    @Autowired
+    private PartidoRepository partidoRepository;
+
+    @Autowired
+    private RecordatorioEnviadoRepository recordatorioEnviadoRepository;
+
+    @Autowired
+    @Lazy
+    private AlertaService alertaService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ColaTrabajosService colaTrabajosService;
+
+    @Value("${picadito.partidos.recordatorios.horas-antes:2}")
+    private int horasAntes = 2;
+
+    @Value("${picadito.partidos.recordatorios.concurrencia:4}")
+    private int concurrencia = 4;
+
+    /**
+     * Encola los recordatorios que falten para los partidos futuros (p. ej. los creados antes de
+     * usar la cola). Es idempotente: los ya encolados no se repiten.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        LocalDateTime ahora = LocalDateTime.now();
+        int encolados = 0;
+        for (Object[] fila : partidoRepository.findHorariosPorEstados(ESTADOS_ACTIVOS)) {
+            LocalDateTime fechaHora = (LocalDateTime) fila[1];
+            if (fechaHora == null || !fechaHora.isAfter(ahora)) {
+                continue;
+            }
+            try {
+                encolados += encolar((Long) fila[0], normalizar(fechaHora), ahora);
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("Recordatorios del partido {} encolados por otro nodo", fila[0]);
+            }
+        }
+        logger.info("Recordatorios de partidos: {} encolados al iniciar", encolados);
+    }
+
+    /**
+     * Encola los recordatorios del partido para su horario actual, junto con la transacción en curso
+     */
+    public void programar(Partido partido) {
+        LocalDateTime fechaHora = normalizar(partido.getFechaHora());
+        LocalDateTime ahora = LocalDateTime.now();
+        if (ESTADOS_ACTIVOS.contains(partido.getEstado()) && fechaHora != null && fechaHora.isAfter(ahora)) {
+            encolar(partido.getId(), fechaHora, ahora);
+        }
+    }
+
+    public void quitar(Long partidoId) {
+        colaTrabajosService.cancelarPendientes(TipoTrabajo.RECORDATORIO_PARTIDO + ":" + partidoId + ":");
+    }
+
+    @Override
+    public TipoTrabajo getTipo() {
+        return TipoTrabajo.RECORDATORIO_PARTIDO;
+    }
+
+    @Override
+    public int getConcurrencia() {
+        return concurrencia;
+    }
+
+    /**
+     * Envía el recordatorio del trabajo (payload "partidoId;tipo;horario del partido")
+     */
+    @Override
+    public void procesar(Trabajo trabajo) {
+        String[] datos = trabajo.getPayload().split(";");
+        Long partidoId = Long.valueOf(datos[0]);
+        TipoRecordatorio tipo = TipoRecordatorio.valueOf(datos[1]);
+        LocalDateTime fechaPartido = LocalDateTime.parse(datos[2]);
+        try {
+            if (enviar(partidoId, tipo, fechaPartido)) {
+                logger.info("Recordatorio {} del partido {} enviado", tipo, partidoId);
+            }
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Recordatorio {} del partido {} ya enviado", tipo, partidoId);
+        }
+    }
+
+    private boolean enviar(Long partidoId, TipoRecordatorio tipo, LocalDateTime fechaPartido) {
+        Boolean enviado = new TransactionTemplate(transactionManager).execute(estado -> {
+            if (recordatorioEnviadoRepository.existsByPartidoIdAndTipoAndFechaPartido(
+                    partidoId, tipo, fechaPartido)) {
+                return false;
+            }
+            Partido partido = partidoRepository.findById(partidoId).orElse(null);
+            if (partido == null || !ESTADOS_ACTIVOS.contains(partido.getEstado())
+                    || !fechaPartido.equals(normalizar(partido.getFechaHora()))
+                    || !partido.getFechaHora().isAfter(LocalDateTime.now())) {
+                return false;
+            }
+            recordatorioEnviadoRepository.saveAndFlush(new RecordatorioEnviado(null, partidoId,
+                    tipo, fechaPartido, LocalDateTime.now()));
+            if (!partido.getParticipantes().isEmpty()) {
+                alertaService.crearAlertaPartidoProximo(partido, null);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(enviado);
+    }
+
+    private int encolar(Long partidoId, LocalDateTime fechaHora, LocalDateTime ahora) {
+        int encolados = 0;
+        LocalDateTime horasAntesDelInicio = fechaHora.minusHours(horasAntes);
+        // Si ya pasó también el segundo recordatorio, el del día anterior no aporta nada
+        if (horasAntesDelInicio.isAfter(ahora)) {
+            encolados += encolar(partidoId, TipoRecordatorio.DIA_ANTES, fechaHora, fechaHora.minusHours(HORAS_DIA_ANTES));
+        }
+        encolados += encolar(partidoId, TipoRecordatorio.HORAS_ANTES, fechaHora, horasAntesDelInicio);
+        return encolados;
+    }
+
+    private int encolar(Long partidoId, TipoRecordatorio tipo, LocalDateTime fechaHora, LocalDateTime envio) {
+        String clave = TipoTrabajo.RECORDATORIO_PARTIDO + ":" + partidoId + ":" + tipo + ":" + fechaHora;
+        return colaTrabajosService.encolar(TipoTrabajo.RECORDATORIO_PARTIDO,
+                partidoId + ";" + tipo + ";" + fechaHora, envio, clave) ? 1 : 0;
+    }
+
+    // El horario se compara al segundo: la base puede devolverlo con menos precisión que la entidad en memoria
+    private static LocalDateTime normalizar(LocalDateTime fechaHora) {
+        return fechaHora != null ? fechaHora.truncatedTo(ChronoUnit.SECONDS) : null;
+    }
+}
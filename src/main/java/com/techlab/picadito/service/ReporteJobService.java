@@ -0,0 +1,261 @@
+package com.techlab.picadito.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techlab.picadito.dto.ReporteDTO;
+import com.techlab.picadito.dto.ReporteJobDTO;
+import com.techlab.picadito.exception.BusinessException;
+import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.exception.ValidationException;
+import com.techlab.picadito.model.ReporteJob;
+import com.techlab.picadito.model.TipoTrabajo;
+import com.techlab.picadito.model.Trabajo;
+import com.techlab.picadito.repository.ReporteJobRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Genera reportes de forma asíncrona: la solicitud devuelve un job que se calcula como trabajo
+ * de la cola persistente y cuyo progreso se puede consultar. Los resultados quedan persistidos
+ * y, para períodos ya cerrados, se reutilizan en lugar de recalcularse.
+ */
+@Service
+public class ReporteJobService implements ManejadorTrabajo {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReporteJobService.class);
+    private static final int MAX_ENTRADAS_CACHE = 256;
+
+    @Autowired
+    private ReporteJobRepository reporteJobRepository;
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ColaTrabajosService colaTrabajosService;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${picadito.reportes.concurrencia:2}")
+    private int concurrencia = 2;
+
+    @Value("${picadito.reportes.max-pendientes:20}")
+    private int maxPendientes = 20;
+
+    // (tipo, período) -> id del job completado, solo para períodos cerrados
+    private final Map<String, Long> cacheCompletados = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > MAX_ENTRADAS_CACHE;
+                }
+            });
+
+    public ReporteJobDTO solicitar(@NonNull ReporteJob.TipoReporte tipo, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        validarPeriodo(fechaInicio, fechaFin);
+        logger.info("Solicitud de reporte {} para el período {} - {}", tipo, fechaInicio, fechaFin);
+
+        if (esPeriodoCerrado(fechaFin)) {
+            Optional<ReporteJob> completado = buscarCompletado(tipo, fechaInicio, fechaFin);
+            if (completado.isPresent()) {
+                logger.debug("Reporte {} servido desde almacenamiento (job {})", tipo, completado.get().getId());
+                return convertirADTO(completado.get(), true);
+            }
+        }
+
+        // Si ya hay un job en curso para la misma clave, se reutiliza en lugar de encolar otro
+        Optional<ReporteJob> enCurso = reporteJobRepository.findFirstByTipoAndFechaInicioAndFechaFinAndEstadoInOrderByIdDesc(
+                tipo, fechaInicio, fechaFin, EnumSet.of(ReporteJob.EstadoJob.PENDIENTE, ReporteJob.EstadoJob.EN_PROCESO));
+        if (enCurso.isPresent()) {
+            return convertirADTO(enCurso.get(), false);
+        }
+
+        if (colaTrabajosService.contarSinTerminar(TipoTrabajo.REPORTE) >= maxPendientes) {
+            logger.warn("Cola de reportes llena, se rechaza el reporte {}", tipo);
+            throw new BusinessException("Hay demasiados reportes en proceso. Intente nuevamente en unos minutos.");
+        }
+
+        ReporteJob job = new ReporteJob();
+        job.setTipo(tipo);
+        job.setFechaInicio(fechaInicio);
+        job.setFechaFin(fechaFin);
+        job.setEstado(ReporteJob.EstadoJob.PENDIENTE);
+        job.setProgreso(0);
+        job = reporteJobRepository.save(job);
+
+        Long jobId = job.getId();
+        colaTrabajosService.encolar(TipoTrabajo.REPORTE, String.valueOf(jobId), null, null);
+
+        logger.info("Job de reporte {} encolado con id: {}", tipo, jobId);
+        return convertirADTO(job, false);
+    }
+
+    public ReporteJobDTO obtenerJob(@NonNull Long id) {
+        return convertirADTO(obtenerJobEntity(id), false);
+    }
+
+    /**
+     * Devuelve el resultado de un job completado, o vacío si todavía se está calculando
+     */
+    public Optional<ReporteDTO> obtenerResultado(@NonNull Long id) {
+        ReporteJob job = obtenerJobEntity(id);
+        if (job.getEstado() == ReporteJob.EstadoJob.ERROR) {
+            throw new BusinessException("El reporte no pudo generarse: " + job.getError());
+        }
+        if (job.getEstado() != ReporteJob.EstadoJob.COMPLETADO) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(job.getResultado(), ReporteDTO.class));
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("El resultado almacenado del reporte es inválido");
+        }
+    }
+
+    @Override
+    public TipoTrabajo getTipo() {
+        return TipoTrabajo.REPORTE;
+    }
+
+    @Override
+    public int getConcurrencia() {
+        return concurrencia;
+    }
+
+    @Override
+    public void procesar(Trabajo trabajo) {
+        ejecutar(Long.valueOf(trabajo.getPayload()));
+    }
+
+    void ejecutar(Long jobId) {
+        Objects.requireNonNull(jobId, "El ID del job no puede ser null");
+        ReporteJob job = reporteJobRepository.findById(jobId).orElse(null);
+        // Un job EN_PROCESO se vuelve a calcular: el nodo que lo tenía se cayó y la cola lo retomó
+        if (job == null || job.getEstado() == ReporteJob.EstadoJob.COMPLETADO
+                || job.getEstado() == ReporteJob.EstadoJob.ERROR) {
+            return;
+        }
+
+        try {
+            job.setEstado(ReporteJob.EstadoJob.EN_PROCESO);
+            job.setProgreso(10);
+            job = reporteJobRepository.save(job);
+
+            ReporteDTO reporte = calcular(job);
+            job.setProgreso(90);
+
+            job.setResultado(objectMapper.writeValueAsString(reporte));
+            job.setEstado(ReporteJob.EstadoJob.COMPLETADO);
+            job.setProgreso(100);
+            job.setFechaFinalizacion(LocalDateTime.now());
+            job = reporteJobRepository.save(job);
+
+            if (esPeriodoCerrado(job.getFechaFin())) {
+                cacheCompletados.put(clave(job.getTipo(), job.getFechaInicio(), job.getFechaFin()), job.getId());
+            }
+            logger.info("Job de reporte {} completado", jobId);
+        } catch (Exception e) {
+            logger.error("Error al generar el reporte del job {}: {}", jobId, e.getMessage(), e);
+            marcarError(job, e.getMessage());
+        }
+    }
+
+    private ReporteDTO calcular(ReporteJob job) {
+        switch (job.getTipo()) {
+            case VENTAS:
+                return reporteService.generarReporteVentas(job.getFechaInicio(), job.getFechaFin());
+            case PARTIDOS:
+                return reporteService.generarReportePartidos(job.getFechaInicio(), job.getFechaFin());
+            case USUARIOS:
+                return reporteService.generarReporteUsuarios(job.getFechaInicio(), job.getFechaFin());
+            default:
+                throw new BusinessException("Tipo de reporte no soportado: " + job.getTipo());
+        }
+    }
+
+    private Optional<ReporteJob> buscarCompletado(ReporteJob.TipoReporte tipo, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        String clave = clave(tipo, fechaInicio, fechaFin);
+        Long jobId = cacheCompletados.get(clave);
+        if (jobId != null) {
+            Optional<ReporteJob> job = reporteJobRepository.findById(jobId);
+            if (job.isPresent()) {
+                contarCache("acierto");
+                return job;
+            }
+            cacheCompletados.remove(clave);
+        }
+        contarCache("fallo");
+
+        Optional<ReporteJob> job = reporteJobRepository.findFirstByTipoAndFechaInicioAndFechaFinAndEstadoInOrderByIdDesc(
+                tipo, fechaInicio, fechaFin, EnumSet.of(ReporteJob.EstadoJob.COMPLETADO));
+        job.ifPresent(j -> cacheCompletados.put(clave, j.getId()));
+        return job;
+    }
+
+    private void contarCache(String resultado) {
+        meterRegistry.ifAvailable(registry -> registry.counter("picadito.cache.consultas",
+                "cache", "reportes", "resultado", resultado).increment());
+    }
+
+    private void marcarError(ReporteJob job, String mensaje) {
+        job.setEstado(ReporteJob.EstadoJob.ERROR);
+        job.setError(mensaje != null && mensaje.length() > 500 ? mensaje.substring(0, 500) : mensaje);
+        job.setFechaFinalizacion(LocalDateTime.now());
+        reporteJobRepository.save(job);
+    }
+
+    private ReporteJob obtenerJobEntity(Long id) {
+        return reporteJobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Job de reporte no encontrado con id: " + id));
+    }
+
+    private void validarPeriodo(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        if (fechaInicio == null || fechaFin == null) {
+            throw new ValidationException("Las fechas de inicio y fin son requeridas");
+        }
+        if (!fechaInicio.isBefore(fechaFin)) {
+            throw new ValidationException("La fecha de inicio debe ser anterior a la fecha de fin");
+        }
+    }
+
+    private boolean esPeriodoCerrado(LocalDateTime fechaFin) {
+        return fechaFin.isBefore(LocalDateTime.now());
+    }
+
+    private String clave(ReporteJob.TipoReporte tipo, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        return tipo + "|" + fechaInicio + "|" + fechaFin;
+    }
+
+    private ReporteJobDTO convertirADTO(ReporteJob job, boolean desdeCache) {
+        ReporteJobDTO dto = new ReporteJobDTO();
+        dto.setId(job.getId());
+        dto.setTipo(job.getTipo());
+        dto.setFechaInicio(job.getFechaInicio());
+        dto.setFechaFin(job.getFechaFin());
+        dto.setEstado(job.getEstado());
+        dto.setProgreso(job.getProgreso());
+        dto.setError(job.getError());
+        dto.setDesdeCache(desdeCache);
+        dto.setFechaCreacion(job.getFechaCreacion());
+        dto.setFechaFinalizacion(job.getFechaFinalizacion());
+        return dto;
+    }
+}
@@ -6,6 +6,7 @@ import com.techlab.picadito.exception.ResourceNotFoundException;
 import com.techlab.picadito.model.*;
 import com.techlab.picadito.repository.ReservaRepository;
 import com.techlab.picadito.util.MapperUtil;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,7 +29,8 @@ public class ReservaService {
     private final PartidosSeleccionadosService partidosSeleccionadosService;
     private final ParticipanteService participanteService;
     private final MapperUtil mapperUtil;
-    private final AlertaService alertaService;
+    private final EventosDominioService eventosDominioService;
+    private final LibroGastosService libroGastosService;
     
     private static final Map<Reserva.EstadoReserva, Set<Reserva.EstadoReserva>> TRANSICIONES_VALIDAS = new HashMap<>();
     
@@ -61,6 +63,7 @@ public class ReservaService {
     }
     
     @Transactional
+    @Timed(value = "picadito.reservas.creacion", description = "Creación de una reserva desde los partidos seleccionados")
     @SuppressWarnings("null")
     public ReservaDTO crearDesdePartidosSeleccionados(Long usuarioId) {
         com.techlab.picadito.dto.PartidosSeleccionadosDTO partidosSeleccionadosDTO = partidosSeleccionadosService.obtenerPartidosSeleccionadosPorUsuario(usuarioId);
@@ -76,12 +79,15 @@ public class ReservaService {
         inscribirParticipantesEnReserva(reserva, usuarioId);
         
         // Confirmar la reserva
+        reserva.fijarPrecios();
         reserva.setEstado(Reserva.EstadoReserva.CONFIRMADO);
         reserva = reservaRepository.save(reserva);
+        libroGastosService.registrarCambioEstado(reserva, null);
         
-        // Generar alertas de confirmación para cada partido
+        // Las alertas de confirmación se generan fuera de esta transacción, a partir de los eventos
         for (LineaReserva linea : reserva.getLineasReserva()) {
-            alertaService.crearAlertaReservaConfirmada(usuarioId, linea.getPartido().getTitulo());
+            eventosDominioService.publicar(TipoEventoDominio.RESERVA_CONFIRMADA, linea.getPartido().getId(),
+                    usuarioId, reserva.getId(), linea.getPartido().getTitulo());
         }
         
         // Actualizar estado automáticamente si algún partido está próximo
@@ -110,6 +116,7 @@ public class ReservaService {
             linea.setReserva(reserva);
             linea.setPartido(partido);
             linea.setCantidad(item.getCantidad());
+            linea.setPrecioUnitario(partido.getPrecio());
             
             reserva.getLineasReserva().add(linea);
         }
@@ -140,16 +147,26 @@ public class ReservaService {
         }
     }
     
+    /**
+     * Inscribe un participante por cupo reservado. El primero queda vinculado al usuario (alertas del
+     * partido, rating), salvo que ya esté inscripto; los demás cupos son invitados.
+     */
     private void inscribirParticipantesEnLinea(LineaReserva linea, Usuario usuario, Reserva reserva) {
+        boolean yaInscripto = linea.getPartido().getParticipantes().stream()
+                .anyMatch(p -> p.getUsuario() != null && Objects.equals(p.getUsuario().getId(), usuario.getId()));
         for (int i = 0; i < linea.getCantidad(); i++) {
-            com.techlab.picadito.dto.ParticipanteDTO participanteDTO = crearParticipanteDTO(usuario, i);
+            com.techlab.picadito.dto.ParticipanteDTO participanteDTO =
+                    crearParticipanteDTO(usuario, i, i == 0 && !yaInscripto);
             inscribirParticipanteConManejoErrores(linea, participanteDTO, reserva);
         }
     }
     
-    private com.techlab.picadito.dto.ParticipanteDTO crearParticipanteDTO(Usuario usuario, int indice) {
+    private com.techlab.picadito.dto.ParticipanteDTO crearParticipanteDTO(Usuario usuario, int indice, boolean vincular) {
         com.techlab.picadito.dto.ParticipanteDTO participanteDTO = new com.techlab.picadito.dto.ParticipanteDTO();
         participanteDTO.setNombre(usuario.getNombre() + " " + (indice + 1));
+        if (vincular) {
+            participanteDTO.setUsuarioId(usuario.getId());
+        }
         return participanteDTO;
     }
     
@@ -176,10 +193,15 @@ public class ReservaService {
                 .orElseThrow(() -> new ResourceNotFoundException("Reserva no encontrada con id: " + id));
         
         // Validar transición de estado
-        validarTransicionEstado(reserva.getEstado(), nuevoEstado);
+        Reserva.EstadoReserva estadoAnterior = reserva.getEstado();
+        validarTransicionEstado(estadoAnterior, nuevoEstado);
         
+        if (nuevoEstado == Reserva.EstadoReserva.CONFIRMADO) {
+            reserva.fijarPrecios();
+        }
         reserva.setEstado(nuevoEstado);
         reserva = reservaRepository.save(reserva);
+        libroGastosService.registrarCambioEstado(reserva, estadoAnterior);
         
         return mapperUtil.toReservaDTO(reserva);
     }
@@ -207,14 +229,20 @@ public class ReservaService {
     
     /**
      * Actualiza el estado de una reserva específica basándose en las fechas de sus partidos
+     * @return true si la reserva cambió de estado
      */
-    private void actualizarEstadoAutomatico(Reserva reserva) {
+    boolean actualizarEstadoAutomatico(Reserva reserva) {
         if (esEstadoTerminal(reserva.getEstado())) {
-            return; // Estados terminales, no actualizar
+            return false; // Estados terminales, no actualizar
         }
         
+        Reserva.EstadoReserva estadoAnterior = reserva.getEstado();
         EstadoEvaluacion evaluacion = evaluarEstadoReserva(reserva);
-        aplicarActualizacionEstado(reserva, evaluacion);
+        if (!aplicarActualizacionEstado(reserva, evaluacion)) {
+            return false;
+        }
+        libroGastosService.registrarCambioEstado(reserva, estadoAnterior);
+        return true;
     }
     
     private boolean esEstadoTerminal(Reserva.EstadoReserva estado) {
@@ -228,6 +256,7 @@ public class ReservaService {
         
         boolean todosFinalizados = true;
         boolean algunoProximo = false;
+        boolean algunoCancelado = false;
         
         for (LineaReserva linea : reserva.getLineasReserva()) {
             Partido partido = linea.getPartido();
@@ -236,12 +265,16 @@ public class ReservaService {
                 algunoProximo = true;
             }
             
+            if (partido.getEstado() == EstadoPartido.CANCELADO) {
+                algunoCancelado = true;
+            }
+            
             if (partido.getEstado() != EstadoPartido.FINALIZADO) {
                 todosFinalizados = false;
             }
         }
         
-        return new EstadoEvaluacion(todosFinalizados, algunoProximo);
+        return new EstadoEvaluacion(todosFinalizados, algunoProximo, algunoCancelado);
     }
     
     private boolean esPartidoProximo(Partido partido, LocalDateTime ahora, LocalDateTime proximas24Horas) {
@@ -249,35 +282,33 @@ public class ReservaService {
                partido.getFechaHora().isBefore(proximas24Horas);
     }
     
-    private void aplicarActualizacionEstado(Reserva reserva, EstadoEvaluacion evaluacion) {
-        if (evaluacion.todosFinalizados && reserva.getEstado() != Reserva.EstadoReserva.FINALIZADO) {
+    private boolean aplicarActualizacionEstado(Reserva reserva, EstadoEvaluacion evaluacion) {
+        // Un partido cancelado cancela la reserva entera, como en cancelarPorPartido
+        if (evaluacion.algunoCancelado) {
+            reserva.setEstado(Reserva.EstadoReserva.CANCELADO);
+            reservaRepository.save(reserva);
+            return true;
+        } else if (evaluacion.todosFinalizados && reserva.getEstado() != Reserva.EstadoReserva.FINALIZADO) {
             reserva.setEstado(Reserva.EstadoReserva.FINALIZADO);
             reservaRepository.save(reserva);
+            return true;
         } else if (evaluacion.algunoProximo && reserva.getEstado() == Reserva.EstadoReserva.CONFIRMADO) {
             reserva.setEstado(Reserva.EstadoReserva.EN_PROCESO);
             reservaRepository.save(reserva);
+            return true;
         }
+        return false;
     }
     
     private static class EstadoEvaluacion {
         final boolean todosFinalizados;
         final boolean algunoProximo;
+        final boolean algunoCancelado;
         
-        EstadoEvaluacion(boolean todosFinalizados, boolean algunoProximo) {
+        EstadoEvaluacion(boolean todosFinalizados, boolean algunoProximo, boolean algunoCancelado) {
             this.todosFinalizados = todosFinalizados;
             this.algunoProximo = algunoProximo;
-        }
-    }
-    
-    /**
-     * Actualiza automáticamente los estados de todas las reservas basándose en las fechas de los partidos
-     */
-    @Transactional
-    public void actualizarEstadosAutomaticamente() {
-        List<Reserva> reservas = reservaRepository.findAll();
-        
-        for (Reserva reserva : reservas) {
-            actualizarEstadoAutomatico(reserva);
+            this.algunoCancelado = algunoCancelado;
         }
     }
     
@@ -292,25 +323,47 @@ public class ReservaService {
             throw new BusinessException("No se puede cancelar una reserva FINALIZADA");
         }
         
+        Reserva.EstadoReserva estadoAnterior = reserva.getEstado();
         reserva.setEstado(Reserva.EstadoReserva.CANCELADO);
         reservaRepository.save(reserva);
+        libroGastosService.registrarCambioEstado(reserva, estadoAnterior);
     }
     
     /**
-     * Calcula el total gastado por un usuario en todas sus reservas confirmadas o finalizadas
+     * Cancela las reservas vigentes que incluyen un partido cancelado; las ya cobradas se reintegran
+     * en el libro de gastos. Una reserva se paga entera, así que se cancela aunque tenga otros partidos.
+     * @return cantidad de reservas canceladas
+     */
+    @Transactional
+    public int cancelarPorPartido(Long partidoId) {
+        Objects.requireNonNull(partidoId, "El ID del partido no puede ser null");
+        List<Reserva> reservas = reservaRepository.findConPartido(partidoId, EnumSet.of(
+                Reserva.EstadoReserva.PENDIENTE, Reserva.EstadoReserva.CONFIRMADO, Reserva.EstadoReserva.EN_PROCESO));
+        for (Reserva reserva : reservas) {
+            Reserva.EstadoReserva estadoAnterior = reserva.getEstado();
+            reserva.setEstado(Reserva.EstadoReserva.CANCELADO);
+            reservaRepository.save(reserva);
+            libroGastosService.registrarCambioEstado(reserva, estadoAnterior);
+        }
+        if (!reservas.isEmpty()) {
+            logger.info("Reservas canceladas por la cancelación del partido {}: {}", partidoId, reservas.size());
+        }
+        return reservas.size();
+    }
+
+    /**
+     * Total gastado por un usuario en sus reservas cobradas, leído de su saldo en el libro de gastos
      * @param usuarioId ID del usuario
      * @return Total gastado
      */
     public Double calcularTotalGastadoPorUsuario(Long usuarioId) {
         Objects.requireNonNull(usuarioId, "El ID del usuario no puede ser null");
-        
-        List<Reserva> reservas = reservaRepository.findByUsuarioIdOrderByFechaCreacionDesc(usuarioId);
-        
-        return reservas.stream()
-                .filter(reserva -> reserva.getEstado() == Reserva.EstadoReserva.CONFIRMADO || 
-                                 reserva.getEstado() == Reserva.EstadoReserva.FINALIZADO)
-                .mapToDouble(Reserva::calcularTotal)
-                .sum();
+        return libroGastosService.obtenerTotalGastado(usuarioId);
+    }
+
+    public List<MovimientoGasto> obtenerMovimientosPorUsuario(Long usuarioId) {
+        Objects.requireNonNull(usuarioId, "El ID del usuario no puede ser null");
+        return libroGastosService.obtenerMovimientos(usuarioId);
     }
 }
 
@@ -0,0 +1,192 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.MetricasRetencionAlertasDTO;
+import com.techlab.picadito.model.TipoTrabajo;
+import com.techlab.picadito.model.Trabajo;
+import com.techlab.picadito.repository.AlertaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Elimina las alertas más antiguas que los días de retención sin cargarlas como entidades: recorre
+ * los ids vencidos por lotes y borra cada lote con sentencias masivas en su propia transacción
+ * corta, ajustando antes los contadores de no leídas. En modo simulación solo cuenta lo que
+ * borraría.
+ */
+@Service
+public class RetencionAlertasService implements ManejadorTrabajo {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetencionAlertasService.class);
+
+    // Cursor inicial: anterior a cualquier alerta
+    private static final LocalDateTime SIN_CURSOR = LocalDateTime.of(1, 1, 1, 0, 0);
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private LecturaAlertasService lecturaAlertasService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${picadito.alertas.retencion.dias:30}")
+    private int diasRetencion = 30;
+
+    @Value("${picadito.alertas.retencion.tamanio-lote:500}")
+    private int tamanioLote = 500;
+
+    private final ReentrantLock enEjecucion = new ReentrantLock();
+
+    private final AtomicLong procesadasEnCurso = new AtomicLong();
+    private final AtomicLong ejecuciones = new AtomicLong();
+    private final AtomicLong totalEliminadas = new AtomicLong();
+
+    private volatile Ejecucion ultima;
+
+    /**
+     * Elimina (o, en simulación, cuenta) las alertas vencidas; si ya hay una ejecución en curso no hace nada
+     */
+    public MetricasRetencionAlertasDTO ejecutar(boolean simulacion) {
+        if (!enEjecucion.tryLock()) {
+            logger.debug("La limpieza de alertas ya está en ejecución");
+            return obtenerMetricas();
+        }
+        try {
+            limpiar(simulacion);
+        } finally {
+            enEjecucion.unlock();
+        }
+        return obtenerMetricas();
+    }
+
+    @Override
+    public TipoTrabajo getTipo() {
+        return TipoTrabajo.RETENCION_ALERTAS;
+    }
+
+    // Una ejecución a la vez: cada una ya recorre todas las alertas
+    @Override
+    public int getConcurrencia() {
+        return 1;
+    }
+
+    @Override
+    public void procesar(Trabajo trabajo) {
+        ejecutar(false);
+    }
+
+    public MetricasRetencionAlertasDTO obtenerMetricas() {
+        MetricasRetencionAlertasDTO metricas = new MetricasRetencionAlertasDTO();
+        metricas.setEnEjecucion(enEjecucion.isLocked());
+        metricas.setProcesadasEnCurso(enEjecucion.isLocked() ? procesadasEnCurso.get() : 0L);
+        metricas.setDiasRetencion(diasRetencion);
+        metricas.setTamanioLote(tamanioLote);
+        metricas.setEjecuciones(ejecuciones.get());
+        metricas.setTotalEliminadas(totalEliminadas.get());
+        Ejecucion ejecucion = ultima;
+        if (ejecucion != null) {
+            metricas.setUltimaEjecucion(ejecucion.inicio);
+            metricas.setSimulacionUltima(ejecucion.simulacion);
+            metricas.setFechaLimiteUltima(ejecucion.fechaLimite);
+            metricas.setDuracionUltimaMs(ejecucion.duracionMs);
+            metricas.setLotesUltima(ejecucion.lotes);
+            metricas.setLotesFallidosUltima(ejecucion.lotesFallidos);
+            metricas.setAlertasUltima(ejecucion.alertas);
+            double segundos = Math.max(ejecucion.duracionMs, 1) / 1000.0;
+            metricas.setThroughputPorSegundo(Math.round(ejecucion.alertas / segundos * 10) / 10.0);
+        }
+        return metricas;
+    }
+
+    private void limpiar(boolean simulacion) {
+        LocalDateTime inicio = LocalDateTime.now();
+        long inicioNanos = System.nanoTime();
+        LocalDateTime fechaLimite = inicio.minusDays(diasRetencion);
+        procesadasEnCurso.set(0);
+
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        TransactionTemplate escritura = new TransactionTemplate(transactionManager);
+
+        long alertas = 0;
+        int lotes = 0;
+        int lotesFallidos = 0;
+        LocalDateTime desdeFecha = SIN_CURSOR;
+        long desdeId = 0L;
+        while (true) {
+            LocalDateTime cursorFecha = desdeFecha;
+            long cursorId = desdeId;
+            List<Object[]> filas = lectura.execute(estado -> alertaRepository.findIdsAntiguas(
+                    fechaLimite, cursorFecha, cursorId, PageRequest.of(0, tamanioLote)));
+            if (filas == null || filas.isEmpty()) {
+                break;
+            }
+            List<Long> ids = filas.stream().map(fila -> ((Number) fila[0]).longValue()).toList();
+            lotes++;
+            if (simulacion) {
+                alertas += ids.size();
+            } else {
+                try {
+                    Integer eliminadas = escritura.execute(estado -> {
+                        lecturaAlertasService.alEliminarLote(ids);
+                        return alertaRepository.eliminarPorIds(ids);
+                    });
+                    alertas += eliminadas != null ? eliminadas : 0;
+                } catch (RuntimeException e) {
+                    lotesFallidos++;
+                    logger.error("Error al eliminar el lote de alertas {}-{}: {}",
+                            ids.get(0), ids.get(ids.size() - 1), e.getMessage());
+                }
+            }
+            procesadasEnCurso.addAndGet(ids.size());
+            Object[] ultimaFila = filas.get(filas.size() - 1);
+            desdeFecha = (LocalDateTime) ultimaFila[1];
+            desdeId = ((Number) ultimaFila[0]).longValue();
+            if (ids.size() < tamanioLote) {
+                break;
+            }
+        }
+
+        long duracionMs = (System.nanoTime() - inicioNanos) / 1_000_000;
+        ultima = new Ejecucion(inicio, simulacion, fechaLimite, duracionMs, lotes, lotesFallidos, alertas);
+        ejecuciones.incrementAndGet();
+        if (!simulacion) {
+            totalEliminadas.addAndGet(alertas);
+        }
+        logger.info("Limpieza de alertas anteriores a {}{}: {} alertas en {} lotes ({} con error), {} ms",
+                fechaLimite, simulacion ? " (simulación)" : "", alertas, lotes, lotesFallidos, duracionMs);
+    }
+
+    private static final class Ejecucion {
+        final LocalDateTime inicio;
+        final boolean simulacion;
+        final LocalDateTime fechaLimite;
+        final long duracionMs;
+        final int lotes;
+        final int lotesFallidos;
+        final long alertas;
+
+        Ejecucion(LocalDateTime inicio, boolean simulacion, LocalDateTime fechaLimite, long duracionMs,
+                  int lotes, int lotesFallidos, long alertas) {
+            this.inicio = inicio;
+            this.simulacion = simulacion;
+            this.fechaLimite = fechaLimite;
+            this.duracionMs = duracionMs;
+            this.lotes = lotes;
+            this.lotesFallidos = lotesFallidos;
+            this.alertas = alertas;
+        }
+    }
+}
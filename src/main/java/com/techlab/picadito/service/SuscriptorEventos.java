@@ -0,0 +1,35 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.model.EventoDominio;
+import com.techlab.picadito.model.TipoEventoDominio;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Suscriptor de los eventos de dominio. Recibe los eventos en orden y por lotes, dentro de la
+ * transacción que avanza su offset: si falla, el lote se vuelve a entregar (al menos una vez).
+ */
+public interface SuscriptorEventos {
+
+    /**
+     * Nombre estable del suscriptor: identifica su offset guardado
+     */
+    String getNombre();
+
+    /**
+     * Tipos de evento que le interesan; los demás avanzan el offset sin entregárselos
+     */
+    Set<TipoEventoDominio> getTipos();
+
+    /**
+     * Un suscriptor local recibe los eventos en cada nodo, no una vez entre todos: su offset vive
+     * en memoria, empieza en el último evento al arrancar el proceso y no frena la purga. Sirve
+     * para efectos propios del nodo, como las conexiones en tiempo real que tiene abiertas.
+     */
+    default boolean isLocal() {
+        return false;
+    }
+
+    void procesar(List<EventoDominio> eventos);
+}
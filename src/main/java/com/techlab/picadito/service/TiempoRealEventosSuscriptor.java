@@ -0,0 +1,73 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.model.EventoDominio;
+import com.techlab.picadito.model.TipoEventoDominio;
+import com.techlab.picadito.repository.PartidoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lleva los cambios a las conexiones en tiempo real de este nodo: las alertas nuevas y la
+ * ocupación de los partidos que alguien escucha. Es un suscriptor local, así que cada nodo lee
+ * todos los eventos y publica en las suyas, sin importar en qué nodo ocurrió el cambio.
+ */
+@Service
+public class TiempoRealEventosSuscriptor implements SuscriptorEventos {
+
+    private static final Set<TipoEventoDominio> TIPOS = EnumSet.of(TipoEventoDominio.ALERTA_CREADA,
+            TipoEventoDominio.PARTICIPANTE_INSCRITO, TipoEventoDominio.PARTICIPANTE_DESINSCRITO,
+            TipoEventoDominio.RESERVA_CONFIRMADA, TipoEventoDominio.PARTIDO_ACTUALIZADO,
+            TipoEventoDominio.PARTIDO_CANCELADO, TipoEventoDominio.PARTIDO_FINALIZADO,
+            TipoEventoDominio.PARTIDO_ELIMINADO);
+
+    @Autowired
+    private NotificacionesTiempoRealService notificacionesTiempoReal;
+
+    @Autowired
+    private AlertaService alertaService;
+
+    @Autowired
+    private PartidoRepository partidoRepository;
+
+    @Override
+    public String getNombre() {
+        return "tiempo-real";
+    }
+
+    @Override
+    public Set<TipoEventoDominio> getTipos() {
+        return TIPOS;
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
+    @Override
+    public void procesar(List<EventoDominio> eventos) {
+        List<Long> alertas = new ArrayList<>();
+        // Varios cambios del mismo partido en el lote se publican una sola vez, con su estado actual
+        Set<Long> partidosModificados = new LinkedHashSet<>();
+        for (EventoDominio evento : eventos) {
+            if (evento.getTipo() == TipoEventoDominio.ALERTA_CREADA) {
+                alertas.add(evento.getReferenciaId());
+            } else if (evento.getPartidoId() != null && notificacionesTiempoReal.tieneCanalPartido(evento.getPartidoId())) {
+                partidosModificados.add(evento.getPartidoId());
+            }
+        }
+        if (!alertas.isEmpty()) {
+            alertaService.obtenerPorIds(alertas).forEach(notificacionesTiempoReal::publicarAlerta);
+        }
+        for (Long partidoId : partidosModificados) {
+            partidoRepository.findById(partidoId).ifPresentOrElse(notificacionesTiempoReal::publicarCupos,
+                    () -> notificacionesTiempoReal.cerrarPartido(partidoId));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.techlab.picadito.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techlab.picadito.dto.EntregaWebhookFallidaDTO;
+import com.techlab.picadito.dto.EventoWebhookDTO;
+import com.techlab.picadito.dto.SuscripcionWebhookDTO;
+import com.techlab.picadito.dto.SuscripcionWebhookResponseDTO;
+import com.techlab.picadito.exception.BusinessException;
+import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.exception.ValidationException;
+import com.techlab.picadito.model.EntregaWebhookFallida;
+import com.techlab.picadito.model.SuscripcionWebhook;
+import com.techlab.picadito.repository.EntregaWebhookFallidaRepository;
+import com.techlab.picadito.repository.SedeRepository;
+import com.techlab.picadito.repository.SuscripcionWebhookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Alta y baja de suscripciones de webhooks, y consulta y reintento de las entregas fallidas
+ */
+@Service
+@Transactional
+public class WebhookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookService.class);
+
+    @Autowired
+    private SuscripcionWebhookRepository suscripcionWebhookRepository;
+
+    @Autowired
+    private EntregaWebhookFallidaRepository entregaWebhookFallidaRepository;
+
+    @Autowired
+    private SedeRepository sedeRepository;
+
+    @Autowired
+    private EntregaWebhooksService entregaWebhooksService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public List<SuscripcionWebhookResponseDTO> obtenerTodas() {
+        return suscripcionWebhookRepository.findAll().stream()
+                .map(this::convertirADTO)
+                .collect(Collectors.toList());
+    }
+
+    public SuscripcionWebhookResponseDTO crear(SuscripcionWebhookDTO dto) {
+        String creador = dto.getCreadorNombre() != null && !dto.getCreadorNombre().trim().isEmpty()
+                ? dto.getCreadorNombre().trim() : null;
+        if (dto.getSedeId() == null && creador == null) {
+            throw new ValidationException("Se debe indicar la sede o el creador de los partidos a seguir");
+        }
+        if (dto.getSedeId() != null && !sedeRepository.existsById(dto.getSedeId())) {
+            throw new ResourceNotFoundException("Sede no encontrada con id: " + dto.getSedeId());
+        }
+        SuscripcionWebhook suscripcion = new SuscripcionWebhook(null, dto.getUrl().trim(), dto.getSecreto(),
+                dto.getSedeId(), creador, true, LocalDateTime.now());
+        suscripcion = suscripcionWebhookRepository.save(suscripcion);
+        logger.info("Webhook {} creado para sede {} / creador {}", suscripcion.getId(), dto.getSedeId(), creador);
+        return convertirADTO(suscripcion);
+    }
+
+    public void eliminar(@NonNull Long id) {
+        if (!suscripcionWebhookRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Webhook no encontrado con id: " + id);
+        }
+        suscripcionWebhookRepository.deleteById(id);
+        entregaWebhooksService.descartar(id);
+        logger.info("Webhook {} eliminado", id);
+    }
+
+    /**
+     * Últimas entregas fallidas, de todas las suscripciones o de una
+     */
+    @Transactional(readOnly = true)
+    public List<EntregaWebhookFallidaDTO> obtenerFallidas(Long suscripcionId) {
+        List<EntregaWebhookFallida> fallidas = suscripcionId != null
+                ? entregaWebhookFallidaRepository.findTop100BySuscripcionIdOrderByIdDesc(suscripcionId)
+                : entregaWebhookFallidaRepository.findTop100ByOrderByIdDesc();
+        return fallidas.stream().map(this::convertirADTO).collect(Collectors.toList());
+    }
+
+    /**
+     * Vuelve a encolar una entrega fallida para su suscripción y la quita de las fallidas
+     */
+    public void reintentarFallida(@NonNull Long id) {
+        EntregaWebhookFallida fallida = entregaWebhookFallidaRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Entrega fallida no encontrada con id: " + id));
+        Long suscripcionId = fallida.getSuscripcionId();
+        SuscripcionWebhook suscripcion = suscripcionWebhookRepository.findById(suscripcionId)
+                .orElseThrow(() -> new BusinessException("El webhook " + suscripcionId + " ya no existe"));
+        List<EventoWebhookDTO> eventos;
+        try {
+            eventos = objectMapper.readValue(fallida.getPayload(), new TypeReference<List<EventoWebhookDTO>>() { });
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("No se pudo leer la entrega fallida " + id);
+        }
+        entregaWebhooksService.encolar(List.of(suscripcion), eventos);
+        entregaWebhookFallidaRepository.delete(fallida);
+    }
+
+    private SuscripcionWebhookResponseDTO convertirADTO(SuscripcionWebhook suscripcion) {
+        SuscripcionWebhookResponseDTO dto = new SuscripcionWebhookResponseDTO();
+        dto.setId(suscripcion.getId());
+        dto.setUrl(suscripcion.getUrl());
+        dto.setFirmada(suscripcion.getSecreto() != null && !suscripcion.getSecreto().isEmpty());
+        dto.setSedeId(suscripcion.getSedeId());
+        dto.setCreadorNombre(suscripcion.getCreadorNombre());
+        dto.setActiva(suscripcion.getActiva());
+        dto.setFechaCreacion(suscripcion.getFechaCreacion());
+        return dto;
+    }
+
+    private EntregaWebhookFallidaDTO convertirADTO(EntregaWebhookFallida fallida) {
+        EntregaWebhookFallidaDTO dto = new EntregaWebhookFallidaDTO();
+        dto.setId(fallida.getId());
+        dto.setSuscripcionId(fallida.getSuscripcionId());
+        dto.setUrl(fallida.getUrl());
+        dto.setEventos(fallida.getEventos());
+        dto.setIntentos(fallida.getIntentos());
+        dto.setUltimoError(fallida.getUltimoError());
+        dto.setFechaCreacion(fallida.getFechaCreacion());
+        return dto;
+    }
+}
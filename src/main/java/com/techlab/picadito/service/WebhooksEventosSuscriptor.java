@@ -0,0 +1,95 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.EventoWebhookDTO;
+import com.techlab.picadito.model.EventoDominio;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.SuscripcionWebhook;
+import com.techlab.picadito.model.TipoEventoDominio;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.SuscripcionWebhookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Pasa a la cola de webhooks los cambios de ocupación y reservas de los partidos que tienen
+ * suscripciones (por sede o por creador). Los envíos se guardan en la transacción del despacho,
+ * la misma que avanza su offset: si el lote falla o se revierte no queda nada encolado. La falta
+ * de lugar en la cola de un destino no hace fallar el lote: se resuelve en ese destino.
+ */
+@Service
+public class WebhooksEventosSuscriptor implements SuscriptorEventos {
+
+    private static final Set<TipoEventoDominio> TIPOS = EnumSet.of(TipoEventoDominio.RESERVA_CONFIRMADA,
+            TipoEventoDominio.PARTICIPANTE_INSCRITO, TipoEventoDominio.PARTICIPANTE_DESINSCRITO,
+            TipoEventoDominio.PARTIDO_ACTUALIZADO, TipoEventoDominio.PARTIDO_CANCELADO,
+            TipoEventoDominio.PARTIDO_FINALIZADO);
+
+    @Autowired
+    private PartidoRepository partidoRepository;
+
+    @Autowired
+    private SuscripcionWebhookRepository suscripcionWebhookRepository;
+
+    @Autowired
+    private EntregaWebhooksService entregaWebhooksService;
+
+    @Override
+    public String getNombre() {
+        return "webhooks";
+    }
+
+    @Override
+    public Set<TipoEventoDominio> getTipos() {
+        return TIPOS;
+    }
+
+    @Override
+    public void procesar(List<EventoDominio> eventos) {
+        Map<Long, List<EventoDominio>> porPartido = new LinkedHashMap<>();
+        for (EventoDominio evento : eventos) {
+            if (evento.getPartidoId() != null) {
+                porPartido.computeIfAbsent(evento.getPartidoId(), id -> new ArrayList<>()).add(evento);
+            }
+        }
+        for (Map.Entry<Long, List<EventoDominio>> entrada : porPartido.entrySet()) {
+            Optional<Partido> partido = partidoRepository.findById(entrada.getKey());
+            if (partido.isEmpty()) {
+                continue;
+            }
+            Long sedeId = partido.get().getSede() != null ? partido.get().getSede().getId() : null;
+            List<SuscripcionWebhook> suscripciones = suscripcionWebhookRepository.findActivasPara(
+                    sedeId, partido.get().getCreadorNombre());
+            if (suscripciones.isEmpty()) {
+                continue;
+            }
+            List<EventoWebhookDTO> dtos = entrada.getValue().stream()
+                    .map(evento -> convertirADTO(evento, partido.get(), sedeId))
+                    .toList();
+            entregaWebhooksService.encolar(suscripciones, dtos);
+        }
+    }
+
+    private EventoWebhookDTO convertirADTO(EventoDominio evento, Partido partido, Long sedeId) {
+        EventoWebhookDTO dto = new EventoWebhookDTO();
+        dto.setEventoId(evento.getId());
+        dto.setTipo(evento.getTipo());
+        dto.setFecha(evento.getFechaCreacion());
+        dto.setPartidoId(partido.getId());
+        dto.setPartidoTitulo(partido.getTitulo());
+        dto.setEstadoPartido(partido.getEstado());
+        dto.setSedeId(sedeId);
+        dto.setCantidadParticipantes(partido.getCantidadParticipantes());
+        dto.setMaxJugadores(partido.getMaxJugadores());
+        dto.setCuposDisponibles(partido.getMaxJugadores() - partido.getCantidadParticipantes());
+        dto.setReferenciaId(evento.getReferenciaId());
+        return dto;
+    }
+}
@@ -0,0 +1,361 @@
+package com.techlab.picadito.util;
+
+import com.techlab.picadito.model.Nivel;
+import com.techlab.picadito.model.Posicion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Reparte jugadores en N equipos parejos en tiempo acotado.
+ * <p>
+ * Cada jugador tiene un puntaje (nivel y, si existe, rating) y una posición opcional. Se arman dos
+ * soluciones iniciales, un greedy que respeta cupos por posición y un Karmarkar–Karp balanceado
+ * (diferencia más grande primero, en grupos de N ordenados por posición y puntaje), y la mejor se
+ * refina con intercambios entre equipos hasta que no haya mejora o se agote el presupuesto de tiempo.
+ * <p>
+ * El costo a minimizar es la diferencia de puntaje entre el equipo más fuerte y el más débil. Los cupos
+ * por posición (⌈jugadores de la posición / N⌉ por equipo, es decir, a lo sumo uno de diferencia entre
+ * equipos) se tratan como restricción: cada jugador de exceso suma una penalidad mayor que cualquier
+ * diferencia de puntaje posible. Los tamaños de equipo siempre difieren en a lo sumo uno.
+ */
+public class BalanceadorEquipos {
+
+    private static final long PRESUPUESTO_POR_DEFECTO_NANOS = 2_000_000L;
+    private static final double PENALIDAD_CUPO = 1_000.0;
+    private static final double PESO_RATING = 0.7;
+    private static final double EPSILON = 1e-9;
+
+    // Las posiciones conocidas ocupan 0..n-1; el último índice agrupa a los jugadores sin posición
+    private static final int POSICIONES = Posicion.values().length + 1;
+    private static final int SIN_POSICION = POSICIONES - 1;
+
+    private final long presupuestoNanos;
+
+    public BalanceadorEquipos() {
+        this(PRESUPUESTO_POR_DEFECTO_NANOS);
+    }
+
+    public BalanceadorEquipos(long presupuestoNanos) {
+        this.presupuestoNanos = presupuestoNanos;
+    }
+
+    /**
+     * Puntaje de un jugador: el nivel declarado (1 a 4, 2 si no lo indicó) combinado con el rating
+     * tipo Elo cuando existe, escalado a 250 puntos por nivel alrededor de 1500.
+     */
+    public static double puntuar(Nivel nivel, Double rating) {
+        double porNivel = nivel != null ? nivel.ordinal() + 1 : 2.0;
+        if (rating == null) {
+            return porNivel;
+        }
+        double porRating = Math.max(0.5, Math.min(5.0, 2.5 + (rating - 1500.0) / 250.0));
+        return (1 - PESO_RATING) * porNivel + PESO_RATING * porRating;
+    }
+
+    public Resultado balancear(List<Jugador> jugadores, int cantidadEquipos) {
+        if (cantidadEquipos < 2) {
+            throw new IllegalArgumentException("Se necesitan al menos 2 equipos");
+        }
+        if (jugadores.size() < cantidadEquipos) {
+            throw new IllegalArgumentException("Hay menos jugadores que equipos");
+        }
+        long limite = System.nanoTime() + presupuestoNanos;
+        int n = jugadores.size();
+        double[] puntajes = new double[n];
+        int[] posiciones = new int[n];
+        for (int i = 0; i < n; i++) {
+            Jugador jugador = jugadores.get(i);
+            puntajes[i] = jugador.puntaje;
+            posiciones[i] = jugador.posicion != null ? jugador.posicion.ordinal() : SIN_POSICION;
+        }
+
+        Estado greedy = new Estado(puntajes, posiciones, cantidadEquipos, greedy(puntajes, posiciones, cantidadEquipos));
+        Estado karmarkarKarp = new Estado(puntajes, posiciones, cantidadEquipos, karmarkarKarp(puntajes, posiciones, cantidadEquipos));
+        Estado mejor = karmarkarKarp.costo() < greedy.costo() - EPSILON ? karmarkarKarp : greedy;
+
+        busquedaLocal(mejor, limite);
+        return mejor.aResultado();
+    }
+
+    /**
+     * Greedy: posición por posición (los sin posición al final) y de mayor a menor puntaje, cada
+     * jugador va al equipo más débil que todavía tenga lugar y no haya completado su cupo de esa
+     * posición (⌈jugadores de la posición / N⌉).
+     */
+    private int[] greedy(double[] puntajes, int[] posiciones, int k) {
+        int n = puntajes.length;
+        Integer[] orden = ordenar(puntajes, posiciones);
+        int[] cupoPosicion = new int[POSICIONES];
+        for (int posicion : posiciones) {
+            cupoPosicion[posicion]++;
+        }
+        for (int p = 0; p < POSICIONES; p++) {
+            cupoPosicion[p] = (cupoPosicion[p] + k - 1) / k;
+        }
+
+        int minimo = n / k;
+        int equiposGrandes = n % k;
+        int[] asignacion = new int[n];
+        double[] suma = new double[k];
+        int[] tamanio = new int[k];
+        int[][] conteo = new int[k][POSICIONES];
+        int completosGrandes = 0;
+
+        for (int jugador : orden) {
+            int elegido = -1;
+            int elegidoSinCupo = -1;
+            for (int t = 0; t < k; t++) {
+                boolean agranda = tamanio[t] + 1 > minimo;
+                if (tamanio[t] + 1 > minimo + 1 || (agranda && completosGrandes >= equiposGrandes)) {
+                    continue;
+                }
+                if (elegidoSinCupo < 0 || suma[t] < suma[elegidoSinCupo]) {
+                    elegidoSinCupo = t;
+                }
+                boolean dentroDelCupo = posiciones[jugador] == SIN_POSICION
+                        || conteo[t][posiciones[jugador]] < cupoPosicion[posiciones[jugador]];
+                if (dentroDelCupo && (elegido < 0 || suma[t] < suma[elegido])) {
+                    elegido = t;
+                }
+            }
+            int equipo = elegido >= 0 ? elegido : elegidoSinCupo;
+            if (tamanio[equipo] + 1 > minimo) {
+                completosGrandes++;
+            }
+            asignacion[jugador] = equipo;
+            suma[equipo] += puntajes[jugador];
+            tamanio[equipo]++;
+            conteo[equipo][posiciones[jugador]]++;
+        }
+        return asignacion;
+    }
+
+    /**
+     * Karmarkar–Karp balanceado para N equipos: cada grupo de N jugadores consecutivos (ordenados
+     * por posición y puntaje) forma una partición parcial con un jugador por equipo; se combinan
+     * repetidamente las dos particiones con mayor diferencia, uniendo el subconjunto más fuerte de
+     * una con el más débil de la otra.
+     */
+    private int[] karmarkarKarp(double[] puntajes, int[] posiciones, int k) {
+        int n = puntajes.length;
+        Integer[] orden = ordenar(puntajes, posiciones);
+        PriorityQueue<Particion> cola = new PriorityQueue<>(Comparator.comparingDouble(Particion::diferencia).reversed());
+        for (int inicio = 0; inicio < n; inicio += k) {
+            Subconjunto[] subconjuntos = new Subconjunto[k];
+            for (int t = 0; t < k; t++) {
+                subconjuntos[t] = new Subconjunto();
+                if (inicio + t < n) {
+                    subconjuntos[t].agregar(orden[inicio + t], puntajes[orden[inicio + t]]);
+                }
+            }
+            cola.add(new Particion(subconjuntos));
+        }
+        while (cola.size() > 1) {
+            Particion a = cola.poll();
+            Particion b = cola.poll();
+            Subconjunto[] combinados = new Subconjunto[k];
+            for (int t = 0; t < k; t++) {
+                combinados[t] = a.subconjuntos[t].unir(b.subconjuntos[k - 1 - t]);
+            }
+            cola.add(new Particion(combinados));
+        }
+
+        int[] asignacion = new int[n];
+        Subconjunto[] finales = cola.poll().subconjuntos;
+        for (int t = 0; t < k; t++) {
+            for (int jugador : finales[t].jugadores) {
+                asignacion[jugador] = t;
+            }
+        }
+        return asignacion;
+    }
+
+    /**
+     * Intercambia pares de jugadores de equipos distintos mientras baje el costo (primera mejora).
+     * Vencido el presupuesto solo sigue si quedan cupos por posición excedidos.
+     */
+    private void busquedaLocal(Estado estado, long limite) {
+        int n = estado.asignacion.length;
+        boolean mejoro = true;
+        while (mejoro && puedeSeguir(estado, limite)) {
+            mejoro = false;
+            for (int i = 0; i < n && puedeSeguir(estado, limite); i++) {
+                for (int j = i + 1; j < n; j++) {
+                    if (estado.asignacion[i] == estado.asignacion[j]) {
+                        continue;
+                    }
+                    double antes = estado.costo();
+                    estado.intercambiar(i, j);
+                    if (estado.costo() < antes - EPSILON) {
+                        mejoro = true;
+                    } else {
+                        estado.intercambiar(i, j);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean puedeSeguir(Estado estado, long limite) {
+        return System.nanoTime() < limite || estado.excesoCupos() > 0;
+    }
+
+    private static Integer[] ordenar(double[] puntajes, int[] posiciones) {
+        Integer[] orden = new Integer[puntajes.length];
+        for (int i = 0; i < orden.length; i++) {
+            orden[i] = i;
+        }
+        Comparator<Integer> porPuntaje = Comparator.comparingDouble((Integer i) -> puntajes[i]).reversed();
+        Arrays.sort(orden, Comparator.comparingInt((Integer i) -> posiciones[i]).thenComparing(porPuntaje));
+        return orden;
+    }
+
+    public static final class Jugador {
+        private final Posicion posicion;
+        private final double puntaje;
+
+        public Jugador(Posicion posicion, double puntaje) {
+            this.posicion = posicion;
+            this.puntaje = puntaje;
+        }
+    }
+
+    public static final class Resultado {
+        private final int[] asignacion;
+        private final double[] puntajes;
+        private final double diferencia;
+        private final double indiceBalance;
+
+        private Resultado(int[] asignacion, double[] puntajes, double diferencia, double indiceBalance) {
+            this.asignacion = asignacion;
+            this.puntajes = puntajes;
+            this.diferencia = diferencia;
+            this.indiceBalance = indiceBalance;
+        }
+
+        /**
+         * Equipo asignado a cada jugador, en el orden de la lista recibida
+         */
+        public int[] getAsignacion() {
+            return asignacion;
+        }
+
+        public double[] getPuntajes() {
+            return puntajes;
+        }
+
+        public double getDiferencia() {
+            return diferencia;
+        }
+
+        /**
+         * 1 para equipos idénticos en puntaje; baja a 0 a medida que la diferencia entre el equipo
+         * más fuerte y el más débil se acerca al puntaje promedio de un equipo
+         */
+        public double getIndiceBalance() {
+            return indiceBalance;
+        }
+    }
+
+    private static final class Estado {
+        final double[] puntajes;
+        final int[] posiciones;
+        final int[] asignacion;
+        final double[] suma;
+        final int[][] conteo;
+
+        Estado(double[] puntajes, int[] posiciones, int k, int[] asignacion) {
+            this.puntajes = puntajes;
+            this.posiciones = posiciones;
+            this.asignacion = asignacion;
+            this.suma = new double[k];
+            this.conteo = new int[k][POSICIONES];
+            for (int i = 0; i < asignacion.length; i++) {
+                suma[asignacion[i]] += puntajes[i];
+                conteo[asignacion[i]][posiciones[i]]++;
+            }
+        }
+
+        double costo() {
+            double maximo = Double.NEGATIVE_INFINITY;
+            double minimo = Double.POSITIVE_INFINITY;
+            for (double s : suma) {
+                maximo = Math.max(maximo, s);
+                minimo = Math.min(minimo, s);
+            }
+            return (maximo - minimo) + PENALIDAD_CUPO * excesoCupos();
+        }
+
+        // Jugadores por encima de un jugador de diferencia entre equipos, sumados sobre las posiciones
+        int excesoCupos() {
+            int exceso = 0;
+            for (int p = 0; p < SIN_POSICION; p++) {
+                int mayor = Integer.MIN_VALUE;
+                int menor = Integer.MAX_VALUE;
+                for (int[] equipo : conteo) {
+                    mayor = Math.max(mayor, equipo[p]);
+                    menor = Math.min(menor, equipo[p]);
+                }
+                exceso += Math.max(0, mayor - menor - 1);
+            }
+            return exceso;
+        }
+
+        void intercambiar(int i, int j) {
+            int a = asignacion[i];
+            int b = asignacion[j];
+            suma[a] += puntajes[j] - puntajes[i];
+            suma[b] += puntajes[i] - puntajes[j];
+            conteo[a][posiciones[i]]--;
+            conteo[a][posiciones[j]]++;
+            conteo[b][posiciones[j]]--;
+            conteo[b][posiciones[i]]++;
+            asignacion[i] = b;
+            asignacion[j] = a;
+        }
+
+        Resultado aResultado() {
+            double maximo = Arrays.stream(suma).max().orElse(0);
+            double minimo = Arrays.stream(suma).min().orElse(0);
+            double promedio = Arrays.stream(suma).sum() / suma.length;
+            double indice = promedio > 0 ? Math.max(0.0, 1.0 - (maximo - minimo) / promedio) : 1.0;
+            return new Resultado(asignacion.clone(), suma.clone(), maximo - minimo, indice);
+        }
+    }
+
+    private static final class Subconjunto {
+        final List<Integer> jugadores = new ArrayList<>();
+        double suma;
+
+        void agregar(int jugador, double puntaje) {
+            jugadores.add(jugador);
+            suma += puntaje;
+        }
+
+        Subconjunto unir(Subconjunto otro) {
+            Subconjunto union = new Subconjunto();
+            union.jugadores.addAll(jugadores);
+            union.jugadores.addAll(otro.jugadores);
+            union.suma = suma + otro.suma;
+            return union;
+        }
+    }
+
+    private static final class Particion {
+        // Ordenados de mayor a menor suma
+        final Subconjunto[] subconjuntos;
+
+        Particion(Subconjunto[] subconjuntos) {
+            Arrays.sort(subconjuntos, Comparator.comparingDouble((Subconjunto s) -> s.suma).reversed());
+            this.subconjuntos = subconjuntos;
+        }
+
+        double diferencia() {
+            return subconjuntos[0].suma - subconjuntos[subconjuntos.length - 1].suma;
+        }
+    }
+}
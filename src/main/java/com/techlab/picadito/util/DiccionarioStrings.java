@@ -0,0 +1,63 @@
+package com.techlab.picadito.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codificación por diccionario de columnas de texto: cada valor distinto se guarda una sola vez
+ * y las filas referencian su código entero. No es thread-safe; se llena durante la construcción
+ * de un snapshot y luego solo se lee.
+ */
+public class DiccionarioStrings {
+
+    public static final String SIN_VALOR = "(sin valor)";
+
+    private final Map<String, Integer> codigos;
+    private final List<String> valores;
+
+    public DiccionarioStrings() {
+        this.codigos = new HashMap<>();
+        this.valores = new ArrayList<>();
+    }
+
+    private DiccionarioStrings(DiccionarioStrings otro) {
+        this.codigos = new HashMap<>(otro.codigos);
+        this.valores = new ArrayList<>(otro.valores);
+    }
+
+    public DiccionarioStrings copia() {
+        return new DiccionarioStrings(this);
+    }
+
+    /**
+     * Devuelve el código del valor, agregándolo al diccionario si no existía
+     */
+    public int codificar(String valor) {
+        String clave = valor != null ? valor : SIN_VALOR;
+        Integer codigo = codigos.get(clave);
+        if (codigo == null) {
+            codigo = valores.size();
+            valores.add(clave);
+            codigos.put(clave, codigo);
+        }
+        return codigo;
+    }
+
+    /**
+     * Devuelve el código del valor o -1 si no está en el diccionario
+     */
+    public int buscar(String valor) {
+        Integer codigo = codigos.get(valor != null ? valor : SIN_VALOR);
+        return codigo != null ? codigo : -1;
+    }
+
+    public String decodificar(int codigo) {
+        return valores.get(codigo);
+    }
+
+    public int tamanio() {
+        return valores.size();
+    }
+}
@@ -15,16 +15,9 @@ public class MapperUtil {
         dto.setPartidoId(linea.getPartido().getId());
         dto.setPartidoTitulo(linea.getPartido().getTitulo());
         dto.setCantidad(linea.getCantidad());
-        
-        // Calcular subtotal: precio × cantidad
-        Double precio = linea.getPartido().getPrecio();
-        Integer cantidad = linea.getCantidad() != null ? linea.getCantidad() : 0;
-        if (precio != null && cantidad > 0) {
-            dto.setSubtotal(precio * cantidad);
-        } else {
-            dto.setSubtotal(0.0);
-        }
-        
+        dto.setPrecioUnitario(linea.getPrecioUnitario());
+        // Subtotal con el precio fijado al confirmar, no el precio actual del partido
+        dto.setSubtotal(linea.calcularSubtotal());
         return dto;
     }
     
@@ -38,7 +31,7 @@ public class MapperUtil {
                 .map(this::toLineaReservaDTO)
                 .collect(Collectors.toList()));
         
-        // Calcular total usando el método de la entidad
+        // Total guardado al confirmar la reserva
         dto.setTotal(reserva.calcularTotal());
         
         dto.setFechaCreacion(reserva.getFechaCreacion());
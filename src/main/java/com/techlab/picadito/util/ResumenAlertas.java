@@ -0,0 +1,75 @@
+package com.techlab.picadito.util;
+
+import com.techlab.picadito.model.TipoAlerta;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Formato del detalle de un resumen diario de alertas: cantidades por tipo y los ids de los
+ * partidos mencionados, como {@code RESERVA_CONFIRMADA=12,PARTIDO_PROXIMO=3;4,7,9}. Se guardan
+ * como mucho {@link #MAX_PARTIDOS} partidos para que el detalle no crezca sin límite.
+ */
+public final class ResumenAlertas {
+
+    public static final int MAX_PARTIDOS = 50;
+
+    private ResumenAlertas() {
+    }
+
+    public static String formatear(Map<TipoAlerta, Integer> conteos, Collection<Long> partidoIds) {
+        String tipos = conteos.entrySet().stream()
+                .map(entrada -> entrada.getKey().name() + "=" + entrada.getValue())
+                .collect(Collectors.joining(","));
+        String partidos = partidoIds.stream()
+                .limit(MAX_PARTIDOS)
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        return tipos + ";" + partidos;
+    }
+
+    public static Map<TipoAlerta, Integer> leerConteos(String detalle) {
+        Map<TipoAlerta, Integer> conteos = new EnumMap<>(TipoAlerta.class);
+        if (detalle == null || detalle.isEmpty()) {
+            return conteos;
+        }
+        int separador = detalle.indexOf(';');
+        String tipos = separador >= 0 ? detalle.substring(0, separador) : detalle;
+        for (String parte : tipos.split(",")) {
+            int igual = parte.indexOf('=');
+            if (igual > 0) {
+                conteos.merge(TipoAlerta.valueOf(parte.substring(0, igual)),
+                        Integer.parseInt(parte.substring(igual + 1)), Integer::sum);
+            }
+        }
+        return conteos;
+    }
+
+    public static List<Long> leerPartidos(String detalle) {
+        List<Long> partidos = new ArrayList<>();
+        int separador = detalle != null ? detalle.indexOf(';') : -1;
+        if (separador < 0) {
+            return partidos;
+        }
+        for (String parte : detalle.substring(separador + 1).split(",")) {
+            if (!parte.isEmpty()) {
+                partidos.add(Long.valueOf(parte));
+            }
+        }
+        return partidos;
+    }
+
+    /**
+     * Mensaje legible del resumen, p. ej. "Resumen del 2025-03-01: Reserva confirmada (12), ..."
+     */
+    public static String mensaje(LocalDate dia, Map<TipoAlerta, Integer> conteos) {
+        return "Resumen del " + dia + ": " + conteos.entrySet().stream()
+                .map(entrada -> entrada.getKey().getDescripcion() + " (" + entrada.getValue() + ")")
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,317 @@
+package com.techlab.picadito.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Snapshot columnar en memoria de partidos y líneas de reserva para consultas analíticas.
+ * Cada atributo es un arreglo primitivo indexado por fila y los textos se guardan codificados
+ * por diccionario. Una vez construido el snapshot es inmutable: los refrescos incrementales
+ * copian las columnas en un {@link Builder}, aplican los cambios y publican un snapshot nuevo,
+ * así las consultas en curso nunca ven datos a medio actualizar.
+ */
+public final class SnapshotAnalitico {
+
+    // Columnas de partidos
+    public final int cantidadPartidos;
+    public final long[] partidoId;
+    public final int[] partidoSede;
+    public final int[] partidoCreador;
+    public final byte[] partidoEstado;
+    public final long[] partidoFecha;
+    public final byte[] partidoDiaSemana;
+    public final byte[] partidoHora;
+    public final int[] partidoMes;
+    public final int[] partidoMaxJugadores;
+    public final int[] partidoParticipantes;
+    public final double[] partidoPrecio;
+    public final int[][] partidoCategorias;
+
+    // Columnas de líneas de reserva (una fila por línea)
+    public final int cantidadLineas;
+    public final long[] lineaId;
+    public final long[] lineaReservaId;
+    public final int[] lineaUsuario;
+    public final int[] lineaPartido;
+    public final byte[] lineaEstado;
+    public final long[] lineaFecha;
+    public final int[] lineaCantidad;
+    // Precio cobrado por cupo (NaN si la línea no lo tiene guardado)
+    public final double[] lineaPrecio;
+
+    // Diccionarios compartidos por las columnas codificadas
+    public final DiccionarioStrings sedes;
+    public final DiccionarioStrings creadores;
+    public final DiccionarioStrings categorias;
+    public final DiccionarioStrings usuarios;
+    public final DiccionarioStrings meses;
+
+    public final long version;
+    public final LocalDateTime fechaConstruccion;
+
+    private final Map<Long, Integer> filaPorPartido;
+    private final Map<Long, Integer> filaPorLinea;
+
+    private SnapshotAnalitico(Builder b, long version) {
+        this.cantidadPartidos = b.cantidadPartidos;
+        this.partidoId = Arrays.copyOf(b.partidoId, b.cantidadPartidos);
+        this.partidoSede = Arrays.copyOf(b.partidoSede, b.cantidadPartidos);
+        this.partidoCreador = Arrays.copyOf(b.partidoCreador, b.cantidadPartidos);
+        this.partidoEstado = Arrays.copyOf(b.partidoEstado, b.cantidadPartidos);
+        this.partidoFecha = Arrays.copyOf(b.partidoFecha, b.cantidadPartidos);
+        this.partidoDiaSemana = Arrays.copyOf(b.partidoDiaSemana, b.cantidadPartidos);
+        this.partidoHora = Arrays.copyOf(b.partidoHora, b.cantidadPartidos);
+        this.partidoMes = Arrays.copyOf(b.partidoMes, b.cantidadPartidos);
+        this.partidoMaxJugadores = Arrays.copyOf(b.partidoMaxJugadores, b.cantidadPartidos);
+        this.partidoParticipantes = Arrays.copyOf(b.partidoParticipantes, b.cantidadPartidos);
+        this.partidoPrecio = Arrays.copyOf(b.partidoPrecio, b.cantidadPartidos);
+        this.partidoCategorias = Arrays.copyOf(b.partidoCategorias, b.cantidadPartidos);
+
+        this.cantidadLineas = b.cantidadLineas;
+        this.lineaId = Arrays.copyOf(b.lineaId, b.cantidadLineas);
+        this.lineaReservaId = Arrays.copyOf(b.lineaReservaId, b.cantidadLineas);
+        this.lineaUsuario = Arrays.copyOf(b.lineaUsuario, b.cantidadLineas);
+        this.lineaPartido = Arrays.copyOf(b.lineaPartido, b.cantidadLineas);
+        this.lineaEstado = Arrays.copyOf(b.lineaEstado, b.cantidadLineas);
+        this.lineaFecha = Arrays.copyOf(b.lineaFecha, b.cantidadLineas);
+        this.lineaCantidad = Arrays.copyOf(b.lineaCantidad, b.cantidadLineas);
+        this.lineaPrecio = Arrays.copyOf(b.lineaPrecio, b.cantidadLineas);
+
+        this.sedes = b.sedes;
+        this.creadores = b.creadores;
+        this.categorias = b.categorias;
+        this.usuarios = b.usuarios;
+        this.meses = b.meses;
+
+        this.filaPorPartido = b.filaPorPartido;
+        this.filaPorLinea = b.filaPorLinea;
+
+        this.version = version;
+        this.fechaConstruccion = LocalDateTime.now();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder inicializado con una copia de este snapshot, para aplicar un refresco incremental
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    public static long aEpoch(LocalDateTime fecha) {
+        return fecha != null ? fecha.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+    }
+
+    public static final class Builder {
+
+        private static final int CAPACIDAD_INICIAL = 256;
+        private static final int[] SIN_CATEGORIAS = new int[0];
+
+        private int cantidadPartidos;
+        private long[] partidoId = new long[CAPACIDAD_INICIAL];
+        private int[] partidoSede = new int[CAPACIDAD_INICIAL];
+        private int[] partidoCreador = new int[CAPACIDAD_INICIAL];
+        private byte[] partidoEstado = new byte[CAPACIDAD_INICIAL];
+        private long[] partidoFecha = new long[CAPACIDAD_INICIAL];
+        private byte[] partidoDiaSemana = new byte[CAPACIDAD_INICIAL];
+        private byte[] partidoHora = new byte[CAPACIDAD_INICIAL];
+        private int[] partidoMes = new int[CAPACIDAD_INICIAL];
+        private int[] partidoMaxJugadores = new int[CAPACIDAD_INICIAL];
+        private int[] partidoParticipantes = new int[CAPACIDAD_INICIAL];
+        private double[] partidoPrecio = new double[CAPACIDAD_INICIAL];
+        private int[][] partidoCategorias = new int[CAPACIDAD_INICIAL][];
+
+        private int cantidadLineas;
+        private long[] lineaId = new long[CAPACIDAD_INICIAL];
+        private long[] lineaReservaId = new long[CAPACIDAD_INICIAL];
+        private int[] lineaUsuario = new int[CAPACIDAD_INICIAL];
+        private int[] lineaPartido = new int[CAPACIDAD_INICIAL];
+        private byte[] lineaEstado = new byte[CAPACIDAD_INICIAL];
+        private long[] lineaFecha = new long[CAPACIDAD_INICIAL];
+        private int[] lineaCantidad = new int[CAPACIDAD_INICIAL];
+        private double[] lineaPrecio = new double[CAPACIDAD_INICIAL];
+
+        private final DiccionarioStrings sedes;
+        private final DiccionarioStrings creadores;
+        private final DiccionarioStrings categorias;
+        private final DiccionarioStrings usuarios;
+        private final DiccionarioStrings meses;
+
+        private final Map<Long, Integer> filaPorPartido;
+        private final Map<Long, Integer> filaPorLinea;
+
+        private Builder() {
+            sedes = new DiccionarioStrings();
+            creadores = new DiccionarioStrings();
+            categorias = new DiccionarioStrings();
+            usuarios = new DiccionarioStrings();
+            meses = new DiccionarioStrings();
+            filaPorPartido = new HashMap<>();
+            filaPorLinea = new HashMap<>();
+        }
+
+        private Builder(SnapshotAnalitico s) {
+            cantidadPartidos = s.cantidadPartidos;
+            int capP = Math.max(CAPACIDAD_INICIAL, s.cantidadPartidos);
+            partidoId = Arrays.copyOf(s.partidoId, capP);
+            partidoSede = Arrays.copyOf(s.partidoSede, capP);
+            partidoCreador = Arrays.copyOf(s.partidoCreador, capP);
+            partidoEstado = Arrays.copyOf(s.partidoEstado, capP);
+            partidoFecha = Arrays.copyOf(s.partidoFecha, capP);
+            partidoDiaSemana = Arrays.copyOf(s.partidoDiaSemana, capP);
+            partidoHora = Arrays.copyOf(s.partidoHora, capP);
+            partidoMes = Arrays.copyOf(s.partidoMes, capP);
+            partidoMaxJugadores = Arrays.copyOf(s.partidoMaxJugadores, capP);
+            partidoParticipantes = Arrays.copyOf(s.partidoParticipantes, capP);
+            partidoPrecio = Arrays.copyOf(s.partidoPrecio, capP);
+            partidoCategorias = Arrays.copyOf(s.partidoCategorias, capP);
+
+            cantidadLineas = s.cantidadLineas;
+            int capL = Math.max(CAPACIDAD_INICIAL, s.cantidadLineas);
+            lineaId = Arrays.copyOf(s.lineaId, capL);
+            lineaReservaId = Arrays.copyOf(s.lineaReservaId, capL);
+            lineaUsuario = Arrays.copyOf(s.lineaUsuario, capL);
+            lineaPartido = Arrays.copyOf(s.lineaPartido, capL);
+            lineaEstado = Arrays.copyOf(s.lineaEstado, capL);
+            lineaFecha = Arrays.copyOf(s.lineaFecha, capL);
+            lineaCantidad = Arrays.copyOf(s.lineaCantidad, capL);
+            lineaPrecio = Arrays.copyOf(s.lineaPrecio, capL);
+
+            sedes = s.sedes.copia();
+            creadores = s.creadores.copia();
+            categorias = s.categorias.copia();
+            usuarios = s.usuarios.copia();
+            meses = s.meses.copia();
+
+            filaPorPartido = new HashMap<>(s.filaPorPartido);
+            filaPorLinea = new HashMap<>(s.filaPorLinea);
+        }
+
+        /**
+         * Inserta o reemplaza los atributos de un partido
+         */
+        public Builder partido(long id, String sede, String creador, byte estado, LocalDateTime fechaHora,
+                               int maxJugadores, Double precio) {
+            Integer fila = filaPorPartido.get(id);
+            if (fila == null) {
+                asegurarCapacidadPartidos();
+                fila = cantidadPartidos++;
+                filaPorPartido.put(id, fila);
+                partidoCategorias[fila] = SIN_CATEGORIAS;
+            }
+            partidoId[fila] = id;
+            partidoSede[fila] = sedes.codificar(sede);
+            partidoCreador[fila] = creadores.codificar(creador);
+            partidoEstado[fila] = estado;
+            partidoFecha[fila] = aEpoch(fechaHora);
+            partidoDiaSemana[fila] = (byte) (fechaHora != null ? fechaHora.getDayOfWeek().getValue() : 0);
+            partidoHora[fila] = (byte) (fechaHora != null ? fechaHora.getHour() : 0);
+            partidoMes[fila] = meses.codificar(fechaHora != null
+                    ? String.format("%04d-%02d", fechaHora.getYear(), fechaHora.getMonthValue())
+                    : null);
+            partidoMaxJugadores[fila] = maxJugadores;
+            partidoPrecio[fila] = precio != null ? precio : Double.NaN;
+            return this;
+        }
+
+        public Builder categoriasDePartido(long id, String[] nombres) {
+            Integer fila = filaPorPartido.get(id);
+            if (fila != null) {
+                int[] codigos = new int[nombres.length];
+                for (int i = 0; i < nombres.length; i++) {
+                    codigos[i] = categorias.codificar(nombres[i]);
+                }
+                partidoCategorias[fila] = codigos;
+            }
+            return this;
+        }
+
+        public Builder reiniciarParticipantes() {
+            Arrays.fill(partidoParticipantes, 0, cantidadPartidos, 0);
+            return this;
+        }
+
+        public Builder participantesDePartido(long id, int cantidad) {
+            Integer fila = filaPorPartido.get(id);
+            if (fila != null) {
+                partidoParticipantes[fila] = cantidad;
+            }
+            return this;
+        }
+
+        public boolean contienePartido(long id) {
+            return filaPorPartido.containsKey(id);
+        }
+
+        /**
+         * Inserta o reemplaza una línea de reserva. Las líneas de partidos que no están en el
+         * snapshot se ignoran hasta la siguiente reconstrucción completa.
+         */
+        public Builder linea(long id, long reservaId, String usuario, byte estado, LocalDateTime fechaReserva,
+                             long partidoId, int cantidad, Double precioUnitario) {
+            Integer filaPartido = filaPorPartido.get(partidoId);
+            if (filaPartido == null) {
+                return this;
+            }
+            Integer fila = filaPorLinea.get(id);
+            if (fila == null) {
+                asegurarCapacidadLineas();
+                fila = cantidadLineas++;
+                filaPorLinea.put(id, fila);
+            }
+            lineaId[fila] = id;
+            lineaReservaId[fila] = reservaId;
+            lineaUsuario[fila] = usuarios.codificar(usuario);
+            lineaPartido[fila] = filaPartido;
+            lineaEstado[fila] = estado;
+            lineaFecha[fila] = aEpoch(fechaReserva);
+            lineaCantidad[fila] = cantidad;
+            lineaPrecio[fila] = precioUnitario != null ? precioUnitario : Double.NaN;
+            return this;
+        }
+
+        public SnapshotAnalitico build(long version) {
+            return new SnapshotAnalitico(this, version);
+        }
+
+        private void asegurarCapacidadPartidos() {
+            if (cantidadPartidos < partidoId.length) {
+                return;
+            }
+            int cap = partidoId.length * 2;
+            partidoId = Arrays.copyOf(partidoId, cap);
+            partidoSede = Arrays.copyOf(partidoSede, cap);
+            partidoCreador = Arrays.copyOf(partidoCreador, cap);
+            partidoEstado = Arrays.copyOf(partidoEstado, cap);
+            partidoFecha = Arrays.copyOf(partidoFecha, cap);
+            partidoDiaSemana = Arrays.copyOf(partidoDiaSemana, cap);
+            partidoHora = Arrays.copyOf(partidoHora, cap);
+            partidoMes = Arrays.copyOf(partidoMes, cap);
+            partidoMaxJugadores = Arrays.copyOf(partidoMaxJugadores, cap);
+            partidoParticipantes = Arrays.copyOf(partidoParticipantes, cap);
+            partidoPrecio = Arrays.copyOf(partidoPrecio, cap);
+            partidoCategorias = Arrays.copyOf(partidoCategorias, cap);
+        }
+
+        private void asegurarCapacidadLineas() {
+            if (cantidadLineas < lineaId.length) {
+                return;
+            }
+            int cap = lineaId.length * 2;
+            lineaId = Arrays.copyOf(lineaId, cap);
+            lineaReservaId = Arrays.copyOf(lineaReservaId, cap);
+            lineaUsuario = Arrays.copyOf(lineaUsuario, cap);
+            lineaPartido = Arrays.copyOf(lineaPartido, cap);
+            lineaEstado = Arrays.copyOf(lineaEstado, cap);
+            lineaFecha = Arrays.copyOf(lineaFecha, cap);
+            lineaCantidad = Arrays.copyOf(lineaCantidad, cap);
+            lineaPrecio = Arrays.copyOf(lineaPrecio, cap);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.techlab.picadito.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContadorConsultasSqlTest {
+
+    private final ContadorConsultasSql contador = new ContadorConsultasSql();
+
+    @AfterEach
+    void tearDown() {
+        ContadorConsultasSql.finalizar();
+    }
+
+    @Test
+    void finalizar_ShouldCountStatementsAndTheMostRepeatedShape() {
+        ContadorConsultasSql.iniciar();
+        contador.inspect("select * from partidos where id=?");
+        contador.inspect("select * from equipos where partido_id=?");
+        contador.inspect("select * from equipos  where partido_id=?");
+        contador.inspect("select * from equipos where partido_id in (?, ?,?)");
+
+        ContadorConsultasSql.Resumen resumen = ContadorConsultasSql.finalizar();
+
+        assertEquals(4, resumen.total());
+        assertEquals(2, resumen.repeticionMaxima());
+        assertEquals("select * from equipos where partido_id=?", resumen.consultaMasRepetida());
+    }
+
+    @Test
+    void inspect_WithoutAnOpenMeasurement_ShouldNotCount() {
+        assertEquals("select 1", contador.inspect("select 1"));
+
+        assertNull(ContadorConsultasSql.finalizar());
+    }
+
+    @Test
+    void forma_ShouldFoldParameterListsOfAnySize() {
+        assertEquals(ContadorConsultasSql.forma("select x from t where id in (?)"),
+                ContadorConsultasSql.forma("select x from t where id in (?, ?, ?)"));
+    }
+}
@@ -1,11 +1,25 @@
 package com.techlab.picadito.controller;
 
 import com.techlab.picadito.dto.EstadisticasDTO;
+import com.techlab.picadito.dto.EstadoSuscriptorEventosDTO;
+import com.techlab.picadito.dto.GeneracionEquiposLoteDTO;
+import com.techlab.picadito.dto.MetricasProcesadorReservasDTO;
+import com.techlab.picadito.dto.MetricasCompactacionAlertasDTO;
+import com.techlab.picadito.dto.MetricasRetencionAlertasDTO;
+import com.techlab.picadito.dto.MetricasTrabajosDTO;
+import com.techlab.picadito.dto.MetricasWebhooksDTO;
 import com.techlab.picadito.dto.PartidoResponseDTO;
 import com.techlab.picadito.dto.ReporteDTO;
 import com.techlab.picadito.service.AdminService;
+import com.techlab.picadito.service.CompactacionAlertasService;
+import com.techlab.picadito.service.DespachadorEventosService;
+import com.techlab.picadito.service.EntregaWebhooksService;
+import com.techlab.picadito.service.EquipoService;
 import com.techlab.picadito.service.EstadisticasService;
+import com.techlab.picadito.service.ProcesadorReservasService;
+import com.techlab.picadito.service.ProcesadorTrabajosService;
 import com.techlab.picadito.service.ReporteService;
+import com.techlab.picadito.service.RetencionAlertasService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,8 +35,10 @@ import java.util.List;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AdminController.class)
@@ -43,6 +59,34 @@ class AdminControllerTest {
     @SuppressWarnings("removal")
     private ReporteService reporteService;
 
+    @MockBean
+    @SuppressWarnings("removal")
+    private EquipoService equipoService;
+
+    @MockBean
+    @SuppressWarnings("removal")
+    private ProcesadorReservasService procesadorReservasService;
+
+    @MockBean
+    @SuppressWarnings("removal")
+    private RetencionAlertasService retencionAlertasService;
+
+    @MockBean
+    @SuppressWarnings("removal")
+    private CompactacionAlertasService compactacionAlertasService;
+
+    @MockBean
+    @SuppressWarnings("removal")
+    private DespachadorEventosService despachadorEventosService;
+
+    @MockBean
+    @SuppressWarnings("removal")
+    private EntregaWebhooksService entregaWebhooksService;
+
+    @MockBean
+    @SuppressWarnings("removal")
+    private ProcesadorTrabajosService procesadorTrabajosService;
+
     private EstadisticasDTO estadisticasDTO;
     private ReporteDTO reporteDTO;
 
@@ -102,5 +146,104 @@ class AdminControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(jsonPath("$.tipoReporte").value("VENTAS"));
     }
-}
 
+    @Test
+    void generarEquiposEnLote_ShouldReturnSummary() throws Exception {
+        GeneracionEquiposLoteDTO resumen = new GeneracionEquiposLoteDTO();
+        resumen.setPartidosProcesados(3);
+        resumen.setEquiposCreados(6);
+        when(equipoService.generarEquiposEnLote(any(LocalDateTime.class), any(LocalDateTime.class), eq(2))).thenReturn(resumen);
+
+        mockMvc.perform(post("/api/admin/equipos/generar")
+                        .param("fechaInicio", "2030-06-01T00:00:00")
+                        .param("fechaFin", "2030-06-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.partidosProcesados").value(3))
+                .andExpect(jsonPath("$.equiposCreados").value(6));
+    }
+
+    @Test
+    void ejecutarProcesadorReservas_ShouldReturnMetrics() throws Exception {
+        MetricasProcesadorReservasDTO metricas = new MetricasProcesadorReservasDTO();
+        metricas.setEvaluadasUltima(40);
+        metricas.setActualizadasUltima(5);
+        metricas.setLagMaximoSegundos(30L);
+        when(procesadorReservasService.procesar()).thenReturn(metricas);
+
+        mockMvc.perform(post("/api/admin/reservas/procesador/ejecutar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.evaluadasUltima").value(40))
+                .andExpect(jsonPath("$.actualizadasUltima").value(5))
+                .andExpect(jsonPath("$.lagMaximoSegundos").value(30));
+    }
+
+    @Test
+    void ejecutarRetencionAlertas_WithDryRun_ShouldReturnWhatWouldBeDeleted() throws Exception {
+        MetricasRetencionAlertasDTO metricas = new MetricasRetencionAlertasDTO();
+        metricas.setSimulacionUltima(true);
+        metricas.setAlertasUltima(1200L);
+        metricas.setLotesUltima(3);
+        when(retencionAlertasService.ejecutar(true)).thenReturn(metricas);
+
+        mockMvc.perform(post("/api/admin/alertas/retencion/ejecutar").param("simulacion", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.simulacionUltima").value(true))
+                .andExpect(jsonPath("$.alertasUltima").value(1200))
+                .andExpect(jsonPath("$.lotesUltima").value(3));
+    }
+
+    @Test
+    void ejecutarCompactacionAlertas_ShouldReturnRunSummary() throws Exception {
+        MetricasCompactacionAlertasDTO metricas = new MetricasCompactacionAlertasDTO();
+        metricas.setUsuariosUltima(40);
+        metricas.setAlertasUltima(3500L);
+        metricas.setResumenesUltima(210L);
+        when(compactacionAlertasService.ejecutar()).thenReturn(metricas);
+
+        mockMvc.perform(post("/api/admin/alertas/compactacion/ejecutar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.usuariosUltima").value(40))
+                .andExpect(jsonPath("$.alertasUltima").value(3500))
+                .andExpect(jsonPath("$.resumenesUltima").value(210));
+    }
+
+    @Test
+    void obtenerEstadoEventos_ShouldReturnPendingPerSubscriber() throws Exception {
+        EstadoSuscriptorEventosDTO estado = new EstadoSuscriptorEventosDTO();
+        estado.setSuscriptor("alertas");
+        estado.setUltimoEventoId(40L);
+        estado.setPendientes(2L);
+        when(despachadorEventosService.obtenerEstado()).thenReturn(List.of(estado));
+
+        mockMvc.perform(get("/api/admin/eventos/suscriptores"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].suscriptor").value("alertas"))
+                .andExpect(jsonPath("$[0].pendientes").value(2));
+    }
+
+    @Test
+    void obtenerMetricasWebhooks_ShouldReturnQueueState() throws Exception {
+        MetricasWebhooksDTO metricas = new MetricasWebhooksDTO();
+        metricas.setEnCola(12);
+        metricas.setDestinosEnReintento(1);
+        when(entregaWebhooksService.obtenerMetricas()).thenReturn(metricas);
+
+        mockMvc.perform(get("/api/admin/webhooks/metricas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enCola").value(12))
+                .andExpect(jsonPath("$.destinosEnReintento").value(1));
+    }
+
+    @Test
+    void obtenerMetricasTrabajos_ShouldReturnQueueState() throws Exception {
+        MetricasTrabajosDTO metricas = new MetricasTrabajosDTO();
+        metricas.setNodo("1@host");
+        metricas.setEnEjecucion(3);
+        when(procesadorTrabajosService.obtenerMetricas()).thenReturn(metricas);
+
+        mockMvc.perform(get("/api/admin/trabajos/metricas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nodo").value("1@host"))
+                .andExpect(jsonPath("$.enEjecucion").value(3));
+    }
+}
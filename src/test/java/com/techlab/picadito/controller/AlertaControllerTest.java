@@ -3,8 +3,10 @@ package com.techlab.picadito.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.techlab.picadito.dto.AlertaDTO;
 import com.techlab.picadito.dto.AlertaResponseDTO;
+import com.techlab.picadito.dto.PaginaAlertasDTO;
 import com.techlab.picadito.model.TipoAlerta;
 import com.techlab.picadito.service.AlertaService;
+import com.techlab.picadito.service.NotificacionesTiempoRealService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +14,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -32,6 +35,10 @@ class AlertaControllerTest {
     @SuppressWarnings("removal")
     private AlertaService alertaService;
 
+    @MockBean
+    @SuppressWarnings("removal")
+    private NotificacionesTiempoRealService notificacionesTiempoReal;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -59,15 +66,26 @@ class AlertaControllerTest {
     @Test
     void obtenerPorUsuario_ShouldReturnListOfAlertas() throws Exception {
         List<AlertaResponseDTO> alertas = Arrays.asList(alertaResponse);
-        when(alertaService.obtenerPorUsuario(1L)).thenReturn(alertas);
+        when(alertaService.obtenerPorUsuario(1L, null, 50)).thenReturn(new PaginaAlertasDTO(alertas, "abc"));
 
         mockMvc.perform(get("/api/alertas/usuario/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header().string("X-Next-Cursor", "abc"))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].tipo").value("CUPOS_BAJOS"));
     }
 
+    @Test
+    void obtenerPorUsuario_OnLastPage_ShouldOmitCursorHeader() throws Exception {
+        when(alertaService.obtenerPorUsuario(1L, "abc", 20)).thenReturn(new PaginaAlertasDTO(List.of(alertaResponse), null));
+
+        mockMvc.perform(get("/api/alertas/usuario/1").param("cursor", "abc").param("limite", "20"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
     @Test
     void obtenerNoLeidasPorUsuario_ShouldReturnListOfUnreadAlertas() throws Exception {
         List<AlertaResponseDTO> alertas = Arrays.asList(alertaResponse);
@@ -79,6 +97,25 @@ class AlertaControllerTest {
                 .andExpect(jsonPath("$[0].leida").value(false));
     }
 
+    @Test
+    void contarNoLeidas_ShouldReturnCount() throws Exception {
+        when(alertaService.contarNoLeidas(1L)).thenReturn(4L);
+
+        mockMvc.perform(get("/api/alertas/usuario/1/no-leidas/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("4"));
+    }
+
+    @Test
+    void marcarComoLeida_WithUsuario_ShouldMarkBroadcastForThatUser() throws Exception {
+        alertaResponse.setLeida(true);
+        when(alertaService.marcarComoLeida(1L, 3L)).thenReturn(alertaResponse);
+
+        mockMvc.perform(put("/api/alertas/1/marcar-leida").param("usuarioId", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.leida").value(true));
+    }
+
     @Test
     @SuppressWarnings("null")
     void crear_WithValidData_ShouldReturnCreated() throws Exception {
@@ -96,7 +133,7 @@ class AlertaControllerTest {
     @Test
     void marcarComoLeida_ShouldReturnUpdatedAlerta() throws Exception {
         alertaResponse.setLeida(true);
-        when(alertaService.marcarComoLeida(1L)).thenReturn(alertaResponse);
+        when(alertaService.marcarComoLeida(1L, null)).thenReturn(alertaResponse);
 
         mockMvc.perform(put("/api/alertas/1/marcar-leida"))
                 .andExpect(status().isOk())
@@ -104,6 +141,17 @@ class AlertaControllerTest {
                 .andExpect(jsonPath("$.leida").value(true));
     }
 
+    @Test
+    void suscribir_ShouldOpenEventStreamWithLastEventId() throws Exception {
+        when(notificacionesTiempoReal.suscribirUsuario(1L, "abc-7")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/alertas/usuario/1/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "abc-7"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
+
     @Test
     void eliminar_WithValidId_ShouldReturnNoContent() throws Exception {
         mockMvc.perform(delete("/api/alertas/1"))
@@ -0,0 +1,83 @@
+package com.techlab.picadito.controller;
+
+import com.techlab.picadito.dto.ConsultaAnaliticaDTO;
+import com.techlab.picadito.dto.ResultadoAnaliticoDTO;
+import com.techlab.picadito.exception.ValidationException;
+import com.techlab.picadito.service.AnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AnalyticsController.class)
+class AnalyticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    @SuppressWarnings("removal")
+    private AnalyticsService analyticsService;
+
+    @Test
+    void consultar_ShouldReturnGroupedRows() throws Exception {
+        ResultadoAnaliticoDTO.Fila fila = new ResultadoAnaliticoDTO.Fila();
+        fila.getGrupo().put(ConsultaAnaliticaDTO.Dimension.SEDE, "Sede Norte");
+        fila.getValores().put(ConsultaAnaliticaDTO.Metrica.INGRESOS, 300.0);
+        ResultadoAnaliticoDTO resultado = new ResultadoAnaliticoDTO();
+        resultado.setHecho(ConsultaAnaliticaDTO.Hecho.RESERVAS);
+        resultado.setFilas(List.of(fila));
+        when(analyticsService.consultar(any(ConsultaAnaliticaDTO.class))).thenReturn(resultado);
+
+        mockMvc.perform(post("/api/admin/analytics/consulta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"hecho\":\"RESERVAS\",\"agruparPor\":[\"SEDE\"],\"metricas\":[\"INGRESOS\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filas[0].grupo.SEDE").value("Sede Norte"))
+                .andExpect(jsonPath("$.filas[0].valores.INGRESOS").value(300.0));
+    }
+
+    @Test
+    void consultar_WithoutMetrics_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/admin/analytics/consulta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"hecho\":\"PARTIDOS\",\"metricas\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(analyticsService, never()).consultar(any());
+    }
+
+    @Test
+    void consultar_WithInvalidCombination_ShouldReturnBadRequest() throws Exception {
+        when(analyticsService.consultar(any(ConsultaAnaliticaDTO.class)))
+                .thenThrow(new ValidationException("La métrica INGRESOS no está disponible para PARTIDOS"));
+
+        mockMvc.perform(post("/api/admin/analytics/consulta")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"hecho\":\"PARTIDOS\",\"metricas\":[\"INGRESOS\"]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void obtenerEstado_ShouldReturnSnapshotInfo() throws Exception {
+        when(analyticsService.obtenerEstado()).thenReturn(Map.of("construido", true, "version", 3L));
+
+        mockMvc.perform(get("/api/admin/analytics/estado"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.construido").value(true))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+}
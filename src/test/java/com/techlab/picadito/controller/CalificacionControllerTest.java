@@ -3,6 +3,8 @@ package com.techlab.picadito.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.techlab.picadito.dto.CalificacionDTO;
 import com.techlab.picadito.dto.CalificacionResponseDTO;
+import com.techlab.picadito.dto.ResumenCalificacionesDTO;
+import com.techlab.picadito.model.AgregadoCalificacion.TipoAgregado;
 import com.techlab.picadito.service.CalificacionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +17,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -92,6 +95,30 @@ class CalificacionControllerTest {
                 .andExpect(jsonPath("$").value(4.5));
     }
 
+    @Test
+    void obtenerResumenPorSede_ShouldReturnDistribution() throws Exception {
+        ResumenCalificacionesDTO resumen = new ResumenCalificacionesDTO("SEDE", "1", "Sede Norte", 4L, 4.25, 4.1,
+                Map.of(5, 3L, 2, 1L), null);
+        when(calificacionService.obtenerResumen(TipoAgregado.SEDE, "1")).thenReturn(resumen);
+
+        mockMvc.perform(get("/api/calificaciones/sede/1/distribucion"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.promedio").value(4.25))
+                .andExpect(jsonPath("$.distribucion.5").value(3));
+    }
+
+    @Test
+    void obtenerRankingCreadores_ShouldUseLimit() throws Exception {
+        ResumenCalificacionesDTO resumen = new ResumenCalificacionesDTO("CREADOR", "Ana", "Ana", 10L, 4.8, 4.5,
+                Map.of(), 1);
+        when(calificacionService.obtenerRanking(TipoAgregado.CREADOR, 5)).thenReturn(List.of(resumen));
+
+        mockMvc.perform(get("/api/calificaciones/ranking/creadores").param("limite", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nombre").value("Ana"))
+                .andExpect(jsonPath("$[0].posicion").value(1));
+    }
+
     @Test
     void obtenerPorId_WithValidId_ShouldReturnCalificacion() throws Exception {
         when(calificacionService.obtenerPorId(1L)).thenReturn(calificacionResponse);
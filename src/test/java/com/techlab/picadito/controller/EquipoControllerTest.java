@@ -1,6 +1,8 @@
 package com.techlab.picadito.controller;
 
 import com.techlab.picadito.dto.EquipoResponseDTO;
+import com.techlab.picadito.dto.ResultadoPartidoDTO;
+import com.techlab.picadito.exception.ValidationException;
 import com.techlab.picadito.service.EquipoService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +15,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -47,7 +51,7 @@ class EquipoControllerTest {
         equipo2.setCantidadParticipantes(11);
 
         List<EquipoResponseDTO> equipos = Arrays.asList(equipoResponse, equipo2);
-        when(equipoService.generarEquiposAutomaticos(1L)).thenReturn(equipos);
+        when(equipoService.generarEquiposAutomaticos(1L, 2)).thenReturn(equipos);
 
         mockMvc.perform(post("/api/equipos/partido/1/generar"))
                 .andExpect(status().isOk())
@@ -56,6 +60,41 @@ class EquipoControllerTest {
                 .andExpect(jsonPath("$[0].nombre").value("Equipo A"));
     }
 
+    @Test
+    void generarEquiposAutomaticos_WithCantidadEquipos_ShouldPassItToService() throws Exception {
+        equipoResponse.setPuntaje(12.5);
+        equipoResponse.setIndiceBalance(0.96);
+        when(equipoService.generarEquiposAutomaticos(1L, 3)).thenReturn(List.of(equipoResponse));
+
+        mockMvc.perform(post("/api/equipos/partido/1/generar").param("equipos", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].puntaje").value(12.5))
+                .andExpect(jsonPath("$[0].indiceBalance").value(0.96));
+    }
+
+    @Test
+    void registrarResultado_ShouldReturnEquiposWithGoles() throws Exception {
+        equipoResponse.setGoles(4);
+        when(equipoService.registrarResultado(eq(1L), any(ResultadoPartidoDTO.class))).thenReturn(List.of(equipoResponse));
+
+        mockMvc.perform(post("/api/equipos/partido/1/resultado")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"goles\": {\"1\": 4, \"2\": 2}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].goles").value(4));
+    }
+
+    @Test
+    void registrarResultado_WithNegativeGoles_ShouldReturnBadRequest() throws Exception {
+        when(equipoService.registrarResultado(eq(1L), any(ResultadoPartidoDTO.class)))
+                .thenThrow(new ValidationException("Los goles no pueden ser nulos ni negativos"));
+
+        mockMvc.perform(post("/api/equipos/partido/1/resultado")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"goles\": {\"1\": -1, \"2\": 2}}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void obtenerEquiposPorPartido_ShouldReturnListOfEquipos() throws Exception {
         List<EquipoResponseDTO> equipos = Arrays.asList(equipoResponse);
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.techlab.picadito.dto.PartidoDTO;
 import com.techlab.picadito.dto.PartidoResponseDTO;
 import com.techlab.picadito.model.EstadoPartido;
+import com.techlab.picadito.service.NotificacionesTiempoRealService;
 import com.techlab.picadito.service.PartidoService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +13,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -34,6 +36,10 @@ class PartidoControllerTest {
     @SuppressWarnings("removal")
     private PartidoService partidoService;
 
+    @MockBean
+    @SuppressWarnings("removal")
+    private NotificacionesTiempoRealService notificacionesTiempoReal;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -129,6 +135,17 @@ class PartidoControllerTest {
                 .andExpect(jsonPath("$.id").value(1));
     }
 
+    @Test
+    void cancelarPartido_WithValidId_ShouldReturnPartido() throws Exception {
+        when(partidoService.cancelarPartido(1L)).thenReturn(partidoResponse);
+
+        mockMvc.perform(post("/api/partidos/1/cancelar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+
+        verify(partidoService).cancelarPartido(1L);
+    }
+
     @Test
     void eliminarPartido_WithValidId_ShouldReturnNoContent() throws Exception {
         mockMvc.perform(delete("/api/partidos/1"))
@@ -137,6 +154,21 @@ class PartidoControllerTest {
         verify(partidoService).eliminarPartido(1L);
     }
 
+    @Test
+    void suscribirCupos_ShouldOpenEventStream() throws Exception {
+        when(notificacionesTiempoReal.suscribirPartido(1L, null)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/partidos/1/cupos/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void suscribirCupos_WithInvalidId_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/partidos/invalid/cupos/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void eliminarPartido_WithInvalidId_ShouldReturnBadRequest() throws Exception {
         mockMvc.perform(delete("/api/partidos/invalid"))
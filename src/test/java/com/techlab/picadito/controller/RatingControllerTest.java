@@ -0,0 +1,54 @@
+package com.techlab.picadito.controller;
+
+import com.techlab.picadito.dto.RatingJugadorDTO;
+import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.exception.ValidationException;
+import com.techlab.picadito.service.RatingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(RatingController.class)
+class RatingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    @SuppressWarnings("removal")
+    private RatingService ratingService;
+
+    @Test
+    void obtenerRanking_ShouldUseDefaultLimit() throws Exception {
+        when(ratingService.obtenerRanking(20)).thenReturn(List.of(new RatingJugadorDTO(1, 2L, "Ana", 1712.5, 12)));
+
+        mockMvc.perform(get("/api/ratings/ranking"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nombre").value("Ana"))
+                .andExpect(jsonPath("$[0].rating").value(1712.5));
+    }
+
+    @Test
+    void obtenerRanking_WithInvalidLimit_ShouldReturnBadRequest() throws Exception {
+        when(ratingService.obtenerRanking(500)).thenThrow(new ValidationException("El límite debe estar entre 1 y 100"));
+
+        mockMvc.perform(get("/api/ratings/ranking").param("limite", "500"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void obtenerRatingUsuario_WhenMissing_ShouldReturnNotFound() throws Exception {
+        when(ratingService.obtenerRatingUsuario(9L)).thenThrow(new ResourceNotFoundException("El usuario 9 todavía no tiene rating"));
+
+        mockMvc.perform(get("/api/ratings/usuario/9"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,93 @@
+package com.techlab.picadito.controller;
+
+import com.techlab.picadito.dto.ReporteDTO;
+import com.techlab.picadito.dto.ReporteJobDTO;
+import com.techlab.picadito.model.ReporteJob;
+import com.techlab.picadito.service.ReporteJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReporteJobController.class)
+class ReporteJobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    @SuppressWarnings("removal")
+    private ReporteJobService reporteJobService;
+
+    private ReporteJobDTO jobDTO;
+
+    @BeforeEach
+    void setUp() {
+        jobDTO = new ReporteJobDTO();
+        jobDTO.setId(1L);
+        jobDTO.setTipo(ReporteJob.TipoReporte.VENTAS);
+        jobDTO.setEstado(ReporteJob.EstadoJob.PENDIENTE);
+        jobDTO.setProgreso(0);
+        jobDTO.setDesdeCache(false);
+    }
+
+    @Test
+    void solicitar_ShouldReturnAccepted() throws Exception {
+        when(reporteJobService.solicitar(eq(ReporteJob.TipoReporte.VENTAS), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(jobDTO);
+
+        mockMvc.perform(post("/api/admin/reportes/jobs")
+                        .param("tipo", "VENTAS")
+                        .param("fechaInicio", LocalDateTime.now().minusDays(30).toString())
+                        .param("fechaFin", LocalDateTime.now().toString()))
+                .andExpect(status().isAccepted())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.estado").value("PENDIENTE"));
+    }
+
+    @Test
+    void obtenerJob_ShouldReturnJob() throws Exception {
+        jobDTO.setEstado(ReporteJob.EstadoJob.EN_PROCESO);
+        jobDTO.setProgreso(10);
+        when(reporteJobService.obtenerJob(1L)).thenReturn(jobDTO);
+
+        mockMvc.perform(get("/api/admin/reportes/jobs/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.progreso").value(10));
+    }
+
+    @Test
+    void obtenerResultado_WhenCompleted_ShouldReturnReporte() throws Exception {
+        ReporteDTO reporte = new ReporteDTO();
+        reporte.setTipoReporte("VENTAS");
+        reporte.setDatos(new HashMap<>());
+        when(reporteJobService.obtenerResultado(1L)).thenReturn(Optional.of(reporte));
+
+        mockMvc.perform(get("/api/admin/reportes/jobs/1/resultado"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tipoReporte").value("VENTAS"));
+    }
+
+    @Test
+    void obtenerResultado_WhenPending_ShouldReturnAccepted() throws Exception {
+        when(reporteJobService.obtenerResultado(1L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/admin/reportes/jobs/1/resultado"))
+                .andExpect(status().isAccepted());
+    }
+}
@@ -1,6 +1,7 @@
 package com.techlab.picadito.controller;
 
 import com.techlab.picadito.dto.ReservaDTO;
+import com.techlab.picadito.model.MovimientoGasto;
 import com.techlab.picadito.model.Reserva;
 import com.techlab.picadito.service.ReservaService;
 import org.junit.jupiter.api.BeforeEach;
@@ -98,6 +99,17 @@ class ReservaControllerTest {
                 .andExpect(jsonPath("$").value(150.0));
     }
 
+    @Test
+    void obtenerMovimientos_WithValidId_ShouldReturnLedger() throws Exception {
+        MovimientoGasto movimiento = new MovimientoGasto(5L, 1L, 1L, MovimientoGasto.TipoMovimiento.CARGO, 150.0, LocalDateTime.now());
+        when(reservaService.obtenerMovimientosPorUsuario(1L)).thenReturn(List.of(movimiento));
+
+        mockMvc.perform(get("/api/reservas/usuario/1/movimientos"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].tipo").value("CARGO"))
+                .andExpect(jsonPath("$[0].monto").value(150.0));
+    }
+
     @Test
     void obtenerTotalGastado_WithInvalidId_ShouldReturnBadRequest() throws Exception {
         mockMvc.perform(get("/api/reservas/usuario/invalid/total-gastado"))
@@ -1,8 +1,12 @@
 package com.techlab.picadito.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techlab.picadito.dto.ConflictoSedeDTO;
+import com.techlab.picadito.dto.HorariosLibresDTO;
+import com.techlab.picadito.dto.OcupacionSedeDTO;
 import com.techlab.picadito.dto.SedeDTO;
 import com.techlab.picadito.dto.SedeResponseDTO;
+import com.techlab.picadito.service.AgendaSedeService;
 import com.techlab.picadito.service.SedeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +16,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -32,6 +37,10 @@ class SedeControllerTest {
     @SuppressWarnings("removal")
     private SedeService sedeService;
 
+    @MockBean
+    @SuppressWarnings("removal")
+    private AgendaSedeService agendaSedeService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -112,5 +121,43 @@ class SedeControllerTest {
         mockMvc.perform(delete("/api/sedes/1"))
                 .andExpect(status().isNoContent());
     }
-}
 
+    @Test
+    void obtenerOcupacion_ShouldReturnWeeklyMatrix() throws Exception {
+        int[][] matriz = new int[7][24];
+        matriz[0][20] = 3;
+        OcupacionSedeDTO ocupacion = new OcupacionSedeDTO(1L,
+                List.of("MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY", "SUNDAY"), matriz, 3, 3);
+        when(agendaSedeService.obtenerOcupacion(1L)).thenReturn(ocupacion);
+
+        mockMvc.perform(get("/api/sedes/1/ocupacion"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matriz[0][20]").value(3))
+                .andExpect(jsonPath("$.maximo").value(3));
+    }
+
+    @Test
+    void obtenerHorariosLibres_ShouldReturnFreeHours() throws Exception {
+        LocalDate fecha = LocalDate.of(2030, 6, 3);
+        HorariosLibresDTO horarios = new HorariosLibresDTO(1L, fecha, List.of(0, 1, 2), List.of(20));
+        when(agendaSedeService.obtenerHorariosLibres(1L, fecha)).thenReturn(horarios);
+
+        mockMvc.perform(get("/api/sedes/1/horarios-libres").param("fecha", "2030-06-03"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.horasOcupadas[0]").value(20))
+                .andExpect(jsonPath("$.horasLibres.length()").value(3));
+    }
+
+    @Test
+    void obtenerConflictos_ShouldReturnOverlappingPairs() throws Exception {
+        LocalDateTime inicio = LocalDateTime.of(2030, 6, 3, 20, 0);
+        ConflictoSedeDTO conflicto = new ConflictoSedeDTO(1L, 10L, inicio, inicio.plusMinutes(90),
+                11L, inicio.plusMinutes(60), inicio.plusMinutes(120));
+        when(agendaSedeService.obtenerConflictos(1L)).thenReturn(List.of(conflicto));
+
+        mockMvc.perform(get("/api/sedes/1/conflictos"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].partidoId").value(10))
+                .andExpect(jsonPath("$[0].otroPartidoId").value(11));
+    }
+}
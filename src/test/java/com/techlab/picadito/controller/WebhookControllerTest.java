@@ -0,0 +1,75 @@
+package com.techlab.picadito.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techlab.picadito.dto.SuscripcionWebhookDTO;
+import com.techlab.picadito.dto.SuscripcionWebhookResponseDTO;
+import com.techlab.picadito.exception.BusinessException;
+import com.techlab.picadito.service.WebhookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(WebhookController.class)
+class WebhookControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    @SuppressWarnings("removal")
+    private WebhookService webhookService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void crear_WithValidData_ShouldReturnCreated() throws Exception {
+        SuscripcionWebhookDTO dto = new SuscripcionWebhookDTO();
+        dto.setUrl("https://ejemplo.com/hook");
+        dto.setSedeId(1L);
+        SuscripcionWebhookResponseDTO respuesta = new SuscripcionWebhookResponseDTO();
+        respuesta.setId(3L);
+        respuesta.setUrl(dto.getUrl());
+        respuesta.setSedeId(1L);
+        when(webhookService.crear(any(SuscripcionWebhookDTO.class))).thenReturn(respuesta);
+
+        mockMvc.perform(post("/api/webhooks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(3))
+                .andExpect(jsonPath("$.firmada").value(false));
+    }
+
+    @Test
+    void crear_WithInvalidUrl_ShouldReturnBadRequest() throws Exception {
+        SuscripcionWebhookDTO dto = new SuscripcionWebhookDTO();
+        dto.setUrl("ftp://ejemplo.com");
+        dto.setSedeId(1L);
+
+        mockMvc.perform(post("/api/webhooks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isBadRequest());
+        verify(webhookService, never()).crear(any());
+    }
+
+    @Test
+    void reintentarFallida_WhenQueueIsFull_ShouldReturnBadRequest() throws Exception {
+        doThrow(new BusinessException("La cola de webhooks está llena")).when(webhookService).reintentarFallida(5L);
+
+        mockMvc.perform(post("/api/webhooks/fallidas/5/reintentar"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,123 @@
+package com.techlab.picadito.integration;
+
+import com.techlab.picadito.PicaditoApplication;
+import com.techlab.picadito.model.BloqueoTarea;
+import com.techlab.picadito.repository.BloqueoTareaRepository;
+import com.techlab.picadito.service.BloqueoTareasService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Dos nodos (dos contextos de la aplicación) contra la misma base H2
+ */
+class BloqueoTareasIntegrationTest {
+
+    private static ConfigurableApplicationContext nodoA;
+    private static ConfigurableApplicationContext nodoB;
+
+    @BeforeAll
+    static void iniciarNodos() {
+        nodoA = iniciar("nodo-a");
+        nodoB = iniciar("nodo-b");
+    }
+
+    @AfterAll
+    static void detenerNodos() {
+        nodoB.close();
+        nodoA.close();
+    }
+
+    @Test
+    void ejecutar_OnEachTick_ShouldRunOnExactlyOneNode() {
+        AtomicInteger ejecuciones = new AtomicInteger();
+        for (int tick = 0; tick < 10; tick++) {
+            String nombre = "tick-" + tick;
+            List<CompletableFuture<Boolean>> intentos = List.of(nodoA, nodoB, nodoA, nodoB).stream()
+                    .map(nodo -> CompletableFuture.supplyAsync(() -> servicio(nodo).ejecutar(nombre,
+                            Duration.ofMinutes(1), Duration.ofMinutes(1), ejecuciones::incrementAndGet)))
+                    .toList();
+            assertEquals(1, intentos.stream().filter(CompletableFuture::join).count());
+        }
+        assertEquals(10, ejecuciones.get());
+    }
+
+    @Test
+    void ejecutar_WhileAnotherNodeRuns_ShouldSkipAndRunAfterRelease() throws Exception {
+        CountDownLatch empezo = new CountDownLatch(1);
+        CountDownLatch terminar = new CountDownLatch(1);
+        CompletableFuture<Boolean> enA = CompletableFuture.supplyAsync(() -> servicio(nodoA).ejecutar("larga",
+                Duration.ofMillis(300), Duration.ZERO, () -> {
+                    empezo.countDown();
+                    esperar(terminar);
+                }));
+        assertTrue(empezo.await(5, TimeUnit.SECONDS));
+
+        // Más que el máximo: la concesión sigue tomada porque el nodo A la renueva
+        Thread.sleep(700);
+        assertFalse(servicio(nodoB).ejecutar("larga", Duration.ofMinutes(1), Duration.ZERO, () -> { }));
+
+        terminar.countDown();
+        assertTrue(enA.get(5, TimeUnit.SECONDS));
+        assertTrue(servicio(nodoB).ejecutar("larga", Duration.ofMinutes(1), Duration.ZERO, () -> { }));
+    }
+
+    @Test
+    void ejecutar_ShouldKeepTheLeaseForTheMinimumAfterFinishing() {
+        assertTrue(servicio(nodoA).ejecutar("minimo", Duration.ofMinutes(1), Duration.ofHours(1), () -> { }));
+
+        assertFalse(servicio(nodoB).ejecutar("minimo", Duration.ofMinutes(1), Duration.ZERO, () -> { }));
+        assertFalse(servicio(nodoA).ejecutar("minimo", Duration.ofMinutes(1), Duration.ZERO, () -> { }));
+    }
+
+    @Test
+    void ejecutar_WhenTheOwnerDied_ShouldTakeOverAfterTheMaximum() throws Exception {
+        // Concesión de un nodo que se cayó sin liberarla
+        LocalDateTime ahora = LocalDateTime.now();
+        nodoA.getBean(BloqueoTareaRepository.class)
+                .save(new BloqueoTarea("huerfana", ahora.plusNanos(300_000_000), ahora, "nodo-caido"));
+
+        assertFalse(servicio(nodoB).ejecutar("huerfana", Duration.ofMinutes(1), Duration.ZERO, () -> { }));
+        Thread.sleep(400);
+        assertTrue(servicio(nodoB).ejecutar("huerfana", Duration.ofMinutes(1), Duration.ZERO, () -> { }));
+        assertEquals("nodo-b", nodoA.getBean(BloqueoTareaRepository.class).findById("huerfana").orElseThrow().getNodo());
+    }
+
+    private static BloqueoTareasService servicio(ConfigurableApplicationContext nodo) {
+        return nodo.getBean(BloqueoTareasService.class);
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ConfigurableApplicationContext iniciar(String nodo) {
+        return new SpringApplicationBuilder(PicaditoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.profiles.active=test",
+                        "spring.datasource.url=jdbc:h2:mem:bloqueos-tareas;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "picadito.nodo.id=" + nodo)
+                .run();
+    }
+}
@@ -0,0 +1,94 @@
+package com.techlab.picadito.integration;
+
+import com.techlab.picadito.model.Alerta;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.TipoAlerta;
+import com.techlab.picadito.model.Usuario;
+import com.techlab.picadito.repository.AlertaRepository;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.UsuarioRepository;
+import com.techlab.picadito.service.AlertaService;
+import com.techlab.picadito.service.CompactacionAlertasService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compactación sobre alertas creadas por los servicios: las de reserva son personales y se
+ * pliegan; los recordatorios son del partido (los ven todos sus jugadores) y se conservan
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CompactacionAlertasIntegrationTest {
+
+    @Autowired
+    private CompactacionAlertasService compactacionAlertasService;
+
+    @Autowired
+    private AlertaService alertaService;
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PartidoRepository partidoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Usuario usuario;
+    private Partido partido;
+
+    @AfterEach
+    void limpiar() {
+        if (partido != null) {
+            jdbcTemplate.update("DELETE FROM alertas WHERE partido_id = ?", partido.getId());
+            partidoRepository.deleteById(partido.getId());
+        }
+        if (usuario != null) {
+            jdbcTemplate.update("DELETE FROM alertas WHERE usuario_id = ?", usuario.getId());
+            usuarioRepository.deleteById(usuario.getId());
+        }
+    }
+
+    @Test
+    void ejecutar_ShouldFoldReadReservaAlertsAndKeepPartidoReminders() {
+        usuario = new Usuario();
+        usuario.setNombre("Usuario Compactación");
+        usuario.setEmail("compactacion@picadito.test");
+        usuario = usuarioRepository.save(usuario);
+        partido = new Partido();
+        partido.setTitulo("Partido Compactación");
+        partido.setFechaHora(LocalDateTime.now().plusDays(1));
+        partido.setMaxJugadores(10);
+        partido.setCreadorNombre("Organizador");
+        partido = partidoRepository.save(partido);
+
+        // Como las crean el recordatorio y la confirmación de la reserva
+        alertaService.crearAlertaPartidoProximo(partido, null);
+        alertaService.crearAlertaReservaConfirmada(usuario.getId(), partido.getTitulo());
+        jdbcTemplate.update("UPDATE alertas SET leida = true, fecha_creacion = ? WHERE partido_id = ? OR usuario_id = ?",
+                LocalDateTime.now().minusDays(30), partido.getId(), usuario.getId());
+
+        compactacionAlertasService.ejecutar();
+
+        List<Alerta> delPartido = alertaRepository.findByPartidoIdAndTipo(partido.getId(), TipoAlerta.PARTIDO_PROXIMO);
+        assertEquals(1, delPartido.size());
+        List<TipoAlerta> delUsuario = alertaRepository.findAll().stream()
+                .filter(a -> a.getUsuario() != null && a.getUsuario().getId().equals(usuario.getId()))
+                .map(Alerta::getTipo)
+                .toList();
+        assertEquals(List.of(TipoAlerta.RESUMEN_DIARIO), delUsuario);
+    }
+}
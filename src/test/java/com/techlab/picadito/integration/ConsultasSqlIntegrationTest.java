@@ -0,0 +1,325 @@
+package com.techlab.picadito.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techlab.picadito.dto.PartidoDTO;
+import com.techlab.picadito.model.EntregaWebhookFallida;
+import com.techlab.picadito.model.EstadoPartido;
+import com.techlab.picadito.model.LineaReserva;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.RatingJugador;
+import com.techlab.picadito.model.Reserva;
+import com.techlab.picadito.model.Sede;
+import com.techlab.picadito.model.SuscripcionWebhook;
+import com.techlab.picadito.model.Usuario;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.service.RatingService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static com.techlab.picadito.integration.PresupuestoConsultas.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Presupuestos de sentencias SQL de los listados que convierten entidades con relaciones a DTO y
+ * de las lecturas que se sirven de memoria o de agregados: la cantidad de consultas no debe crecer
+ * con la cantidad de filas (N+1)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class ConsultasSqlIntegrationTest {
+
+    // Sentencias por request; si un cambio las supera, revisar si agrega un N+1 antes de subirlas
+    private static final int PRESUPUESTO_PARTIDOS = 5;
+    private static final int PRESUPUESTO_EQUIPOS = 2;
+    private static final int PRESUPUESTO_RESERVAS = 4;
+    private static final int PRESUPUESTO_ALERTAS = 4;
+    private static final int PRESUPUESTO_ALERTAS_NO_LEIDAS = 2;
+    private static final int PRESUPUESTO_CALIFICACIONES = 3;
+    private static final int PRESUPUESTO_DISTRIBUCION = 2;
+    private static final int PRESUPUESTO_RANKING = 1;
+    private static final int PRESUPUESTO_AGENDA_SEDE = 1;
+    private static final int PRESUPUESTO_WEBHOOKS = 1;
+    private static final int PRESUPUESTO_METRICAS_WEBHOOKS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PartidoRepository partidoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private RatingService ratingService;
+
+    private int secuencia;
+
+    @Test
+    void listarPartidos_ShouldNotGrowWithTheNumberOfPartidos() throws Exception {
+        crearPartidoConParticipantes(3);
+        crearPartidoConParticipantes(3);
+        int conDos = consultas(listar("/api/partidos"));
+
+        for (int i = 0; i < 6; i++) {
+            crearPartidoConParticipantes(3);
+        }
+        MvcResult conOcho = listar("/api/partidos");
+
+        assertEquals(conDos, consultas(conOcho));
+        maximoRepeticiones(2).match(conOcho);
+        maximoConsultas(PRESUPUESTO_PARTIDOS).match(conOcho);
+    }
+
+    @Test
+    void listarEquipos_ShouldNotGrowWithTheNumberOfParticipantes() throws Exception {
+        long chico = crearPartidoConParticipantes(2);
+        long grande = crearPartidoConParticipantes(10);
+        generarEquipos(chico);
+        generarEquipos(grande);
+
+        MvcResult conDos = listar("/api/equipos/partido/" + chico);
+        MvcResult conDiez = listar("/api/equipos/partido/" + grande);
+
+        assertEquals(consultas(conDos), consultas(conDiez));
+        maximoRepeticiones(2).match(conDiez);
+        maximoConsultas(PRESUPUESTO_EQUIPOS).match(conDiez);
+    }
+
+    @Test
+    void listarReservasDeUsuario_ShouldNotGrowWithTheNumberOfReservas() throws Exception {
+        Usuario usuario = new Usuario();
+        usuario.setNombre("Usuario Consultas");
+        usuario.setEmail("consultas@picadito.test");
+        entityManager.persist(usuario);
+        crearReserva(usuario, 2);
+        limpiarContexto();
+        int conUna = consultas(listar("/api/reservas/usuario/" + usuario.getId()));
+
+        for (int i = 0; i < 5; i++) {
+            crearReserva(usuario, 2);
+        }
+        MvcResult conSeis = listar("/api/reservas/usuario/" + usuario.getId());
+
+        assertEquals(conUna, consultas(conSeis));
+        maximoRepeticiones(2).match(conSeis);
+        maximoConsultas(PRESUPUESTO_RESERVAS).match(conSeis);
+    }
+
+    @Test
+    void listarAlertas_ShouldNotGrowWithTheNumberOfAlertas() throws Exception {
+        Usuario usuario = crearUsuario();
+        crearAlertas(usuario, 1);
+        String pagina = "/api/alertas/usuario/" + usuario.getId();
+        String noLeidas = pagina + "/no-leidas/count";
+        int conUna = consultas(listar(pagina));
+        int contarConUna = consultas(listar(noLeidas));
+
+        crearAlertas(usuario, 6);
+        MvcResult conSiete = listar(pagina);
+        MvcResult contarConSiete = listar(noLeidas);
+
+        assertEquals(conUna, consultas(conSiete));
+        assertEquals(contarConUna, consultas(contarConSiete));
+        maximoRepeticiones(2).match(conSiete);
+        maximoConsultas(PRESUPUESTO_ALERTAS).match(conSiete);
+        maximoConsultas(PRESUPUESTO_ALERTAS_NO_LEIDAS).match(contarConSiete);
+    }
+
+    @Test
+    void listarCalificaciones_ShouldNotGrowWithTheNumberOfCalificaciones() throws Exception {
+        long partidoId = crearPartidoConParticipantes(0);
+        Partido partido = partidoRepository.findById(partidoId).orElseThrow();
+        partido.setEstado(EstadoPartido.FINALIZADO);
+        calificar(partidoId, 2);
+        String url = "/api/calificaciones/partido/" + partidoId;
+        int conDos = consultas(listar(url));
+        int distribucionConDos = consultas(listar(url + "/distribucion"));
+
+        calificar(partidoId, 6);
+        MvcResult conOcho = listar(url);
+        MvcResult distribucionConOcho = listar(url + "/distribucion");
+
+        assertEquals(conDos, consultas(conOcho));
+        assertEquals(distribucionConDos, consultas(distribucionConOcho));
+        maximoRepeticiones(2).match(conOcho);
+        maximoConsultas(PRESUPUESTO_CALIFICACIONES).match(conOcho);
+        maximoConsultas(PRESUPUESTO_DISTRIBUCION).match(distribucionConOcho);
+    }
+
+    @Test
+    void rankingRatings_ShouldNotGrowWithTheNumberOfJugadores() throws Exception {
+        crearRatings(2);
+        int conDos = consultas(listar("/api/ratings/ranking"));
+
+        crearRatings(6);
+        MvcResult conOcho = listar("/api/ratings/ranking");
+
+        assertEquals(conDos, consultas(conOcho));
+        maximoConsultas(PRESUPUESTO_RANKING).match(conOcho);
+    }
+
+    @Test
+    void agendaSede_ShouldStayWithinBudget() throws Exception {
+        Sede sede = new Sede();
+        sede.setNombre("Sede Consultas");
+        entityManager.persist(sede);
+        String url = "/api/sedes/" + sede.getId();
+
+        MvcResult ocupacion = listar(url + "/ocupacion");
+        MvcResult horarios = listar(url + "/horarios-libres?fecha=" + LocalDate.now().plusDays(3));
+        MvcResult conflictos = listar(url + "/conflictos");
+
+        maximoConsultas(PRESUPUESTO_AGENDA_SEDE).match(ocupacion);
+        maximoConsultas(PRESUPUESTO_AGENDA_SEDE).match(horarios);
+        maximoConsultas(PRESUPUESTO_AGENDA_SEDE).match(conflictos);
+    }
+
+    @Test
+    void listarWebhooks_ShouldNotGrowWithTheNumberOfSuscripciones() throws Exception {
+        crearWebhooks(1);
+        int conUno = consultas(listar("/api/webhooks"));
+        int fallidasConUno = consultas(listar("/api/webhooks/fallidas"));
+
+        crearWebhooks(5);
+        MvcResult conSeis = listar("/api/webhooks");
+        MvcResult fallidasConSeis = listar("/api/webhooks/fallidas");
+        MvcResult metricas = listar("/api/admin/webhooks/metricas");
+
+        assertEquals(conUno, consultas(conSeis));
+        assertEquals(fallidasConUno, consultas(fallidasConSeis));
+        maximoConsultas(PRESUPUESTO_WEBHOOKS).match(conSeis);
+        maximoConsultas(PRESUPUESTO_WEBHOOKS).match(fallidasConSeis);
+        maximoConsultas(PRESUPUESTO_METRICAS_WEBHOOKS).match(metricas);
+    }
+
+    @AfterTransaction
+    void restaurarRatings() {
+        // Los ratings de prueba se revierten con la transacción: la copia en memoria vuelve a la base
+        ratingService.cargar();
+    }
+
+    private MvcResult listar(String url) throws Exception {
+        // Sin entidades en el contexto de persistencia, como en un request real
+        limpiarContexto();
+        return mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+    }
+
+    private long crearPartidoConParticipantes(int participantes) throws Exception {
+        PartidoDTO partido = new PartidoDTO();
+        partido.setTitulo("Partido " + (++secuencia));
+        partido.setFechaHora(LocalDateTime.now().plusDays(3).plusHours(secuencia));
+        partido.setMaxJugadores(22);
+        partido.setCreadorNombre("Creador");
+        partido.setPrecio(1000.0);
+        long id = objectMapper.readTree(mockMvc.perform(post("/api/partidos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(partido)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        for (int i = 0; i < participantes; i++) {
+            mockMvc.perform(post("/api/partidos/" + id + "/participantes")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"nombre\": \"Jugador " + i + "\", \"nivel\": \"INTERMEDIO\"}"))
+                    .andExpect(status().isCreated());
+        }
+        return id;
+    }
+
+    private void generarEquipos(long partidoId) throws Exception {
+        limpiarContexto();
+        mockMvc.perform(post("/api/equipos/partido/" + partidoId + "/generar"))
+                .andExpect(status().is2xxSuccessful());
+    }
+
+    private void crearReserva(Usuario usuario, int lineas) throws Exception {
+        Reserva reserva = new Reserva();
+        reserva.setUsuario(entityManager.getReference(Usuario.class, usuario.getId()));
+        for (int i = 0; i < lineas; i++) {
+            Partido partido = partidoRepository.findById(crearPartidoConParticipantes(0)).orElseThrow();
+            LineaReserva linea = new LineaReserva();
+            linea.setReserva(reserva);
+            linea.setPartido(partido);
+            linea.setPrecioUnitario(partido.getPrecio());
+            reserva.getLineasReserva().add(linea);
+        }
+        entityManager.persist(reserva);
+    }
+
+    private Usuario crearUsuario() {
+        Usuario usuario = new Usuario();
+        usuario.setNombre("Usuario Consultas " + (++secuencia));
+        usuario.setEmail("consultas" + secuencia + "@picadito.test");
+        entityManager.persist(usuario);
+        return usuario;
+    }
+
+    private void crearAlertas(Usuario usuario, int cantidad) throws Exception {
+        for (int i = 0; i < cantidad; i++) {
+            // Una personal con su partido y una general por vuelta
+            long partidoId = crearPartidoConParticipantes(0);
+            crearAlerta("{\"tipo\": \"PARTIDO_PROXIMO\", \"mensaje\": \"Personal\", \"usuarioId\": "
+                    + usuario.getId() + ", \"partidoId\": " + partidoId + "}");
+            crearAlerta("{\"tipo\": \"PARTIDO_COMPLETO\", \"mensaje\": \"General\", \"audiencia\": \"TODOS\", "
+                    + "\"partidoId\": " + partidoId + "}");
+        }
+    }
+
+    private void crearAlerta(String json) throws Exception {
+        mockMvc.perform(post("/api/alertas").contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isCreated());
+    }
+
+    private void calificar(long partidoId, int cantidad) throws Exception {
+        limpiarContexto();
+        for (int i = 0; i < cantidad; i++) {
+            mockMvc.perform(post("/api/calificaciones/usuario/" + crearUsuario().getId())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"partidoId\": " + partidoId + ", \"puntuacion\": " + (i % 5 + 1) + "}"))
+                    .andExpect(status().isCreated());
+        }
+    }
+
+    private void crearRatings(int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            Usuario usuario = crearUsuario();
+            entityManager.persist(new RatingJugador(usuario.getId(), 1500.0 + secuencia, 3, LocalDateTime.now()));
+        }
+        limpiarContexto();
+        ratingService.cargar();
+    }
+
+    private void crearWebhooks(int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            SuscripcionWebhook suscripcion = new SuscripcionWebhook(null, "https://consultas.test/hook/" + (++secuencia),
+                    null, null, "Creador", true, LocalDateTime.now());
+            entityManager.persist(suscripcion);
+            entityManager.persist(new EntregaWebhookFallida(null, suscripcion.getId(), suscripcion.getUrl(), "[]", 0, 8,
+                    "HTTP 500", LocalDateTime.now()));
+        }
+    }
+
+    private void limpiarContexto() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
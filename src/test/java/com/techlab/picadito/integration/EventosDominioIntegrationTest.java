@@ -0,0 +1,91 @@
+package com.techlab.picadito.integration;
+
+import com.techlab.picadito.model.EventoDominio;
+import com.techlab.picadito.model.OffsetSuscriptor;
+import com.techlab.picadito.model.TipoEventoDominio;
+import com.techlab.picadito.repository.EventoDominioRepository;
+import com.techlab.picadito.repository.OffsetSuscriptorRepository;
+import com.techlab.picadito.service.DespachadorEventosService;
+import com.techlab.picadito.service.EventosDominioService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Una transacción que publicó un evento y se revierte deja un hueco en los ids, pero no en la
+ * secuencia: los eventos confirmados después se entregan en el ciclo siguiente del despacho
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EventosDominioIntegrationTest {
+
+    // Un partido que no existe: los suscriptores lo ignoran
+    private static final long PARTIDO = 9_045L;
+
+    @Autowired
+    private EventosDominioService eventosDominioService;
+
+    @Autowired
+    private DespachadorEventosService despachador;
+
+    @Autowired
+    private EventoDominioRepository eventoDominioRepository;
+
+    @Autowired
+    private OffsetSuscriptorRepository offsetSuscriptorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void limpiar() {
+        eventoDominioRepository.deleteAll(eventosDelPartido());
+    }
+
+    @Test
+    void despachar_AfterAPublisherRollsBack_ShouldDeliverLaterEventsRightAway() throws InterruptedException {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        TransactionTemplate nueva = new TransactionTemplate(transactionManager);
+        nueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        tx.executeWithoutResult(estado -> {
+            eventosDominioService.publicar(TipoEventoDominio.PARTIDO_ACTUALIZADO, PARTIDO, null, null, "revertido");
+            // Mientras tanto otra transacción publica y confirma con un id posterior
+            nueva.executeWithoutResult(otra -> eventosDominioService.publicar(
+                    TipoEventoDominio.PARTIDO_ACTUALIZADO, PARTIDO, null, null, "confirmado"));
+            estado.setRollbackOnly();
+        });
+
+        List<EventoDominio> eventos = eventosDelPartido();
+        assertEquals(1, eventos.size());
+        EventoDominio confirmado = eventos.get(0);
+        assertEquals("confirmado", confirmado.getDetalle());
+        assertNotNull(confirmado.getSecuencia());
+        assertEquals(eventoDominioRepository.findMaxSecuencia(), confirmado.getSecuencia());
+
+        for (int i = 0; i < 20 && offset("alertas") < confirmado.getSecuencia(); i++) {
+            despachador.despachar();
+            Thread.sleep(50);
+        }
+        assertTrue(offset("alertas") >= confirmado.getSecuencia(), "Offset: " + offset("alertas"));
+        assertTrue(offset("webhooks") >= confirmado.getSecuencia(), "Offset: " + offset("webhooks"));
+    }
+
+    private List<EventoDominio> eventosDelPartido() {
+        return eventoDominioRepository.findAll().stream()
+                .filter(evento -> Long.valueOf(PARTIDO).equals(evento.getPartidoId()))
+                .toList();
+    }
+
+    private long offset(String suscriptor) {
+        return offsetSuscriptorRepository.findById(suscriptor).map(OffsetSuscriptor::getUltimoEventoId).orElse(0L);
+    }
+}
@@ -0,0 +1,96 @@
+package com.techlab.picadito.integration;
+
+import com.techlab.picadito.model.MovimientoGasto;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.Usuario;
+import com.techlab.picadito.repository.MovimientoGastoRepository;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.SaldoUsuarioRepository;
+import com.techlab.picadito.repository.UsuarioRepository;
+import com.techlab.picadito.service.LibroGastosService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Base actualizada desde una versión sin precios guardados ni libro de gastos: la migración de
+ * inicio completa los precios antes de armar el libro, así las reservas cobradas no quedan en 0
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LibroGastosIntegrationTest {
+
+    @Autowired
+    private LibroGastosService libroGastosService;
+
+    @Autowired
+    private SaldoUsuarioRepository saldoUsuarioRepository;
+
+    @Autowired
+    private MovimientoGastoRepository movimientoGastoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PartidoRepository partidoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Usuario usuario;
+    private Partido partido;
+
+    @AfterEach
+    void limpiar() {
+        jdbcTemplate.update("DELETE FROM movimientos_gasto WHERE usuario_id = ?", usuario.getId());
+        jdbcTemplate.update("DELETE FROM saldos_usuario WHERE usuario_id = ?", usuario.getId());
+        jdbcTemplate.update("DELETE FROM lineas_reserva WHERE partido_id = ?", partido.getId());
+        jdbcTemplate.update("DELETE FROM reservas WHERE usuario_id = ?", usuario.getId());
+        partidoRepository.deleteById(partido.getId());
+        usuarioRepository.deleteById(usuario.getId());
+    }
+
+    @Test
+    void inicializar_WithLegacyReservas_ShouldChargeThemAtTheirBackfilledPrice() {
+        usuario = new Usuario();
+        usuario.setNombre("Usuario Legado");
+        usuario.setEmail("legado@picadito.test");
+        usuario = usuarioRepository.save(usuario);
+        partido = new Partido();
+        partido.setTitulo("Partido Legado");
+        partido.setFechaHora(LocalDateTime.now().plusDays(2));
+        partido.setMaxJugadores(10);
+        partido.setCreadorNombre("Organizador");
+        partido.setPrecio(100.0);
+        partido = partidoRepository.save(partido);
+
+        // Filas como las dejaba la versión anterior: sin total ni precio unitario
+        jdbcTemplate.update("INSERT INTO reservas (usuario_id, estado, fecha_creacion) VALUES (?, 'CONFIRMADO', ?)",
+                usuario.getId(), LocalDateTime.now().minusDays(10));
+        Long reservaId = jdbcTemplate.queryForObject("SELECT id FROM reservas WHERE usuario_id = ?", Long.class,
+                usuario.getId());
+        jdbcTemplate.update("INSERT INTO lineas_reserva (reserva_id, partido_id, cantidad) VALUES (?, ?, 2)",
+                reservaId, partido.getId());
+        // Base sin libro de gastos
+        jdbcTemplate.update("DELETE FROM movimientos_gasto");
+        jdbcTemplate.update("DELETE FROM saldos_usuario");
+
+        libroGastosService.inicializar();
+
+        assertEquals(200.0, jdbcTemplate.queryForObject("SELECT total FROM reservas WHERE id = ?", Double.class, reservaId));
+        assertEquals(200.0, saldoUsuarioRepository.findById(usuario.getId()).orElseThrow().getTotalGastado());
+        List<MovimientoGasto> movimientos = movimientoGastoRepository.findByUsuarioIdOrderByIdDesc(usuario.getId());
+        assertEquals(1, movimientos.size());
+        assertEquals(MovimientoGasto.TipoMovimiento.CARGO, movimientos.get(0).getTipo());
+        assertEquals(200.0, movimientos.get(0).getMonto());
+    }
+}
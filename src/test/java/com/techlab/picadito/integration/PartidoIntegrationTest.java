@@ -2,7 +2,14 @@ package com.techlab.picadito.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.techlab.picadito.dto.PartidoDTO;
+import com.techlab.picadito.model.EstadoPartido;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.Sede;
 import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.SedeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +22,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -30,9 +38,18 @@ class PartidoIntegrationTest {
     @Autowired
     private PartidoRepository partidoRepository;
 
+    @Autowired
+    private SedeRepository sedeRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private PartidoDTO partidoDTO;
 
     @BeforeEach
@@ -105,5 +122,122 @@ class PartidoIntegrationTest {
         mockMvc.perform(get("/api/partidos/" + partidoId))
                 .andExpect(status().isNotFound());
     }
-}
 
+    @Test
+    void createOverlappingPartidoAtSameSede_ShouldBeRejected() throws Exception {
+        Sede sede = new Sede();
+        sede.setNombre("Sede Integración");
+        sede = sedeRepository.save(sede);
+
+        LocalDateTime inicio = LocalDateTime.now().plusDays(2).withHour(20).withMinute(0).withSecond(0).withNano(0);
+        partidoDTO.setSedeId(sede.getId());
+        partidoDTO.setFechaHora(inicio);
+        partidoDTO.setDuracionMinutos(90);
+        mockMvc.perform(post("/api/partidos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(partidoDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.duracionMinutos").value(90));
+
+        // Empieza antes de que termine el primero (20:00 - 21:30)
+        partidoDTO.setFechaHora(inicio.plusMinutes(60));
+        mockMvc.perform(post("/api/partidos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(partidoDTO)))
+                .andExpect(status().isBadRequest());
+
+        // Empieza justo cuando termina el primero
+        partidoDTO.setFechaHora(inicio.plusMinutes(90));
+        mockMvc.perform(post("/api/partidos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(partidoDTO)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void generarEquiposEnLote_ShouldReplaceEquiposOfCompletePartidos() throws Exception {
+        partidoDTO.setMaxJugadores(4);
+        String response = mockMvc.perform(post("/api/partidos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(partidoDTO)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        long partidoId = objectMapper.readTree(response).get("id").asLong();
+
+        for (int i = 0; i < 4; i++) {
+            mockMvc.perform(post("/api/partidos/" + partidoId + "/participantes")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"nombre\": \"Jugador " + i + "\", \"nivel\": \"" + (i < 2 ? "EXPERTO" : "PRINCIPIANTE") + "\"}"))
+                    .andExpect(status().isCreated());
+        }
+        // Todo el test corre en una transacción: se marca completo y se limpia el contexto de
+        // persistencia para que la generación en lote vea los participantes recién inscriptos
+        Partido partido = partidoRepository.findById(partidoId).orElseThrow();
+        partido.setEstado(EstadoPartido.COMPLETO);
+        partidoRepository.saveAndFlush(partido);
+        entityManager.clear();
+
+        String desde = partidoDTO.getFechaHora().minusHours(1).toString();
+        String hasta = partidoDTO.getFechaHora().plusHours(1).toString();
+        for (int vez = 0; vez < 2; vez++) {
+            mockMvc.perform(post("/api/admin/equipos/generar")
+                            .param("fechaInicio", desde)
+                            .param("fechaFin", hasta))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.partidosProcesados").value(1))
+                    .andExpect(jsonPath("$.equiposCreados").value(2))
+                    .andExpect(jsonPath("$.equiposReemplazados").value(vez * 2));
+        }
+
+        mockMvc.perform(get("/api/equipos/partido/" + partidoId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].cantidadParticipantes").value(2))
+                .andExpect(jsonPath("$[0].puntaje").value(5.0))
+                .andExpect(jsonPath("$[1].puntaje").value(5.0));
+    }
+
+    @Test
+    void metricas_ShouldTimeKeyMethodsAndCountRejections() throws Exception {
+        mockMvc.perform(post("/api/partidos/buscar")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/partidos/999999/participantes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\": \"Jugador\", \"nivel\": \"INTERMEDIO\"}"))
+                .andExpect(status().isNotFound());
+        double rechazosAntes = rechazos("BusinessException");
+        Sede sede = new Sede();
+        sede.setNombre("Sede Métricas");
+        partidoDTO.setSedeId(sedeRepository.save(sede).getId());
+        for (int vez = 0; vez < 2; vez++) {
+            // El segundo partido en el mismo horario y sede se rechaza por regla de negocio
+            mockMvc.perform(post("/api/partidos")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(partidoDTO)))
+                    .andExpect(status().is(vez == 0 ? 201 : 400));
+        }
+
+        assertTrue(llamadas("picadito.partidos.busqueda") >= 1);
+        // La inscripción falló (partido inexistente): se mide igual, en la serie con la excepción
+        assertTrue(llamadas("picadito.participantes.inscripcion") >= 1);
+        assertTrue(meterRegistry.get("http.server.requests").tag("uri", "/api/partidos/buscar").timer().count() >= 1);
+        assertEquals(rechazosAntes + 1, rechazos("BusinessException"));
+
+        mockMvc.perform(get("/actuator/metrics/picadito.partidos.busqueda"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("picadito.partidos.busqueda"));
+    }
+
+    private long llamadas(String timer) {
+        return meterRegistry.get(timer).timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    private double rechazos(String tipo) {
+        var contador = meterRegistry.find("picadito.rechazos").tag("tipo", tipo).counter();
+        return contador != null ? contador.count() : 0.0;
+    }
+}
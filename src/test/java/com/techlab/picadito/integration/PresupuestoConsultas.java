@@ -0,0 +1,48 @@
+package com.techlab.picadito.integration;
+
+import com.techlab.picadito.config.FiltroConsultasSql;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Presupuestos de sentencias SQL por request, a partir de los headers de {@link FiltroConsultasSql}.
+ * Si un cambio agrega consultas a un endpoint (o un N+1), el test que lo llama falla.
+ */
+final class PresupuestoConsultas {
+
+    private PresupuestoConsultas() {
+    }
+
+    /**
+     * El request no ejecutó más de {@code maximo} sentencias
+     */
+    static ResultMatcher maximoConsultas(int maximo) {
+        return resultado -> {
+            int total = consultas(resultado);
+            assertTrue(total <= maximo, "Se esperaban como mucho " + maximo + " sentencias SQL y hubo " + total);
+        };
+    }
+
+    /**
+     * Ninguna sentencia se repitió más de {@code maximo} veces en el request
+     */
+    static ResultMatcher maximoRepeticiones(int maximo) {
+        return resultado -> {
+            int repeticiones = Integer.parseInt(header(resultado, FiltroConsultasSql.HEADER_REPETICIONES));
+            assertTrue(repeticiones <= maximo, "Una sentencia SQL se repitió " + repeticiones
+                    + " veces (máximo " + maximo + "): posible N+1");
+        };
+    }
+
+    static int consultas(MvcResult resultado) {
+        return Integer.parseInt(header(resultado, FiltroConsultasSql.HEADER_TOTAL));
+    }
+
+    private static String header(MvcResult resultado, String nombre) {
+        String valor = resultado.getResponse().getHeader(nombre);
+        assertNotNull(valor, "Falta el header " + nombre);
+        return valor;
+    }
+}
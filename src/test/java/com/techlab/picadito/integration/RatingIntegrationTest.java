@@ -0,0 +1,78 @@
+package com.techlab.picadito.integration;
+
+import com.techlab.picadito.model.Equipo;
+import com.techlab.picadito.model.Nivel;
+import com.techlab.picadito.model.Participante;
+import com.techlab.picadito.model.RatingJugador;
+import com.techlab.picadito.model.Usuario;
+import com.techlab.picadito.repository.RatingJugadorRepository;
+import com.techlab.picadito.service.RatingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Los resultados se suman sobre el rating guardado: dos resultados seguidos acumulan aunque la
+ * copia en memoria no se haya actualizado, como pasa entre nodos
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RatingIntegrationTest {
+
+    private static final long GANADOR = 9_001L;
+    private static final long PERDEDOR = 9_002L;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private RatingJugadorRepository ratingJugadorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void limpiar() {
+        ratingJugadorRepository.deleteAllById(List.of(GANADOR, PERDEDOR));
+    }
+
+    @Test
+    @SuppressWarnings("null")
+    void aplicarResultado_ShouldAccumulateOnTheStoredRating() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Equipo> equipos = List.of(equipo(1, GANADOR), equipo(0, PERDEDOR));
+
+        tx.executeWithoutResult(estado -> ratingService.aplicarResultado(equipos));
+        tx.executeWithoutResult(estado -> ratingService.aplicarResultado(equipos));
+
+        RatingJugador ganador = ratingJugadorRepository.findById(GANADOR).orElseThrow();
+        RatingJugador perdedor = ratingJugadorRepository.findById(PERDEDOR).orElseThrow();
+        assertEquals(2, ganador.getPartidosJugados());
+        // Primer partido parejo: +32 con 2K; el segundo, ya favorito, suma menos
+        assertTrue(ganador.getRating() > 1375.0 + 32.0 && ganador.getRating() < 1375.0 + 64.0,
+                "Rating: " + ganador.getRating());
+        assertEquals(2 * 1375.0, ganador.getRating() + perdedor.getRating(), 1e-6);
+        assertEquals(ganador.getRating(), ratingService.obtenerRating(GANADOR), 1e-9);
+    }
+
+    private static Equipo equipo(int goles, long usuarioId) {
+        Usuario usuario = new Usuario();
+        usuario.setId(usuarioId);
+        Participante participante = new Participante();
+        participante.setNivel(Nivel.INTERMEDIO);
+        participante.setUsuario(usuario);
+        Equipo equipo = new Equipo();
+        equipo.setGoles(goles);
+        equipo.setParticipantes(new ArrayList<>(List.of(participante)));
+        return equipo;
+    }
+}
@@ -0,0 +1,77 @@
+package com.techlab.picadito.integration;
+
+import com.techlab.picadito.dto.AlertaResponseDTO;
+import com.techlab.picadito.model.Participante;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.TipoAlerta;
+import com.techlab.picadito.model.Usuario;
+import com.techlab.picadito.repository.ParticipanteRepository;
+import com.techlab.picadito.service.AlertaService;
+import com.techlab.picadito.service.PartidosSeleccionadosService;
+import com.techlab.picadito.service.ReservaService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ReservaIntegrationTest {
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private PartidosSeleccionadosService partidosSeleccionadosService;
+
+    @Autowired
+    private AlertaService alertaService;
+
+    @Autowired
+    private ParticipanteRepository participanteRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @SuppressWarnings("null")
+    void crearDesdePartidosSeleccionados_ShouldLinkTheUserSoTheyReceivePartidoAlerts() {
+        Usuario usuario = new Usuario();
+        usuario.setNombre("Usuario Reserva");
+        usuario.setEmail("reserva@picadito.test");
+        entityManager.persist(usuario);
+        Partido partido = new Partido();
+        partido.setTitulo("Partido Reservado");
+        partido.setFechaHora(LocalDateTime.now().plusDays(3));
+        partido.setMaxJugadores(10);
+        partido.setCreadorNombre("Organizador");
+        partido.setPrecio(100.0);
+        entityManager.persist(partido);
+
+        partidosSeleccionadosService.agregarPartido(usuario.getId(), partido.getId(), 2);
+        reservaService.crearDesdePartidosSeleccionados(usuario.getId());
+        // Alerta para los jugadores del partido (audiencia PARTIDO), como la de los recordatorios
+        alertaService.crearAlertaPartidoProximo(partido, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Participante> participantes = participanteRepository.findAll().stream()
+                .filter(p -> p.getPartido().getId().equals(partido.getId()))
+                .toList();
+        assertEquals(2, participantes.size());
+        // Un cupo queda a nombre del usuario y el otro es un invitado
+        assertEquals(1, participantes.stream().filter(p -> p.getUsuario() != null).count());
+
+        List<AlertaResponseDTO> alertas = alertaService.obtenerPorUsuario(usuario.getId(), null, 20).getAlertas();
+        assertTrue(alertas.stream().anyMatch(a -> a.getTipo() == TipoAlerta.PARTIDO_PROXIMO
+                && partido.getId().equals(a.getPartidoId())));
+    }
+}
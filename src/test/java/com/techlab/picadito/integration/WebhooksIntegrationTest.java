@@ -0,0 +1,111 @@
+package com.techlab.picadito.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.techlab.picadito.dto.EventoWebhookDTO;
+import com.techlab.picadito.model.SuscripcionWebhook;
+import com.techlab.picadito.model.TipoEventoDominio;
+import com.techlab.picadito.repository.EnvioWebhookPendienteRepository;
+import com.techlab.picadito.repository.SuscripcionWebhookRepository;
+import com.techlab.picadito.service.EntregaWebhooksService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Los envíos pendientes viven en la transacción de quien encola: si se revierte (como el lote del
+ * despacho de eventos que pierde el avance del offset) no queda nada para enviar
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class WebhooksIntegrationTest {
+
+    @Autowired
+    private EntregaWebhooksService entregaWebhooksService;
+
+    @Autowired
+    private SuscripcionWebhookRepository suscripcionWebhookRepository;
+
+    @Autowired
+    private EnvioWebhookPendienteRepository envioWebhookPendienteRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger recibidos = new AtomicInteger();
+    private HttpServer servidor;
+    private SuscripcionWebhook suscripcion;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/hook", intercambio -> {
+            String cuerpo = new String(intercambio.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            recibidos.addAndGet(objectMapper.readTree(cuerpo).size());
+            intercambio.sendResponseHeaders(200, -1);
+            intercambio.close();
+        });
+        servidor.start();
+        suscripcion = suscripcionWebhookRepository.save(new SuscripcionWebhook(null,
+                "http://127.0.0.1:" + servidor.getAddress().getPort() + "/hook", null, 1L, null, true,
+                LocalDateTime.now()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado ->
+                envioWebhookPendienteRepository.eliminarDeSuscripcion(suscripcion.getId()));
+        suscripcionWebhookRepository.deleteById(suscripcion.getId());
+        servidor.stop(0);
+    }
+
+    @Test
+    void encolar_ShouldKeepOnlyCommittedEventsAndDeliverThem() throws InterruptedException {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(estado -> {
+            entregaWebhooksService.encolar(List.of(suscripcion), List.of(evento(1L), evento(2L)));
+            estado.setRollbackOnly();
+        });
+        assertEquals(0, pendientes());
+
+        tx.executeWithoutResult(estado ->
+                entregaWebhooksService.encolar(List.of(suscripcion), List.of(evento(3L), evento(4L))));
+        assertEquals(2, pendientes());
+
+        for (int i = 0; i < 50 && pendientes() > 0; i++) {
+            entregaWebhooksService.enviarPendientes();
+            Thread.sleep(100);
+        }
+        assertEquals(0, pendientes());
+        assertEquals(2, recibidos.get());
+    }
+
+    private int pendientes() {
+        return envioWebhookPendienteRepository
+                .findBySuscripcionIdOrderByIdAsc(suscripcion.getId(), Pageable.unpaged()).size();
+    }
+
+    private static EventoWebhookDTO evento(Long id) {
+        EventoWebhookDTO evento = new EventoWebhookDTO();
+        evento.setEventoId(id);
+        evento.setTipo(TipoEventoDominio.PARTICIPANTE_INSCRITO);
+        evento.setPartidoId(10L);
+        return evento;
+    }
+}
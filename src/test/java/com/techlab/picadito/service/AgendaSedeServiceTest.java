@@ -0,0 +1,158 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.ConflictoSedeDTO;
+import com.techlab.picadito.dto.HorariosLibresDTO;
+import com.techlab.picadito.dto.OcupacionSedeDTO;
+import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.model.EstadoPartido;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.Sede;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.SedeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class AgendaSedeServiceTest {
+
+    @Mock
+    private PartidoRepository partidoRepository;
+
+    @Mock
+    private SedeRepository sedeRepository;
+
+    @InjectMocks
+    private AgendaSedeService agendaSedeService;
+
+    private Sede sede;
+    private Partido partido;
+    private LocalDateTime lunes20;
+
+    @BeforeEach
+    void setUp() {
+        sede = new Sede();
+        sede.setId(1L);
+        sede.setNombre("Sede Norte");
+
+        lunes20 = LocalDateTime.of(2030, 6, 3, 20, 0);
+        partido = new Partido();
+        partido.setId(10L);
+        partido.setSede(sede);
+        partido.setFechaHora(lunes20);
+        partido.setEstado(EstadoPartido.DISPONIBLE);
+    }
+
+    @Test
+    void registrar_ShouldMarkWeeklySlotAndDailyHour() {
+        when(sedeRepository.existsById(1L)).thenReturn(true);
+
+        agendaSedeService.registrar(partido);
+
+        OcupacionSedeDTO ocupacion = agendaSedeService.obtenerOcupacion(1L);
+        assertEquals(1, ocupacion.getMatriz()[0][20]);
+        assertEquals(1, ocupacion.getTotalHorasOcupadas());
+
+        HorariosLibresDTO horarios = agendaSedeService.obtenerHorariosLibres(1L, lunes20.toLocalDate());
+        assertEquals(List.of(20), horarios.getHorasOcupadas());
+        assertEquals(23, horarios.getHorasLibres().size());
+    }
+
+    @Test
+    void registrar_WhenPartidoMoves_ShouldReleasePreviousSlot() {
+        when(sedeRepository.existsById(1L)).thenReturn(true);
+        agendaSedeService.registrar(partido);
+
+        partido.setFechaHora(lunes20.plusDays(1).withHour(18));
+        agendaSedeService.registrar(partido);
+
+        OcupacionSedeDTO ocupacion = agendaSedeService.obtenerOcupacion(1L);
+        assertEquals(0, ocupacion.getMatriz()[0][20]);
+        assertEquals(1, ocupacion.getMatriz()[1][18]);
+        assertTrue(agendaSedeService.obtenerHorariosLibres(1L, lunes20.toLocalDate()).getHorasOcupadas().isEmpty());
+    }
+
+    @Test
+    void liberar_ShouldFreeSlotOnlyWhenNoOtherPartidoUsesIt() {
+        when(sedeRepository.existsById(1L)).thenReturn(true);
+        Partido otro = new Partido();
+        otro.setId(11L);
+        otro.setSede(sede);
+        otro.setFechaHora(lunes20.plusMinutes(30));
+        otro.setEstado(EstadoPartido.DISPONIBLE);
+        agendaSedeService.registrar(partido);
+        agendaSedeService.registrar(otro);
+
+        agendaSedeService.liberar(10L);
+
+        LocalDate fecha = lunes20.toLocalDate();
+        assertEquals(List.of(20, 21), agendaSedeService.obtenerHorariosLibres(1L, fecha).getHorasOcupadas());
+
+        agendaSedeService.liberar(11L);
+
+        assertTrue(agendaSedeService.obtenerHorariosLibres(1L, fecha).getHorasOcupadas().isEmpty());
+        assertEquals(0, agendaSedeService.obtenerOcupacion(1L).getMaximo());
+    }
+
+    @Test
+    void reconstruir_ShouldLoadActivePartidosFromRepository() {
+        when(partidoRepository.findTurnosActivos(EstadoPartido.CANCELADO)).thenReturn(List.of(
+                new Object[]{10L, 1L, lunes20, null},
+                new Object[]{11L, 1L, lunes20.plusWeeks(1), 120}));
+        when(sedeRepository.existsById(1L)).thenReturn(true);
+
+        agendaSedeService.reconstruir();
+
+        OcupacionSedeDTO ocupacion = agendaSedeService.obtenerOcupacion(1L);
+        assertEquals(2, ocupacion.getMatriz()[0][20]);
+        assertEquals(1, ocupacion.getMatriz()[0][21]);
+    }
+
+    @Test
+    void buscarConflicto_ShouldDetectOverlapsIgnoringOwnSlot() {
+        partido.setDuracionMinutos(90);
+        agendaSedeService.registrar(partido);
+
+        assertEquals(Optional.of(10L), agendaSedeService.buscarConflicto(1L, null, lunes20.plusMinutes(60), lunes20.plusMinutes(120)));
+        assertEquals(Optional.of(10L), agendaSedeService.buscarConflicto(1L, null, lunes20.minusMinutes(30), lunes20.plusMinutes(10)));
+        assertTrue(agendaSedeService.buscarConflicto(1L, null, lunes20.plusMinutes(90), lunes20.plusMinutes(150)).isEmpty());
+        assertTrue(agendaSedeService.buscarConflicto(1L, null, lunes20.minusMinutes(60), lunes20).isEmpty());
+        assertTrue(agendaSedeService.buscarConflicto(1L, 10L, lunes20.plusMinutes(30), lunes20.plusMinutes(90)).isEmpty());
+        assertTrue(agendaSedeService.buscarConflicto(2L, null, lunes20, lunes20.plusMinutes(60)).isEmpty());
+    }
+
+    @Test
+    void obtenerConflictos_ShouldListOverlappingPairs() {
+        when(partidoRepository.findTurnosActivos(EstadoPartido.CANCELADO)).thenReturn(List.of(
+                new Object[]{10L, 1L, lunes20, 90},
+                new Object[]{11L, 1L, lunes20.plusMinutes(60), 60},
+                new Object[]{12L, 1L, lunes20.plusMinutes(120), 60}));
+        when(sedeRepository.existsById(1L)).thenReturn(true);
+        agendaSedeService.reconstruir();
+
+        List<ConflictoSedeDTO> conflictos = agendaSedeService.obtenerConflictos(1L);
+
+        assertEquals(1, conflictos.size());
+        assertEquals(10L, conflictos.get(0).getPartidoId());
+        assertEquals(11L, conflictos.get(0).getOtroPartidoId());
+    }
+
+    @Test
+    void obtenerOcupacion_WithInvalidSede_ShouldThrowException() {
+        when(sedeRepository.existsById(999L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> agendaSedeService.obtenerOcupacion(999L));
+    }
+}
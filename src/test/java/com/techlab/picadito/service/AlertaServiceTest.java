@@ -2,10 +2,14 @@ package com.techlab.picadito.service;
 
 import com.techlab.picadito.dto.AlertaDTO;
 import com.techlab.picadito.dto.AlertaResponseDTO;
+import com.techlab.picadito.dto.PaginaAlertasDTO;
 import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.exception.ValidationException;
 import com.techlab.picadito.model.Alerta;
+import com.techlab.picadito.model.Alerta.Audiencia;
 import com.techlab.picadito.model.Partido;
 import com.techlab.picadito.model.TipoAlerta;
+import com.techlab.picadito.model.TipoEventoDominio;
 import com.techlab.picadito.model.Usuario;
 import com.techlab.picadito.repository.AlertaRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,14 +18,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +44,18 @@ class AlertaServiceTest {
     @Mock
     private PartidoService partidoService;
 
+    @Mock
+    private CategoriaService categoriaService;
+
+    @Mock
+    private LecturaAlertasService lecturaAlertasService;
+
+    @Mock
+    private CoalescedorAlertas coalescedorAlertas;
+
+    @Mock
+    private EventosDominioService eventosDominioService;
+
     @InjectMocks
     private AlertaService alertaService;
 
@@ -71,27 +90,86 @@ class AlertaServiceTest {
     }
 
     @Test
-    void obtenerPorUsuario_WithValidId_ShouldReturnList() {
-        List<Alerta> alertas = Arrays.asList(alerta);
-        when(alertaRepository.findByUsuarioIdOrderByFechaCreacionDesc(1L)).thenReturn(alertas);
+    void obtenerPorUsuario_ShouldMergePersonalAndBroadcastByDate() {
+        LocalDateTime base = LocalDateTime.of(2026, 5, 1, 12, 0);
+        Alerta personalNueva = alerta(10L, base.plusMinutes(30), Audiencia.USUARIO);
+        Alerta personalVieja = alerta(4L, base, Audiencia.USUARIO);
+        Alerta general = alerta(7L, base.plusMinutes(10), Audiencia.TODOS);
+        Alerta generalMismaFecha = alerta(5L, base, Audiencia.PARTIDO);
+        when(alertaRepository.findPersonalesAntesDe(eq(1L), any(LocalDateTime.class), eq(Long.MAX_VALUE), any(Pageable.class)))
+                .thenReturn(List.of(personalNueva, personalVieja));
+        when(alertaRepository.findGeneralesAntesDe(eq(1L), eq(Audiencia.TODOS), eq(Audiencia.PARTIDO), eq(Audiencia.CATEGORIA),
+                any(LocalDateTime.class), eq(Long.MAX_VALUE), any(Pageable.class)))
+                .thenReturn(List.of(general, generalMismaFecha));
+
+        PaginaAlertasDTO pagina = alertaService.obtenerPorUsuario(1L, null, 3);
+
+        assertEquals(List.of(10L, 7L, 5L), pagina.getAlertas().stream().map(AlertaResponseDTO::getId).toList());
+        assertNotNull(pagina.getSiguienteCursor());
+    }
 
-        List<AlertaResponseDTO> result = alertaService.obtenerPorUsuario(1L);
+    @Test
+    void obtenerPorUsuario_WithCursor_ShouldContinueAfterLastAlerta() {
+        LocalDateTime base = LocalDateTime.of(2026, 5, 1, 12, 0);
+        when(alertaRepository.findPersonalesAntesDe(1L, LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(List.of(alerta(6L, base.plusMinutes(1), Audiencia.USUARIO), alerta(4L, base, Audiencia.USUARIO)));
+        when(alertaRepository.findGeneralesAntesDe(1L, Audiencia.TODOS, Audiencia.PARTIDO, Audiencia.CATEGORIA,
+                LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(List.of(alerta(5L, base, Audiencia.PARTIDO)));
+        String cursor = alertaService.obtenerPorUsuario(1L, null, 2).getSiguienteCursor();
+
+        when(alertaRepository.findPersonalesAntesDe(1L, base, 5L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(alerta(4L, base, Audiencia.USUARIO)));
+        when(alertaRepository.findGeneralesAntesDe(1L, Audiencia.TODOS, Audiencia.PARTIDO, Audiencia.CATEGORIA, base, 5L, PageRequest.of(0, 3)))
+                .thenReturn(List.of());
+
+        PaginaAlertasDTO pagina = alertaService.obtenerPorUsuario(1L, cursor, 2);
+
+        assertEquals(List.of(4L), pagina.getAlertas().stream().map(AlertaResponseDTO::getId).toList());
+        assertNull(pagina.getSiguienteCursor());
+    }
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(alertaRepository, times(1)).findByUsuarioIdOrderByFechaCreacionDesc(1L);
+    @Test
+    void obtenerPorUsuario_WithInvalidCursorOrLimit_ShouldThrowException() {
+        assertThrows(ValidationException.class, () -> alertaService.obtenerPorUsuario(1L, "no-es-un-cursor", 10));
+        assertThrows(ValidationException.class, () -> alertaService.obtenerPorUsuario(1L, null, 0));
+        verifyNoInteractions(alertaRepository);
     }
 
     @Test
-    void obtenerNoLeidasPorUsuario_WithValidId_ShouldReturnList() {
-        List<Alerta> alertas = Arrays.asList(alerta);
-        when(alertaRepository.findByUsuarioIdAndLeidaFalseOrderByFechaCreacionDesc(1L)).thenReturn(alertas);
+    void obtenerNoLeidasPorUsuario_ShouldSearchAboveReadWatermark() {
+        LocalDateTime base = LocalDateTime.of(2026, 5, 1, 12, 0);
+        when(lecturaAlertasService.obtenerLeidasHasta(1L)).thenReturn(20L);
+        when(alertaRepository.findPersonalesNoLeidas(1L, 20L)).thenReturn(List.of(alerta(21L, base, Audiencia.USUARIO)));
+        when(alertaRepository.findGeneralesNoLeidas(1L, Audiencia.TODOS, Audiencia.PARTIDO, Audiencia.CATEGORIA, 20L))
+                .thenReturn(List.of(alerta(25L, base.plusMinutes(5), Audiencia.TODOS)));
 
         List<AlertaResponseDTO> result = alertaService.obtenerNoLeidasPorUsuario(1L);
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(alertaRepository, times(1)).findByUsuarioIdAndLeidaFalseOrderByFechaCreacionDesc(1L);
+        assertEquals(List.of(25L, 21L), result.stream().map(AlertaResponseDTO::getId).toList());
+        assertTrue(result.stream().noneMatch(AlertaResponseDTO::getLeida));
+    }
+
+    @Test
+    void obtenerPorUsuario_ShouldReportPerUserReadState() {
+        LocalDateTime base = LocalDateTime.of(2026, 5, 1, 12, 0);
+        Alerta general = alerta(7L, base, Audiencia.TODOS);
+        when(alertaRepository.findPersonalesAntesDe(eq(1L), any(LocalDateTime.class), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(alertaRepository.findGeneralesAntesDe(eq(1L), any(), any(), any(), any(LocalDateTime.class), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(general));
+        when(lecturaAlertasService.obtenerLeidas(1L, List.of(general))).thenReturn(Set.of(7L));
+
+        PaginaAlertasDTO pagina = alertaService.obtenerPorUsuario(1L, null, 10);
+
+        assertTrue(pagina.getAlertas().get(0).getLeida());
+    }
+
+    @Test
+    void contarNoLeidas_ShouldDelegateToReadState() {
+        when(lecturaAlertasService.contarNoLeidas(1L)).thenReturn(3L);
+
+        assertEquals(3L, alertaService.contarNoLeidas(1L));
     }
 
     @Test
@@ -105,6 +183,30 @@ class AlertaServiceTest {
         assertNotNull(result);
         assertEquals(TipoAlerta.CUPOS_BAJOS, result.getTipo());
         verify(alertaRepository, times(1)).save(any(Alerta.class));
+        verify(lecturaAlertasService).registrarNueva(alerta);
+        verify(eventosDominioService).publicar(TipoEventoDominio.ALERTA_CREADA, 1L, 1L, 1L, null);
+    }
+
+    @Test
+    void crear_WithOnlyPartido_ShouldStoreSingleBroadcastAlerta() {
+        alertaDTO.setUsuarioId(null);
+        when(partidoService.obtenerPartidoEntity(1L)).thenReturn(partido);
+        when(alertaRepository.save(any(Alerta.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        AlertaResponseDTO result = alertaService.crear(alertaDTO);
+
+        assertEquals(Audiencia.PARTIDO, result.getAudiencia());
+        verify(alertaRepository, times(1)).save(any(Alerta.class));
+        verifyNoInteractions(usuarioService);
+    }
+
+    @Test
+    void crear_WithCategoriaAudienceWithoutCategoria_ShouldThrowException() {
+        alertaDTO.setUsuarioId(null);
+        alertaDTO.setAudiencia(Audiencia.CATEGORIA);
+
+        assertThrows(ValidationException.class, () -> alertaService.crear(alertaDTO));
+        verify(alertaRepository, never()).save(any(Alerta.class));
     }
 
     @Test
@@ -119,11 +221,13 @@ class AlertaServiceTest {
             partido.getParticipantes().add(p);
         } // 4 cupos disponibles (<= 5)
 
-        when(alertaRepository.save(any(Alerta.class))).thenReturn(alerta);
-
         alertaService.crearAlertaCuposBajos(partido);
 
-        verify(alertaRepository, times(1)).save(any(Alerta.class));
+        verify(coalescedorAlertas, times(1)).registrar(TipoAlerta.CUPOS_BAJOS, partido, null,
+                "El partido 'Partido Test' tiene solo 4 cupos disponibles");
+        verifyNoInteractions(partidoService);
+        // Agrupada en la alerta abierta: no hay alerta nueva que enviar
+        verifyNoInteractions(eventosDominioService);
     }
 
     @Test
@@ -141,6 +245,7 @@ class AlertaServiceTest {
         alertaService.crearAlertaCuposBajos(partido);
 
         verify(alertaRepository, never()).save(any(Alerta.class));
+        verifyNoInteractions(coalescedorAlertas);
     }
 
     @Test
@@ -169,68 +274,74 @@ class AlertaServiceTest {
         when(alertaRepository.findById(1L)).thenReturn(Optional.of(alerta));
         when(alertaRepository.save(any(Alerta.class))).thenReturn(alerta);
 
-        AlertaResponseDTO result = alertaService.marcarComoLeida(1L);
+        AlertaResponseDTO result = alertaService.marcarComoLeida(1L, null);
 
         assertNotNull(result);
         assertTrue(result.getLeida());
+        verify(lecturaAlertasService).marcarLeida(alerta, null);
         verify(alertaRepository, times(1)).save(any(Alerta.class));
     }
 
+    @Test
+    void marcarComoLeida_WithBroadcastAlerta_ShouldNotTouchSharedRow() {
+        alerta.setUsuario(null);
+        alerta.setAudiencia(Audiencia.TODOS);
+        when(alertaRepository.findById(1L)).thenReturn(Optional.of(alerta));
+
+        AlertaResponseDTO result = alertaService.marcarComoLeida(1L, 2L);
+
+        assertTrue(result.getLeida());
+        assertFalse(alerta.getLeida());
+        verify(lecturaAlertasService).marcarLeida(alerta, 2L);
+        verify(alertaRepository, never()).save(any(Alerta.class));
+    }
+
     @Test
     void marcarComoLeida_WithInvalidId_ShouldThrowException() {
         when(alertaRepository.findById(999L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
-            alertaService.marcarComoLeida(999L);
+            alertaService.marcarComoLeida(999L, null);
         });
     }
 
     @Test
     void marcarTodasComoLeidas_ShouldMarkAllAsRead() {
-        doNothing().when(alertaRepository).marcarTodasComoLeidas(1L);
-
         alertaService.marcarTodasComoLeidas(1L);
 
-        verify(alertaRepository, times(1)).marcarTodasComoLeidas(1L);
+        verify(lecturaAlertasService, times(1)).marcarTodas(1L);
+        verify(alertaRepository, never()).save(any(Alerta.class));
     }
 
     @Test
     void eliminar_WithValidId_ShouldDeleteAlerta() {
-        when(alertaRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(alertaRepository).deleteById(1L);
+        when(alertaRepository.findById(1L)).thenReturn(Optional.of(alerta));
 
         alertaService.eliminar(1L);
 
-        verify(alertaRepository, times(1)).deleteById(1L);
+        verify(lecturaAlertasService).alEliminar(alerta);
+        verify(alertaRepository, times(1)).delete(alerta);
     }
 
     @Test
     void eliminar_WithInvalidId_ShouldThrowException() {
-        when(alertaRepository.existsById(999L)).thenReturn(false);
+        when(alertaRepository.findById(999L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             alertaService.eliminar(999L);
         });
     }
 
-    @Test
-    void eliminarAlertasAntiguas_WithOldAlerts_ShouldDeleteAlerts() {
-        List<Alerta> alertasAntiguas = Arrays.asList(alerta);
-        when(alertaRepository.findAlertasAntiguas(any(LocalDateTime.class))).thenReturn(alertasAntiguas);
-        doNothing().when(alertaRepository).deleteAll(alertasAntiguas);
-
-        alertaService.eliminarAlertasAntiguas(30);
-
-        verify(alertaRepository, times(1)).deleteAll(alertasAntiguas);
-    }
-
-    @Test
-    void eliminarAlertasAntiguas_WithNoOldAlerts_ShouldNotDelete() {
-        when(alertaRepository.findAlertasAntiguas(any(LocalDateTime.class))).thenReturn(null);
-
-        alertaService.eliminarAlertasAntiguas(30);
-
-        verify(alertaRepository, never()).deleteAll(any());
+    private Alerta alerta(Long id, LocalDateTime fechaCreacion, Audiencia audiencia) {
+        Alerta nueva = new Alerta();
+        nueva.setId(id);
+        nueva.setTipo(TipoAlerta.PARTIDO_PROXIMO);
+        nueva.setMensaje("Alerta " + id);
+        nueva.setAudiencia(audiencia);
+        nueva.setFechaCreacion(fechaCreacion);
+        if (audiencia == Audiencia.USUARIO) {
+            nueva.setUsuario(usuario);
+        }
+        return nueva;
     }
 }
-
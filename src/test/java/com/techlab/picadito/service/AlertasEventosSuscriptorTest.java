@@ -0,0 +1,56 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.model.EventoDominio;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.TipoEventoDominio;
+import com.techlab.picadito.repository.PartidoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class AlertasEventosSuscriptorTest {
+
+    @Mock
+    private AlertaService alertaService;
+
+    @Mock
+    private PartidoRepository partidoRepository;
+
+    @InjectMocks
+    private AlertasEventosSuscriptor suscriptor;
+
+    @Test
+    void procesar_ReservaConfirmada_ShouldCreateTheUserAlert() {
+        suscriptor.procesar(List.of(evento(1L, TipoEventoDominio.RESERVA_CONFIRMADA, 10L, 3L, "Fútbol 5")));
+
+        verify(alertaService).crearAlertaReservaConfirmada(3L, "Fútbol 5");
+        verifyNoInteractions(partidoRepository);
+    }
+
+    @Test
+    void procesar_RepeatedChangesOfAPartido_ShouldCheckLowSeatsOnce() {
+        Partido partido = new Partido();
+        partido.setId(10L);
+        when(partidoRepository.findById(10L)).thenReturn(Optional.of(partido));
+
+        suscriptor.procesar(List.of(
+                evento(1L, TipoEventoDominio.PARTIDO_CREADO, 10L, null, "Fútbol 5"),
+                evento(2L, TipoEventoDominio.PARTIDO_ACTUALIZADO, 10L, null, "Fútbol 5")));
+
+        verify(alertaService, times(1)).crearAlertaCuposBajos(partido);
+    }
+
+    private static EventoDominio evento(Long id, TipoEventoDominio tipo, Long partidoId, Long usuarioId, String detalle) {
+        return new EventoDominio(id, tipo, partidoId, usuarioId, null, detalle, LocalDateTime.now());
+    }
+}
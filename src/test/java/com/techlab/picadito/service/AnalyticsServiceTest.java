@@ -0,0 +1,188 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.ConsultaAnaliticaDTO;
+import com.techlab.picadito.dto.ConsultaAnaliticaDTO.Dimension;
+import com.techlab.picadito.dto.ConsultaAnaliticaDTO.Hecho;
+import com.techlab.picadito.dto.ConsultaAnaliticaDTO.Metrica;
+import com.techlab.picadito.dto.ResultadoAnaliticoDTO;
+import com.techlab.picadito.exception.ValidationException;
+import com.techlab.picadito.model.EstadoPartido;
+import com.techlab.picadito.model.Reserva;
+import com.techlab.picadito.repository.ParticipanteRepository;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.ReservaRepository;
+import com.techlab.picadito.util.DiccionarioStrings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class AnalyticsServiceTest {
+
+    @Mock
+    private PartidoRepository partidoRepository;
+
+    @Mock
+    private ParticipanteRepository participanteRepository;
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @InjectMocks
+    private AnalyticsService analyticsService;
+
+    private LocalDateTime lunes;
+    private LocalDateTime martes;
+
+    @BeforeEach
+    void setUp() {
+        lunes = LocalDateTime.of(2025, 6, 2, 20, 0);
+        martes = LocalDateTime.of(2025, 6, 3, 18, 0);
+    }
+
+    private void stubSnapshotInicial() {
+        when(partidoRepository.findFilasAnaliticas(anyLong(), any())).thenReturn(List.of(
+                new Object[]{1L, "Sede Norte", "Juan", EstadoPartido.DISPONIBLE, lunes, 10, 100.0},
+                new Object[]{2L, "Sede Sur", "Ana", EstadoPartido.CANCELADO, martes, 10, 50.0},
+                new Object[]{3L, null, "Juan", EstadoPartido.COMPLETO, lunes, 4, null}));
+        when(partidoRepository.findCategoriasAnaliticas(anyLong(), any())).thenReturn(List.of(
+                new Object[]{1L, "Fútbol 5"},
+                new Object[]{1L, "Mixto"},
+                new Object[]{2L, "Fútbol 5"}));
+        when(participanteRepository.contarPorPartido()).thenReturn(List.of(
+                new Object[]{1L, 5L},
+                new Object[]{3L, 4L}));
+        when(reservaRepository.findLineasAnaliticas(anyLong(), any())).thenReturn(List.of(
+                new Object[]{10L, 100L, "a@test.com", Reserva.EstadoReserva.CONFIRMADO, lunes.minusDays(3), 1L, 2, 100.0},
+                new Object[]{11L, 101L, "b@test.com", Reserva.EstadoReserva.CANCELADO, lunes.minusDays(2), 2L, 1, 50.0},
+                new Object[]{12L, 102L, "a@test.com", Reserva.EstadoReserva.FINALIZADO, lunes.minusDays(1), 1L, 1, 100.0}));
+    }
+
+    private ConsultaAnaliticaDTO consulta(Hecho hecho, List<Dimension> agruparPor, List<Metrica> metricas) {
+        ConsultaAnaliticaDTO consulta = new ConsultaAnaliticaDTO();
+        consulta.setHecho(hecho);
+        consulta.setAgruparPor(agruparPor);
+        consulta.setMetricas(metricas);
+        return consulta;
+    }
+
+    private ResultadoAnaliticoDTO.Fila buscarFila(ResultadoAnaliticoDTO resultado, String... valores) {
+        return resultado.getFilas().stream()
+                .filter(f -> new ArrayList<>(f.getGrupo().values()).equals(List.of(valores)))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void consultar_ReservasPorSede_ShouldAggregateRevenueAndCancellations() {
+        stubSnapshotInicial();
+
+        ResultadoAnaliticoDTO resultado = analyticsService.consultar(consulta(Hecho.RESERVAS,
+                List.of(Dimension.SEDE), List.of(Metrica.INGRESOS, Metrica.CUPOS_VENDIDOS, Metrica.CANCELACIONES)));
+
+        assertEquals(3, resultado.getFilasEscaneadas());
+        assertEquals(2, resultado.getFilas().size());
+        ResultadoAnaliticoDTO.Fila norte = resultado.getFilas().get(0);
+        assertEquals("Sede Norte", norte.getGrupo().get(Dimension.SEDE));
+        assertEquals(300.0, norte.getValores().get(Metrica.INGRESOS));
+        assertEquals(3.0, norte.getValores().get(Metrica.CUPOS_VENDIDOS));
+        assertEquals(1.0, buscarFila(resultado, "Sede Sur").getValores().get(Metrica.CANCELACIONES));
+    }
+
+    @Test
+    void consultar_Ingresos_ShouldUseThePriceChargedOnTheReservaAndCountInProgressReservas() {
+        when(partidoRepository.findFilasAnaliticas(anyLong(), any())).thenReturn(List.<Object[]>of(
+                new Object[]{1L, "Sede Norte", "Juan", EstadoPartido.DISPONIBLE, lunes, 10, 120.0}));
+        when(partidoRepository.findCategoriasAnaliticas(anyLong(), any())).thenReturn(List.of());
+        when(participanteRepository.contarPorPartido()).thenReturn(List.of());
+        // El partido subió a 120 después de reservar; la línea sin precio guardado usa el del partido
+        when(reservaRepository.findLineasAnaliticas(anyLong(), any())).thenReturn(List.of(
+                new Object[]{10L, 100L, "a@test.com", Reserva.EstadoReserva.EN_PROCESO, lunes.minusDays(3), 1L, 2, 100.0},
+                new Object[]{11L, 101L, "b@test.com", Reserva.EstadoReserva.CONFIRMADO, lunes.minusDays(2), 1L, 1, null}));
+
+        ResultadoAnaliticoDTO resultado = analyticsService.consultar(consulta(Hecho.RESERVAS,
+                List.of(Dimension.SEDE), List.of(Metrica.INGRESOS, Metrica.CUPOS_VENDIDOS)));
+
+        ResultadoAnaliticoDTO.Fila norte = buscarFila(resultado, "Sede Norte");
+        assertEquals(320.0, norte.getValores().get(Metrica.INGRESOS));
+        assertEquals(3.0, norte.getValores().get(Metrica.CUPOS_VENDIDOS));
+    }
+
+    @Test
+    void consultar_PartidosPorCategoriaYHora_ShouldComputeFillRate() {
+        stubSnapshotInicial();
+
+        ResultadoAnaliticoDTO resultado = analyticsService.consultar(consulta(Hecho.PARTIDOS,
+                List.of(Dimension.CATEGORIA, Dimension.HORA), List.of(Metrica.TASA_OCUPACION, Metrica.CONTEO)));
+
+        assertEquals(4, resultado.getFilas().size());
+        assertEquals(0.5, buscarFila(resultado, "Fútbol 5", "20").getValores().get(Metrica.TASA_OCUPACION));
+        assertEquals(0.0, buscarFila(resultado, "Fútbol 5", "18").getValores().get(Metrica.TASA_OCUPACION));
+        assertEquals(0.5, buscarFila(resultado, "Mixto", "20").getValores().get(Metrica.TASA_OCUPACION));
+        assertEquals(1.0, buscarFila(resultado, DiccionarioStrings.SIN_VALOR, "20").getValores().get(Metrica.TASA_OCUPACION));
+    }
+
+    @Test
+    void consultar_WithFilters_ShouldOnlyAggregateMatchingRows() {
+        stubSnapshotInicial();
+        ConsultaAnaliticaDTO consulta = consulta(Hecho.RESERVAS,
+                List.of(Dimension.USUARIO, Dimension.DIA_SEMANA), List.of(Metrica.CONTEO, Metrica.INGRESOS));
+        consulta.setFiltros(Map.of(Dimension.CREADOR, List.of("Juan"), Dimension.DIA_SEMANA, List.of("MONDAY")));
+
+        ResultadoAnaliticoDTO resultado = analyticsService.consultar(consulta);
+
+        assertEquals(1, resultado.getFilas().size());
+        ResultadoAnaliticoDTO.Fila fila = buscarFila(resultado, "a@test.com", "MONDAY");
+        assertEquals(2.0, fila.getValores().get(Metrica.CONTEO));
+        assertEquals(300.0, fila.getValores().get(Metrica.INGRESOS));
+    }
+
+    @Test
+    void consultar_WithMetricNotAvailableForFact_ShouldThrowException() {
+        assertThrows(ValidationException.class, () -> analyticsService.consultar(consulta(Hecho.PARTIDOS,
+                List.of(Dimension.SEDE), List.of(Metrica.INGRESOS))));
+        assertThrows(ValidationException.class, () -> analyticsService.consultar(consulta(Hecho.PARTIDOS,
+                List.of(Dimension.USUARIO), List.of(Metrica.CONTEO))));
+        verifyNoInteractions(partidoRepository, reservaRepository);
+    }
+
+    @Test
+    void refrescar_ShouldApplyOnlyChangesAfterWatermarks() {
+        stubSnapshotInicial();
+        analyticsService.refrescar();
+
+        when(partidoRepository.findFilasAnaliticas(eq(3L), any())).thenReturn(List.<Object[]>of(
+                new Object[]{2L, "Sede Sur", "Ana", EstadoPartido.DISPONIBLE, martes, 10, 50.0}));
+        when(partidoRepository.findCategoriasAnaliticas(eq(3L), any())).thenReturn(List.of());
+        when(reservaRepository.findLineasAnaliticas(eq(102L), any())).thenReturn(List.<Object[]>of(
+                new Object[]{13L, 103L, "c@test.com", Reserva.EstadoReserva.CONFIRMADO, martes.minusDays(1), 2L, 2, 50.0}));
+
+        analyticsService.refrescar();
+
+        ResultadoAnaliticoDTO resultado = analyticsService.consultar(consulta(Hecho.RESERVAS,
+                List.of(Dimension.SEDE, Dimension.ESTADO_PARTIDO), List.of(Metrica.INGRESOS, Metrica.CONTEO)));
+
+        assertEquals(2L, resultado.getVersionSnapshot());
+        assertEquals(4, resultado.getFilasEscaneadas());
+        ResultadoAnaliticoDTO.Fila sur = buscarFila(resultado, "Sede Sur", "DISPONIBLE");
+        assertEquals(100.0, sur.getValores().get(Metrica.INGRESOS));
+        assertEquals(2.0, sur.getValores().get(Metrica.CONTEO));
+        // La categoría del partido modificado se reemplaza por la del refresco (ninguna)
+        ResultadoAnaliticoDTO porCategoria = analyticsService.consultar(consulta(Hecho.PARTIDOS,
+                List.of(Dimension.CATEGORIA), List.of(Metrica.CONTEO)));
+        assertEquals(1.0, buscarFila(porCategoria, "Fútbol 5").getValores().get(Metrica.CONTEO));
+    }
+}
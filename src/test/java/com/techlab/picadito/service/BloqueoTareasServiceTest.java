@@ -0,0 +1,130 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.repository.BloqueoTareaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class BloqueoTareasServiceTest {
+
+    @Mock
+    private BloqueoTareaRepository bloqueoTareaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private BloqueoTareasService bloqueoTareasService;
+
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bloqueoTareasService, "nodo", "nodo-a");
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bloqueoTareasService.detener();
+    }
+
+    @Test
+    void ejecutar_WhenLeaseIsFree_ShouldRunAndKeepItForTheMinimum() {
+        when(bloqueoTareaRepository.adquirir(eq("tarea"), eq("nodo-a"), any(), any())).thenReturn(1);
+
+        assertTrue(bloqueoTareasService.ejecutar("tarea", Duration.ofMinutes(10), Duration.ofMinutes(1),
+                ejecuciones::incrementAndGet));
+
+        assertEquals(1, ejecuciones.get());
+        ArgumentCaptor<LocalDateTime> inicio = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> hasta = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(bloqueoTareaRepository).liberar(eq("tarea"), eq("nodo-a"), inicio.capture(), hasta.capture());
+        assertEquals(inicio.getValue().plusMinutes(1), hasta.getValue());
+    }
+
+    @Test
+    void ejecutar_WhenAnotherNodeHoldsTheLease_ShouldSkipTheTask() {
+        when(bloqueoTareaRepository.adquirir(eq("tarea"), eq("nodo-a"), any(), any())).thenReturn(0);
+        when(bloqueoTareaRepository.existsById("tarea")).thenReturn(true);
+
+        assertFalse(bloqueoTareasService.ejecutar("tarea", Duration.ofMinutes(10), Duration.ZERO,
+                ejecuciones::incrementAndGet));
+
+        assertEquals(0, ejecuciones.get());
+        verify(bloqueoTareaRepository, never()).crear(anyString(), anyString(), any(), any());
+        verify(bloqueoTareaRepository, never()).liberar(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void ejecutar_FirstTime_ShouldCreateTheLeaseRow() {
+        when(bloqueoTareaRepository.adquirir(eq("tarea"), eq("nodo-a"), any(), any())).thenReturn(0);
+        when(bloqueoTareaRepository.existsById("tarea")).thenReturn(false);
+        when(bloqueoTareaRepository.crear(eq("tarea"), eq("nodo-a"), any(), any())).thenReturn(1);
+
+        assertTrue(bloqueoTareasService.ejecutar("tarea", Duration.ofMinutes(10), Duration.ZERO,
+                ejecuciones::incrementAndGet));
+
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void ejecutar_WhenAnotherNodeCreatesTheRowFirst_ShouldSkipTheTask() {
+        when(bloqueoTareaRepository.adquirir(eq("tarea"), eq("nodo-a"), any(), any())).thenReturn(0);
+        when(bloqueoTareaRepository.existsById("tarea")).thenReturn(false);
+        when(bloqueoTareaRepository.crear(eq("tarea"), eq("nodo-a"), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("clave duplicada"));
+
+        assertFalse(bloqueoTareasService.ejecutar("tarea", Duration.ofMinutes(10), Duration.ZERO,
+                ejecuciones::incrementAndGet));
+
+        assertEquals(0, ejecuciones.get());
+    }
+
+    @Test
+    void ejecutar_WhenTaskFails_ShouldStillReleaseTheLease() {
+        when(bloqueoTareaRepository.adquirir(eq("tarea"), eq("nodo-a"), any(), any())).thenReturn(1);
+
+        assertThrows(IllegalStateException.class, () -> bloqueoTareasService.ejecutar("tarea",
+                Duration.ofMinutes(10), Duration.ZERO, () -> {
+                    throw new IllegalStateException("falla");
+                }));
+
+        verify(bloqueoTareaRepository).liberar(eq("tarea"), eq("nodo-a"), any(), any());
+    }
+
+    @Test
+    void ejecutar_LongRun_ShouldRenewTheLease() throws Exception {
+        when(bloqueoTareaRepository.adquirir(eq("tarea"), eq("nodo-a"), any(), any())).thenReturn(1);
+        when(bloqueoTareaRepository.renovar(eq("tarea"), eq("nodo-a"), any(), any(), any())).thenReturn(1);
+
+        bloqueoTareasService.ejecutar("tarea", Duration.ofMillis(90), Duration.ZERO, () -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        verify(bloqueoTareaRepository, atLeast(2)).renovar(eq("tarea"), eq("nodo-a"), any(), any(), any());
+    }
+}
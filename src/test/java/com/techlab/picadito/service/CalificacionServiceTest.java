@@ -2,26 +2,37 @@ package com.techlab.picadito.service;
 
 import com.techlab.picadito.dto.CalificacionDTO;
 import com.techlab.picadito.dto.CalificacionResponseDTO;
+import com.techlab.picadito.dto.ResumenCalificacionesDTO;
 import com.techlab.picadito.exception.BusinessException;
 import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.exception.ValidationException;
+import com.techlab.picadito.model.AgregadoCalificacion;
+import com.techlab.picadito.model.AgregadoCalificacion.TipoAgregado;
 import com.techlab.picadito.model.Calificacion;
 import com.techlab.picadito.model.EstadoPartido;
 import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.Sede;
 import com.techlab.picadito.model.Usuario;
+import com.techlab.picadito.repository.AgregadoCalificacionRepository;
 import com.techlab.picadito.repository.CalificacionRepository;
+import com.techlab.picadito.repository.SedeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +48,12 @@ class CalificacionServiceTest {
     @Mock
     private PartidoService partidoService;
 
+    @Mock
+    private AgregadoCalificacionRepository agregadoCalificacionRepository;
+
+    @Mock
+    private SedeRepository sedeRepository;
+
     @InjectMocks
     private CalificacionService calificacionService;
 
@@ -81,6 +98,28 @@ class CalificacionServiceTest {
         assertNotNull(result);
         assertEquals(5, result.getPuntuacion());
         verify(calificacionRepository, times(1)).save(any(Calificacion.class));
+        verify(agregadoCalificacionRepository).incrementar(eq(TipoAgregado.PARTIDO), eq("1"), eq(5L), eq(1L),
+                eq(0L), eq(0L), eq(0L), eq(0L), eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void crear_WithoutExistingAggregates_ShouldCreateThemForPartidoCreadorAndSede() {
+        Sede sede = new Sede();
+        sede.setId(3L);
+        partido.setSede(sede);
+        partido.setCreadorNombre("Test Creator");
+        when(usuarioService.obtenerUsuarioEntity(1L)).thenReturn(usuario);
+        when(partidoService.obtenerPartidoEntity(1L)).thenReturn(partido);
+        when(calificacionRepository.existsByUsuarioIdAndPartidoId(1L, 1L)).thenReturn(false);
+        when(calificacionRepository.save(any(Calificacion.class))).thenReturn(calificacion);
+
+        calificacionService.crear(1L, calificacionDTO);
+
+        ArgumentCaptor<AgregadoCalificacion> captor = ArgumentCaptor.forClass(AgregadoCalificacion.class);
+        verify(agregadoCalificacionRepository, times(3)).saveAndFlush(captor.capture());
+        List<AgregadoCalificacion> creados = captor.getAllValues();
+        assertEquals(List.of("1", "Test Creator", "3"), creados.stream().map(AgregadoCalificacion::getClave).toList());
+        assertTrue(creados.stream().allMatch(a -> a.getCantidad() == 1L && a.getSuma() == 5L && a.getEstrellas5() == 1L));
     }
 
     @Test
@@ -119,18 +158,19 @@ class CalificacionServiceTest {
 
     @Test
     void obtenerPromedioPorPartido_WithValidId_ShouldReturnAverage() {
-        when(calificacionRepository.calcularPromedioPorPartido(1L)).thenReturn(4.5);
+        when(agregadoCalificacionRepository.findByTipoAndClave(TipoAgregado.PARTIDO, "1"))
+                .thenReturn(Optional.of(agregado(TipoAgregado.PARTIDO, "1", 9, 2)));
 
         Double result = calificacionService.obtenerPromedioPorPartido(1L);
 
         assertNotNull(result);
         assertEquals(4.5, result);
-        verify(calificacionRepository, times(1)).calcularPromedioPorPartido(1L);
+        verify(calificacionRepository, never()).findByPartidoIdOrderByFechaCreacionDesc(any());
     }
 
     @Test
     void obtenerPromedioPorPartido_WithNoCalificaciones_ShouldReturnZero() {
-        when(calificacionRepository.calcularPromedioPorPartido(1L)).thenReturn(null);
+        when(agregadoCalificacionRepository.findByTipoAndClave(TipoAgregado.PARTIDO, "1")).thenReturn(Optional.empty());
 
         Double result = calificacionService.obtenerPromedioPorPartido(1L);
 
@@ -140,7 +180,8 @@ class CalificacionServiceTest {
 
     @Test
     void obtenerPromedioPorCreador_WithValidName_ShouldReturnAverage() {
-        when(calificacionRepository.calcularPromedioPorCreador("Test Creator")).thenReturn(4.0);
+        when(agregadoCalificacionRepository.findByTipoAndClave(TipoAgregado.CREADOR, "Test Creator"))
+                .thenReturn(Optional.of(agregado(TipoAgregado.CREADOR, "Test Creator", 12, 3)));
 
         Double result = calificacionService.obtenerPromedioPorCreador("Test Creator");
 
@@ -150,7 +191,8 @@ class CalificacionServiceTest {
 
     @Test
     void obtenerPromedioPorSede_WithValidId_ShouldReturnAverage() {
-        when(calificacionRepository.calcularPromedioPorSede(1L)).thenReturn(4.2);
+        when(agregadoCalificacionRepository.findByTipoAndClave(TipoAgregado.SEDE, "1"))
+                .thenReturn(Optional.of(agregado(TipoAgregado.SEDE, "1", 21, 5)));
 
         Double result = calificacionService.obtenerPromedioPorSede(1L);
 
@@ -158,6 +200,83 @@ class CalificacionServiceTest {
         assertEquals(4.2, result);
     }
 
+    @Test
+    void obtenerResumen_ShouldReturnDistributionFromAggregate() {
+        AgregadoCalificacion agregado = agregado(TipoAgregado.PARTIDO, "1", 0, 0);
+        agregado.acumular(5, 3);
+        agregado.acumular(2, 1);
+        when(agregadoCalificacionRepository.findByTipoAndClave(TipoAgregado.PARTIDO, "1")).thenReturn(Optional.of(agregado));
+        when(agregadoCalificacionRepository.sumarTotales(TipoAgregado.PARTIDO)).thenReturn(List.<Object[]>of(new Object[]{17L, 4L}));
+
+        ResumenCalificacionesDTO resumen = calificacionService.obtenerResumen(TipoAgregado.PARTIDO, "1");
+
+        assertEquals(4L, resumen.getCantidad());
+        assertEquals(4.25, resumen.getPromedio());
+        assertEquals(3L, resumen.getDistribucion().get(5));
+        assertEquals(1L, resumen.getDistribucion().get(2));
+        assertEquals(0L, resumen.getDistribucion().get(1));
+    }
+
+    @Test
+    void obtenerRanking_ShouldPreferManyGoodRatingsOverSinglePerfectOne() {
+        // Media global 4,0 con peso previo 5: una sola calificación de 5 queda en 4,17
+        AgregadoCalificacion unaSola = agregado(TipoAgregado.SEDE, "1", 5, 1);
+        AgregadoCalificacion muchas = agregado(TipoAgregado.SEDE, "2", 470, 100);
+        when(agregadoCalificacionRepository.sumarTotales(TipoAgregado.PARTIDO)).thenReturn(List.<Object[]>of(new Object[]{800L, 200L}));
+        when(agregadoCalificacionRepository.findByTipoAndCantidadGreaterThan(TipoAgregado.SEDE, 0L)).thenReturn(List.of(unaSola, muchas));
+        Sede norte = new Sede();
+        norte.setId(2L);
+        norte.setNombre("Sede Norte");
+        when(sedeRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(norte));
+
+        List<ResumenCalificacionesDTO> ranking = calificacionService.obtenerRanking(TipoAgregado.SEDE, 10);
+
+        assertEquals(2, ranking.size());
+        assertEquals("2", ranking.get(0).getClave());
+        assertEquals("Sede Norte", ranking.get(0).getNombre());
+        assertEquals(1, ranking.get(0).getPosicion());
+        assertEquals(4.17, ranking.get(1).getPromedioBayesiano());
+    }
+
+    @Test
+    void obtenerRanking_WithInvalidLimit_ShouldThrowException() {
+        assertThrows(ValidationException.class, () -> calificacionService.obtenerRanking(TipoAgregado.SEDE, 0));
+        assertThrows(ValidationException.class, () -> calificacionService.obtenerRanking(TipoAgregado.PARTIDO, 10));
+    }
+
+    @Test
+    void verificarAgregados_WhenTotalsDiffer_ShouldRebuildFromCalificaciones() {
+        when(calificacionRepository.count()).thenReturn(3L);
+        when(agregadoCalificacionRepository.sumarTotales(TipoAgregado.PARTIDO)).thenReturn(List.<Object[]>of(new Object[]{null, null}));
+        when(calificacionRepository.contarPorPartidoYPuntuacion()).thenReturn(List.of(
+                new Object[]{"1", 5, 2L}, new Object[]{"1", 3, 1L}));
+        when(calificacionRepository.contarPorCreadorYPuntuacion()).thenReturn(List.<Object[]>of(new Object[]{"Test Creator", 5, 2L}));
+        when(calificacionRepository.contarPorSedeYPuntuacion()).thenReturn(List.of());
+
+        calificacionService.verificarAgregados();
+
+        verify(agregadoCalificacionRepository).deleteAllInBatch();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<AgregadoCalificacion>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(agregadoCalificacionRepository).saveAll(captor.capture());
+        List<AgregadoCalificacion> agregados = new ArrayList<>();
+        captor.getValue().forEach(agregados::add);
+        assertEquals(2, agregados.size());
+        assertEquals(13L, agregados.get(0).getSuma());
+        assertEquals(3L, agregados.get(0).getCantidad());
+        assertEquals(1L, agregados.get(0).getEstrellas3());
+    }
+
+    @Test
+    void verificarAgregados_WhenTotalsMatch_ShouldNotRebuild() {
+        when(calificacionRepository.count()).thenReturn(4L);
+        when(agregadoCalificacionRepository.sumarTotales(TipoAgregado.PARTIDO)).thenReturn(List.<Object[]>of(new Object[]{17L, 4L}));
+
+        calificacionService.verificarAgregados();
+
+        verify(agregadoCalificacionRepository, never()).deleteAllInBatch();
+    }
+
     @Test
     void obtenerPorId_WithValidId_ShouldReturnCalificacion() {
         when(calificacionRepository.findById(1L)).thenReturn(Optional.of(calificacion));
@@ -180,21 +299,30 @@ class CalificacionServiceTest {
 
     @Test
     void eliminar_WithValidId_ShouldDeleteCalificacion() {
-        when(calificacionRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(calificacionRepository).deleteById(1L);
+        when(calificacionRepository.findById(1L)).thenReturn(Optional.of(calificacion));
+        when(agregadoCalificacionRepository.incrementar(eq(TipoAgregado.PARTIDO), eq("1"), eq(-5L), eq(-1L),
+                eq(0L), eq(0L), eq(0L), eq(0L), eq(-1L), any(LocalDateTime.class))).thenReturn(1);
 
         calificacionService.eliminar(1L);
 
-        verify(calificacionRepository, times(1)).deleteById(1L);
+        verify(calificacionRepository, times(1)).delete(calificacion);
+        verify(agregadoCalificacionRepository, never()).saveAndFlush(any());
     }
 
     @Test
     void eliminar_WithInvalidId_ShouldThrowException() {
-        when(calificacionRepository.existsById(999L)).thenReturn(false);
+        when(calificacionRepository.findById(999L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             calificacionService.eliminar(999L);
         });
     }
+
+    private static AgregadoCalificacion agregado(TipoAgregado tipo, String clave, long suma, long cantidad) {
+        AgregadoCalificacion agregado = new AgregadoCalificacion(tipo, clave);
+        agregado.setSuma(suma);
+        agregado.setCantidad(cantidad);
+        return agregado;
+    }
 }
 
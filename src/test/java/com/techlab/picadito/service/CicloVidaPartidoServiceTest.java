@@ -0,0 +1,206 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.model.EstadoPartido;
+import com.techlab.picadito.model.Participante;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.repository.PartidoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"null", "unchecked"})
+class CicloVidaPartidoServiceTest {
+
+    @Mock
+    private PartidoRepository partidoRepository;
+
+    @Mock
+    private PartidoService partidoService;
+
+    @Mock
+    private BloqueoTareasService bloqueoTareasService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CicloVidaPartidoService cicloVidaPartidoService;
+
+    @BeforeEach
+    void setUp() {
+        // Este nodo consigue la concesión: ejecuta la tarea
+        lenient().doAnswer(inv -> {
+            inv.getArgument(3, Runnable.class).run();
+            return true;
+        }).when(bloqueoTareasService).ejecutar(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void procesarVencidos_ShouldFinishPlayedAndCancelUnderfilledPartidos() {
+        LocalDateTime ahora = LocalDateTime.now();
+        Partido jugado = partido(1L, ahora.minusHours(3), 10);
+        Partido incompleto = partido(2L, ahora.plusHours(1), 3);
+        Partido lleno = partido(3L, ahora.plusHours(1), 10);
+        Partido lejano = partido(4L, ahora.plusDays(2), 0);
+        when(partidoRepository.findHorariosPorEstados(anyCollection())).thenReturn(List.of(
+                fila(jugado), fila(incompleto), fila(lleno), fila(lejano)));
+        when(partidoRepository.findConParticipantesByIdIn(anyCollection()))
+                .thenReturn(List.of(jugado, incompleto, lleno));
+
+        cicloVidaPartidoService.reconstruir();
+        int cambios = cicloVidaPartidoService.procesarVencidos();
+
+        assertEquals(2, cambios);
+        assertEquals(1, cicloVidaPartidoService.getFinalizados());
+        assertEquals(1, cicloVidaPartidoService.getCancelados());
+        // Mismos efectos que la finalización y la cancelación manuales (reservas, recordatorios, eventos)
+        verify(partidoService).finalizarPartido(jugado);
+        verify(partidoService).aplicarCancelacion(incompleto);
+        verifyNoMoreInteractions(partidoService);
+        verify(transactionManager).commit(any());
+
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(partidoRepository).findConParticipantesByIdIn(ids.capture());
+        assertFalse(ids.getValue().contains(4L));
+
+        // Quedan el partido lleno (falta su fin de turno) y el lejano
+        assertEquals(2, cicloVidaPartidoService.cantidadProgramados());
+    }
+
+    @Test
+    void programar_WhenPartidoStartsInsideTheClosingWindow_ShouldNotCancelIt() {
+        Partido partido = partido(1L, LocalDateTime.now().plusHours(1), 0);
+        cicloVidaPartidoService.programar(partido);
+
+        assertEquals(0, cicloVidaPartidoService.procesarVencidos());
+        assertEquals(1, cicloVidaPartidoService.cantidadProgramados());
+        verifyNoInteractions(partidoRepository, partidoService);
+    }
+
+    @Test
+    void reconstruir_WhenPartidoWasCreatedInsideTheClosingWindow_ShouldNotCancelIt() {
+        LocalDateTime ahora = LocalDateTime.now();
+        Partido nuevo = partido(1L, ahora.plusHours(1), 0);
+        nuevo.setFechaCreacion(ahora.minusMinutes(10));
+        Partido viejo = partido(2L, ahora.plusHours(1), 0);
+        viejo.setFechaCreacion(ahora.minusDays(3));
+        when(partidoRepository.findHorariosPorEstados(anyCollection())).thenReturn(List.of(fila(nuevo), fila(viejo)));
+        when(partidoRepository.findConParticipantesByIdIn(anyCollection())).thenReturn(List.of(viejo));
+
+        cicloVidaPartidoService.reconstruir();
+
+        assertEquals(1, cicloVidaPartidoService.procesarVencidos());
+        verify(partidoService).aplicarCancelacion(viejo);
+        verifyNoMoreInteractions(partidoService);
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(partidoRepository).findConParticipantesByIdIn(ids.capture());
+        assertEquals(List.of(2L), List.copyOf(ids.getValue()));
+    }
+
+    @Test
+    void procesarVencidos_WhenPartidoWasRescheduled_ShouldDiscardStaleEntries() {
+        Partido partido = partido(1L, LocalDateTime.now().minusHours(3), 0);
+        cicloVidaPartidoService.programar(partido);
+
+        partido.setFechaHora(LocalDateTime.now().plusDays(1));
+        cicloVidaPartidoService.programar(partido);
+
+        assertEquals(0, cicloVidaPartidoService.procesarVencidos());
+        assertEquals(1, cicloVidaPartidoService.cantidadProgramados());
+        verifyNoInteractions(partidoRepository, transactionManager);
+    }
+
+    @Test
+    void procesarVencidos_WhenPartidoWasRemoved_ShouldSkipIt() {
+        Partido partido = partido(1L, LocalDateTime.now().minusHours(3), 0);
+        cicloVidaPartidoService.programar(partido);
+        cicloVidaPartidoService.quitar(1L);
+
+        assertEquals(0, cicloVidaPartidoService.procesarVencidos());
+        assertEquals(0, cicloVidaPartidoService.cantidadProgramados());
+        verifyNoInteractions(partidoRepository, partidoService);
+    }
+
+    @Test
+    void procesarVencidos_WhenStateChangedInDatabase_ShouldNotTouchPartido() {
+        Partido partido = partido(1L, LocalDateTime.now().minusHours(3), 0);
+        cicloVidaPartidoService.programar(partido);
+        Partido enBase = partido(1L, partido.getFechaHora(), 0);
+        enBase.setEstado(EstadoPartido.CANCELADO);
+        when(partidoRepository.findConParticipantesByIdIn(anyCollection())).thenReturn(List.of(enBase));
+
+        assertEquals(0, cicloVidaPartidoService.procesarVencidos());
+        assertEquals(EstadoPartido.CANCELADO, enBase.getEstado());
+        assertEquals(0, cicloVidaPartidoService.cantidadProgramados());
+        verifyNoInteractions(partidoService);
+    }
+
+    @Test
+    void procesarVencidos_WhenBatchFails_ShouldRequeueItsEntries() throws InterruptedException {
+        ReflectionTestUtils.setField(cicloVidaPartidoService, "esperaReintentoMs", 1L);
+        Partido partido = partido(1L, LocalDateTime.now().minusHours(3), 10);
+        cicloVidaPartidoService.programar(partido);
+        when(partidoRepository.findConParticipantesByIdIn(anyCollection()))
+                .thenThrow(new IllegalStateException("sin conexión"))
+                .thenReturn(List.of(partido));
+
+        assertEquals(0, cicloVidaPartidoService.procesarVencidos());
+        assertEquals(1, cicloVidaPartidoService.cantidadProgramados());
+
+        Thread.sleep(20);
+        assertEquals(1, cicloVidaPartidoService.procesarVencidos());
+        verify(partidoService).finalizarPartido(partido);
+    }
+
+    @Test
+    void procesarVencidos_WhenAnotherNodeHoldsTheLease_ShouldPostponeTheBatch() throws InterruptedException {
+        ReflectionTestUtils.setField(cicloVidaPartidoService, "esperaReintentoMs", 1L);
+        Partido partido = partido(1L, LocalDateTime.now().minusHours(3), 10);
+        cicloVidaPartidoService.programar(partido);
+        doReturn(false).when(bloqueoTareasService).ejecutar(eq("ciclo-vida-partidos"), any(), any(), any());
+
+        assertEquals(0, cicloVidaPartidoService.procesarVencidos());
+        verifyNoInteractions(partidoRepository, partidoService);
+
+        setUp();
+        when(partidoRepository.findConParticipantesByIdIn(anyCollection())).thenReturn(List.of(partido));
+        Thread.sleep(20);
+        assertEquals(1, cicloVidaPartidoService.procesarVencidos());
+        verify(partidoService).finalizarPartido(partido);
+    }
+
+    private static Partido partido(Long id, LocalDateTime fechaHora, int participantes) {
+        Partido partido = new Partido();
+        partido.setId(id);
+        partido.setFechaHora(fechaHora);
+        partido.setDuracionMinutos(60);
+        partido.setMaxJugadores(10);
+        List<Participante> lista = new ArrayList<>();
+        for (int i = 0; i < participantes; i++) {
+            lista.add(new Participante());
+        }
+        partido.setParticipantes(lista);
+        return partido;
+    }
+
+    private static Object[] fila(Partido partido) {
+        return new Object[]{partido.getId(), partido.getFechaHora(), partido.getDuracionMinutos(),
+                partido.getFechaCreacion()};
+    }
+}
@@ -0,0 +1,124 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.exception.BusinessException;
+import com.techlab.picadito.model.Alerta;
+import com.techlab.picadito.model.Alerta.Audiencia;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.TipoAlerta;
+import com.techlab.picadito.repository.AlertaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class CoalescedorAlertasTest {
+
+    private static final String CLAVE = "CUPOS_BAJOS:1:*";
+
+    @Mock
+    private AlertaRepository alertaRepository;
+
+    @Mock
+    private LecturaAlertasService lecturaAlertasService;
+
+    @InjectMocks
+    private CoalescedorAlertas coalescedorAlertas;
+
+    private Partido partido;
+
+    @BeforeEach
+    void setUp() {
+        partido = new Partido();
+        partido.setId(1L);
+        partido.setTitulo("Partido Test");
+    }
+
+    @Test
+    void registrar_FirstOccurrence_ShouldInsertAlertaWithKey() {
+        when(alertaRepository.findByClaveDeduplicacion(CLAVE)).thenReturn(Optional.empty());
+        when(alertaRepository.saveAndFlush(any(Alerta.class))).thenAnswer(inv -> {
+            Alerta alerta = inv.getArgument(0);
+            alerta.setId(10L);
+            return alerta;
+        });
+
+        assertNotNull(coalescedorAlertas.registrar(TipoAlerta.CUPOS_BAJOS, partido, null, "Quedan 4 cupos"));
+
+        ArgumentCaptor<Alerta> alerta = ArgumentCaptor.forClass(Alerta.class);
+        verify(alertaRepository).saveAndFlush(alerta.capture());
+        assertEquals(CLAVE, alerta.getValue().getClaveDeduplicacion());
+        assertEquals(Audiencia.PARTIDO, alerta.getValue().getAudiencia());
+        assertEquals(1, alerta.getValue().getOcurrencias());
+        verify(lecturaAlertasService).registrarNueva(alerta.getValue());
+    }
+
+    @Test
+    void registrar_RepeatedWithinWindow_ShouldUpdateInPlaceWithoutReading() {
+        when(alertaRepository.findByClaveDeduplicacion(CLAVE)).thenReturn(Optional.empty());
+        when(alertaRepository.saveAndFlush(any(Alerta.class))).thenAnswer(inv -> {
+            Alerta alerta = inv.getArgument(0);
+            alerta.setId(10L);
+            return alerta;
+        });
+        coalescedorAlertas.registrar(TipoAlerta.CUPOS_BAJOS, partido, null, "Quedan 4 cupos");
+        when(alertaRepository.acumularOcurrencia(eq(10L), eq(CLAVE), eq("Quedan 3 cupos"),
+                any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
+
+        assertNull(coalescedorAlertas.registrar(TipoAlerta.CUPOS_BAJOS, partido, null, "Quedan 3 cupos"));
+
+        verify(alertaRepository, times(1)).findByClaveDeduplicacion(CLAVE);
+        verify(alertaRepository, times(1)).saveAndFlush(any(Alerta.class));
+    }
+
+    @Test
+    void registrar_WithOpenAlertaInDatabase_ShouldAccumulateAfterRestart() {
+        Alerta abierta = new Alerta();
+        abierta.setId(7L);
+        when(alertaRepository.findByClaveDeduplicacion(CLAVE)).thenReturn(Optional.of(abierta));
+        when(alertaRepository.acumularOcurrencia(eq(7L), eq(CLAVE), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        assertNull(coalescedorAlertas.registrar(TipoAlerta.CUPOS_BAJOS, partido, null, "Quedan 2 cupos"));
+
+        verify(alertaRepository, never()).saveAndFlush(any(Alerta.class));
+        verify(alertaRepository, never()).liberarClave(anyLong());
+    }
+
+    @Test
+    void registrar_WhenOpenAlertaExpired_ShouldReleaseKeyAndInsert() {
+        Alerta vieja = new Alerta();
+        vieja.setId(7L);
+        when(alertaRepository.findByClaveDeduplicacion(CLAVE)).thenReturn(Optional.of(vieja));
+        when(alertaRepository.acumularOcurrencia(eq(7L), eq(CLAVE), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(0);
+        when(alertaRepository.saveAndFlush(any(Alerta.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        assertNotNull(coalescedorAlertas.registrar(TipoAlerta.CUPOS_BAJOS, partido, null, "Quedan 2 cupos"));
+
+        verify(alertaRepository).liberarClave(7L);
+        verify(alertaRepository).saveAndFlush(any(Alerta.class));
+    }
+
+    @Test
+    void registrar_WhenKeyTakenConcurrently_ShouldThrowBusinessException() {
+        when(alertaRepository.findByClaveDeduplicacion(CLAVE)).thenReturn(Optional.empty());
+        when(alertaRepository.saveAndFlush(any(Alerta.class))).thenThrow(new DataIntegrityViolationException("duplicada"));
+
+        assertThrows(BusinessException.class,
+                () -> coalescedorAlertas.registrar(TipoAlerta.CUPOS_BAJOS, partido, null, "Quedan 2 cupos"));
+        verifyNoInteractions(lecturaAlertasService);
+    }
+}
@@ -0,0 +1,52 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.model.TipoTrabajo;
+import com.techlab.picadito.model.Trabajo;
+import com.techlab.picadito.model.Trabajo.EstadoTrabajo;
+import com.techlab.picadito.repository.TrabajoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class ColaTrabajosServiceTest {
+
+    @Mock
+    private TrabajoRepository trabajoRepository;
+
+    @InjectMocks
+    private ColaTrabajosService colaTrabajosService;
+
+    @Test
+    void encolar_ShouldSavePendingJobWithTheTypePriority() {
+        LocalDateTime envio = LocalDateTime.now().plusHours(3);
+
+        assertTrue(colaTrabajosService.encolar(TipoTrabajo.RECORDATORIO_PARTIDO, "1;DIA_ANTES", envio, "clave-1"));
+
+        ArgumentCaptor<Trabajo> trabajo = ArgumentCaptor.forClass(Trabajo.class);
+        verify(trabajoRepository).save(trabajo.capture());
+        assertEquals(EstadoTrabajo.PENDIENTE, trabajo.getValue().getEstado());
+        assertEquals(TipoTrabajo.RECORDATORIO_PARTIDO.getPrioridad(), trabajo.getValue().getPrioridad());
+        assertEquals(envio, trabajo.getValue().getDisponibleDesde());
+        assertEquals(0, trabajo.getValue().getIntentos());
+    }
+
+    @Test
+    void encolar_WithExistingKey_ShouldNotEnqueueTwice() {
+        when(trabajoRepository.existsByClave("RETENCION_ALERTAS:2025-03-01")).thenReturn(true);
+
+        assertFalse(colaTrabajosService.encolar(TipoTrabajo.RETENCION_ALERTAS, null, null, "RETENCION_ALERTAS:2025-03-01"));
+
+        verify(trabajoRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,166 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.MetricasCompactacionAlertasDTO;
+import com.techlab.picadito.model.Alerta;
+import com.techlab.picadito.model.Alerta.Audiencia;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.TipoAlerta;
+import com.techlab.picadito.model.Usuario;
+import com.techlab.picadito.repository.AlertaRepository;
+import com.techlab.picadito.util.ResumenAlertas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class CompactacionAlertasServiceTest {
+
+    private static final LocalDateTime DIA = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    @Mock
+    private AlertaRepository alertaRepository;
+
+    @Mock
+    private LecturaAlertasService lecturaAlertasService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CompactacionAlertasService compactacionAlertasService;
+
+    @BeforeEach
+    void setUp() {
+        Executor directo = Runnable::run;
+        ReflectionTestUtils.setField(compactacionAlertasService, "executor", directo);
+        ReflectionTestUtils.setField(compactacionAlertasService, "usuariosPorLote", 2);
+        ReflectionTestUtils.setField(compactacionAlertasService, "alertasPorTransaccion", 3);
+    }
+
+    @Test
+    void ejecutar_ShouldFoldEachDayIntoOneDigestAndDeleteTheAlerts() {
+        usuarios(List.of(1L));
+        Alerta reserva = alerta(10L, 1L, TipoAlerta.RESERVA_CONFIRMADA, 5L, DIA);
+        Alerta otraReserva = alerta(11L, 1L, TipoAlerta.RESERVA_CONFIRMADA, 5L, DIA.plusHours(2));
+        Alerta otroDia = alerta(12L, 1L, TipoAlerta.RESERVA_CONFIRMADA, 7L, DIA.plusDays(1));
+        when(alertaRepository.findCompactables(eq(1L), eq(Audiencia.USUARIO), anyCollection(),
+                any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(reserva, otraReserva, otroDia))
+                .thenReturn(List.of());
+        when(alertaRepository.findByClaveDeduplicacion(anyString())).thenReturn(Optional.empty());
+
+        MetricasCompactacionAlertasDTO metricas = compactacionAlertasService.ejecutar();
+
+        ArgumentCaptor<Alerta> resumenes = ArgumentCaptor.forClass(Alerta.class);
+        verify(alertaRepository, times(2)).save(resumenes.capture());
+        Alerta primero = resumenes.getAllValues().get(0);
+        assertEquals(TipoAlerta.RESUMEN_DIARIO, primero.getTipo());
+        assertEquals("RESUMEN_DIARIO:1:2025-03-01", primero.getClaveDeduplicacion());
+        assertEquals(2, primero.getOcurrencias());
+        assertTrue(primero.getLeida());
+        assertEquals(DIA.plusHours(2), primero.getFechaCreacion());
+        assertEquals(List.of(5L), ResumenAlertas.leerPartidos(primero.getDetalleResumen()));
+        assertEquals(2, ResumenAlertas.leerConteos(primero.getDetalleResumen()).get(TipoAlerta.RESERVA_CONFIRMADA));
+        verify(lecturaAlertasService).alEliminarLote(List.of(10L, 11L, 12L));
+        verify(alertaRepository).eliminarPorIds(List.of(10L, 11L, 12L));
+        assertEquals(3L, metricas.getAlertasUltima());
+        assertEquals(2L, metricas.getResumenesUltima());
+        assertEquals(1, metricas.getUsuariosUltima());
+    }
+
+    @Test
+    void ejecutar_WithExistingDigest_ShouldAddToItsCounts() {
+        usuarios(List.of(1L));
+        Map<TipoAlerta, Integer> previos = new EnumMap<>(TipoAlerta.class);
+        previos.put(TipoAlerta.RESERVA_CONFIRMADA, 4);
+        Alerta existente = new Alerta();
+        existente.setId(99L);
+        existente.setTipo(TipoAlerta.RESUMEN_DIARIO);
+        existente.setDetalleResumen(ResumenAlertas.formatear(previos, List.of(3L)));
+        when(alertaRepository.findByClaveDeduplicacion("RESUMEN_DIARIO:1:2025-03-01")).thenReturn(Optional.of(existente));
+        when(alertaRepository.findCompactables(eq(1L), eq(Audiencia.USUARIO), anyCollection(),
+                any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(alerta(10L, 1L, TipoAlerta.RESERVA_CONFIRMADA, 5L, DIA)));
+
+        compactacionAlertasService.ejecutar();
+
+        verify(alertaRepository).save(existente);
+        assertEquals(5, existente.getOcurrencias());
+        assertEquals(List.of(3L, 5L), ResumenAlertas.leerPartidos(existente.getDetalleResumen()));
+    }
+
+    @Test
+    void ejecutar_WhenUserFails_ShouldContinueWithTheOthers() {
+        usuarios(List.of(1L, 2L));
+        when(alertaRepository.findCompactables(eq(1L), eq(Audiencia.USUARIO), anyCollection(),
+                any(LocalDateTime.class), any(Pageable.class))).thenThrow(new IllegalStateException("bloqueo"));
+        when(alertaRepository.findCompactables(eq(2L), eq(Audiencia.USUARIO), anyCollection(),
+                any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(alerta(20L, 2L, TipoAlerta.RESERVA_CONFIRMADA, null, DIA)));
+        when(alertaRepository.findByClaveDeduplicacion(anyString())).thenReturn(Optional.empty());
+
+        MetricasCompactacionAlertasDTO metricas = compactacionAlertasService.ejecutar();
+
+        assertEquals(2, metricas.getUsuariosUltima());
+        assertEquals(1, metricas.getUsuariosFallidosUltima());
+        assertEquals(1L, metricas.getAlertasUltima());
+        verify(alertaRepository).eliminarPorIds(List.of(20L));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void ejecutar_WithNothingToCompact_ShouldNotTouchAlerts() {
+        when(alertaRepository.findUsuarioIdsConCompactables(eq(Audiencia.USUARIO), anyCollection(),
+                any(LocalDateTime.class), eq(0L), any(Pageable.class))).thenReturn(List.of());
+
+        MetricasCompactacionAlertasDTO metricas = compactacionAlertasService.ejecutar();
+
+        assertEquals(0L, metricas.getAlertasUltima());
+        verify(alertaRepository, never()).eliminarPorIds(anyCollection());
+        verifyNoInteractions(lecturaAlertasService);
+    }
+
+    private void usuarios(List<Long> ids) {
+        when(alertaRepository.findUsuarioIdsConCompactables(eq(Audiencia.USUARIO), anyCollection(),
+                any(LocalDateTime.class), anyLong(), any(Pageable.class)))
+                .thenReturn(ids)
+                .thenReturn(List.of());
+    }
+
+    private static Alerta alerta(Long id, Long usuarioId, TipoAlerta tipo, Long partidoId, LocalDateTime fecha) {
+        Usuario usuario = new Usuario();
+        usuario.setId(usuarioId);
+        Alerta alerta = new Alerta();
+        alerta.setId(id);
+        alerta.setUsuario(usuario);
+        alerta.setTipo(tipo);
+        alerta.setAudiencia(Audiencia.USUARIO);
+        alerta.setLeida(true);
+        alerta.setFechaCreacion(fecha);
+        if (partidoId != null) {
+            Partido partido = new Partido();
+            partido.setId(partidoId);
+            alerta.setPartido(partido);
+        }
+        return alerta;
+    }
+}
@@ -0,0 +1,206 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.EstadoSuscriptorEventosDTO;
+import com.techlab.picadito.model.EventoDominio;
+import com.techlab.picadito.model.OffsetSuscriptor;
+import com.techlab.picadito.model.TipoEventoDominio;
+import com.techlab.picadito.repository.EventoDominioRepository;
+import com.techlab.picadito.repository.OffsetSuscriptorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class DespachadorEventosServiceTest {
+
+    private static final LocalDateTime ANTES = LocalDateTime.now().minusMinutes(5);
+
+    @Mock
+    private EventoDominioRepository eventoDominioRepository;
+
+    @Mock
+    private OffsetSuscriptorRepository offsetSuscriptorRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private DespachadorEventosService despachador;
+
+    private SuscriptorDePrueba suscriptor;
+
+    @BeforeEach
+    void setUp() {
+        suscriptor = new SuscriptorDePrueba();
+        ReflectionTestUtils.setField(despachador, "suscriptores", List.of(suscriptor));
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+    }
+
+    @Test
+    void despachar_ShouldDeliverOnlySubscribedTypesAndAdvanceTheOffset() {
+        offset(0L, 0);
+        when(eventoDominioRepository.findSiguientes(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                evento(1L, TipoEventoDominio.RESERVA_CONFIRMADA, ANTES),
+                evento(2L, TipoEventoDominio.PARTICIPANTE_INSCRITO, ANTES),
+                evento(3L, TipoEventoDominio.RESERVA_CONFIRMADA, ANTES)));
+        when(offsetSuscriptorRepository.avanzar(eq("prueba"), eq(0L), eq(3L), any())).thenReturn(1);
+
+        despachador.despachar();
+
+        assertEquals(List.of(1L, 3L), suscriptor.recibidos);
+    }
+
+    @Test
+    void despachar_ShouldFollowTheCommitSequenceRatherThanIds() {
+        offset(0L, 0);
+        // El id 7 se confirmó antes que el 4; el hueco de ids de un rollback no importa
+        EventoDominio primero = evento(1L, TipoEventoDominio.RESERVA_CONFIRMADA, LocalDateTime.now());
+        primero.setId(7L);
+        EventoDominio segundo = evento(2L, TipoEventoDominio.RESERVA_CONFIRMADA, LocalDateTime.now());
+        segundo.setId(4L);
+        when(eventoDominioRepository.findSiguientes(eq(0L), any(Pageable.class))).thenReturn(List.of(primero, segundo));
+        when(offsetSuscriptorRepository.avanzar(eq("prueba"), eq(0L), eq(2L), any())).thenReturn(1);
+
+        despachador.despachar();
+
+        assertEquals(List.of(7L, 4L), suscriptor.recibidos);
+    }
+
+    @Test
+    void despachar_WhenSubscriberFails_ShouldKeepTheOffsetAndRecordTheFailure() {
+        offset(0L, 0);
+        suscriptor.fallar = true;
+        when(eventoDominioRepository.findSiguientes(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                evento(1L, TipoEventoDominio.RESERVA_CONFIRMADA, ANTES)));
+
+        despachador.despachar();
+
+        verify(offsetSuscriptorRepository, never()).avanzar(anyString(), anyLong(), anyLong(), any());
+        verify(offsetSuscriptorRepository).registrarFallo(eq("prueba"), eq(0L), eq("sin conexión"), any());
+    }
+
+    @Test
+    void despachar_AfterMaxAttempts_ShouldSkipTheFailingEvent() {
+        ReflectionTestUtils.setField(despachador, "maxIntentos", 3);
+        offset(0L, 2);
+        suscriptor.fallar = true;
+        when(eventoDominioRepository.findSiguientes(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                evento(1L, TipoEventoDominio.RESERVA_CONFIRMADA, ANTES)));
+        when(offsetSuscriptorRepository.avanzar(eq("prueba"), eq(0L), eq(1L), any())).thenAnswer(inv -> {
+            // Después de descartar, el siguiente ciclo ya no encuentra eventos
+            offset(1L, 0);
+            return 1;
+        });
+        when(eventoDominioRepository.findSiguientes(eq(1L), any(Pageable.class))).thenReturn(List.of());
+        when(eventoDominioRepository.findMaxSecuencia()).thenReturn(1L);
+
+        despachador.despachar();
+
+        verify(offsetSuscriptorRepository, never()).registrarFallo(anyString(), anyLong(), any(), any());
+        EstadoSuscriptorEventosDTO estado = despachador.obtenerEstado().get(0);
+        assertEquals(1L, estado.getDescartados());
+        assertEquals(0L, estado.getPendientes());
+    }
+
+    @Test
+    void despachar_WhileWaitingToRetry_ShouldNotReadEvents() {
+        when(offsetSuscriptorRepository.findById("prueba"))
+                .thenReturn(Optional.of(new OffsetSuscriptor("prueba", 0L, 4, "error", LocalDateTime.now())));
+
+        despachador.despachar();
+
+        verify(eventoDominioRepository, never()).findSiguientes(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void purgar_WhenASubscriberHasNoOffsetYet_ShouldKeepEvents() {
+        when(offsetSuscriptorRepository.countBySuscriptorIn(List.of("prueba"))).thenReturn(0L);
+
+        despachador.purgar();
+
+        verify(eventoDominioRepository, never()).eliminarProcesados(anyLong(), any());
+    }
+
+    @Test
+    void despachar_LocalSubscriber_ShouldStartAtTheLatestEventAndKeepItsOffsetInMemory() {
+        suscriptor.local = true;
+        when(eventoDominioRepository.findMaxSecuencia()).thenReturn(5L);
+        when(eventoDominioRepository.findSiguientes(eq(5L), any(Pageable.class))).thenReturn(List.of(
+                evento(6L, TipoEventoDominio.RESERVA_CONFIRMADA, ANTES)));
+        when(eventoDominioRepository.findSiguientes(eq(6L), any(Pageable.class))).thenReturn(List.of());
+
+        despachador.despachar();
+        despachador.despachar();
+
+        assertEquals(List.of(6L), suscriptor.recibidos);
+        verify(eventoDominioRepository, times(1)).findMaxSecuencia();
+        verifyNoInteractions(offsetSuscriptorRepository);
+        assertEquals(6L, (long) despachador.obtenerEstado().get(0).getUltimoEventoId());
+    }
+
+    @Test
+    void purgar_ShouldNotWaitForLocalSubscribers() {
+        suscriptor.local = true;
+
+        despachador.purgar();
+
+        verifyNoInteractions(offsetSuscriptorRepository, eventoDominioRepository);
+    }
+
+    private void offset(Long ultimoEventoId, int intentos) {
+        lenient().when(offsetSuscriptorRepository.findById("prueba"))
+                .thenReturn(Optional.of(new OffsetSuscriptor("prueba", ultimoEventoId, intentos, null, ANTES.minusHours(1))));
+    }
+
+    private static EventoDominio evento(Long secuencia, TipoEventoDominio tipo, LocalDateTime fecha) {
+        return new EventoDominio(secuencia, secuencia, tipo, 10L, 1L, null, "Partido", fecha);
+    }
+
+    private static class SuscriptorDePrueba implements SuscriptorEventos {
+        final List<Long> recibidos = new ArrayList<>();
+        boolean fallar;
+        boolean local;
+
+        @Override
+        public String getNombre() {
+            return "prueba";
+        }
+
+        @Override
+        public Set<TipoEventoDominio> getTipos() {
+            return EnumSet.of(TipoEventoDominio.RESERVA_CONFIRMADA);
+        }
+
+        @Override
+        public boolean isLocal() {
+            return local;
+        }
+
+        @Override
+        public void procesar(List<EventoDominio> eventos) {
+            if (fallar) {
+                throw new IllegalStateException("sin conexión");
+            }
+            eventos.forEach(evento -> recibidos.add(evento.getId()));
+        }
+    }
+}
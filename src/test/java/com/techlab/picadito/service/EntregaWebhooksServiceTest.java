@@ -0,0 +1,305 @@
+package com.techlab.picadito.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.techlab.picadito.dto.EventoWebhookDTO;
+import com.techlab.picadito.dto.MetricasWebhooksDTO;
+import com.techlab.picadito.model.EntregaWebhookFallida;
+import com.techlab.picadito.model.EnvioWebhookPendiente;
+import com.techlab.picadito.model.SuscripcionWebhook;
+import com.techlab.picadito.model.TipoEventoDominio;
+import com.techlab.picadito.repository.EntregaWebhookFallidaRepository;
+import com.techlab.picadito.repository.EnvioWebhookPendienteRepository;
+import com.techlab.picadito.repository.SuscripcionWebhookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class EntregaWebhooksServiceTest {
+
+    @Mock
+    private EntregaWebhookFallidaRepository entregaWebhookFallidaRepository;
+
+    @Mock
+    private EnvioWebhookPendienteRepository envioWebhookPendienteRepository;
+
+    @Mock
+    private SuscripcionWebhookRepository suscripcionWebhookRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private EntregaWebhooksService entregaWebhooksService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private HttpServer servidor;
+    private final List<String> cuerpos = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> firmas = Collections.synchronizedList(new ArrayList<>());
+    private final Queue<Integer> respuestas = new ConcurrentLinkedQueue<>();
+
+    // Las tablas, para que los repositorios se comporten como la base
+    private final List<EnvioWebhookPendiente> pendientes = new ArrayList<>();
+    private final Map<Long, SuscripcionWebhook> suscripciones = new LinkedHashMap<>();
+    private final AtomicLong ultimoId = new AtomicLong();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/hook", intercambio -> {
+            cuerpos.add(new String(intercambio.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            firmas.add(intercambio.getRequestHeaders().getFirst(EntregaWebhooksService.HEADER_FIRMA));
+            Integer codigo = respuestas.poll();
+            intercambio.sendResponseHeaders(codigo != null ? codigo : 200, -1);
+            intercambio.close();
+        });
+        servidor.start();
+
+        Executor directo = Runnable::run;
+        ReflectionTestUtils.setField(entregaWebhooksService, "executor", directo);
+        ReflectionTestUtils.setField(entregaWebhooksService, "objectMapper", objectMapper);
+        simularBase();
+    }
+
+    @AfterEach
+    void tearDown() {
+        servidor.stop(0);
+    }
+
+    @Test
+    void enviarPendientes_ShouldBatchEventsPerEndpointAndSignTheBody() throws Exception {
+        ReflectionTestUtils.setField(entregaWebhooksService, "tamanioLote", 2);
+        entregaWebhooksService.encolar(List.of(suscripcion(1L, "secreto")), List.of(evento(1L), evento(2L), evento(3L)));
+
+        entregaWebhooksService.enviarPendientes();
+        entregaWebhooksService.enviarPendientes();
+
+        assertEquals(2, cuerpos.size());
+        assertEquals(2, objectMapper.readTree(cuerpos.get(0)).size());
+        assertEquals(3L, objectMapper.readTree(cuerpos.get(1)).get(0).get("eventoId").asLong());
+        assertEquals("sha256=" + hmac("secreto", cuerpos.get(0)), firmas.get(0));
+        MetricasWebhooksDTO metricas = entregaWebhooksService.obtenerMetricas();
+        assertEquals(3L, metricas.getEntregados());
+        assertEquals(2L, metricas.getLotesEnviados());
+        assertEquals(0, metricas.getEnCola());
+    }
+
+    @Test
+    void enviarPendientes_WhenEndpointFails_ShouldWaitBeforeRetrying() {
+        respuestas.add(503);
+        entregaWebhooksService.encolar(List.of(suscripcion(1L, null)), List.of(evento(1L)));
+
+        entregaWebhooksService.enviarPendientes();
+        entregaWebhooksService.enviarPendientes();
+
+        assertEquals(1, cuerpos.size());
+        assertNull(firmas.get(0));
+        MetricasWebhooksDTO metricas = entregaWebhooksService.obtenerMetricas();
+        assertEquals(1L, metricas.getLotesFallidos());
+        assertEquals(1, metricas.getDestinosEnReintento());
+        assertEquals(1, metricas.getEnCola());
+    }
+
+    @Test
+    void enviarPendientes_AfterMaxAttempts_ShouldDeadLetterTheBatch() {
+        ReflectionTestUtils.setField(entregaWebhooksService, "esperaBaseMs", 0L);
+        ReflectionTestUtils.setField(entregaWebhooksService, "maxIntentos", 2);
+        respuestas.add(500);
+        respuestas.add(500);
+        entregaWebhooksService.encolar(List.of(suscripcion(1L, null)), List.of(evento(1L), evento(2L)));
+
+        entregaWebhooksService.enviarPendientes();
+        entregaWebhooksService.enviarPendientes();
+        entregaWebhooksService.enviarPendientes();
+
+        assertEquals(2, cuerpos.size());
+        ArgumentCaptor<EntregaWebhookFallida> fallida = ArgumentCaptor.forClass(EntregaWebhookFallida.class);
+        verify(entregaWebhookFallidaRepository).save(fallida.capture());
+        assertEquals(2, fallida.getValue().getEventos());
+        assertEquals(2, fallida.getValue().getIntentos());
+        assertEquals("HTTP 500", fallida.getValue().getUltimoError());
+        assertEquals(0, entregaWebhooksService.obtenerMetricas().getEnCola());
+        assertEquals(2L, entregaWebhooksService.obtenerMetricas().getEnviadosAFallidas());
+    }
+
+    @Test
+    void encolar_WhenAnEndpointIsFull_ShouldDeadLetterItsOldestEventsOnly() throws Exception {
+        ReflectionTestUtils.setField(entregaWebhooksService, "capacidadPorDestino", 3);
+        entregaWebhooksService.encolar(List.of(suscripcion(1L, null)), List.of(evento(1L), evento(2L)));
+
+        entregaWebhooksService.encolar(List.of(suscripcion(1L, null), suscripcion(2L, null)), List.of(evento(3L), evento(4L)));
+
+        ArgumentCaptor<EntregaWebhookFallida> fallida = ArgumentCaptor.forClass(EntregaWebhookFallida.class);
+        verify(entregaWebhookFallidaRepository).save(fallida.capture());
+        assertEquals(1L, fallida.getValue().getSuscripcionId());
+        assertEquals(1, fallida.getValue().getEventos());
+        assertEquals(1L, objectMapper.readTree(fallida.getValue().getPayload()).get(0).get("eventoId").asLong());
+        assertEquals(List.of(2L, 3L, 4L), eventoIds(1L));
+        assertEquals(List.of(3L, 4L), eventoIds(2L));
+        MetricasWebhooksDTO metricas = entregaWebhooksService.obtenerMetricas();
+        assertEquals(5, metricas.getEnCola());
+        assertEquals(1L, metricas.getDescartados());
+    }
+
+    @Test
+    void encolar_WhenTheBatchExceedsTheEndpointCapacity_ShouldKeepTheNewestEvents() throws Exception {
+        ReflectionTestUtils.setField(entregaWebhooksService, "capacidadPorDestino", 2);
+
+        entregaWebhooksService.encolar(List.of(suscripcion(1L, null)), List.of(evento(1L), evento(2L), evento(3L)));
+
+        ArgumentCaptor<EntregaWebhookFallida> fallida = ArgumentCaptor.forClass(EntregaWebhookFallida.class);
+        verify(entregaWebhookFallidaRepository).save(fallida.capture());
+        assertEquals(1L, objectMapper.readTree(fallida.getValue().getPayload()).get(0).get("eventoId").asLong());
+        assertEquals(List.of(2L, 3L), eventoIds(1L));
+    }
+
+    @Test
+    void descartar_ShouldDropPendingEventsOfTheSubscription() {
+        entregaWebhooksService.encolar(List.of(suscripcion(1L, null)), List.of(evento(1L), evento(2L)));
+
+        entregaWebhooksService.descartar(1L);
+        entregaWebhooksService.enviarPendientes();
+
+        assertTrue(cuerpos.isEmpty());
+        assertEquals(0, entregaWebhooksService.obtenerMetricas().getEnCola());
+    }
+
+    @Test
+    void enviarPendientes_WhenAnotherNodeHoldsTheEndpoint_ShouldNotSend() {
+        entregaWebhooksService.encolar(List.of(suscripcion(1L, null)), List.of(evento(1L)));
+        suscripciones.get(1L).setEnviandoHasta(LocalDateTime.now().plusMinutes(1));
+
+        entregaWebhooksService.enviarPendientes();
+
+        assertTrue(cuerpos.isEmpty());
+        assertEquals(1, entregaWebhooksService.obtenerMetricas().getEnCola());
+    }
+
+    private SuscripcionWebhook suscripcion(Long id, String secreto) {
+        return suscripciones.computeIfAbsent(id, clave -> new SuscripcionWebhook(clave,
+                "http://127.0.0.1:" + servidor.getAddress().getPort() + "/hook", secreto, 1L, null, true,
+                LocalDateTime.now()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void simularBase() {
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        lenient().when(envioWebhookPendienteRepository.count()).thenAnswer(inv -> (long) pendientes.size());
+        lenient().when(envioWebhookPendienteRepository.countBySuscripcionId(anyLong())).thenAnswer(inv ->
+                pendientes.stream().filter(envio -> envio.getSuscripcionId().equals(inv.getArgument(0))).count());
+        lenient().when(envioWebhookPendienteRepository.countDestinos()).thenAnswer(inv ->
+                pendientes.stream().map(EnvioWebhookPendiente::getSuscripcionId).distinct().count());
+        lenient().when(envioWebhookPendienteRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            for (EnvioWebhookPendiente envio : (Iterable<EnvioWebhookPendiente>) inv.getArgument(0)) {
+                envio.setId(ultimoId.incrementAndGet());
+                pendientes.add(envio);
+            }
+            return inv.getArgument(0);
+        });
+        lenient().when(envioWebhookPendienteRepository.findBySuscripcionIdOrderByIdAsc(anyLong(), any(Pageable.class)))
+                .thenAnswer(inv -> pendientes.stream()
+                        .filter(envio -> envio.getSuscripcionId().equals(inv.getArgument(0)))
+                        .limit(inv.<Pageable>getArgument(1).getPageSize())
+                        .toList());
+        lenient().when(envioWebhookPendienteRepository.eliminar(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            pendientes.removeIf(envio -> ids.contains(envio.getId()));
+            return ids.size();
+        });
+        lenient().when(envioWebhookPendienteRepository.eliminarDeSuscripcion(anyLong())).thenAnswer(inv -> {
+            pendientes.removeIf(envio -> envio.getSuscripcionId().equals(inv.getArgument(0)));
+            return 0;
+        });
+        lenient().when(suscripcionWebhookRepository.findListasParaEnviar(any())).thenAnswer(inv ->
+                suscripciones.values().stream()
+                        .filter(s -> lista(s, inv.getArgument(0)))
+                        .filter(s -> pendientes.stream().anyMatch(e -> e.getSuscripcionId().equals(s.getId())))
+                        .toList());
+        lenient().when(suscripcionWebhookRepository.tomar(anyLong(), any(), any())).thenAnswer(inv -> {
+            SuscripcionWebhook s = suscripciones.get(inv.<Long>getArgument(0));
+            if (!lista(s, inv.getArgument(1))) {
+                return 0;
+            }
+            s.setEnviandoHasta(inv.getArgument(2));
+            return 1;
+        });
+        lenient().when(suscripcionWebhookRepository.liberar(anyLong(), any(), anyInt(), any())).thenAnswer(inv -> {
+            SuscripcionWebhook s = suscripciones.get(inv.<Long>getArgument(0));
+            if (!Objects.equals(s.getEnviandoHasta(), inv.getArgument(1))) {
+                return 0;
+            }
+            s.setEnviandoHasta(null);
+            s.setIntentosEntrega(inv.getArgument(2));
+            s.setProximoIntento(inv.getArgument(3));
+            return 1;
+        });
+        lenient().when(suscripcionWebhookRepository.countEnReintento(any())).thenAnswer(inv ->
+                suscripciones.values().stream()
+                        .filter(s -> s.getIntentosEntrega() > 0 && s.getProximoIntento().isAfter(inv.getArgument(0)))
+                        .count());
+    }
+
+    private List<Long> eventoIds(Long suscripcionId) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (EnvioWebhookPendiente envio : pendientes) {
+            if (envio.getSuscripcionId().equals(suscripcionId)) {
+                ids.add(objectMapper.readTree(envio.getPayload()).get("eventoId").asLong());
+            }
+        }
+        return ids;
+    }
+
+    private static boolean lista(SuscripcionWebhook suscripcion, LocalDateTime ahora) {
+        return (suscripcion.getEnviandoHasta() == null || suscripcion.getEnviandoHasta().isBefore(ahora))
+                && (suscripcion.getProximoIntento() == null || !suscripcion.getProximoIntento().isAfter(ahora));
+    }
+
+    private static EventoWebhookDTO evento(Long id) {
+        EventoWebhookDTO evento = new EventoWebhookDTO();
+        evento.setEventoId(id);
+        evento.setTipo(TipoEventoDominio.PARTICIPANTE_INSCRITO);
+        evento.setPartidoId(10L);
+        return evento;
+    }
+
+    private static String hmac(String secreto, String cuerpo) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secreto.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(cuerpo.getBytes(StandardCharsets.UTF_8)));
+    }
+}
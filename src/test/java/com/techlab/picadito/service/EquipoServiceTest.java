@@ -1,32 +1,45 @@
 package com.techlab.picadito.service;
 
 import com.techlab.picadito.dto.EquipoResponseDTO;
+import com.techlab.picadito.dto.GeneracionEquiposLoteDTO;
+import com.techlab.picadito.dto.ResultadoPartidoDTO;
 import com.techlab.picadito.exception.BusinessException;
 import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.exception.ValidationException;
 import com.techlab.picadito.model.Equipo;
+import com.techlab.picadito.model.EstadoPartido;
 import com.techlab.picadito.model.Nivel;
 import com.techlab.picadito.model.Participante;
 import com.techlab.picadito.model.Partido;
 import com.techlab.picadito.model.Posicion;
+import com.techlab.picadito.model.Usuario;
+import com.techlab.picadito.repository.EquipoLoteRepository;
 import com.techlab.picadito.repository.EquipoRepository;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.util.BalanceadorEquipos;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
-@SuppressWarnings("null")
+@SuppressWarnings({"null", "unchecked"})
 class EquipoServiceTest {
 
     @Mock
@@ -35,6 +48,15 @@ class EquipoServiceTest {
     @Mock
     private PartidoService partidoService;
 
+    @Mock
+    private RatingService ratingService;
+
+    @Mock
+    private PartidoRepository partidoRepository;
+
+    @Mock
+    private EquipoLoteRepository equipoLoteRepository;
+
     @InjectMocks
     private EquipoService equipoService;
 
@@ -78,6 +100,148 @@ class EquipoServiceTest {
         verify(equipoRepository, times(2)).save(any(Equipo.class));
     }
 
+    @Test
+    void generarEquiposAutomaticos_WithThreeTeams_ShouldBalanceLevelsAndPositions() {
+        when(partidoService.obtenerPartidoEntity(1L)).thenReturn(partido);
+        when(equipoRepository.findByPartidoId(1L)).thenReturn(new ArrayList<>());
+        when(equipoRepository.save(any(Equipo.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<EquipoResponseDTO> result = equipoService.generarEquiposAutomaticos(1L, 3);
+
+        assertEquals(3, result.size());
+        assertEquals(List.of("Equipo A", "Equipo B", "Equipo C"), result.stream().map(EquipoResponseDTO::getNombre).toList());
+        for (EquipoResponseDTO equipo : result) {
+            assertEquals(2, equipo.getCantidadParticipantes());
+            // Un experto y un intermedio por equipo, uno en cada posición
+            assertEquals(6.0, equipo.getPuntaje(), 1e-9);
+            assertEquals(1, equipo.getParticipantes().stream().filter(p -> p.getPosicion() == Posicion.DELANTERO).count());
+            assertEquals(1.0, equipo.getIndiceBalance(), 1e-9);
+        }
+        verify(equipoRepository, times(3)).save(any(Equipo.class));
+    }
+
+    @Test
+    void generarEquiposEnLote_ShouldBalanceEveryPartidoAndPersistInBatch() {
+        ReflectionTestUtils.setField(equipoService, "equiposExecutor", ForkJoinPool.commonPool());
+        Partido chico = new Partido();
+        chico.setId(2L);
+        Participante solo = new Participante();
+        solo.setId(99L);
+        chico.getParticipantes().add(solo);
+        LocalDateTime desde = LocalDateTime.of(2030, 6, 1, 0, 0);
+        LocalDateTime hasta = desde.plusDays(1);
+        when(partidoRepository.findConParticipantesEntre(EstadoPartido.COMPLETO, desde, hasta)).thenReturn(List.of(partido, chico));
+        when(equipoLoteRepository.eliminarPorPartidos(List.of(1L))).thenReturn(2);
+
+        GeneracionEquiposLoteDTO resumen = equipoService.generarEquiposEnLote(desde, hasta, 3);
+
+        assertEquals(1, resumen.getPartidosProcesados());
+        assertEquals(3, resumen.getEquiposCreados());
+        assertEquals(2, resumen.getEquiposReemplazados());
+        assertEquals(6, resumen.getJugadoresAsignados());
+        assertEquals(1.0, resumen.getIndiceBalanceMinimo(), 1e-9);
+        assertEquals(1, resumen.getPartidosOmitidos().size());
+        assertEquals(2L, resumen.getPartidosOmitidos().get(0).getPartidoId());
+
+        ArgumentCaptor<List<Equipo>> captor = ArgumentCaptor.forClass(List.class);
+        verify(equipoLoteRepository).insertar(captor.capture());
+        assertEquals(3, captor.getValue().size());
+        assertTrue(captor.getValue().stream().allMatch(e -> e.getPartido() == partido && e.getCantidadParticipantes() == 2));
+        verify(equipoRepository, never()).save(any(Equipo.class));
+    }
+
+    @Test
+    void generarEquiposEnLote_WithWindowLongerThanAWeek_ShouldThrowValidationException() {
+        LocalDateTime desde = LocalDateTime.of(2030, 6, 1, 0, 0);
+
+        assertThrows(ValidationException.class, () -> equipoService.generarEquiposEnLote(desde, desde.plusDays(8), 2));
+        verifyNoInteractions(partidoRepository, equipoLoteRepository);
+    }
+
+    @Test
+    void generarEquiposAutomaticos_WithLinkedUsuarios_ShouldUseTheirRatings() {
+        Usuario usuario = new Usuario();
+        usuario.setId(50L);
+        participantes.get(3).setUsuario(usuario);
+        when(partidoService.obtenerPartidoEntity(1L)).thenReturn(partido);
+        when(equipoRepository.findByPartidoId(1L)).thenReturn(new ArrayList<>());
+        when(equipoRepository.save(any(Equipo.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ratingService.obtenerRating(50L)).thenReturn(1900.0);
+
+        List<EquipoResponseDTO> result = equipoService.generarEquiposAutomaticos(1L);
+
+        assertEquals(2, result.size());
+        verify(ratingService).obtenerRating(50L);
+        double total = result.stream().mapToDouble(EquipoResponseDTO::getPuntaje).sum();
+        assertEquals(18.0 - 2.0 + BalanceadorEquipos.puntuar(Nivel.INTERMEDIO, 1900.0), total, 1e-9);
+    }
+
+    @Test
+    void registrarResultado_ShouldStoreGoalsFinishPartidoAndUpdateRatings() {
+        List<Equipo> equipos = crearEquiposConId();
+        when(partidoService.obtenerPartidoEntity(1L)).thenReturn(partido);
+        when(equipoRepository.findByPartidoId(1L)).thenReturn(equipos);
+        when(equipoRepository.saveAll(equipos)).thenReturn(equipos);
+
+        List<EquipoResponseDTO> result = equipoService.registrarResultado(1L, new ResultadoPartidoDTO(Map.of(10L, 3, 11L, 1)));
+
+        assertEquals(3, result.get(0).getGoles());
+        assertEquals(1, result.get(1).getGoles());
+        assertTrue(partido.getRatingsAplicados());
+        verify(ratingService).aplicarResultado(equipos);
+        verify(partidoService).finalizarPartido(partido);
+    }
+
+    @Test
+    void registrarResultado_WhenAlreadyRegistered_ShouldThrowException() {
+        partido.setRatingsAplicados(true);
+        when(partidoService.obtenerPartidoEntity(1L)).thenReturn(partido);
+
+        assertThrows(BusinessException.class,
+                () -> equipoService.registrarResultado(1L, new ResultadoPartidoDTO(Map.of(10L, 3, 11L, 1))));
+        verifyNoInteractions(ratingService);
+    }
+
+    @Test
+    void registrarResultado_WithMissingEquipo_ShouldThrowValidationException() {
+        when(partidoService.obtenerPartidoEntity(1L)).thenReturn(partido);
+        when(equipoRepository.findByPartidoId(1L)).thenReturn(crearEquiposConId());
+
+        assertThrows(ValidationException.class,
+                () -> equipoService.registrarResultado(1L, new ResultadoPartidoDTO(Map.of(10L, 3))));
+        verify(partidoService, never()).finalizarPartido(any());
+    }
+
+    @Test
+    void registrarResultado_WithNegativeGoles_ShouldThrowValidationException() {
+        when(partidoService.obtenerPartidoEntity(1L)).thenReturn(partido);
+        when(equipoRepository.findByPartidoId(1L)).thenReturn(crearEquiposConId());
+
+        assertThrows(ValidationException.class,
+                () -> equipoService.registrarResultado(1L, new ResultadoPartidoDTO(Map.of(10L, -1, 11L, 2))));
+        verify(equipoRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void generarEquiposAutomaticos_WithMoreTeamsThanParticipants_ShouldThrowException() {
+        when(partidoService.obtenerPartidoEntity(1L)).thenReturn(partido);
+
+        assertThrows(BusinessException.class, () -> equipoService.generarEquiposAutomaticos(1L, 7));
+        verify(equipoRepository, never()).save(any(Equipo.class));
+    }
+
+    @Test
+    void generarEquiposAutomaticos_WithLessThanTwoTeams_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> equipoService.generarEquiposAutomaticos(1L, 1));
+        verifyNoInteractions(partidoService);
+    }
+
+    @Test
+    void generarEquiposAutomaticos_WithMoreTeamsThanLetters_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> equipoService.generarEquiposAutomaticos(1L, 27));
+        verifyNoInteractions(partidoService);
+    }
+
     @Test
     void generarEquiposAutomaticos_WithInsufficientParticipants_ShouldThrowException() {
         partido.getParticipantes().clear();
@@ -114,6 +278,19 @@ class EquipoServiceTest {
         verify(equipoRepository, times(2)).save(any(Equipo.class));
     }
 
+    private List<Equipo> crearEquiposConId() {
+        List<Equipo> equipos = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Equipo equipo = new Equipo();
+            equipo.setId(10L + i);
+            equipo.setNombre("Equipo " + (char) ('A' + i));
+            equipo.setPartido(partido);
+            equipo.setParticipantes(new ArrayList<>(participantes.subList(i * 3, i * 3 + 3)));
+            equipos.add(equipo);
+        }
+        return equipos;
+    }
+
     @Test
     void obtenerEquiposPorPartido_WithValidId_ShouldReturnList() {
         Equipo equipo = new Equipo();
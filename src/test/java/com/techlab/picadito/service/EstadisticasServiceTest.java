@@ -16,8 +16,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +37,9 @@ class EstadisticasServiceTest {
     @Mock
     private SedeRepository sedeRepository;
 
+    @Mock
+    private LibroGastosService libroGastosService;
+
     @InjectMocks
     private EstadisticasService estadisticasService;
 
@@ -80,10 +85,14 @@ class EstadisticasServiceTest {
         when(partidoRepository.count()).thenReturn(10L);
         when(reservaRepository.count()).thenReturn(25L);
         when(usuarioRepository.count()).thenReturn(5L);
-        when(reservaRepository.findAll()).thenReturn(Arrays.asList(reserva));
+        when(reservaRepository.sumarTotalPorEstados(anyCollection())).thenReturn(1200.0);
         when(partidoRepository.findAll()).thenReturn(Arrays.asList(partido));
-        when(usuarioRepository.findAll()).thenReturn(Arrays.asList(usuario));
         when(sedeRepository.findAll()).thenReturn(Arrays.asList(sede));
+        SaldoUsuario saldo = new SaldoUsuario(1L);
+        saldo.setCantidadReservas(3L);
+        saldo.setTotalGastado(250.0);
+        when(libroGastosService.obtenerMasActivos(10)).thenReturn(List.of(saldo));
+        when(usuarioRepository.findAllById(List.of(1L))).thenReturn(List.of(usuario));
 
         EstadisticasDTO result = estadisticasService.obtenerEstadisticasGenerales();
 
@@ -91,9 +100,15 @@ class EstadisticasServiceTest {
         assertEquals(10L, result.getTotalPartidos());
         assertEquals(25L, result.getTotalReservas());
         assertEquals(5L, result.getTotalUsuarios());
+        assertEquals(1200.0, result.getIngresosTotales());
+        verify(reservaRepository, never()).findAll();
         verify(partidoRepository, times(1)).count();
         verify(reservaRepository, times(1)).count();
         verify(usuarioRepository, times(1)).count();
+        assertEquals(1, result.getUsuariosActivos().size());
+        assertEquals("Test User", result.getUsuariosActivos().get(0).getNombre());
+        assertEquals(3L, result.getUsuariosActivos().get(0).getCantidadReservas());
+        assertEquals(250.0, result.getUsuariosActivos().get(0).getTotalGastado());
     }
 
     @Test
@@ -134,9 +149,8 @@ class EstadisticasServiceTest {
         when(partidoRepository.count()).thenReturn(0L);
         when(reservaRepository.count()).thenReturn(0L);
         when(usuarioRepository.count()).thenReturn(0L);
-        when(reservaRepository.findAll()).thenReturn(new ArrayList<>());
+        when(reservaRepository.sumarTotalPorEstados(anyCollection())).thenReturn(0.0);
         when(partidoRepository.findAll()).thenReturn(new ArrayList<>());
-        when(usuarioRepository.findAll()).thenReturn(new ArrayList<>());
         when(sedeRepository.findAll()).thenReturn(new ArrayList<>());
 
         EstadisticasDTO result = estadisticasService.obtenerEstadisticasGenerales();
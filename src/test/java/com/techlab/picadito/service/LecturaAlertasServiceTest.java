@@ -0,0 +1,180 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.exception.ValidationException;
+import com.techlab.picadito.model.Alerta;
+import com.techlab.picadito.model.Alerta.Audiencia;
+import com.techlab.picadito.model.LecturaAlerta;
+import com.techlab.picadito.model.LecturaAlertasUsuario;
+import com.techlab.picadito.model.Usuario;
+import com.techlab.picadito.repository.AlertaRepository;
+import com.techlab.picadito.repository.LecturaAlertaRepository;
+import com.techlab.picadito.repository.LecturaAlertasUsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class LecturaAlertasServiceTest {
+
+    @Mock
+    private LecturaAlertasUsuarioRepository lecturaAlertasUsuarioRepository;
+
+    @Mock
+    private LecturaAlertaRepository lecturaAlertaRepository;
+
+    @Mock
+    private AlertaRepository alertaRepository;
+
+    @InjectMocks
+    private LecturaAlertasService lecturaAlertasService;
+
+    @Test
+    void marcarTodas_ShouldMoveWatermarkWithSingleRowUpdate() {
+        when(alertaRepository.findMaxId()).thenReturn(120L);
+        when(lecturaAlertasUsuarioRepository.marcarLeidasHasta(eq(1L), eq(120L), any(LocalDateTime.class))).thenReturn(1);
+
+        lecturaAlertasService.marcarTodas(1L);
+
+        verify(lecturaAlertaRepository).eliminarHasta(1L, 120L);
+        verify(lecturaAlertasUsuarioRepository, never()).saveAndFlush(any());
+        verify(alertaRepository, never()).save(any());
+    }
+
+    @Test
+    void marcarTodas_WithoutReadState_ShouldCreateIt() {
+        when(alertaRepository.findMaxId()).thenReturn(120L);
+        when(lecturaAlertasUsuarioRepository.marcarLeidasHasta(eq(1L), eq(120L), any(LocalDateTime.class))).thenReturn(0);
+
+        lecturaAlertasService.marcarTodas(1L);
+
+        ArgumentCaptor<LecturaAlertasUsuario> estado = ArgumentCaptor.forClass(LecturaAlertasUsuario.class);
+        verify(lecturaAlertasUsuarioRepository).saveAndFlush(estado.capture());
+        assertEquals(120L, estado.getValue().getLeidasHastaId());
+        assertEquals(0L, estado.getValue().getNoLeidas());
+    }
+
+    @Test
+    void registrarNueva_WithPersonalAlerta_ShouldIncrementCounter() {
+        when(lecturaAlertasUsuarioRepository.sumarNoLeidas(eq(1L), eq(1L), any(LocalDateTime.class))).thenReturn(1);
+
+        lecturaAlertasService.registrarNueva(alerta(10L, Audiencia.USUARIO));
+
+        verify(lecturaAlertasUsuarioRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void registrarNueva_WithBroadcastAlerta_ShouldNotTouchCounters() {
+        lecturaAlertasService.registrarNueva(alerta(10L, Audiencia.TODOS));
+
+        verifyNoInteractions(lecturaAlertasUsuarioRepository);
+    }
+
+    @Test
+    void marcarLeida_WithUnreadPersonalAlerta_ShouldDecrementCounter() {
+        Alerta alerta = alerta(30L, Audiencia.USUARIO);
+        when(lecturaAlertasUsuarioRepository.findById(1L)).thenReturn(Optional.of(estado(20L, 2L)));
+        when(lecturaAlertasUsuarioRepository.sumarNoLeidas(eq(1L), eq(-1L), any(LocalDateTime.class))).thenReturn(1);
+
+        lecturaAlertasService.marcarLeida(alerta, null);
+        lecturaAlertasService.marcarLeida(alerta, null);
+
+        assertTrue(alerta.getLeida());
+        verify(lecturaAlertasUsuarioRepository, times(1)).sumarNoLeidas(eq(1L), eq(-1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void marcarLeida_WithBroadcastAboveWatermark_ShouldStoreOverride() {
+        Alerta alerta = alerta(30L, Audiencia.PARTIDO);
+        when(lecturaAlertasUsuarioRepository.findById(2L)).thenReturn(Optional.of(estado(20L, 0L)));
+        when(lecturaAlertaRepository.existsByUsuarioIdAndAlertaId(2L, 30L)).thenReturn(false);
+
+        lecturaAlertasService.marcarLeida(alerta, 2L);
+
+        ArgumentCaptor<LecturaAlerta> lectura = ArgumentCaptor.forClass(LecturaAlerta.class);
+        verify(lecturaAlertaRepository).saveAndFlush(lectura.capture());
+        assertEquals(2L, lectura.getValue().getUsuarioId());
+        assertEquals(30L, lectura.getValue().getAlertaId());
+        assertFalse(alerta.getLeida());
+    }
+
+    @Test
+    void marcarLeida_WithBroadcastBelowWatermark_ShouldDoNothing() {
+        when(lecturaAlertasUsuarioRepository.findById(2L)).thenReturn(Optional.of(estado(50L, 0L)));
+
+        lecturaAlertasService.marcarLeida(alerta(30L, Audiencia.TODOS), 2L);
+
+        verifyNoInteractions(lecturaAlertaRepository);
+    }
+
+    @Test
+    void marcarLeida_WithBroadcastWithoutUsuario_ShouldThrowException() {
+        assertThrows(ValidationException.class, () -> lecturaAlertasService.marcarLeida(alerta(30L, Audiencia.TODOS), null));
+    }
+
+    @Test
+    void contarNoLeidas_ShouldAddPersonalCounterAndBroadcastAboveWatermark() {
+        when(lecturaAlertasUsuarioRepository.findById(1L)).thenReturn(Optional.of(estado(20L, 3L)));
+        when(alertaRepository.countGeneralesNoLeidas(1L, Audiencia.TODOS, Audiencia.PARTIDO, Audiencia.CATEGORIA, 20L))
+                .thenReturn(2L);
+
+        assertEquals(5L, lecturaAlertasService.contarNoLeidas(1L));
+    }
+
+    @Test
+    void obtenerLeidas_ShouldCombineWatermarkFlagsAndOverrides() {
+        Alerta vieja = alerta(10L, Audiencia.TODOS);
+        Alerta personalLeida = alerta(30L, Audiencia.USUARIO);
+        personalLeida.setLeida(true);
+        Alerta personalPendiente = alerta(31L, Audiencia.USUARIO);
+        Alerta generalLeida = alerta(32L, Audiencia.TODOS);
+        Alerta generalPendiente = alerta(33L, Audiencia.PARTIDO);
+        when(lecturaAlertasUsuarioRepository.findById(1L)).thenReturn(Optional.of(estado(20L, 1L)));
+        when(lecturaAlertaRepository.findAlertaIdsLeidas(1L, List.of(32L, 33L))).thenReturn(List.of(32L));
+
+        Set<Long> leidas = lecturaAlertasService.obtenerLeidas(1L,
+                List.of(vieja, personalLeida, personalPendiente, generalLeida, generalPendiente));
+
+        assertEquals(Set.of(10L, 30L, 32L), leidas);
+    }
+
+    @Test
+    void alEliminarLote_ShouldSubtractUnreadPersonalAlertas() {
+        List<Long> ids = List.of(1L, 2L, 3L, 4L, 5L);
+        List<Object[]> filas = List.<Object[]>of(new Object[]{1L, 4L});
+        when(alertaRepository.contarPersonalesNoLeidasEn(ids)).thenReturn(filas);
+        when(lecturaAlertasUsuarioRepository.sumarNoLeidas(eq(1L), eq(-4L), any(LocalDateTime.class))).thenReturn(1);
+
+        lecturaAlertasService.alEliminarLote(ids);
+
+        verify(lecturaAlertaRepository).eliminarPorAlertas(ids);
+    }
+
+    private static Alerta alerta(Long id, Audiencia audiencia) {
+        Alerta alerta = new Alerta();
+        alerta.setId(id);
+        alerta.setAudiencia(audiencia);
+        if (audiencia == Audiencia.USUARIO) {
+            Usuario usuario = new Usuario();
+            usuario.setId(1L);
+            alerta.setUsuario(usuario);
+        }
+        return alerta;
+    }
+
+    private static LecturaAlertasUsuario estado(long leidasHasta, long noLeidas) {
+        return new LecturaAlertasUsuario(1L, leidasHasta, noLeidas, LocalDateTime.now());
+    }
+}
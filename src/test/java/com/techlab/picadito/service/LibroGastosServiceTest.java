@@ -0,0 +1,175 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.model.*;
+import com.techlab.picadito.model.MovimientoGasto.TipoMovimiento;
+import com.techlab.picadito.model.Reserva.EstadoReserva;
+import com.techlab.picadito.repository.MovimientoGastoRepository;
+import com.techlab.picadito.repository.ReservaRepository;
+import com.techlab.picadito.repository.SaldoUsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"null", "unchecked"})
+class LibroGastosServiceTest {
+
+    @Mock
+    private MovimientoGastoRepository movimientoGastoRepository;
+
+    @Mock
+    private SaldoUsuarioRepository saldoUsuarioRepository;
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @InjectMocks
+    private LibroGastosService libroGastosService;
+
+    private Reserva reserva;
+
+    @BeforeEach
+    void setUp() {
+        Usuario usuario = new Usuario();
+        usuario.setId(1L);
+
+        Partido partido = new Partido();
+        partido.setId(1L);
+        partido.setPrecio(100.0);
+
+        reserva = new Reserva();
+        reserva.setId(7L);
+        reserva.setUsuario(usuario);
+        LineaReserva linea = new LineaReserva();
+        linea.setReserva(reserva);
+        linea.setPartido(partido);
+        linea.setCantidad(2);
+        linea.setPrecioUnitario(100.0);
+        reserva.getLineasReserva().add(linea);
+    }
+
+    @Test
+    void registrarCambioEstado_WhenNewReservaIsConfirmed_ShouldChargeAndCreateSaldo() {
+        reserva.setEstado(EstadoReserva.CONFIRMADO);
+        when(saldoUsuarioRepository.incrementar(eq(1L), eq(200.0), eq(1L), eq(1L), eq(0L), any(LocalDateTime.class))).thenReturn(0);
+
+        libroGastosService.registrarCambioEstado(reserva, null);
+
+        ArgumentCaptor<MovimientoGasto> movimiento = ArgumentCaptor.forClass(MovimientoGasto.class);
+        verify(movimientoGastoRepository).save(movimiento.capture());
+        assertEquals(TipoMovimiento.CARGO, movimiento.getValue().getTipo());
+        assertEquals(200.0, movimiento.getValue().getMonto());
+        assertEquals(7L, movimiento.getValue().getReservaId());
+
+        ArgumentCaptor<SaldoUsuario> saldo = ArgumentCaptor.forClass(SaldoUsuario.class);
+        verify(saldoUsuarioRepository).saveAndFlush(saldo.capture());
+        assertEquals(200.0, saldo.getValue().getTotalGastado());
+        assertEquals(1L, saldo.getValue().getCantidadReservas());
+        assertEquals(1L, saldo.getValue().getReservasConfirmadas());
+    }
+
+    @Test
+    void registrarCambioEstado_WhenChargedReservaIsCancelled_ShouldRefund() {
+        reserva.setEstado(EstadoReserva.CANCELADO);
+        when(saldoUsuarioRepository.incrementar(eq(1L), eq(-200.0), eq(0L), eq(0L), eq(1L), any(LocalDateTime.class))).thenReturn(1);
+
+        libroGastosService.registrarCambioEstado(reserva, EstadoReserva.EN_PROCESO);
+
+        ArgumentCaptor<MovimientoGasto> movimiento = ArgumentCaptor.forClass(MovimientoGasto.class);
+        verify(movimientoGastoRepository).save(movimiento.capture());
+        assertEquals(TipoMovimiento.REINTEGRO, movimiento.getValue().getTipo());
+        assertEquals(-200.0, movimiento.getValue().getMonto());
+        verify(saldoUsuarioRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void registrarCambioEstado_WhenPendingReservaIsCancelled_ShouldOnlyCountCancellation() {
+        reserva.setEstado(EstadoReserva.CANCELADO);
+        when(saldoUsuarioRepository.incrementar(eq(1L), eq(0.0), eq(0L), eq(0L), eq(1L), any(LocalDateTime.class))).thenReturn(1);
+
+        libroGastosService.registrarCambioEstado(reserva, EstadoReserva.PENDIENTE);
+
+        verify(movimientoGastoRepository, never()).save(any());
+    }
+
+    @Test
+    void registrarCambioEstado_BetweenChargedStates_ShouldNotTouchLedger() {
+        reserva.setEstado(EstadoReserva.FINALIZADO);
+
+        libroGastosService.registrarCambioEstado(reserva, EstadoReserva.EN_PROCESO);
+
+        verifyNoInteractions(movimientoGastoRepository, saldoUsuarioRepository);
+    }
+
+    @Test
+    void obtenerTotalGastado_ShouldReadSaldoOrReturnZero() {
+        SaldoUsuario saldo = new SaldoUsuario(1L);
+        saldo.setTotalGastado(350.0);
+        when(saldoUsuarioRepository.findById(1L)).thenReturn(Optional.of(saldo));
+        when(saldoUsuarioRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertEquals(350.0, libroGastosService.obtenerTotalGastado(1L));
+        assertEquals(0.0, libroGastosService.obtenerTotalGastado(2L));
+    }
+
+    @Test
+    void inicializar_WithExistingReservasAndNoLedger_ShouldBackfillFromCurrentState() {
+        reserva.setEstado(EstadoReserva.FINALIZADO);
+        Reserva cancelada = new Reserva();
+        cancelada.setId(8L);
+        cancelada.setUsuario(reserva.getUsuario());
+        cancelada.setEstado(EstadoReserva.CANCELADO);
+        when(saldoUsuarioRepository.count()).thenReturn(0L);
+        when(reservaRepository.count()).thenReturn(2L);
+        when(reservaRepository.findAll()).thenReturn(List.of(reserva, cancelada));
+
+        libroGastosService.inicializar();
+
+        ArgumentCaptor<Iterable<SaldoUsuario>> saldos = ArgumentCaptor.forClass(Iterable.class);
+        verify(saldoUsuarioRepository).saveAll(saldos.capture());
+        List<SaldoUsuario> guardados = new ArrayList<>();
+        saldos.getValue().forEach(guardados::add);
+        assertEquals(1, guardados.size());
+        assertEquals(200.0, guardados.get(0).getTotalGastado());
+        assertEquals(2L, guardados.get(0).getCantidadReservas());
+        assertEquals(1L, guardados.get(0).getReservasCanceladas());
+        verify(movimientoGastoRepository).saveAll(argThat(movimientos -> ((List<MovimientoGasto>) movimientos).size() == 1));
+    }
+
+    @Test
+    void inicializar_ShouldBackfillPricesBeforeReadingReservas() {
+        when(saldoUsuarioRepository.count()).thenReturn(0L);
+        when(reservaRepository.count()).thenReturn(1L);
+        when(reservaRepository.findAll()).thenReturn(List.of());
+
+        libroGastosService.inicializar();
+
+        InOrder orden = inOrder(reservaRepository);
+        orden.verify(reservaRepository).completarPreciosUnitarios();
+        orden.verify(reservaRepository).completarTotales();
+        orden.verify(reservaRepository).findAll();
+    }
+
+    @Test
+    void inicializar_WithExistingLedger_ShouldSkip() {
+        when(saldoUsuarioRepository.count()).thenReturn(3L);
+
+        libroGastosService.inicializar();
+
+        verify(reservaRepository, never()).findAll();
+    }
+}
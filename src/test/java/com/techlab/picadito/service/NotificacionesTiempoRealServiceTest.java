@@ -0,0 +1,303 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.AlertaResponseDTO;
+import com.techlab.picadito.dto.CuposPartidoDTO;
+import com.techlab.picadito.exception.BusinessException;
+import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.model.Alerta.Audiencia;
+import com.techlab.picadito.model.EstadoPartido;
+import com.techlab.picadito.model.Participante;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.repository.ParticipanteRepository;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class NotificacionesTiempoRealServiceTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private PartidoRepository partidoRepository;
+
+    @Mock
+    private ParticipanteRepository participanteRepository;
+
+    @Mock
+    private LecturaAlertasService lecturaAlertasService;
+
+    @Spy
+    @InjectMocks
+    private NotificacionesTiempoRealService notificaciones;
+
+    // Tareas del executor: se corren a mano para simular un cliente lento
+    private final List<Runnable> tareas = new ArrayList<>();
+    private boolean ejecutarEnElMomento = true;
+
+    private final List<EmisorDePrueba> emisores = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Executor executor = tarea -> {
+            if (ejecutarEnElMomento) {
+                tarea.run();
+            } else {
+                tareas.add(tarea);
+            }
+        };
+        ReflectionTestUtils.setField(notificaciones, "executor", executor);
+        lenient().doAnswer(inv -> {
+            EmisorDePrueba emisor = new EmisorDePrueba();
+            emisores.add(emisor);
+            return emisor;
+        }).when(notificaciones).crearEmisor();
+    }
+
+    @Test
+    void suscribirPartido_ShouldSendCurrentSeatsAndThenUpdates() {
+        Partido partido = partido(1L, 7);
+        when(partidoRepository.findById(1L)).thenReturn(Optional.of(partido));
+
+        notificaciones.suscribirPartido(1L, null);
+        partido.getParticipantes().add(new Participante());
+        notificaciones.publicarCupos(partido);
+
+        EmisorDePrueba emisor = emisores.get(0);
+        assertEquals(List.of("cupos", "cupos"), emisor.nombres);
+        assertEquals(3, ((CuposPartidoDTO) emisor.datos.get(0)).getCuposDisponibles());
+        assertEquals(2, ((CuposPartidoDTO) emisor.datos.get(1)).getCuposDisponibles());
+    }
+
+    @Test
+    void publicarCupos_WithoutSubscribers_ShouldNotComputeAnything() {
+        Partido partido = mock(Partido.class);
+        when(partido.getId()).thenReturn(1L);
+
+        notificaciones.publicarCupos(partido);
+
+        verify(partido, never()).getCantidadParticipantes();
+    }
+
+    @Test
+    void suscribirUsuario_ShouldSendUnreadCountAndOnlyOwnAlerts() {
+        when(usuarioRepository.existsById(anyLong())).thenReturn(true);
+        when(lecturaAlertasService.contarNoLeidas(anyLong())).thenReturn(4L);
+
+        notificaciones.suscribirUsuario(1L, null);
+        notificaciones.suscribirUsuario(2L, null);
+        notificaciones.publicarAlerta(alerta(10L, Audiencia.USUARIO, 1L));
+
+        assertEquals(List.of("no-leidas", "alerta"), emisores.get(0).nombres);
+        assertEquals(4L, emisores.get(0).datos.get(0));
+        assertEquals(List.of("no-leidas"), emisores.get(1).nombres);
+    }
+
+    @Test
+    void suscribirUsuario_WithLastEventId_ShouldReplayOnlyMissedEvents() {
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(lecturaAlertasService.contarNoLeidas(1L)).thenReturn(0L);
+        notificaciones.suscribirUsuario(1L, null);
+        notificaciones.publicarAlerta(alerta(10L, Audiencia.USUARIO, 1L));
+        notificaciones.publicarAlerta(alerta(11L, Audiencia.USUARIO, 1L));
+        String idPrimera = emisores.get(0).ids.get(1);
+
+        notificaciones.suscribirUsuario(1L, idPrimera);
+
+        EmisorDePrueba reconectado = emisores.get(1);
+        assertEquals(List.of("alerta"), reconectado.nombres);
+        assertEquals(11L, ((AlertaResponseDTO) reconectado.datos.get(0)).getId());
+        verify(lecturaAlertasService, times(1)).contarNoLeidas(1L);
+    }
+
+    @Test
+    void suscribirUsuario_WithUnknownLastEventId_ShouldResyncWithUnreadCount() {
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(lecturaAlertasService.contarNoLeidas(1L)).thenReturn(2L);
+
+        notificaciones.suscribirUsuario(1L, "otro-proceso-5");
+
+        assertEquals(List.of("no-leidas"), emisores.get(0).nombres);
+    }
+
+    @Test
+    void suscribirUsuario_WhenUserDoesNotExist_ShouldThrowException() {
+        when(usuarioRepository.existsById(9L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> notificaciones.suscribirUsuario(9L, null));
+        assertEquals(0, notificaciones.cantidadSuscripciones());
+    }
+
+    @Test
+    void suscribirUsuario_OverPerUserLimit_ShouldThrowException() {
+        ReflectionTestUtils.setField(notificaciones, "maxPorUsuario", 1);
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(lecturaAlertasService.contarNoLeidas(1L)).thenReturn(0L);
+        notificaciones.suscribirUsuario(1L, null);
+
+        assertThrows(BusinessException.class, () -> notificaciones.suscribirUsuario(1L, null));
+        assertEquals(1, notificaciones.cantidadSuscripciones());
+    }
+
+    @Test
+    void publicarAlerta_ForPartidoAudience_ShouldReachOnlyEnrolledConnectedUsers() {
+        when(usuarioRepository.existsById(anyLong())).thenReturn(true);
+        when(lecturaAlertasService.contarNoLeidas(anyLong())).thenReturn(0L);
+        notificaciones.suscribirUsuario(1L, null);
+        notificaciones.suscribirUsuario(2L, null);
+        when(participanteRepository.findUsuarioIdsInscriptos(eq(5L), anyCollection())).thenReturn(List.of(2L));
+
+        AlertaResponseDTO general = alerta(20L, Audiencia.PARTIDO, null);
+        general.setPartidoId(5L);
+        notificaciones.publicarAlerta(general);
+
+        assertEquals(List.of("no-leidas"), emisores.get(0).nombres);
+        assertEquals(List.of("no-leidas", "alerta"), emisores.get(1).nombres);
+    }
+
+    @Test
+    void publicarAlerta_WhenClientDoesNotKeepUp_ShouldCloseSubscription() {
+        ReflectionTestUtils.setField(notificaciones, "colaPorSuscripcion", 2);
+        when(usuarioRepository.existsById(1L)).thenReturn(true);
+        when(lecturaAlertasService.contarNoLeidas(1L)).thenReturn(0L);
+        ejecutarEnElMomento = false;
+        notificaciones.suscribirUsuario(1L, null);
+
+        notificaciones.publicarAlerta(alerta(10L, Audiencia.USUARIO, 1L));
+        notificaciones.publicarAlerta(alerta(11L, Audiencia.USUARIO, 1L));
+
+        assertEquals(0, notificaciones.cantidadSuscripciones());
+        assertTrue(emisores.get(0).completado);
+    }
+
+    @Test
+    void publicarCupos_WhenClientDoesNotKeepUp_ShouldKeepOnlyLatestValue() {
+        ReflectionTestUtils.setField(notificaciones, "colaPorSuscripcion", 2);
+        Partido partido = partido(1L, 0);
+        when(partidoRepository.findById(1L)).thenReturn(Optional.of(partido));
+        ejecutarEnElMomento = false;
+        notificaciones.suscribirPartido(1L, null);
+
+        for (int i = 0; i < 5; i++) {
+            partido.getParticipantes().add(new Participante());
+            notificaciones.publicarCupos(partido);
+        }
+        tareas.forEach(Runnable::run);
+
+        assertEquals(1, notificaciones.cantidadSuscripciones());
+        EmisorDePrueba emisor = emisores.get(0);
+        assertEquals(5, ((CuposPartidoDTO) emisor.datos.get(emisor.datos.size() - 1)).getCantidadParticipantes());
+        assertTrue(emisor.datos.size() <= 2);
+    }
+
+    @Test
+    void latir_ShouldSendHeartbeatAndDropBrokenConnections() {
+        when(usuarioRepository.existsById(anyLong())).thenReturn(true);
+        when(lecturaAlertasService.contarNoLeidas(anyLong())).thenReturn(0L);
+        notificaciones.suscribirUsuario(1L, null);
+        notificaciones.suscribirUsuario(2L, null);
+        emisores.get(1).fallar = true;
+
+        notificaciones.latir();
+
+        assertEquals(1, emisores.get(0).comentarios);
+        assertEquals(1, notificaciones.cantidadSuscripciones());
+    }
+
+    @Test
+    void cerrarPartido_ShouldCompleteItsStreams() {
+        when(partidoRepository.findById(1L)).thenReturn(Optional.of(partido(1L, 0)));
+        notificaciones.suscribirPartido(1L, null);
+
+        notificaciones.cerrarPartido(1L);
+
+        assertTrue(emisores.get(0).completado);
+        assertEquals(0, notificaciones.cantidadSuscripciones());
+    }
+
+    private static Partido partido(Long id, int participantes) {
+        Partido partido = new Partido();
+        partido.setId(id);
+        partido.setMaxJugadores(10);
+        partido.setEstado(EstadoPartido.DISPONIBLE);
+        List<Participante> lista = new ArrayList<>();
+        for (int i = 0; i < participantes; i++) {
+            lista.add(new Participante());
+        }
+        partido.setParticipantes(lista);
+        return partido;
+    }
+
+    private static AlertaResponseDTO alerta(Long id, Audiencia audiencia, Long usuarioId) {
+        AlertaResponseDTO alerta = new AlertaResponseDTO();
+        alerta.setId(id);
+        alerta.setAudiencia(audiencia);
+        alerta.setUsuarioId(usuarioId);
+        return alerta;
+    }
+
+    /**
+     * Emisor sin conexión: registra lo que se le envía
+     */
+    private static class EmisorDePrueba extends SseEmitter {
+        final List<String> ids = new ArrayList<>();
+        final List<String> nombres = new ArrayList<>();
+        final List<Object> datos = new ArrayList<>();
+        int comentarios;
+        boolean fallar;
+        boolean completado;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (fallar) {
+                throw new IOException("Conexión cerrada");
+            }
+            Object dato = null;
+            StringBuilder texto = new StringBuilder();
+            for (var parte : builder.build()) {
+                if (parte.getData() instanceof String cadena) {
+                    texto.append(cadena);
+                } else {
+                    dato = parte.getData();
+                }
+            }
+            if (texto.toString().startsWith(":")) {
+                comentarios++;
+                return;
+            }
+            for (String linea : texto.toString().split("\n")) {
+                if (linea.startsWith("id:")) {
+                    ids.add(linea.substring(3));
+                } else if (linea.startsWith("event:")) {
+                    nombres.add(linea.substring(6));
+                }
+            }
+            datos.add(dato);
+        }
+
+        @Override
+        public void complete() {
+            completado = true;
+        }
+    }
+}
@@ -9,8 +9,11 @@ import com.techlab.picadito.model.Nivel;
 import com.techlab.picadito.model.Partido;
 import com.techlab.picadito.model.Participante;
 import com.techlab.picadito.model.Posicion;
+import com.techlab.picadito.model.TipoEventoDominio;
+import com.techlab.picadito.model.Usuario;
 import com.techlab.picadito.repository.ParticipanteRepository;
 import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.UsuarioRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -39,6 +42,12 @@ class ParticipanteServiceTest {
     @Mock
     private PartidoService partidoService;
 
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private EventosDominioService eventosDominioService;
+
     @InjectMocks
     private ParticipanteService participanteService;
 
@@ -92,6 +101,34 @@ class ParticipanteServiceTest {
         assertNotNull(result);
         assertEquals("Juan Pérez", result.getNombre());
         verify(participanteRepository, times(1)).save(any(Participante.class));
+        verify(eventosDominioService).publicar(eq(TipoEventoDominio.PARTICIPANTE_INSCRITO), eq(1L),
+                any(), any(), eq("Juan Pérez"));
+    }
+
+    @Test
+    @SuppressWarnings("null")
+    void inscribirseAPartido_WithUsuario_ShouldLinkParticipante() {
+        Usuario usuario = new Usuario();
+        usuario.setId(7L);
+        participanteDTO.setUsuarioId(7L);
+        when(partidoRepository.findById(1L)).thenReturn(Optional.of(partido));
+        when(participanteRepository.existsByPartidoAndUsuarioId(partido, 7L)).thenReturn(false);
+        when(usuarioRepository.findById(7L)).thenReturn(Optional.of(usuario));
+        when(participanteRepository.save(any(Participante.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ParticipanteResponseDTO result = participanteService.inscribirseAPartido(1L, participanteDTO);
+
+        assertEquals(7L, result.getUsuarioId());
+    }
+
+    @Test
+    void inscribirseAPartido_WhenUsuarioAlreadyInscribed_ShouldThrowException() {
+        participanteDTO.setUsuarioId(7L);
+        when(partidoRepository.findById(1L)).thenReturn(Optional.of(partido));
+        when(participanteRepository.existsByPartidoAndUsuarioId(partido, 7L)).thenReturn(true);
+
+        assertThrows(BusinessException.class, () -> participanteService.inscribirseAPartido(1L, participanteDTO));
+        verify(participanteRepository, never()).save(any(Participante.class));
     }
 
     @Test
@@ -7,6 +7,8 @@ import com.techlab.picadito.exception.ResourceNotFoundException;
 import com.techlab.picadito.exception.ValidationException;
 import com.techlab.picadito.model.EstadoPartido;
 import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.Sede;
+import com.techlab.picadito.model.TipoEventoDominio;
 import com.techlab.picadito.repository.PartidoRepository;
 import com.techlab.picadito.repository.SedeRepository;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -20,10 +22,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,7 +44,7 @@ class PartidoServiceTest {
     private CategoriaService categoriaService;
 
     @Mock
-    private AlertaService alertaService;
+    private EventosDominioService eventosDominioService;
 
     @Mock
     private CalificacionService calificacionService;
@@ -47,6 +52,18 @@ class PartidoServiceTest {
     @Mock
     private EquipoService equipoService;
 
+    @Mock
+    private AgendaSedeService agendaSedeService;
+
+    @Mock
+    private CicloVidaPartidoService cicloVidaPartidoService;
+
+    @Mock
+    private RecordatorioPartidoService recordatorioPartidoService;
+
+    @Mock
+    private ReservaService reservaService;
+
     @InjectMocks
     private PartidoService partidoService;
 
@@ -85,6 +102,26 @@ class PartidoServiceTest {
         verify(partidoRepository, times(1)).findAll();
     }
 
+    @Test
+    void obtenerTodosLosPartidos_ShouldLoadRatingsAndTeamsOnceForTheWholeList() {
+        Partido otro = new Partido();
+        otro.setId(2L);
+        otro.setTitulo("Otro partido");
+        otro.setFechaHora(LocalDateTime.now().plusDays(2));
+        otro.setMaxJugadores(10);
+        when(partidoRepository.findAll()).thenReturn(List.of(partido, otro));
+        when(calificacionService.obtenerPromediosPorPartidos(List.of(1L, 2L))).thenReturn(Map.of(2L, 4.5));
+        when(equipoService.obtenerEquiposPorPartidos(List.of(1L, 2L))).thenReturn(Map.of());
+
+        List<PartidoResponseDTO> result = partidoService.obtenerTodosLosPartidos();
+
+        assertNull(result.get(0).getPromedioCalificacion());
+        assertEquals(4.5, result.get(1).getPromedioCalificacion());
+        assertTrue(result.get(1).getEquipos().isEmpty());
+        verify(calificacionService, never()).obtenerPromedioPorPartido(any());
+        verify(equipoService, never()).obtenerEquiposPorPartido(any());
+    }
+
     @Test
     void obtenerPartidoPorId_WithValidId_ShouldReturnPartido() {
         when(partidoRepository.findById(1L)).thenReturn(Optional.of(partido));
@@ -112,7 +149,6 @@ class PartidoServiceTest {
         Partido savedPartido = partido;
         when(partidoRepository.save(any(Partido.class))).thenReturn(savedPartido);
         when(partidoRepository.findById(1L)).thenReturn(Optional.of(savedPartido));
-        doNothing().when(alertaService).crearAlertaCuposBajos(any(Partido.class));
 
         PartidoResponseDTO result = partidoService.crearPartido(partidoDTO);
 
@@ -120,6 +156,40 @@ class PartidoServiceTest {
         assertEquals("Partido de Prueba", result.getTitulo());
         verify(partidoRepository, times(1)).save(any(Partido.class));
         verify(partidoRepository, times(1)).findById(1L);
+        verify(eventosDominioService).publicar(TipoEventoDominio.PARTIDO_CREADO, 1L, null, null, "Partido de Prueba");
+    }
+
+    @Test
+    @SuppressWarnings("null")
+    void crearPartido_WithOverlappingPartidoAtSede_ShouldThrowException() {
+        Sede sede = new Sede();
+        sede.setId(5L);
+        partidoDTO.setSedeId(5L);
+        Partido existente = new Partido();
+        existente.setId(2L);
+        existente.setFechaHora(partidoDTO.getFechaHora().minusMinutes(30));
+        existente.setDuracionMinutos(60);
+        when(sedeRepository.findById(5L)).thenReturn(Optional.of(sede));
+        when(agendaSedeService.buscarConflicto(eq(5L), isNull(), any(), any())).thenReturn(Optional.empty());
+        when(sedeRepository.findByIdParaAsignarHorario(5L)).thenReturn(Optional.of(sede));
+        when(partidoRepository.findEnSedeEntre(eq(5L), eq(EstadoPartido.CANCELADO), any(), any()))
+                .thenReturn(List.of(existente));
+
+        assertThrows(BusinessException.class, () -> partidoService.crearPartido(partidoDTO));
+        verify(partidoRepository, never()).save(any(Partido.class));
+    }
+
+    @Test
+    void crearPartido_WhenAgendaReportsConflict_ShouldNotQueryDatabase() {
+        Sede sede = new Sede();
+        sede.setId(5L);
+        partidoDTO.setSedeId(5L);
+        when(sedeRepository.findById(5L)).thenReturn(Optional.of(sede));
+        when(agendaSedeService.buscarConflicto(eq(5L), isNull(), any(), any())).thenReturn(Optional.of(2L));
+
+        assertThrows(BusinessException.class, () -> partidoService.crearPartido(partidoDTO));
+        verify(sedeRepository, never()).findByIdParaAsignarHorario(anyLong());
+        verify(partidoRepository, never()).save(any(Partido.class));
     }
 
     @Test
@@ -145,6 +215,48 @@ class PartidoServiceTest {
         verify(partidoRepository, times(1)).save(any(Partido.class));
     }
 
+    @Test
+    @SuppressWarnings("null")
+    void cancelarPartido_WithValidId_ShouldCancelAndReleaseSlot() {
+        when(partidoRepository.findById(1L)).thenReturn(Optional.of(partido));
+        when(partidoRepository.save(any(Partido.class))).thenReturn(partido);
+
+        PartidoResponseDTO result = partidoService.cancelarPartido(1L);
+
+        assertEquals(EstadoPartido.CANCELADO, result.getEstado());
+        verify(agendaSedeService).liberar(1L);
+        verify(cicloVidaPartidoService).quitar(1L);
+        verify(reservaService).cancelarPorPartido(1L);
+        verify(eventosDominioService).publicar(TipoEventoDominio.PARTIDO_CANCELADO, 1L, null, null, partido.getTitulo());
+    }
+
+    @Test
+    void cancelarPartido_WhenAlreadyCancelled_ShouldThrowException() {
+        partido.setEstado(EstadoPartido.CANCELADO);
+        when(partidoRepository.findById(1L)).thenReturn(Optional.of(partido));
+
+        assertThrows(BusinessException.class, () -> partidoService.cancelarPartido(1L));
+        verify(agendaSedeService, never()).liberar(anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("null")
+    void finalizarPartido_ShouldMarkAsFinalizado() {
+        when(partidoRepository.save(partido)).thenReturn(partido);
+
+        Partido result = partidoService.finalizarPartido(partido);
+
+        assertEquals(EstadoPartido.FINALIZADO, result.getEstado());
+    }
+
+    @Test
+    void finalizarPartido_WhenCancelled_ShouldThrowException() {
+        partido.setEstado(EstadoPartido.CANCELADO);
+
+        assertThrows(BusinessException.class, () -> partidoService.finalizarPartido(partido));
+        verify(partidoRepository, never()).save(any(Partido.class));
+    }
+
     @Test
     void eliminarPartido_WithValidId_ShouldDeletePartido() {
         when(partidoRepository.existsById(1L)).thenReturn(true);
@@ -154,6 +266,7 @@ class PartidoServiceTest {
 
         verify(partidoRepository, times(1)).existsById(1L);
         verify(partidoRepository, times(1)).deleteById(1L);
+        verify(eventosDominioService).publicar(TipoEventoDominio.PARTIDO_ELIMINADO, 1L, null, null, null);
     }
 
     @Test
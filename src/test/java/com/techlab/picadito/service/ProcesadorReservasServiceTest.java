@@ -0,0 +1,126 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.MetricasProcesadorReservasDTO;
+import com.techlab.picadito.model.LineaReserva;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.Reserva;
+import com.techlab.picadito.model.Reserva.EstadoReserva;
+import com.techlab.picadito.repository.ReservaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class ProcesadorReservasServiceTest {
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @Mock
+    private ReservaService reservaService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ProcesadorReservasService procesadorReservasService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(procesadorReservasService, "tamanioLote", 2);
+    }
+
+    @Test
+    void procesar_ShouldWalkCandidatesInKeysetChunks() {
+        Reserva r1 = reserva(1L, LocalDateTime.now().plusHours(2));
+        Reserva r2 = reserva(2L, LocalDateTime.now().plusHours(30));
+        Reserva r3 = reserva(3L, LocalDateTime.now().minusHours(3));
+        when(reservaRepository.findIdsConPartidoAntesDe(anyCollection(), any(LocalDateTime.class), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L));
+        when(reservaRepository.findIdsConPartidoAntesDe(anyCollection(), any(LocalDateTime.class), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(3L));
+        when(reservaRepository.findConLineasByIdIn(List.of(1L, 2L))).thenReturn(List.of(r1, r2));
+        when(reservaRepository.findConLineasByIdIn(List.of(3L))).thenReturn(List.of(r3));
+        when(reservaService.actualizarEstadoAutomatico(r1)).thenAnswer(inv -> cambiar(r1, EstadoReserva.EN_PROCESO));
+        when(reservaService.actualizarEstadoAutomatico(r2)).thenReturn(false);
+        when(reservaService.actualizarEstadoAutomatico(r3)).thenAnswer(inv -> cambiar(r3, EstadoReserva.FINALIZADO));
+
+        MetricasProcesadorReservasDTO metricas = procesadorReservasService.procesar();
+
+        assertEquals(2, metricas.getLotesUltima());
+        assertEquals(3, metricas.getEvaluadasUltima());
+        assertEquals(2, metricas.getActualizadasUltima());
+        assertEquals(1L, metricas.getPasadasAEnProceso());
+        assertEquals(1L, metricas.getPasadasAFinalizado());
+        assertEquals(1L, metricas.getEjecuciones());
+        // La reserva con partido en 2 horas debía pasar a EN_PROCESO hace unas 22 horas
+        assertTrue(metricas.getLagMaximoSegundos() >= 21 * 3600, "Lag: " + metricas.getLagMaximoSegundos());
+        // Dos lecturas de ids y dos lotes, cada uno en su transacción; el segundo lote incompleto corta el recorrido
+        verify(transactionManager, times(4)).commit(any());
+    }
+
+    @Test
+    void procesar_WhenChunkFails_ShouldContinueWithNextChunk() {
+        Reserva r3 = reserva(3L, LocalDateTime.now().plusHours(1));
+        when(reservaRepository.findIdsConPartidoAntesDe(anyCollection(), any(LocalDateTime.class), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L));
+        when(reservaRepository.findIdsConPartidoAntesDe(anyCollection(), any(LocalDateTime.class), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(3L));
+        when(reservaRepository.findConLineasByIdIn(List.of(1L, 2L))).thenThrow(new IllegalStateException("lock timeout"));
+        when(reservaRepository.findConLineasByIdIn(List.of(3L))).thenReturn(List.of(r3));
+        when(reservaService.actualizarEstadoAutomatico(r3)).thenAnswer(inv -> cambiar(r3, EstadoReserva.EN_PROCESO));
+
+        MetricasProcesadorReservasDTO metricas = procesadorReservasService.procesar();
+
+        assertEquals(1, metricas.getLotesFallidosUltima());
+        assertEquals(1, metricas.getActualizadasUltima());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void procesar_WithoutCandidates_ShouldOnlyQueryOnce() {
+        when(reservaRepository.findIdsConPartidoAntesDe(anyCollection(), any(LocalDateTime.class), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        MetricasProcesadorReservasDTO metricas = procesadorReservasService.procesar();
+
+        assertEquals(0, metricas.getLotesUltima());
+        assertEquals(0, metricas.getEvaluadasUltima());
+        verify(reservaRepository, never()).findConLineasByIdIn(any());
+        verify(reservaRepository, never()).findAll();
+    }
+
+    private static boolean cambiar(Reserva reserva, EstadoReserva estado) {
+        reserva.setEstado(estado);
+        return true;
+    }
+
+    private static Reserva reserva(Long id, LocalDateTime fechaPartido) {
+        Partido partido = new Partido();
+        partido.setId(id * 10);
+        partido.setFechaHora(fechaPartido);
+
+        Reserva reserva = new Reserva();
+        reserva.setId(id);
+        reserva.setEstado(EstadoReserva.CONFIRMADO);
+        LineaReserva linea = new LineaReserva();
+        linea.setReserva(reserva);
+        linea.setPartido(partido);
+        reserva.getLineasReserva().add(linea);
+        return reserva;
+    }
+}
@@ -0,0 +1,226 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.MetricasTrabajosDTO;
+import com.techlab.picadito.model.TipoTrabajo;
+import com.techlab.picadito.model.Trabajo;
+import com.techlab.picadito.model.Trabajo.EstadoTrabajo;
+import com.techlab.picadito.repository.TrabajoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class ProcesadorTrabajosServiceTest {
+
+    @Mock
+    private TrabajoRepository trabajoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ProcesadorTrabajosService procesador;
+
+    private ManejadorDePrueba manejador;
+    private final List<Runnable> lanzados = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        manejador = new ManejadorDePrueba();
+        Executor diferido = lanzados::add;
+        ReflectionTestUtils.setField(procesador, "executor", diferido);
+        ReflectionTestUtils.setField(procesador, "manejadores", List.of(manejador));
+        ReflectionTestUtils.setField(procesador, "nodo", "nodo-a");
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+    }
+
+    @Test
+    void reclamar_ShouldClaimRunAndCompleteTheJob() {
+        Trabajo trabajo = trabajo(1L, EstadoTrabajo.PENDIENTE, 0);
+        listos(List.of(trabajo));
+        when(trabajoRepository.finalizar(eq(1L), eq("nodo-a"), eq(EstadoTrabajo.EN_PROCESO), eq(EstadoTrabajo.COMPLETADO),
+                isNull(), any())).thenReturn(1);
+
+        assertEquals(1, procesador.reclamar());
+
+        assertEquals(EstadoTrabajo.EN_PROCESO, trabajo.getEstado());
+        assertEquals(1, trabajo.getIntentos());
+        assertEquals("nodo-a", trabajo.getNodo());
+        assertTrue(trabajo.getBloqueadoHasta().isAfter(LocalDateTime.now()));
+        ejecutarLanzados();
+        assertEquals(List.of(1L), manejador.procesados);
+        assertEquals(1L, procesador.obtenerMetricas().getCompletados());
+    }
+
+    @Test
+    void reclamar_WhenHandlerFails_ShouldRescheduleWithBackoff() {
+        manejador.fallar = true;
+        listos(List.of(trabajo(1L, EstadoTrabajo.PENDIENTE, 1)));
+        when(trabajoRepository.reprogramar(eq(1L), eq("nodo-a"), eq(EstadoTrabajo.EN_PROCESO), eq(EstadoTrabajo.PENDIENTE),
+                any(), anyString())).thenReturn(1);
+
+        procesador.reclamar();
+        ejecutarLanzados();
+
+        ArgumentCaptor<LocalDateTime> disponible = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(trabajoRepository).reprogramar(eq(1L), eq("nodo-a"), eq(EstadoTrabajo.EN_PROCESO), eq(EstadoTrabajo.PENDIENTE),
+                disponible.capture(), eq("IllegalStateException: sin conexión"));
+        // Segundo intento: el doble de la espera base (10 s)
+        assertTrue(disponible.getValue().isAfter(LocalDateTime.now().plusSeconds(15)));
+        assertEquals(1L, procesador.obtenerMetricas().getReintentados());
+    }
+
+    @Test
+    void reclamar_AfterMaxAttempts_ShouldMarkTheJobFailed() {
+        ReflectionTestUtils.setField(procesador, "maxIntentos", 2);
+        manejador.fallar = true;
+        listos(List.of(trabajo(1L, EstadoTrabajo.PENDIENTE, 1)));
+        when(trabajoRepository.finalizar(eq(1L), eq("nodo-a"), eq(EstadoTrabajo.EN_PROCESO), eq(EstadoTrabajo.FALLIDO),
+                anyString(), any())).thenReturn(1);
+
+        procesador.reclamar();
+        ejecutarLanzados();
+
+        verify(trabajoRepository, never()).reprogramar(anyLong(), anyString(), any(), any(), any(), any());
+        assertEquals(1L, procesador.obtenerMetricas().getFallidos());
+    }
+
+    @Test
+    void reclamar_ShouldRespectTheConcurrencyOfEachType() {
+        manejador.concurrencia = 1;
+        Trabajo primero = trabajo(1L, EstadoTrabajo.PENDIENTE, 0);
+        Trabajo segundo = trabajo(2L, EstadoTrabajo.PENDIENTE, 0);
+        listos(List.of(primero, segundo));
+
+        assertEquals(1, procesador.reclamar());
+        // Con el cupo del tipo ocupado ni siquiera consulta la base
+        assertEquals(0, procesador.reclamar());
+
+        assertEquals(EstadoTrabajo.PENDIENTE, segundo.getEstado());
+        verify(trabajoRepository, times(1)).findReclamables(anyCollection(), any(), any(), any(), any(Pageable.class));
+        MetricasTrabajosDTO metricas = procesador.obtenerMetricas();
+        assertEquals(1, metricas.getEnEjecucion());
+        assertEquals(1, metricas.getEnEjecucionPorTipo().get(TipoTrabajo.REPORTE));
+    }
+
+    @Test
+    void reclamar_WhenATypeRunsOutOfSlots_ShouldKeepClaimingTheOtherTypes() {
+        ReflectionTestUtils.setField(procesador, "concurrencia", 4);
+        manejador.concurrencia = 1;
+        ManejadorDePrueba retencion = new ManejadorDePrueba();
+        retencion.tipo = TipoTrabajo.RETENCION_ALERTAS;
+        ReflectionTestUtils.setField(procesador, "manejadores", List.of(manejador, retencion));
+        List<Trabajo> reportes = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            reportes.add(trabajo(id, EstadoTrabajo.PENDIENTE, 0));
+        }
+        Trabajo limpieza = trabajo(5L, EstadoTrabajo.PENDIENTE, 0);
+        limpieza.setTipo(TipoTrabajo.RETENCION_ALERTAS);
+        // La base ordena por prioridad: los reportes llenan la primera página
+        when(trabajoRepository.findReclamables(anyCollection(), any(), any(), any(), any(Pageable.class))).thenAnswer(inv -> {
+            Collection<TipoTrabajo> tipos = inv.getArgument(0);
+            List<Trabajo> todos = new ArrayList<>(reportes);
+            todos.add(limpieza);
+            return todos.stream()
+                    .filter(t -> tipos.contains(t.getTipo()) && t.getEstado() == EstadoTrabajo.PENDIENTE)
+                    .limit(inv.<Pageable>getArgument(4).getPageSize())
+                    .toList();
+        });
+
+        assertEquals(2, procesador.reclamar());
+
+        assertEquals(EstadoTrabajo.EN_PROCESO, reportes.get(0).getEstado());
+        assertEquals(EstadoTrabajo.PENDIENTE, reportes.get(1).getEstado());
+        assertEquals(EstadoTrabajo.EN_PROCESO, limpieza.getEstado());
+        verify(trabajoRepository, times(2)).findReclamables(anyCollection(), any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void reclamar_WithExpiredClaimOnLastAttempt_ShouldFailItWithoutRunning() {
+        ReflectionTestUtils.setField(procesador, "maxIntentos", 3);
+        Trabajo vencido = trabajo(1L, EstadoTrabajo.EN_PROCESO, 3);
+        vencido.setNodo("nodo-b");
+        listos(List.of(vencido));
+
+        assertEquals(0, procesador.reclamar());
+
+        assertEquals(EstadoTrabajo.FALLIDO, vencido.getEstado());
+        assertTrue(lanzados.isEmpty());
+        assertEquals(1L, procesador.obtenerMetricas().getRetomados());
+    }
+
+    @Test
+    void renovar_ShouldExtendTheClaimOfRunningJobs() {
+        listos(List.of(trabajo(1L, EstadoTrabajo.PENDIENTE, 0)));
+        procesador.reclamar();
+
+        procesador.renovar();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(trabajoRepository).renovar(ids.capture(), eq("nodo-a"), eq(EstadoTrabajo.EN_PROCESO), any());
+        assertEquals(List.of(1L), new ArrayList<>(ids.getValue()));
+    }
+
+    private void listos(List<Trabajo> trabajos) {
+        when(trabajoRepository.findReclamables(anyCollection(), eq(EstadoTrabajo.PENDIENTE), eq(EstadoTrabajo.EN_PROCESO),
+                any(LocalDateTime.class), any(Pageable.class))).thenReturn(trabajos);
+    }
+
+    private void ejecutarLanzados() {
+        List<Runnable> pendientes = new ArrayList<>(lanzados);
+        lanzados.clear();
+        pendientes.forEach(Runnable::run);
+    }
+
+    private static Trabajo trabajo(Long id, EstadoTrabajo estado, int intentos) {
+        LocalDateTime ahora = LocalDateTime.now();
+        return new Trabajo(id, TipoTrabajo.REPORTE, String.valueOf(id), null, TipoTrabajo.REPORTE.getPrioridad(), estado,
+                intentos, ahora.minusMinutes(1), estado == EstadoTrabajo.EN_PROCESO ? ahora.minusSeconds(1) : null,
+                null, null, ahora.minusMinutes(1), null);
+    }
+
+    private static class ManejadorDePrueba implements ManejadorTrabajo {
+        final List<Long> procesados = new ArrayList<>();
+        boolean fallar;
+        int concurrencia = 4;
+        TipoTrabajo tipo = TipoTrabajo.REPORTE;
+
+        @Override
+        public TipoTrabajo getTipo() {
+            return tipo;
+        }
+
+        @Override
+        public int getConcurrencia() {
+            return concurrencia;
+        }
+
+        @Override
+        public void procesar(Trabajo trabajo) {
+            if (fallar) {
+                throw new IllegalStateException("sin conexión");
+            }
+            procesados.add(trabajo.getId());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.RatingJugadorDTO;
+import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.exception.ValidationException;
+import com.techlab.picadito.model.Equipo;
+import com.techlab.picadito.model.Nivel;
+import com.techlab.picadito.model.Participante;
+import com.techlab.picadito.model.RatingJugador;
+import com.techlab.picadito.model.Usuario;
+import com.techlab.picadito.repository.RatingJugadorRepository;
+import com.techlab.picadito.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"null", "unchecked"})
+class RatingServiceTest {
+
+    @Mock
+    private RatingJugadorRepository ratingJugadorRepository;
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private RatingService ratingService;
+
+    @Test
+    void ratingInicial_ShouldDependOnNivel() {
+        assertEquals(1125.0, RatingService.ratingInicial(Nivel.PRINCIPIANTE));
+        assertEquals(1875.0, RatingService.ratingInicial(Nivel.EXPERTO));
+        assertEquals(1375.0, RatingService.ratingInicial(null));
+    }
+
+    @Test
+    void aplicarResultado_ShouldAddTheResultToTheStoredRatings() {
+        Equipo ganador = equipo(3, jugador(1L, Nivel.INTERMEDIO), jugador(2L, Nivel.INTERMEDIO));
+        Equipo perdedor = equipo(1, jugador(3L, Nivel.INTERMEDIO), jugador(null, Nivel.INTERMEDIO));
+        when(ratingJugadorRepository.findRatings(any())).thenReturn(List.of());
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+
+        ratingService.aplicarResultado(List.of(ganador, perdedor));
+
+        // Primer resultado: se crea el rating inicial y se suma con K provisorio (2K)
+        verify(ratingJugadorRepository).crear(eq(1L), eq(1375.0), any());
+        verify(ratingJugadorRepository).crear(eq(3L), eq(1375.0), any());
+        // Fuerzas iguales: cada jugador gana o pierde medio resultado
+        verify(ratingJugadorRepository).sumarResultado(eq(1L), eq(0.5), eq(10), eq(64.0), eq(32.0), any());
+        verify(ratingJugadorRepository).sumarResultado(eq(2L), eq(0.5), eq(10), eq(64.0), eq(32.0), any());
+        verify(ratingJugadorRepository).sumarResultado(eq(3L), eq(-0.5), eq(10), eq(64.0), eq(32.0), any());
+        verify(ratingJugadorRepository).findAllById(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void aplicarResultado_WhenFavoriteWins_ShouldMoveRatingsLessUsingStoredValues() {
+        // La copia en memoria de este nodo está atrasada: manda lo guardado
+        when(ratingJugadorRepository.findRatings(any())).thenReturn(List.of(
+                new Object[]{1L, 1800.0}, new Object[]{2L, 1400.0}));
+
+        ratingService.aplicarResultado(List.of(equipo(2, jugador(1L, Nivel.EXPERTO)), equipo(0, jugador(2L, Nivel.EXPERTO))));
+
+        ArgumentCaptor<Double> ganancia = ArgumentCaptor.forClass(Double.class);
+        ArgumentCaptor<Double> perdida = ArgumentCaptor.forClass(Double.class);
+        verify(ratingJugadorRepository).sumarResultado(eq(1L), ganancia.capture(), anyInt(), anyDouble(), anyDouble(), any());
+        verify(ratingJugadorRepository).sumarResultado(eq(2L), perdida.capture(), anyInt(), anyDouble(), anyDouble(), any());
+        assertTrue(ganancia.getValue() > 0 && ganancia.getValue() < 0.5, "Sorpresa: " + ganancia.getValue());
+        assertEquals(-ganancia.getValue(), perdida.getValue(), 1e-9);
+        verify(ratingJugadorRepository, never()).crear(any(), anyDouble(), any());
+    }
+
+    @Test
+    void refrescar_ShouldCopyRatingsChangedByOtherNodes() {
+        when(ratingJugadorRepository.findByFechaActualizacionAfter(any())).thenReturn(List.of(
+                new RatingJugador(1L, 1620.0, 3, LocalDateTime.now()),
+                new RatingJugador(2L, 1375.0, 0, LocalDateTime.now())));
+
+        ratingService.refrescar();
+
+        assertEquals(1620.0, ratingService.obtenerRating(1L), 1e-9);
+        // Sin partidos: su resultado no se confirmó
+        assertNull(ratingService.obtenerRating(2L));
+        assertNull(ratingService.obtenerRating(null));
+    }
+
+    @Test
+    void obtenerRanking_ShouldSortByRatingWithNames() {
+        when(ratingJugadorRepository.findAll()).thenReturn(List.of(
+                new RatingJugador(1L, 1500.0, 5, null),
+                new RatingJugador(2L, 1700.0, 5, null),
+                new RatingJugador(3L, 1600.0, 5, null)));
+        ratingService.cargar();
+        when(usuarioRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(usuario(2L, "Ana"), usuario(3L, "Beto")));
+
+        List<RatingJugadorDTO> ranking = ratingService.obtenerRanking(2);
+
+        assertEquals(2, ranking.size());
+        assertEquals(2L, ranking.get(0).getUsuarioId());
+        assertEquals("Ana", ranking.get(0).getNombre());
+        assertEquals(2, ranking.get(1).getPosicion());
+    }
+
+    @Test
+    void obtenerRanking_WithInvalidLimit_ShouldThrowException() {
+        assertThrows(ValidationException.class, () -> ratingService.obtenerRanking(0));
+    }
+
+    @Test
+    void obtenerRatingUsuario_WithoutRating_ShouldThrowException() {
+        when(usuarioRepository.findById(9L)).thenReturn(Optional.of(usuario(9L, "Carla")));
+
+        assertThrows(ResourceNotFoundException.class, () -> ratingService.obtenerRatingUsuario(9L));
+    }
+
+    private static Participante jugador(Long usuarioId, Nivel nivel) {
+        Participante participante = new Participante();
+        participante.setNivel(nivel);
+        if (usuarioId != null) {
+            participante.setUsuario(usuario(usuarioId, "Jugador " + usuarioId));
+        }
+        return participante;
+    }
+
+    private static Equipo equipo(int goles, Participante... participantes) {
+        Equipo equipo = new Equipo();
+        equipo.setGoles(goles);
+        equipo.setParticipantes(new ArrayList<>(List.of(participantes)));
+        return equipo;
+    }
+
+    private static Usuario usuario(Long id, String nombre) {
+        Usuario usuario = new Usuario();
+        usuario.setId(id);
+        usuario.setNombre(nombre);
+        return usuario;
+    }
+}
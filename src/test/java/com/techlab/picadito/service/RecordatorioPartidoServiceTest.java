@@ -0,0 +1,167 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.model.EstadoPartido;
+import com.techlab.picadito.model.Participante;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.RecordatorioEnviado;
+import com.techlab.picadito.model.RecordatorioEnviado.TipoRecordatorio;
+import com.techlab.picadito.model.TipoTrabajo;
+import com.techlab.picadito.model.Trabajo;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.RecordatorioEnviadoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class RecordatorioPartidoServiceTest {
+
+    @Mock
+    private PartidoRepository partidoRepository;
+
+    @Mock
+    private RecordatorioEnviadoRepository recordatorioEnviadoRepository;
+
+    @Mock
+    private AlertaService alertaService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ColaTrabajosService colaTrabajosService;
+
+    @InjectMocks
+    private RecordatorioPartidoService recordatorioPartidoService;
+
+    @Test
+    void programar_ShouldEnqueueBothRemindersAtTheirSendTime() {
+        LocalDateTime fechaHora = LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.SECONDS);
+        when(colaTrabajosService.encolar(eq(TipoTrabajo.RECORDATORIO_PARTIDO), anyString(), any(), anyString())).thenReturn(true);
+
+        recordatorioPartidoService.programar(partido(1L, fechaHora, 4));
+
+        verify(colaTrabajosService).encolar(TipoTrabajo.RECORDATORIO_PARTIDO, "1;DIA_ANTES;" + fechaHora,
+                fechaHora.minusHours(24), "RECORDATORIO_PARTIDO:1:DIA_ANTES:" + fechaHora);
+        verify(colaTrabajosService).encolar(TipoTrabajo.RECORDATORIO_PARTIDO, "1;HORAS_ANTES;" + fechaHora,
+                fechaHora.minusHours(2), "RECORDATORIO_PARTIDO:1:HORAS_ANTES:" + fechaHora);
+        verifyNoInteractions(partidoRepository, recordatorioEnviadoRepository, alertaService);
+    }
+
+    @Test
+    void programar_WhenSecondReminderIsAlreadyDue_ShouldSkipTheDayBeforeOne() {
+        recordatorioPartidoService.programar(partido(1L, LocalDateTime.now().plusHours(1), 4));
+
+        verify(colaTrabajosService, times(1)).encolar(eq(TipoTrabajo.RECORDATORIO_PARTIDO),
+                startsWith("1;HORAS_ANTES;"), any(), anyString());
+        verifyNoMoreInteractions(colaTrabajosService);
+    }
+
+    @Test
+    void procesar_ShouldSendReminderAndMarkIt() {
+        Partido partido = partido(1L, LocalDateTime.now().plusHours(10), 4);
+        LocalDateTime fechaPartido = partido.getFechaHora().truncatedTo(ChronoUnit.SECONDS);
+        when(partidoRepository.findById(1L)).thenReturn(Optional.of(partido));
+
+        recordatorioPartidoService.procesar(trabajo("1;DIA_ANTES;" + fechaPartido));
+
+        ArgumentCaptor<RecordatorioEnviado> marca = ArgumentCaptor.forClass(RecordatorioEnviado.class);
+        verify(recordatorioEnviadoRepository).saveAndFlush(marca.capture());
+        assertEquals(TipoRecordatorio.DIA_ANTES, marca.getValue().getTipo());
+        assertEquals(fechaPartido, marca.getValue().getFechaPartido());
+        verify(alertaService, times(1)).crearAlertaPartidoProximo(partido, null);
+    }
+
+    @Test
+    void procesar_WhenAlreadyMarked_ShouldNotSendAgain() {
+        LocalDateTime fechaPartido = LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.SECONDS);
+        when(recordatorioEnviadoRepository.existsByPartidoIdAndTipoAndFechaPartido(1L, TipoRecordatorio.HORAS_ANTES, fechaPartido))
+                .thenReturn(true);
+
+        recordatorioPartidoService.procesar(trabajo("1;HORAS_ANTES;" + fechaPartido));
+
+        verify(recordatorioEnviadoRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(alertaService);
+    }
+
+    @Test
+    void procesar_WhenAnotherNodeSentItFirst_ShouldSkipSilently() {
+        Partido partido = partido(1L, LocalDateTime.now().plusHours(1), 4);
+        when(partidoRepository.findById(1L)).thenReturn(Optional.of(partido));
+        when(recordatorioEnviadoRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicado"));
+
+        recordatorioPartidoService.procesar(trabajo("1;HORAS_ANTES;" + partido.getFechaHora().truncatedTo(ChronoUnit.SECONDS)));
+
+        verifyNoInteractions(alertaService);
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void procesar_WhenPartidoWasRescheduled_ShouldDropTheReminder() {
+        Partido partido = partido(1L, LocalDateTime.now().plusDays(5), 4);
+        when(partidoRepository.findById(1L)).thenReturn(Optional.of(partido));
+
+        recordatorioPartidoService.procesar(trabajo("1;DIA_ANTES;" + LocalDateTime.now().plusHours(10).truncatedTo(ChronoUnit.SECONDS)));
+
+        verify(recordatorioEnviadoRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(alertaService);
+    }
+
+    @Test
+    void reconstruir_ShouldEnqueueOnlyFuturePartidos() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Object[]> filas = List.of(
+                new Object[]{1L, ahora.plusDays(2), 60},
+                new Object[]{2L, ahora.minusHours(1), 60});
+        when(partidoRepository.findHorariosPorEstados(anyCollection())).thenReturn(filas);
+
+        recordatorioPartidoService.reconstruir();
+
+        verify(colaTrabajosService, times(2)).encolar(eq(TipoTrabajo.RECORDATORIO_PARTIDO), startsWith("1;"), any(), anyString());
+        verifyNoMoreInteractions(colaTrabajosService);
+    }
+
+    @Test
+    void quitar_ShouldCancelPendingRemindersOfThePartido() {
+        recordatorioPartidoService.quitar(1L);
+
+        verify(colaTrabajosService).cancelarPendientes("RECORDATORIO_PARTIDO:1:");
+    }
+
+    private static Trabajo trabajo(String payload) {
+        Trabajo trabajo = new Trabajo();
+        trabajo.setTipo(TipoTrabajo.RECORDATORIO_PARTIDO);
+        trabajo.setPayload(payload);
+        return trabajo;
+    }
+
+    private static Partido partido(Long id, LocalDateTime fechaHora, int participantes) {
+        Partido partido = new Partido();
+        partido.setId(id);
+        partido.setTitulo("Partido " + id);
+        partido.setFechaHora(fechaHora);
+        partido.setEstado(EstadoPartido.DISPONIBLE);
+        List<Participante> lista = new ArrayList<>();
+        for (int i = 0; i < participantes; i++) {
+            lista.add(new Participante());
+        }
+        partido.setParticipantes(lista);
+        return partido;
+    }
+}
@@ -0,0 +1,189 @@
+package com.techlab.picadito.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techlab.picadito.dto.ReporteDTO;
+import com.techlab.picadito.dto.ReporteJobDTO;
+import com.techlab.picadito.exception.BusinessException;
+import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.exception.ValidationException;
+import com.techlab.picadito.model.ReporteJob;
+import com.techlab.picadito.model.TipoTrabajo;
+import com.techlab.picadito.model.Trabajo;
+import com.techlab.picadito.repository.ReporteJobRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class ReporteJobServiceTest {
+
+    @Mock
+    private ReporteJobRepository reporteJobRepository;
+
+    @Mock
+    private ReporteService reporteService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private ColaTrabajosService colaTrabajosService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private ReporteJobService reporteJobService;
+
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaFin;
+    private ReporteJob job;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reporteJobService, "meterRegistry",
+                new StaticListableBeanFactory(Map.of("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class));
+        fechaInicio = LocalDateTime.now().minusDays(60);
+        fechaFin = LocalDateTime.now().minusDays(30);
+
+        job = new ReporteJob();
+        job.setId(1L);
+        job.setTipo(ReporteJob.TipoReporte.VENTAS);
+        job.setFechaInicio(fechaInicio);
+        job.setFechaFin(fechaFin);
+        job.setEstado(ReporteJob.EstadoJob.PENDIENTE);
+        job.setProgreso(0);
+    }
+
+    @Test
+    void solicitar_WithNewPeriod_ShouldEnqueueAndCompleteJob() {
+        when(reporteJobRepository.findFirstByTipoAndFechaInicioAndFechaFinAndEstadoInOrderByIdDesc(
+                any(), any(), any(), anyCollection())).thenReturn(Optional.empty());
+        when(reporteJobRepository.save(any(ReporteJob.class))).thenAnswer(invocation -> {
+            ReporteJob guardado = invocation.getArgument(0);
+            guardado.setId(1L);
+            return guardado;
+        });
+
+        ReporteJobDTO result = reporteJobService.solicitar(ReporteJob.TipoReporte.VENTAS, fechaInicio, fechaFin);
+
+        assertEquals(1L, result.getId());
+        assertEquals(ReporteJob.EstadoJob.PENDIENTE, result.getEstado());
+        assertFalse(result.getDesdeCache());
+
+        verify(colaTrabajosService).encolar(TipoTrabajo.REPORTE, "1", null, null);
+
+        ReporteDTO reporte = new ReporteDTO();
+        reporte.setTipoReporte("VENTAS");
+        reporte.setDatos(new HashMap<>());
+        when(reporteJobRepository.findById(1L)).thenReturn(Optional.of(job));
+        when(reporteService.generarReporteVentas(fechaInicio, fechaFin)).thenReturn(reporte);
+
+        Trabajo trabajo = new Trabajo();
+        trabajo.setTipo(TipoTrabajo.REPORTE);
+        trabajo.setPayload("1");
+        reporteJobService.procesar(trabajo);
+
+        assertEquals(ReporteJob.EstadoJob.COMPLETADO, job.getEstado());
+        assertEquals(100, job.getProgreso());
+        assertNotNull(job.getResultado());
+        verify(reporteService, times(1)).generarReporteVentas(fechaInicio, fechaFin);
+    }
+
+    @Test
+    void solicitar_WithClosedPeriodAlreadyComputed_ShouldServeFromStorage() {
+        job.setEstado(ReporteJob.EstadoJob.COMPLETADO);
+        job.setProgreso(100);
+        when(reporteJobRepository.findFirstByTipoAndFechaInicioAndFechaFinAndEstadoInOrderByIdDesc(
+                any(), any(), any(), anyCollection())).thenReturn(Optional.of(job));
+
+        ReporteJobDTO result = reporteJobService.solicitar(ReporteJob.TipoReporte.VENTAS, fechaInicio, fechaFin);
+
+        assertEquals(ReporteJob.EstadoJob.COMPLETADO, result.getEstado());
+        assertTrue(result.getDesdeCache());
+        verifyNoInteractions(colaTrabajosService);
+        verify(reporteJobRepository, never()).save(any());
+    }
+
+    @Test
+    void solicitar_SameClosedPeriodTwice_ShouldCountCacheMissThenHit() {
+        job.setEstado(ReporteJob.EstadoJob.COMPLETADO);
+        when(reporteJobRepository.findFirstByTipoAndFechaInicioAndFechaFinAndEstadoInOrderByIdDesc(
+                any(), any(), any(), anyCollection())).thenReturn(Optional.of(job));
+        when(reporteJobRepository.findById(1L)).thenReturn(Optional.of(job));
+
+        reporteJobService.solicitar(ReporteJob.TipoReporte.VENTAS, fechaInicio, fechaFin);
+        reporteJobService.solicitar(ReporteJob.TipoReporte.VENTAS, fechaInicio, fechaFin);
+
+        assertEquals(1.0, meterRegistry.get("picadito.cache.consultas").tag("resultado", "fallo").counter().count());
+        assertEquals(1.0, meterRegistry.get("picadito.cache.consultas").tag("resultado", "acierto").counter().count());
+    }
+
+    @Test
+    void solicitar_WithInvalidPeriod_ShouldThrowException() {
+        assertThrows(ValidationException.class, () ->
+                reporteJobService.solicitar(ReporteJob.TipoReporte.VENTAS, fechaFin, fechaInicio));
+    }
+
+    @Test
+    void solicitar_WhenQueueIsFull_ShouldRejectWithoutCreatingAJob() {
+        when(reporteJobRepository.findFirstByTipoAndFechaInicioAndFechaFinAndEstadoInOrderByIdDesc(
+                any(), any(), any(), anyCollection())).thenReturn(Optional.empty());
+        when(colaTrabajosService.contarSinTerminar(TipoTrabajo.REPORTE)).thenReturn(20L);
+
+        assertThrows(BusinessException.class, () ->
+                reporteJobService.solicitar(ReporteJob.TipoReporte.PARTIDOS, fechaInicio, fechaFin));
+
+        verify(reporteJobRepository, never()).save(any());
+        verify(colaTrabajosService, never()).encolar(any(), any(), any(), any());
+    }
+
+    @Test
+    void procesar_WhenJobWasLeftInProgress_ShouldComputeItAgain() {
+        job.setEstado(ReporteJob.EstadoJob.EN_PROCESO);
+        when(reporteJobRepository.findById(1L)).thenReturn(Optional.of(job));
+        when(reporteJobRepository.save(any(ReporteJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ReporteDTO reporte = new ReporteDTO();
+        reporte.setTipoReporte("VENTAS");
+        when(reporteService.generarReporteVentas(fechaInicio, fechaFin)).thenReturn(reporte);
+        Trabajo trabajo = new Trabajo();
+        trabajo.setPayload("1");
+
+        reporteJobService.procesar(trabajo);
+
+        assertEquals(ReporteJob.EstadoJob.COMPLETADO, job.getEstado());
+    }
+
+    @Test
+    void obtenerResultado_WhenJobStillRunning_ShouldReturnEmpty() {
+        job.setEstado(ReporteJob.EstadoJob.EN_PROCESO);
+        when(reporteJobRepository.findById(1L)).thenReturn(Optional.of(job));
+
+        assertTrue(reporteJobService.obtenerResultado(1L).isEmpty());
+    }
+
+    @Test
+    void obtenerJob_WithInvalidId_ShouldThrowException() {
+        when(reporteJobRepository.findById(999L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> reporteJobService.obtenerJob(999L));
+    }
+}
@@ -12,6 +12,7 @@ import com.techlab.picadito.util.MapperUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -24,6 +25,9 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,7 +53,10 @@ class ReservaServiceTest {
     private MapperUtil mapperUtil;
 
     @Mock
-    private AlertaService alertaService;
+    private EventosDominioService eventosDominioService;
+
+    @Mock
+    private LibroGastosService libroGastosService;
 
     @InjectMocks
     private ReservaService reservaService;
@@ -171,6 +178,31 @@ class ReservaServiceTest {
         assertNotNull(result);
         verify(reservaRepository, atLeastOnce()).save(any(Reserva.class));
         verify(partidosSeleccionadosService, times(1)).vaciarPartidosSeleccionados(1L);
+        verify(libroGastosService).registrarCambioEstado(reserva, null);
+        verify(eventosDominioService, atLeastOnce()).publicar(eq(TipoEventoDominio.RESERVA_CONFIRMADA),
+                any(), eq(1L), any(), any());
+    }
+
+    @Test
+    void crearDesdePartidosSeleccionados_ShouldSnapshotPricesAndTotal() {
+        when(partidosSeleccionadosService.obtenerPartidosSeleccionadosPorUsuario(1L))
+                .thenReturn(partidosSeleccionadosDTO);
+        when(usuarioService.obtenerUsuarioEntity(1L)).thenReturn(usuario);
+        when(partidoService.obtenerPartidoEntity(1L)).thenReturn(partido);
+        when(reservaRepository.save(any(Reserva.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mapperUtil.toReservaDTO(any(Reserva.class))).thenReturn(reservaDTO);
+
+        reservaService.crearDesdePartidosSeleccionados(1L);
+
+        ArgumentCaptor<Reserva> captor = ArgumentCaptor.forClass(Reserva.class);
+        verify(libroGastosService).registrarCambioEstado(captor.capture(), isNull());
+        Reserva creada = captor.getValue();
+        assertEquals(100.0, creada.getLineasReserva().get(0).getPrecioUnitario());
+        assertEquals(200.0, creada.getTotal());
+
+        // Un cambio de precio posterior no altera la reserva
+        partido.setPrecio(150.0);
+        assertEquals(200.0, creada.calcularTotal());
     }
 
     @Test
@@ -216,6 +248,7 @@ class ReservaServiceTest {
 
         verify(reservaRepository, times(1)).save(any(Reserva.class));
         assertEquals(Reserva.EstadoReserva.CANCELADO, reserva.getEstado());
+        verify(libroGastosService).registrarCambioEstado(reserva, Reserva.EstadoReserva.PENDIENTE);
     }
 
     @Test
@@ -229,15 +262,40 @@ class ReservaServiceTest {
     }
 
     @Test
-    void calcularTotalGastadoPorUsuario_ShouldReturnTotal() {
+    void cancelarPorPartido_ShouldCancelActiveReservasAndRefundThem() {
         reserva.setEstado(Reserva.EstadoReserva.CONFIRMADO);
-        List<Reserva> reservas = Arrays.asList(reserva);
-        when(reservaRepository.findByUsuarioIdOrderByFechaCreacionDesc(1L)).thenReturn(reservas);
+        when(reservaRepository.findConPartido(eq(1L), anyCollection())).thenReturn(List.of(reserva));
+
+        assertEquals(1, reservaService.cancelarPorPartido(1L));
+
+        assertEquals(Reserva.EstadoReserva.CANCELADO, reserva.getEstado());
+        verify(reservaRepository).save(reserva);
+        verify(libroGastosService).registrarCambioEstado(reserva, Reserva.EstadoReserva.CONFIRMADO);
+    }
+
+    @Test
+    void actualizarEstadoAutomatico_WithCancelledPartido_ShouldCancelAndRefundTheReserva() {
+        reserva.setEstado(Reserva.EstadoReserva.CONFIRMADO);
+        partido.setEstado(EstadoPartido.CANCELADO);
+        partido.setFechaHora(LocalDateTime.now().minusHours(1));
+
+        assertTrue(reservaService.actualizarEstadoAutomatico(reserva));
+
+        assertEquals(Reserva.EstadoReserva.CANCELADO, reserva.getEstado());
+        verify(reservaRepository).save(reserva);
+        verify(libroGastosService).registrarCambioEstado(reserva, Reserva.EstadoReserva.CONFIRMADO);
+        // Terminal: el próximo procesamiento ya no la cambia
+        assertFalse(reservaService.actualizarEstadoAutomatico(reserva));
+    }
+
+    @Test
+    void calcularTotalGastadoPorUsuario_ShouldReturnTotal() {
+        when(libroGastosService.obtenerTotalGastado(1L)).thenReturn(200.0);
 
         Double result = reservaService.calcularTotalGastadoPorUsuario(1L);
 
-        assertNotNull(result);
-        verify(reservaRepository, times(1)).findByUsuarioIdOrderByFechaCreacionDesc(1L);
+        assertEquals(200.0, result);
+        verify(reservaRepository, never()).findByUsuarioIdOrderByFechaCreacionDesc(any());
     }
 }
 
@@ -0,0 +1,115 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.MetricasRetencionAlertasDTO;
+import com.techlab.picadito.repository.AlertaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class RetencionAlertasServiceTest {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2025, 1, 10, 12, 0);
+
+    @Mock
+    private AlertaRepository alertaRepository;
+
+    @Mock
+    private LecturaAlertasService lecturaAlertasService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private RetencionAlertasService retencionAlertasService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(retencionAlertasService, "tamanioLote", 2);
+    }
+
+    @Test
+    void ejecutar_ShouldDeleteInChunksAdvancingTheCursor() {
+        when(alertaRepository.findIdsAntiguas(any(LocalDateTime.class), any(LocalDateTime.class), eq(0L), any(Pageable.class)))
+                .thenReturn(filas(1L, 2L));
+        when(alertaRepository.findIdsAntiguas(any(LocalDateTime.class), eq(FECHA), eq(2L), any(Pageable.class)))
+                .thenReturn(filas(5L));
+        when(alertaRepository.eliminarPorIds(anyCollection())).thenAnswer(inv -> inv.<List<Long>>getArgument(0).size());
+
+        MetricasRetencionAlertasDTO metricas = retencionAlertasService.ejecutar(false);
+
+        verify(lecturaAlertasService).alEliminarLote(List.of(1L, 2L));
+        verify(lecturaAlertasService).alEliminarLote(List.of(5L));
+        verify(alertaRepository).eliminarPorIds(List.of(1L, 2L));
+        verify(alertaRepository).eliminarPorIds(List.of(5L));
+        assertEquals(3L, metricas.getAlertasUltima());
+        assertEquals(2, metricas.getLotesUltima());
+        assertEquals(3L, metricas.getTotalEliminadas());
+        assertFalse(metricas.getSimulacionUltima());
+        assertFalse(metricas.isEnEjecucion());
+    }
+
+    @Test
+    void ejecutar_InDryRun_ShouldOnlyCount() {
+        when(alertaRepository.findIdsAntiguas(any(LocalDateTime.class), any(LocalDateTime.class), eq(0L), any(Pageable.class)))
+                .thenReturn(filas(1L, 2L));
+        when(alertaRepository.findIdsAntiguas(any(LocalDateTime.class), eq(FECHA), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        MetricasRetencionAlertasDTO metricas = retencionAlertasService.ejecutar(true);
+
+        assertEquals(2L, metricas.getAlertasUltima());
+        assertEquals(0L, metricas.getTotalEliminadas());
+        assertTrue(metricas.getSimulacionUltima());
+        verify(alertaRepository, never()).eliminarPorIds(anyCollection());
+        verifyNoInteractions(lecturaAlertasService);
+    }
+
+    @Test
+    void ejecutar_WhenChunkFails_ShouldContinueWithNextOne() {
+        when(alertaRepository.findIdsAntiguas(any(LocalDateTime.class), any(LocalDateTime.class), eq(0L), any(Pageable.class)))
+                .thenReturn(filas(1L, 2L));
+        when(alertaRepository.findIdsAntiguas(any(LocalDateTime.class), eq(FECHA), eq(2L), any(Pageable.class)))
+                .thenReturn(filas(3L));
+        doThrow(new IllegalStateException("bloqueo")).when(lecturaAlertasService).alEliminarLote(List.of(1L, 2L));
+        when(alertaRepository.eliminarPorIds(List.of(3L))).thenReturn(1);
+
+        MetricasRetencionAlertasDTO metricas = retencionAlertasService.ejecutar(false);
+
+        assertEquals(1L, metricas.getAlertasUltima());
+        assertEquals(1, metricas.getLotesFallidosUltima());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void ejecutar_WithNothingExpired_ShouldNotOpenWriteTransactions() {
+        when(alertaRepository.findIdsAntiguas(any(LocalDateTime.class), any(LocalDateTime.class), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        MetricasRetencionAlertasDTO metricas = retencionAlertasService.ejecutar(false);
+
+        assertEquals(0L, metricas.getAlertasUltima());
+        assertEquals(0, metricas.getLotesUltima());
+        verify(alertaRepository, never()).eliminarPorIds(anyCollection());
+    }
+
+    // Filas [id, fechaCreacion] con la misma fecha: el cursor avanza por id dentro de ella
+    private static List<Object[]> filas(Long... ids) {
+        return Arrays.stream(ids).map(id -> new Object[]{id, FECHA}).toList();
+    }
+}
@@ -0,0 +1,85 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.AlertaResponseDTO;
+import com.techlab.picadito.model.EventoDominio;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.TipoEventoDominio;
+import com.techlab.picadito.repository.PartidoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class TiempoRealEventosSuscriptorTest {
+
+    @Mock
+    private NotificacionesTiempoRealService notificacionesTiempoReal;
+
+    @Mock
+    private AlertaService alertaService;
+
+    @Mock
+    private PartidoRepository partidoRepository;
+
+    @InjectMocks
+    private TiempoRealEventosSuscriptor suscriptor;
+
+    @Test
+    void procesar_AlertaCreada_ShouldPublishTheStoredAlert() {
+        AlertaResponseDTO alerta = new AlertaResponseDTO();
+        alerta.setId(7L);
+        when(alertaService.obtenerPorIds(List.of(7L))).thenReturn(List.of(alerta));
+
+        suscriptor.procesar(List.of(evento(1L, TipoEventoDominio.ALERTA_CREADA, null, 7L)));
+
+        verify(notificacionesTiempoReal).publicarAlerta(alerta);
+        verifyNoInteractions(partidoRepository);
+    }
+
+    @Test
+    void procesar_ChangesOfAWatchedPartido_ShouldPublishItsSeatsOnce() {
+        Partido partido = new Partido();
+        partido.setId(10L);
+        when(notificacionesTiempoReal.tieneCanalPartido(10L)).thenReturn(true);
+        when(partidoRepository.findById(10L)).thenReturn(Optional.of(partido));
+
+        suscriptor.procesar(List.of(
+                evento(1L, TipoEventoDominio.PARTICIPANTE_INSCRITO, 10L, 3L),
+                evento(2L, TipoEventoDominio.PARTICIPANTE_DESINSCRITO, 10L, 4L)));
+
+        verify(notificacionesTiempoReal, times(1)).publicarCupos(partido);
+    }
+
+    @Test
+    void procesar_PartidoWithoutListeners_ShouldNotLoadIt() {
+        when(notificacionesTiempoReal.tieneCanalPartido(10L)).thenReturn(false);
+
+        suscriptor.procesar(List.of(evento(1L, TipoEventoDominio.RESERVA_CONFIRMADA, 10L, 5L)));
+
+        verifyNoInteractions(partidoRepository);
+        verify(notificacionesTiempoReal, never()).publicarCupos(any());
+    }
+
+    @Test
+    void procesar_DeletedPartido_ShouldCloseItsChannel() {
+        when(notificacionesTiempoReal.tieneCanalPartido(10L)).thenReturn(true);
+        when(partidoRepository.findById(10L)).thenReturn(Optional.empty());
+
+        suscriptor.procesar(List.of(evento(1L, TipoEventoDominio.PARTIDO_ELIMINADO, 10L, null)));
+
+        verify(notificacionesTiempoReal).cerrarPartido(10L);
+    }
+
+    private static EventoDominio evento(Long id, TipoEventoDominio tipo, Long partidoId, Long referenciaId) {
+        return new EventoDominio(id, tipo, partidoId, null, referenciaId, null, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,119 @@
+package com.techlab.picadito.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techlab.picadito.dto.EventoWebhookDTO;
+import com.techlab.picadito.dto.SuscripcionWebhookDTO;
+import com.techlab.picadito.dto.SuscripcionWebhookResponseDTO;
+import com.techlab.picadito.exception.ResourceNotFoundException;
+import com.techlab.picadito.exception.ValidationException;
+import com.techlab.picadito.model.EntregaWebhookFallida;
+import com.techlab.picadito.model.SuscripcionWebhook;
+import com.techlab.picadito.repository.EntregaWebhookFallidaRepository;
+import com.techlab.picadito.repository.SedeRepository;
+import com.techlab.picadito.repository.SuscripcionWebhookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class WebhookServiceTest {
+
+    @Mock
+    private SuscripcionWebhookRepository suscripcionWebhookRepository;
+
+    @Mock
+    private EntregaWebhookFallidaRepository entregaWebhookFallidaRepository;
+
+    @Mock
+    private SedeRepository sedeRepository;
+
+    @Mock
+    private EntregaWebhooksService entregaWebhooksService;
+
+    @InjectMocks
+    private WebhookService webhookService;
+
+    private SuscripcionWebhook suscripcion;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(webhookService, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        suscripcion = new SuscripcionWebhook(1L, "https://ejemplo.com/hook", "secreto", 2L, null, true, LocalDateTime.now());
+    }
+
+    @Test
+    void crear_WithSede_ShouldSaveAndHideTheSecret() {
+        SuscripcionWebhookDTO dto = new SuscripcionWebhookDTO();
+        dto.setUrl("https://ejemplo.com/hook");
+        dto.setSecreto("secreto");
+        dto.setSedeId(2L);
+        when(sedeRepository.existsById(2L)).thenReturn(true);
+        when(suscripcionWebhookRepository.save(any(SuscripcionWebhook.class))).thenReturn(suscripcion);
+
+        SuscripcionWebhookResponseDTO resultado = webhookService.crear(dto);
+
+        assertEquals(1L, resultado.getId());
+        assertTrue(resultado.isFirmada());
+        assertEquals(2L, resultado.getSedeId());
+    }
+
+    @Test
+    void crear_WithoutSedeNorCreador_ShouldThrowValidationException() {
+        SuscripcionWebhookDTO dto = new SuscripcionWebhookDTO();
+        dto.setUrl("https://ejemplo.com/hook");
+        dto.setCreadorNombre("  ");
+
+        assertThrows(ValidationException.class, () -> webhookService.crear(dto));
+        verify(suscripcionWebhookRepository, never()).save(any());
+    }
+
+    @Test
+    void crear_WithUnknownSede_ShouldThrowResourceNotFoundException() {
+        SuscripcionWebhookDTO dto = new SuscripcionWebhookDTO();
+        dto.setUrl("https://ejemplo.com/hook");
+        dto.setSedeId(99L);
+        when(sedeRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> webhookService.crear(dto));
+    }
+
+    @Test
+    void eliminar_ShouldDropPendingDeliveries() {
+        when(suscripcionWebhookRepository.existsById(1L)).thenReturn(true);
+
+        webhookService.eliminar(1L);
+
+        verify(suscripcionWebhookRepository).deleteById(1L);
+        verify(entregaWebhooksService).descartar(1L);
+    }
+
+    @Test
+    void reintentarFallida_ShouldRequeueTheEventsAndDeleteTheDeadLetter() {
+        EntregaWebhookFallida fallida = new EntregaWebhookFallida(5L, 1L, suscripcion.getUrl(),
+                "[{\"eventoId\":7,\"partidoId\":10}]", 1, 8, "HTTP 500", LocalDateTime.now());
+        when(entregaWebhookFallidaRepository.findById(5L)).thenReturn(Optional.of(fallida));
+        when(suscripcionWebhookRepository.findById(1L)).thenReturn(Optional.of(suscripcion));
+
+        webhookService.reintentarFallida(5L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EventoWebhookDTO>> eventos = ArgumentCaptor.forClass(List.class);
+        verify(entregaWebhooksService).encolar(eq(List.of(suscripcion)), eventos.capture());
+        assertEquals(7L, eventos.getValue().get(0).getEventoId());
+        verify(entregaWebhookFallidaRepository).delete(fallida);
+    }
+}
@@ -0,0 +1,76 @@
+package com.techlab.picadito.service;
+
+import com.techlab.picadito.dto.EventoWebhookDTO;
+import com.techlab.picadito.model.EventoDominio;
+import com.techlab.picadito.model.Partido;
+import com.techlab.picadito.model.Sede;
+import com.techlab.picadito.model.SuscripcionWebhook;
+import com.techlab.picadito.model.TipoEventoDominio;
+import com.techlab.picadito.repository.PartidoRepository;
+import com.techlab.picadito.repository.SuscripcionWebhookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class WebhooksEventosSuscriptorTest {
+
+    @Mock
+    private PartidoRepository partidoRepository;
+
+    @Mock
+    private SuscripcionWebhookRepository suscripcionWebhookRepository;
+
+    @Mock
+    private EntregaWebhooksService entregaWebhooksService;
+
+    @InjectMocks
+    private WebhooksEventosSuscriptor suscriptor;
+
+    private SuscripcionWebhook suscripcion;
+
+    @BeforeEach
+    void setUp() {
+        Sede sede = new Sede();
+        sede.setId(2L);
+        Partido partido = new Partido();
+        partido.setId(10L);
+        partido.setSede(sede);
+        partido.setCreadorNombre("Juan");
+        partido.setMaxJugadores(10);
+        when(partidoRepository.findById(10L)).thenReturn(Optional.of(partido));
+        suscripcion = new SuscripcionWebhook(1L, "https://ejemplo.com/hook", null, 2L, null, true, LocalDateTime.now());
+        when(suscripcionWebhookRepository.findActivasPara(2L, "Juan")).thenReturn(List.of(suscripcion));
+    }
+
+    @Test
+    void procesar_ShouldEnqueueTheEventsOfAPartidoForItsSubscriptions() {
+        suscriptor.procesar(List.of(
+                evento(1L, TipoEventoDominio.PARTICIPANTE_INSCRITO),
+                evento(2L, TipoEventoDominio.RESERVA_CONFIRMADA)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EventoWebhookDTO>> eventos = ArgumentCaptor.forClass(List.class);
+        verify(entregaWebhooksService).encolar(eq(List.of(suscripcion)), eventos.capture());
+        assertEquals(2, eventos.getValue().size());
+        assertEquals(10, eventos.getValue().get(0).getCuposDisponibles());
+        assertEquals(2L, eventos.getValue().get(1).getSedeId());
+    }
+
+    private static EventoDominio evento(Long id, TipoEventoDominio tipo) {
+        return new EventoDominio(id, tipo, 10L, 3L, null, "Fútbol 5", LocalDateTime.now());
+    }
+}
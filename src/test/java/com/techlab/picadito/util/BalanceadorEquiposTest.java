@@ -0,0 +1,119 @@
+package com.techlab.picadito.util;
+
+import com.techlab.picadito.model.Nivel;
+import com.techlab.picadito.model.Posicion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceadorEquiposTest {
+
+    private final BalanceadorEquipos balanceador = new BalanceadorEquipos();
+
+    // Presupuesto holgado para que la calidad no dependa de que el JIT ya haya compilado el código
+    private final BalanceadorEquipos balanceadorSinApuro = new BalanceadorEquipos(200_000_000L);
+
+    @Test
+    void puntuar_ShouldBlendNivelWithRating() {
+        assertEquals(4.0, BalanceadorEquipos.puntuar(Nivel.EXPERTO, null));
+        assertEquals(2.0, BalanceadorEquipos.puntuar(null, null));
+        assertEquals(2.7, BalanceadorEquipos.puntuar(Nivel.INTERMEDIO, 1625.0), 1e-9);
+        assertTrue(BalanceadorEquipos.puntuar(Nivel.PRINCIPIANTE, 2000.0) > BalanceadorEquipos.puntuar(Nivel.PRINCIPIANTE, 1200.0));
+    }
+
+    @Test
+    void balancear_ShouldFindPerfectSplitWhereAlternatingFails() {
+        // Alternar de mayor a menor arma 8+6+4 contra 7+5+2 (18 a 14); el óptimo es 16 a 16
+        List<BalanceadorEquipos.Jugador> jugadores = new ArrayList<>();
+        for (double puntaje : new double[]{8, 7, 6, 5, 4, 2}) {
+            jugadores.add(new BalanceadorEquipos.Jugador(null, puntaje));
+        }
+
+        BalanceadorEquipos.Resultado resultado = balanceadorSinApuro.balancear(jugadores, 2);
+
+        assertEquals(0.0, resultado.getDiferencia(), 1e-9);
+        assertEquals(1.0, resultado.getIndiceBalance(), 1e-9);
+        assertEquals(3, contar(resultado.getAsignacion(), 0));
+    }
+
+    @Test
+    void balancear_WithSeveralTeams_ShouldKeepSizesAndPositionsEven() {
+        List<BalanceadorEquipos.Jugador> jugadores = generar(22, new Random(7));
+
+        BalanceadorEquipos.Resultado resultado = balanceadorSinApuro.balancear(jugadores, 4);
+
+        int[] asignacion = resultado.getAsignacion();
+        int[] tamanios = new int[4];
+        for (int equipo : asignacion) {
+            tamanios[equipo]++;
+        }
+        assertTrue(Arrays.stream(tamanios).max().getAsInt() - Arrays.stream(tamanios).min().getAsInt() <= 1);
+
+        for (Posicion posicion : Posicion.values()) {
+            int[] porEquipo = new int[4];
+            for (int i = 0; i < jugadores.size(); i++) {
+                if (posicion == posicionDe(i)) {
+                    porEquipo[asignacion[i]]++;
+                }
+            }
+            assertTrue(Arrays.stream(porEquipo).max().getAsInt() - Arrays.stream(porEquipo).min().getAsInt() <= 1,
+                    "Posición desbalanceada: " + posicion);
+        }
+        assertTrue(resultado.getDiferencia() <= 1.0, "Diferencia: " + resultado.getDiferencia());
+        assertEquals(4, resultado.getPuntajes().length);
+    }
+
+    @Test
+    void balancear_WithLessPlayersThanTeams_ShouldThrowException() {
+        List<BalanceadorEquipos.Jugador> jugadores = List.of(new BalanceadorEquipos.Jugador(Posicion.PORTERO, 2));
+
+        assertThrows(IllegalArgumentException.class, () -> balanceador.balancear(jugadores, 2));
+    }
+
+    @Test
+    void balancear_With50Players_ShouldRunUnder5ms() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            balanceador.balancear(generar(50, random), 2 + i % 4);
+        }
+
+        int repeticiones = 101;
+        long[] tiempos = new long[repeticiones];
+        for (int i = 0; i < repeticiones; i++) {
+            List<BalanceadorEquipos.Jugador> jugadores = generar(50, random);
+            long inicio = System.nanoTime();
+            balanceador.balancear(jugadores, 2 + i % 4);
+            tiempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tiempos);
+
+        long medianaMicros = tiempos[repeticiones / 2] / 1_000;
+        assertTrue(medianaMicros < 5_000, "Mediana: " + medianaMicros + " µs");
+    }
+
+    private static List<BalanceadorEquipos.Jugador> generar(int cantidad, Random random) {
+        List<BalanceadorEquipos.Jugador> jugadores = new ArrayList<>();
+        Nivel[] niveles = Nivel.values();
+        for (int i = 0; i < cantidad; i++) {
+            Nivel nivel = niveles[random.nextInt(niveles.length)];
+            Double rating = random.nextBoolean() ? 1200.0 + random.nextInt(700) : null;
+            jugadores.add(new BalanceadorEquipos.Jugador(posicionDe(i), BalanceadorEquipos.puntuar(nivel, rating)));
+        }
+        return jugadores;
+    }
+
+    // Uno de cada cinco jugadores no indica posición
+    private static Posicion posicionDe(int indice) {
+        int valor = indice % 5;
+        return valor < Posicion.values().length ? Posicion.values()[valor] : null;
+    }
+
+    private static int contar(int[] asignacion, int equipo) {
+        return (int) Arrays.stream(asignacion).filter(e -> e == equipo).count();
+    }
+}